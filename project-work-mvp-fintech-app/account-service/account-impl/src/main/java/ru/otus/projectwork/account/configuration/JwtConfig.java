@@ -0,0 +1,49 @@
+package ru.otus.projectwork.account.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+import ru.otus.projectwork.common.jwt.JwksKeyCache;
+
+import java.time.Duration;
+
+/**
+ * Настройки локальной проверки JWT по открытым ключам user-service.
+ *
+ * <p>JWKS загружается при первом токене и кэшируется в памяти, дальнейшие запросы проверяются без обращения к
+ * user-service. Новый {@code kid} после ротации ключа у издателя приводит к перечитыванию JWKS, не чаще
+ * {@code min-refresh-interval}.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "jwt")
+@Slf4j
+public class JwtConfig {
+
+    /**
+     * Адрес JWK Set издателя токенов.
+     */
+    private String jwksUri = "http://localhost:8081/public/.well-known/jwks.json";
+
+    /**
+     * Минимальный интервал между перечитываниями JWKS.
+     */
+    private Duration minRefreshInterval = Duration.ofMinutes(1);
+
+    @Bean
+    public JwksKeyCache jwksKeyCache(RestClient.Builder restClientBuilder) {
+        RestClient restClient = restClientBuilder.build();
+        log.info("JWT verification uses JWKS {}", jwksUri);
+        return new JwksKeyCache(() -> restClient.get()
+                .uri(jwksUri)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .body(String.class), minRefreshInterval);
+    }
+}
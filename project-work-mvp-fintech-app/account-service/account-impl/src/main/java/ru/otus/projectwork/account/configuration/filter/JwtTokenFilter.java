@@ -0,0 +1,98 @@
+package ru.otus.projectwork.account.configuration.filter;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.otus.projectwork.account.util.ExceptionMessage;
+import ru.otus.projectwork.common.http.CookieHeaderScanner;
+import ru.otus.projectwork.common.jwt.JwksKeyCache;
+
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.UUID;
+
+/**
+ * Проверяет JWT на защищенных эндпоинтах локально, открытым ключом из {@link JwksKeyCache}.
+ *
+ * <p>clientId берется из проверенного токена и передается контроллерам атрибутом запроса {@link #CLIENT_ID_ATTR},
+ * поэтому подделать его заголовком запроса нельзя.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtTokenFilter extends OncePerRequestFilter {
+
+    /**
+     * Атрибут запроса, в котором хранится clientId из проверенного токена. Константа, чтобы ее можно было
+     * указать в {@code @RequestAttribute}.
+     */
+    public static final String CLIENT_ID_ATTR = "ru.otus.projectwork.account.clientId";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final String ACCESS_TOKEN_COOKIE = "accessToken";
+
+    private final JwksKeyCache jwksKeyCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String token = extractToken(request);
+        if (token == null) {
+            sendUnauthorizedResponse(response);
+            return;
+        }
+
+        UUID clientId;
+        try {
+            Claims claims = jwksKeyCache.parser().parseSignedClaims(token).getPayload();
+            clientId = UUID.fromString(String.valueOf(claims.get("clientId")));
+        } catch (JwtException | IllegalArgumentException e) {
+            sendUnauthorizedResponse(response);
+            return;
+        }
+
+        request.setAttribute(CLIENT_ID_ATTR, clientId);
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Извлекает JWT токен из заголовка Authorization или из cookie accessToken.
+     *
+     * @param request HTTP запрос
+     * @return JWT токен или null если токен не найден
+     */
+    private static String extractToken(HttpServletRequest request) {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            return authHeader.substring(BEARER_PREFIX.length());
+        }
+        Enumeration<String> cookieHeaders = request.getHeaders(HttpHeaders.COOKIE);
+        while (cookieHeaders != null && cookieHeaders.hasMoreElements()) {
+            String token = CookieHeaderScanner.findValue(cookieHeaders.nextElement(), ACCESS_TOKEN_COOKIE);
+            if (token != null) {
+                return token;
+            }
+        }
+        return null;
+    }
+
+    private static void sendUnauthorizedResponse(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"errorMessage\": \"" + ExceptionMessage.UNAUTHORIZED_USER.getDescription() + "\"}");
+    }
+}
@@ -1,6 +1,7 @@
 package ru.otus.projectwork.account.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,10 +14,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import ru.otus.projectwork.account.configuration.filter.JwtTokenFilter;
 import ru.otus.projectwork.account.dto.request.AccountCreateRequestDto;
 import ru.otus.projectwork.account.dto.response.AccountCreateResponseDto;
 import ru.otus.projectwork.account.dto.response.AccountInformationResponseDto;
@@ -42,7 +45,7 @@ public class AccountController {
      * Создание нового счета.
      *
      * @param request  информация о создаваемом счете.
-     * @param clientId уникальный идентификатор клиента.
+     * @param clientId уникальный идентификатор клиента из проверенного токена.
      * @return информация о созданном счете.
      */
     @Operation(summary = "Создание счета")
@@ -57,14 +60,15 @@ public class AccountController {
     @PostMapping("/auth/accounts")
     @ResponseStatus(HttpStatus.OK)
     public AccountCreateResponseDto createAccount(
-            @RequestBody @Valid AccountCreateRequestDto request, @RequestHeader UUID clientId) {
+            @RequestBody @Valid AccountCreateRequestDto request,
+            @Parameter(hidden = true) @RequestAttribute(JwtTokenFilter.CLIENT_ID_ATTR) UUID clientId) {
         return accountService.createAccount(request, clientId);
     }
 
     /**
      * Возвращает ответ с отображением списка счетов пользователя
      *
-     * @param clientId уникальный идентификатор клиента
+     * @param clientId уникальный идентификатор клиента из проверенного токена
      * @return список транзакций
      */
     @GetMapping("/auth/accounts")
@@ -78,7 +82,8 @@ public class AccountController {
                     content = {@Content(schema = @Schema(implementation = ErrorResponseDto.class))}),
             @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера",
                     content = {@Content(schema = @Schema(implementation = ErrorResponseDto.class))})})
-    public List<ClientAccountsProjection> getListOfAccounts(@RequestHeader UUID clientId) {
+    public List<ClientAccountsProjection> getListOfAccounts(
+            @Parameter(hidden = true) @RequestAttribute(JwtTokenFilter.CLIENT_ID_ATTR) UUID clientId) {
         return accountService.getListOfAccounts(clientId);
     }
 
@@ -0,0 +1,102 @@
+package ru.otus.projectwork.account.configuration.filter;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import ru.otus.projectwork.account.configuration.JwtConfig;
+import ru.otus.projectwork.common.jwt.PemKeys;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Проверяет токены, подписанные тестовым ключом Ed25519 из {@code jwt/test-ed1.pem}, по JWKS в формате
+ * {@code /public/.well-known/jwks.json} user-service из {@code jwt/jwks.json}.
+ */
+@DisplayName("Тестирование JwtTokenFilter")
+class JwtTokenFilterTest {
+
+    private static final String KID = "test-ed1";
+
+    private final JwtConfig jwtConfig = new JwtConfig();
+
+    private MockRestServiceServer userService;
+
+    private JwtTokenFilter filter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        RestClient.Builder restClientBuilder = RestClient.builder();
+        userService = MockRestServiceServer.bindTo(restClientBuilder).build();
+        userService.expect(requestTo(jwtConfig.getJwksUri()))
+                .andRespond(withSuccess(read("jwt/jwks.json"), MediaType.APPLICATION_JSON));
+        filter = new JwtTokenFilter(jwtConfig.jwksKeyCache(restClientBuilder));
+    }
+
+    @Test
+    @DisplayName("Принимает токен, подписанный ключом из JWKS, и передает clientId атрибутом запроса")
+    void doFilter_AcceptsTokenSignedWithPublishedKey() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        MockHttpServletRequest request = request(token(KID, clientId));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(clientId, request.getAttribute(JwtTokenFilter.CLIENT_ID_ATTR));
+        userService.verify();
+    }
+
+    @Test
+    @DisplayName("Отклоняет токен с kid, которого нет в JWKS")
+    void doFilter_RejectsUnknownKid() throws Exception {
+        MockHttpServletRequest request = request(token("unknown", UUID.randomUUID()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(401, response.getStatus());
+        assertNull(request.getAttribute(JwtTokenFilter.CLIENT_ID_ATTR));
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/accounts");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        return request;
+    }
+
+    private static String token(String kid, UUID clientId) throws IOException {
+        PrivateKey privateKey = PemKeys.readPrivateKey(read("jwt/test-ed1.pem"));
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .header().keyId(kid).and()
+                .claim("clientId", clientId.toString())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(30, ChronoUnit.MINUTES)))
+                .signWith(privateKey)
+                .compact();
+    }
+
+    private static String read(String path) throws IOException {
+        return new ClassPathResource(path).getContentAsString(StandardCharsets.US_ASCII);
+    }
+}
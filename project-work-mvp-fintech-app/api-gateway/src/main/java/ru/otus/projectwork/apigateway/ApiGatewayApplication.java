@@ -2,8 +2,11 @@ package ru.otus.projectwork.apigateway;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import ru.otus.projectwork.common.audit.AuditConfig;
 
 @SpringBootApplication
+@Import(AuditConfig.class)
 public class ApiGatewayApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,60 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import ru.otus.projectwork.common.audit.AuditEventType;
+import ru.otus.projectwork.common.audit.AuditLog;
+
+/**
+ * Глобальный фильтр аудита запросов.
+ *
+ * <p>Для запросов, попавших в выборку, после завершения обработки записывает одно событие
+ * {@link AuditEventType#REQUEST} со статусом ответа и длительностью. Запросы вне выборки проходят без замера
+ * времени. Если событие о запросе уже записал другой фильтр (например, {@link JwtAuthFilter} при невалидном
+ * токене), повторное событие не создается.
+ */
+@Component
+public class AuditGlobalFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Атрибут exchange, отмечающий, что событие аудита о запросе уже записано.
+     */
+    public static final String AUDITED_ATTR = AuditGlobalFilter.class.getName() + ".audited";
+
+    private final AuditLog auditLog;
+
+    public AuditGlobalFilter(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!auditLog.sample()) {
+            return chain.filter(exchange);
+        }
+        long startNanos = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (exchange.getAttributes().containsKey(AUDITED_ATTR)) {
+                        return;
+                    }
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    auditLog.recordSampled(AuditEventType.REQUEST,
+                            exchange.getRequest().getMethod().name(),
+                            exchange.getRequest().getPath().value(),
+                            exchange.getAttribute(JwtAuthFilter.CLIENT_ID_ATTR),
+                            status != null ? status.value() : 0,
+                            System.nanoTime() - startNanos);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
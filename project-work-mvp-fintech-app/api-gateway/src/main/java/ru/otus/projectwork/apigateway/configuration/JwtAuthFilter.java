@@ -1,20 +1,27 @@
 package ru.otus.projectwork.apigateway.configuration;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import jakarta.annotation.PostConstruct;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import lombok.Getter;
+import lombok.Setter;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
-
-import javax.crypto.SecretKey;
-import java.util.Base64;
-import java.util.Date;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import ru.otus.projectwork.apigateway.util.path.PublicPathMatcher;
+import ru.otus.projectwork.apigateway.util.token.JwtTokenVerifier;
+import ru.otus.projectwork.apigateway.util.token.RevokedTokenList;
+import ru.otus.projectwork.apigateway.util.token.VerifiedTokenCache;
+import ru.otus.projectwork.common.audit.AuditEventType;
+import ru.otus.projectwork.common.audit.AuditLog;
+import ru.otus.projectwork.common.http.CookieHeaderScanner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Фильтр аутентификации JWT для Spring Cloud Gateway.
@@ -23,70 +30,99 @@ import java.util.Date;
  * <ul>
  *   <li>Проверяет JWT токены в заголовках Authorization или cookies</li>
  *   <li>Пропускает публичные эндпоинты без аутентификации</li>
+ *   <li>Проверяет токен ровно один раз за запрос с помощью {@link JwtTokenVerifier}</li>
+ *   <li>Отклоняет отозванные токены по локальной копии списка {@link RevokedTokenList}</li>
  *   <li>Извлекает clientId из валидного JWT токена</li>
+ *   <li>Передает clientId дальше через атрибут exchange {@link #CLIENT_ID_ATTR}</li>
  *   <li>Добавляет заголовок X-User-Id с clientId для downstream сервисов</li>
- *   <li>Возвращает HTTP 401 для невалидных или отсутствующих токенов</li>
+ *   <li>Возвращает HTTP 401 для невалидных или отсутствующих токенов и записывает событие аудита</li>
  * </ul>
  *
  * @see AbstractGatewayFilterFactory
  * @see GatewayFilter
  */
-@Slf4j
 @Component
 public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Config> {
 
-    @Value("${jwt.secret.key}")
-    private String secretKey;
+    /**
+     * Атрибут exchange, в котором хранится clientId, извлеченный из проверенного JWT токена.
+     */
+    public static final String CLIENT_ID_ATTR = JwtAuthFilter.class.getName() + ".clientId";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final String ACCESS_TOKEN_COOKIE = "accessToken";
+
+    private final JwtTokenVerifier jwtTokenVerifier;
+
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    private final RevokedTokenList revokedTokenList;
+
+    private final PublicPathConfig publicPathConfig;
+
+    private final AuditLog auditLog;
 
     /**
      * Конфигурационный класс для JwtAuthFilter.
      *
-     * <p>В текущей реализации конфигурация не содержит параметров,
-     * но может быть расширена при необходимости.
+     * <p>Содержит шаблоны публичных путей маршрута. По умолчанию заполняется значениями {@code jwt.public-paths},
+     * маршрут может переопределить их через {@code args.publicPaths}.
      */
+    @Getter
+    @Setter
     public static class Config {
-        // Конфигурация может быть пустой или содержать дополнительные параметры
-    }
 
-    /**
-     * Конструктор по умолчанию.
-     */
-    public JwtAuthFilter() {
-        super(Config.class);
+        private List<String> publicPaths = new ArrayList<>();
     }
 
     /**
-     * Проверяет конфигурацию фильтра после инициализации бина.
+     * Создает фильтр с верификатором JWT токенов.
      *
-     * @throws IllegalStateException если секретный ключ JWT не сконфигурирован
+     * @param jwtTokenVerifier   верификатор JWT токенов
+     * @param verifiedTokenCache кэш проверенных токенов
+     * @param revokedTokenList   локальная копия списка отозванных токенов
+     * @param publicPathConfig   публичные пути по умолчанию
+     * @param auditLog           журнал аудита
      */
-    @PostConstruct
-    public void validateConfig() {
-        if (secretKey == null || secretKey.trim().isEmpty()) {
-            throw new IllegalStateException("JWT secret key is not configured");
-        }
-        log.info("✅ JwtAuthFilter initialized with secret key");
+    public JwtAuthFilter(JwtTokenVerifier jwtTokenVerifier,
+                         VerifiedTokenCache verifiedTokenCache,
+                         RevokedTokenList revokedTokenList,
+                         PublicPathConfig publicPathConfig,
+                         AuditLog auditLog) {
+        super(Config.class);
+        this.jwtTokenVerifier = jwtTokenVerifier;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.revokedTokenList = revokedTokenList;
+        this.publicPathConfig = publicPathConfig;
+        this.auditLog = auditLog;
     }
 
     /**
-     * Создает секретный ключ для верификации JWT токенов.
+     * Создает конфигурацию маршрута, заполненную публичными путями по умолчанию.
      *
-     * @return SecretKey созданный из base64-закодированного секретного ключа
+     * @return конфигурация фильтра
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Base64.getDecoder().decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Override
+    public Config newConfig() {
+        Config config = new Config();
+        config.setPublicPaths(new ArrayList<>(publicPathConfig.getPublicPaths()));
+        return config;
     }
 
     /**
      * Создает GatewayFilter для обработки JWT аутентификации.
      *
+     * <p>Публичные пути маршрута компилируются в {@link PublicPathMatcher} один раз при создании фильтра. Если у
+     * маршрута нет публичных путей, проверка пути на каждом запросе не выполняется.
+     *
      * <p>Фильтр выполняет следующую последовательность действий:
      * <ol>
      *   <li>Проверяет, является ли путь публичным</li>
      *   <li>Извлекает JWT токен из заголовков или cookies</li>
-     *   <li>Валидирует токен и его срок действия</li>
-     *   <li>Извлекает clientId из токена и добавляет в заголовок X-User-Id</li>
+     *   <li>Ищет токен в кэше проверенных токенов, при промахе проверяет подпись и срок действия за один разбор</li>
+     *   <li>Проверяет, не отозван ли токен, без обращения к Redis</li>
+     *   <li>Сохраняет clientId в атрибуте exchange и добавляет заголовок X-User-Id</li>
      *   <li>Пропускает запрос дальше по цепочке фильтров или возвращает ошибку</li>
      * </ol>
      *
@@ -95,165 +131,79 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
      */
     @Override
     public GatewayFilter apply(Config config) {
-        return (exchange, chain) -> {
-            String path = exchange.getRequest().getPath().value();
-            String method = exchange.getRequest().getMethod().name();
-
-            log.debug("🔐 Checking authentication for {} {}", method, path);
+        PublicPathMatcher publicPathMatcher = PublicPathMatcher.compile(config.getPublicPaths());
+        boolean hasPublicPaths = !publicPathMatcher.isEmpty();
 
+        return (exchange, chain) -> {
             // Пропускает публичные пути
-            if (isPublicPath(path)) {
-                log.debug("✅ Public path, skipping authentication for {}", path);
+            if (hasPublicPaths && publicPathMatcher.matches(exchange.getRequest().getPath().value())) {
                 return chain.filter(exchange);
             }
 
             // Извлекает и проверяет токен
             String token = extractToken(exchange.getRequest());
             if (token == null) {
-                log.warn("❌ No JWT token found in request for {}", path);
-                exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-                return exchange.getResponse().setComplete();
+                return unauthorized(exchange, AuditEventType.MISSING_TOKEN);
             }
 
-            if (validateToken(token)) {
-                log.debug("✅ Token is valid, proceeding with request to {}", path);
-
-                // Добавляет userId в headers для downstream сервисов
-                String userId = getUserIdFromToken(token);
-                if (userId != null) {
-                    ServerHttpRequest mutatedRequest = exchange.getRequest()
-                            .mutate()
-                            .header("X-User-Id", userId)
-                            .build();
-                    exchange = exchange.mutate().request(mutatedRequest).build();
-                    log.debug("👤 Added X-User-Id header: {}", userId);
-                } else {
-                    log.warn("⚠️ userId is null, cannot add X-User-Id header");
-                    try {
-                        Claims claims = Jwts.parser()
-                                .verifyWith(getSigningKey())
-                                .build()
-                                .parseSignedClaims(token)
-                                .getPayload();
-                        log.debug("🔍 All token claims: {}", claims);
-                    } catch (Exception e) {
-                        log.error("🚨 Failed to parse token for debugging: {}", e.getMessage());
-                    }
+            Optional<VerifiedTokenCache.VerifiedToken> cached = verifiedTokenCache.get(token);
+            if (cached.isPresent()) {
+                if (revokedTokenList.isRevoked(cached.get().tokenId())) {
+                    return unauthorized(exchange, AuditEventType.REVOKED_TOKEN);
                 }
-
-                return chain.filter(exchange);
-            } else {
-                log.warn("❌ Invalid JWT token for path: {}", path);
-                exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-                return exchange.getResponse().setComplete();
+                return chain.filter(withClientId(exchange, cached.get().clientId()));
             }
-        };
-    }
 
-    /**
-     * Валидирует JWT токен.
-     *
-     * <p>Проверяет:
-     * <ul>
-     *   <li>Подпись токена с использованием секретного ключа</li>
-     *   <li>Срок действия токена (expiration)</li>
-     * </ul>
-     *
-     * @param token JWT токен для валидации
-     * @return true если токен валиден, false в противном случае
-     */
-    private boolean validateToken(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Optional<Claims> verifiedClaims = jwtTokenVerifier.verify(token);
+            if (verifiedClaims.isEmpty()) {
+                return unauthorized(exchange, AuditEventType.INVALID_TOKEN);
+            }
 
-            if (claims.getExpiration().before(new Date())) {
-                log.warn("⏰ Token expired at: {}", claims.getExpiration());
-                return false;
+            Claims claims = verifiedClaims.get();
+            if (revokedTokenList.isRevoked(claims.getId())) {
+                return unauthorized(exchange, AuditEventType.REVOKED_TOKEN);
             }
 
-            log.debug("🔍 Token validated for user: {}, expires: {}",
-                    claims.getSubject(), claims.getExpiration());
-            return true;
-        } catch (Exception e) {
-            log.error("🚨 Token validation failed: {}", e.getMessage());
-            return false;
-        }
+            // Добавляет userId в headers для downstream сервисов
+            String userId = JwtTokenVerifier.resolveClientId(claims);
+            if (userId != null) {
+                verifiedTokenCache.put(token, userId, claims.getId(), claims.getExpiration());
+                return chain.filter(withClientId(exchange, userId));
+            }
+            return chain.filter(exchange);
+        };
     }
 
     /**
-     * Извлекает идентификатор пользователя из JWT токена.
-     *
-     * <p>Пытается извлечь clientId в следующем порядке:
-     * <ol>
-     *   <li>Из claims по ключу "clientId"</li>
-     *   <li>Из subject токена, если clientId не найден</li>
-     * </ol>
+     * Завершает запрос ответом 401 и записывает событие аудита, которое не зависит от выборки.
      *
-     * @param token JWT токен
-     * @return clientId пользователя или null если не удалось извлечь
+     * @param exchange текущий exchange
+     * @param type     причина отказа
+     * @return завершенный ответ
      */
-    private String getUserIdFromToken(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-
-            // Способ 1: Проверка через get() с обработкой null
-            String clientId = claims.get("clientId", String.class);
-            if (clientId != null) {
-                log.debug("🔍 Extracted clientId from token: {}", clientId);
-                return clientId;
-            }
-
-            // Способ 2: Через getSubject() если clientId в subject
-            String subject = claims.getSubject();
-            if (subject != null && !subject.isEmpty()) {
-                log.debug("🔍 Using subject as userId: {}", subject);
-                return subject;
-            }
-
-            log.warn("⚠️ Neither clientId nor subject found in token");
-            return null;
-
-        } catch (Exception e) {
-            log.warn("⚠️ Could not extract clientId from token: {}", e.getMessage());
-            return null;
-        }
+    private Mono<Void> unauthorized(ServerWebExchange exchange, AuditEventType type) {
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        exchange.getAttributes().put(AuditGlobalFilter.AUDITED_ATTR, Boolean.TRUE);
+        ServerHttpRequest request = exchange.getRequest();
+        auditLog.record(type, request.getMethod().name(), request.getPath().value(), null,
+                HttpStatus.UNAUTHORIZED.value());
+        return exchange.getResponse().setComplete();
     }
 
     /**
-     * Проверяет, является ли путь публичным (не требующим аутентификации).
+     * Сохраняет clientId в атрибутах exchange и добавляет заголовок X-User-Id для downstream сервисов.
      *
-     * <p>Публичные пути включают:
-     * <ul>
-     *   <li>API пользователей через Gateway: /api/users/public/**</li>
-     *   <li>Прямые пути к User Service: /user-service/public/**</li>
-     *   <li>Actuator endpoints: /actuator/health, /actuator/info, /actuator/user-service/**</li>
-     * </ul>
-     *
-     * @param path путь запроса
-     * @return true если путь публичный, false если требуется аутентификация
+     * @param exchange текущий exchange
+     * @param userId   clientId из проверенного токена
+     * @return exchange с измененным запросом
      */
-    private boolean isPublicPath(String path) {
-        boolean isPublic =
-                // Публичные API через Gateway
-                path.startsWith("/api/users/public/") ||
-                        // Прямые пути к User Service
-                        path.startsWith("/user-service/public/") ||
-                        // Actuator endpoints
-                        path.equals("/actuator/health") ||
-                        path.equals("/actuator/info") ||
-                        path.startsWith("/actuator/user-service/") ||
-                        path.startsWith("/actuator/account-service/");
-
-        log.debug("🛣️ Path: {} -> Public: {}", path, isPublic);
-        return isPublic;
+    private ServerWebExchange withClientId(ServerWebExchange exchange, String userId) {
+        exchange.getAttributes().put(CLIENT_ID_ATTR, userId);
+        ServerHttpRequest mutatedRequest = exchange.getRequest()
+                .mutate()
+                .header("X-User-Id", userId)
+                .build();
+        return exchange.mutate().request(mutatedRequest).build();
     }
 
     /**
@@ -262,50 +212,28 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
      * <p>Ищет токен в следующих местах (в порядке приоритета):
      * <ol>
      *   <li>Заголовок Authorization с префиксом "Bearer "</li>
-     *   <li>Cookie с именем "accessToken"</li>
+     *   <li>Cookie с именем "accessToken" в любом из заголовков Cookie</li>
      * </ol>
      *
      * @param request HTTP запрос
      * @return JWT токен или null если токен не найден
      */
     private String extractToken(ServerHttpRequest request) {
-        String authHeader = request.getHeaders().getFirst("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            log.debug("🔑 Extracted token from Authorization header");
-            return token;
+        HttpHeaders headers = request.getHeaders();
+        String authHeader = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            return authHeader.substring(BEARER_PREFIX.length());
         }
 
         // Проверка cookies для использования cookie-based auth
-        String cookieHeader = request.getHeaders().getFirst("Cookie");
-        if (cookieHeader != null && cookieHeader.contains("accessToken=")) {
-            String token = extractTokenFromCookie(cookieHeader);
-            if (token != null) {
-                log.debug("🍪 Extracted token from accessToken cookie");
-                return token;
-            }
-        }
-
-        log.debug("📭 No token found in headers or cookies");
-        return null;
-    }
-
-    /**
-     * Извлекает JWT токен из строки cookie.
-     *
-     * @param cookieHeader значение заголовка Cookie
-     * @return JWT токен или null если токен не найден или произошла ошибка
-     */
-    private String extractTokenFromCookie(String cookieHeader) {
-        try {
-            String[] cookies = cookieHeader.split(";");
-            for (String cookie : cookies) {
-                if (cookie.trim().startsWith("accessToken=")) {
-                    return cookie.split("=")[1].trim();
+        List<String> cookieHeaders = headers.get(HttpHeaders.COOKIE);
+        if (cookieHeaders != null) {
+            for (String cookieHeader : cookieHeaders) {
+                String token = CookieHeaderScanner.findValue(cookieHeader, ACCESS_TOKEN_COOKIE);
+                if (token != null) {
+                    return token;
                 }
             }
-        } catch (Exception e) {
-            log.warn("⚠️ Error extracting token from cookie: {}", e.getMessage());
         }
         return null;
     }
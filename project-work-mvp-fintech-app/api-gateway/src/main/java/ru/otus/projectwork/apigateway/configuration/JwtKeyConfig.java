@@ -0,0 +1,117 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import ru.otus.projectwork.apigateway.util.token.JwksClient;
+import ru.otus.projectwork.common.jwt.JwksKeyCache;
+import ru.otus.projectwork.common.jwt.JwtKeyRing;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ключи проверки JWT токенов.
+ *
+ * <p>{@code jwt.secret.key} - единственный ключ без идентификатора, {@code jwt.keys} - ключи по {@code kid} для
+ * ротации без простоя, оба должны совпадать с секретами user-service. Токены, подписанные асимметричными ключами
+ * user-service, проверяются открытыми ключами из {@code jwt.jwks-uri}.
+ *
+ * <p>JWKS загружается асинхронно при запуске и повторяется с задержкой, пока user-service не ответит, а после
+ * ротации ключа перечитывается при неизвестном {@code kid}, не чаще {@code min-refresh-interval}. Поток проверки
+ * токена ответа не ждет: пока ключи не загружены, токены с асимметричной подписью отклоняются. Адрес
+ * {@code lb://<сервис>/...} запрашивается у экземпляров сервиса через балансировщик, как и маршруты.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "jwt")
+@Slf4j
+public class JwtKeyConfig {
+
+    private static final String LOAD_BALANCED_SCHEME = "lb";
+
+    private Secret secret = new Secret();
+
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    private String activeKid;
+
+    /**
+     * Адрес JWK Set user-service. Если не задан, проверяются только токены, подписанные секретами.
+     */
+    private String jwksUri;
+
+    /**
+     * Минимальный интервал между успешными загрузками JWKS.
+     */
+    private Duration minRefreshInterval = Duration.ofMinutes(1);
+
+    /**
+     * Время ожидания ответа на запрос JWKS.
+     */
+    private Duration jwksTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Задержка перед первым повтором неудачного запроса JWKS, далее удваивается до {@code min-refresh-interval}.
+     */
+    private Duration jwksRetryBackoff = Duration.ofSeconds(1);
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "jwt", name = "jwks-uri")
+    public JwksClient jwksClient(WebClient.Builder webClientBuilder,
+                                 ObjectProvider<LoadBalancedExchangeFilterFunction> loadBalancer) {
+        URI uri = URI.create(jwksUri);
+        WebClient.Builder builder = webClientBuilder.clone();
+        if (LOAD_BALANCED_SCHEME.equals(uri.getScheme())) {
+            builder.filter(loadBalancer.getObject());
+            uri = UriComponentsBuilder.fromUri(uri).scheme("http").build(true).toUri();
+        }
+        log.info("JWT verification uses JWKS {}", jwksUri);
+        return new JwksClient(builder.build(), uri, jwksTimeout, jwksRetryBackoff, minRefreshInterval);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "jwt", name = "jwks-uri")
+    public JwksKeyCache jwksKeyCache(JwksClient jwksClient) {
+        return JwksKeyCache.nonBlocking(jwksClient, minRefreshInterval);
+    }
+
+    @Bean
+    public JwtKeyRing jwtKeyRing(ObjectProvider<JwksKeyCache> jwksKeyCache) {
+        return JwtKeyRing.builder()
+                .secrets(secret.getKey(), keys)
+                .activeKid(activeKid)
+                .jwks(jwksKeyCache.getIfAvailable())
+                .build();
+    }
+
+    /**
+     * Запускает загрузку JWKS после старта: запрос через балансировщик нельзя выполнить, пока создаются бины
+     * маршрутов.
+     *
+     * @param event событие готовности приложения
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefetchJwks(ApplicationReadyEvent event) {
+        event.getApplicationContext().getBeanProvider(JwksKeyCache.class).ifAvailable(JwksKeyCache::refresh);
+    }
+
+    @Getter
+    @Setter
+    public static class Secret {
+        private String key;
+    }
+}
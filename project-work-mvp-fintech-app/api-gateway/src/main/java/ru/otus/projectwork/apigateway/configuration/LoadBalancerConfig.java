@@ -0,0 +1,71 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.otus.projectwork.apigateway.util.balancer.InstanceHealthChecker;
+import ru.otus.projectwork.apigateway.util.balancer.InstanceHealthRegistry;
+
+import java.time.Duration;
+
+/**
+ * Настройки балансировки нагрузки между экземплярами сервисов.
+ *
+ * <p>Маршруты с адресом {@code lb://<сервис>} получают экземпляры из
+ * {@code spring.cloud.discovery.client.simple.instances} и выбирают их балансировщиком
+ * {@link PowerOfTwoChoicesClientConfiguration}. Экземпляры проверяются запросом {@code health-check.path} раз в
+ * {@code health-check.interval} и исключаются после {@code unhealthy-threshold} неуспешных проверок подряд или
+ * сразу после ошибки соединения.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "load-balancer")
+@LoadBalancerClients(defaultConfiguration = PowerOfTwoChoicesClientConfiguration.class)
+public class LoadBalancerConfig {
+
+    private HealthCheck healthCheck = new HealthCheck();
+
+    /**
+     * Настройки активной проверки экземпляров.
+     */
+    @Getter
+    @Setter
+    public static class HealthCheck {
+
+        private boolean enabled = true;
+
+        private String path = "/actuator/health";
+
+        private Duration interval = Duration.ofSeconds(2);
+
+        private Duration timeout = Duration.ofSeconds(1);
+
+        private int unhealthyThreshold = 1;
+
+        private int healthyThreshold = 2;
+    }
+
+    @Bean
+    public InstanceHealthRegistry instanceHealthRegistry(MeterRegistry meterRegistry) {
+        return new InstanceHealthRegistry(healthCheck.getUnhealthyThreshold(), healthCheck.getHealthyThreshold(),
+                meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    public InstanceHealthChecker instanceHealthChecker(ReactiveDiscoveryClient discoveryClient,
+                                                       WebClient.Builder webClientBuilder,
+                                                       InstanceHealthRegistry instanceHealthRegistry) {
+        if (!healthCheck.isEnabled()) {
+            return InstanceHealthChecker.disabled();
+        }
+        return InstanceHealthChecker.start(discoveryClient, webClientBuilder.build(), instanceHealthRegistry,
+                healthCheck.getPath(), healthCheck.getInterval(), healthCheck.getTimeout());
+    }
+}
@@ -0,0 +1,30 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import ru.otus.projectwork.apigateway.util.balancer.InstanceHealthRegistry;
+import ru.otus.projectwork.apigateway.util.balancer.PowerOfTwoChoicesLoadBalancer;
+
+/**
+ * Конфигурация дочернего контекста Spring Cloud LoadBalancer, который создается для каждого сервиса.
+ *
+ * <p>Класс подключается только через {@link LoadBalancerConfig} и намеренно не помечен {@code @Configuration},
+ * чтобы сканирование компонентов не создало балансировщик в основном контексте.
+ */
+public class PowerOfTwoChoicesClientConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> powerOfTwoChoicesLoadBalancer(
+            Environment environment, LoadBalancerClientFactory loadBalancerClientFactory,
+            InstanceHealthRegistry instanceHealthRegistry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        ObjectProvider<ServiceInstanceListSupplier> instances =
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class);
+        return new PowerOfTwoChoicesLoadBalancer(serviceId, instances::getIfAvailable, instanceHealthRegistry);
+    }
+}
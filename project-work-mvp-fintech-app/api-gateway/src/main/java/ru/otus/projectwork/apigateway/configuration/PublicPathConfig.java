@@ -0,0 +1,24 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Публичные пути, не требующие JWT аутентификации.
+ *
+ * <p>Используются как значение по умолчанию для {@link JwtAuthFilter.Config#getPublicPaths()}, маршрут может
+ * переопределить их через args фильтра.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "jwt")
+public class PublicPathConfig {
+
+    private List<String> publicPaths = new ArrayList<>();
+}
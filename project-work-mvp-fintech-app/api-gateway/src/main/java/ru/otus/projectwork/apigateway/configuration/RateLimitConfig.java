@@ -0,0 +1,53 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import ru.otus.projectwork.apigateway.util.ratelimit.BucketLimit;
+import ru.otus.projectwork.apigateway.util.ratelimit.InMemoryRateLimiter;
+import ru.otus.projectwork.apigateway.util.ratelimit.RateLimiter;
+import ru.otus.projectwork.apigateway.util.ratelimit.RedisRateLimiter;
+
+import java.time.Duration;
+
+/**
+ * Настройки ограничения частоты запросов.
+ *
+ * <p>{@code backend=in-memory} хранит корзины в памяти каждого узла gateway, {@code backend=redis} - в Redis,
+ * общем для всех узлов.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitConfig {
+
+    private boolean enabled = true;
+
+    private Backend backend = Backend.IN_MEMORY;
+
+    private Long maximumKeys = 100_000L;
+
+    private Duration idleTimeout = Duration.ofMinutes(1);
+
+    private BucketLimit ip = new BucketLimit(20, 10);
+
+    private BucketLimit client = new BucketLimit(50, 25);
+
+    @Bean
+    public RateLimiter rateLimiter(ObjectProvider<ReactiveStringRedisTemplate> redisTemplate) {
+        if (backend == Backend.REDIS) {
+            return new RedisRateLimiter(redisTemplate.getObject());
+        }
+        return new InMemoryRateLimiter(maximumKeys, idleTimeout);
+    }
+
+    public enum Backend {
+        IN_MEMORY,
+        REDIS
+    }
+}
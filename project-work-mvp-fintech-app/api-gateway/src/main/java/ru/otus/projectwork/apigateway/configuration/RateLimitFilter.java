@@ -0,0 +1,172 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import ru.otus.projectwork.apigateway.util.ratelimit.BucketLimit;
+import ru.otus.projectwork.apigateway.util.ratelimit.RateLimiter;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Фильтр ограничения частоты запросов для Spring Cloud Gateway.
+ *
+ * <p>Этот фильтр выполняет следующие функции:
+ * <ul>
+ *   <li>Ограничивает поток запросов с одного IP адреса</li>
+ *   <li>Ограничивает поток запросов одного клиента по clientId, проверенному {@link JwtAuthFilter}</li>
+ *   <li>Возвращает HTTP 429 с заголовком Retry-After до обращения к downstream сервису</li>
+ * </ul>
+ *
+ * <p>Лимит по клиенту берется только из атрибута {@link JwtAuthFilter#CLIENT_ID_ATTR}, а не из заголовка
+ * X-User-Id запроса, который клиент может подставить сам. Поэтому на защищенных маршрутах фильтр должен стоять
+ * после JwtAuthFilter, на публичных маршрутах действует только лимит по IP адресу.
+ *
+ * @see RateLimiter
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    private static final String IP_KEY_PREFIX = "ip:";
+
+    private static final String CLIENT_KEY_PREFIX = "client:";
+
+    private final RateLimiter rateLimiter;
+
+    private final RateLimitConfig rateLimitConfig;
+
+    private final Counter ipRejectedCounter;
+
+    private final Counter clientRejectedCounter;
+
+    /**
+     * Конфигурационный класс для RateLimitFilter.
+     *
+     * <p>По умолчанию заполняется значениями {@code rate-limit.ip} и {@code rate-limit.client}, маршрут может
+     * переопределить их через args фильтра. Лимит с нулевой емкостью не применяется.
+     */
+    @Getter
+    @Setter
+    public static class Config {
+
+        private BucketLimit ip = new BucketLimit();
+
+        private BucketLimit client = new BucketLimit();
+    }
+
+    /**
+     * Создает фильтр ограничения частоты запросов.
+     *
+     * @param rateLimiter     ограничитель частоты запросов
+     * @param rateLimitConfig лимиты по умолчанию
+     * @param meterRegistry   реестр метрик
+     */
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitConfig rateLimitConfig, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.rateLimiter = rateLimiter;
+        this.rateLimitConfig = rateLimitConfig;
+        this.ipRejectedCounter = rejectedCounter(meterRegistry, "ip");
+        this.clientRejectedCounter = rejectedCounter(meterRegistry, "client");
+    }
+
+    /**
+     * Создает конфигурацию маршрута, заполненную лимитами по умолчанию.
+     *
+     * @return конфигурация фильтра
+     */
+    @Override
+    public Config newConfig() {
+        Config config = new Config();
+        config.setIp(copy(rateLimitConfig.getIp()));
+        config.setClient(copy(rateLimitConfig.getClient()));
+        return config;
+    }
+
+    /**
+     * Создает GatewayFilter для ограничения частоты запросов.
+     *
+     * <p>Сначала проверяется лимит IP адреса, затем, если запрос аутентифицирован, лимит клиента. Запрос,
+     * превысивший любой из лимитов, завершается ответом 429.
+     *
+     * @param config конфигурация фильтра
+     * @return GatewayFilter настроенный фильтр ограничения частоты запросов
+     */
+    @Override
+    public GatewayFilter apply(Config config) {
+        BucketLimit ipLimit = config.getIp();
+        BucketLimit clientLimit = config.getClient();
+        boolean ipLimited = rateLimitConfig.isEnabled() && ipLimit.isEnabled();
+        boolean clientLimited = rateLimitConfig.isEnabled() && clientLimit.isEnabled();
+
+        return (exchange, chain) -> {
+            if (!ipLimited) {
+                return filterByClient(exchange, chain, clientLimited, clientLimit);
+            }
+            return rateLimiter.tryAcquire(IP_KEY_PREFIX + remoteAddress(exchange), ipLimit)
+                    .flatMap(waitMillis -> {
+                        if (waitMillis > 0) {
+                            ipRejectedCounter.increment();
+                            return reject(exchange, waitMillis);
+                        }
+                        return filterByClient(exchange, chain, clientLimited, clientLimit);
+                    });
+        };
+    }
+
+    private Mono<Void> filterByClient(ServerWebExchange exchange, GatewayFilterChain chain,
+                                      boolean clientLimited, BucketLimit clientLimit) {
+        String clientId = clientLimited ? exchange.getAttribute(JwtAuthFilter.CLIENT_ID_ATTR) : null;
+        if (clientId == null) {
+            return chain.filter(exchange);
+        }
+        return rateLimiter.tryAcquire(CLIENT_KEY_PREFIX + clientId, clientLimit)
+                .flatMap(waitMillis -> {
+                    if (waitMillis > 0) {
+                        clientRejectedCounter.increment();
+                        return reject(exchange, waitMillis);
+                    }
+                    return chain.filter(exchange);
+                });
+    }
+
+    /**
+     * Завершает запрос ответом 429.
+     *
+     * @param exchange   текущий exchange
+     * @param waitMillis время до появления свободного токена
+     * @return завершенный ответ
+     */
+    private static Mono<Void> reject(ServerWebExchange exchange, long waitMillis) {
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString((waitMillis + 999) / 1000));
+        return exchange.getResponse().setComplete();
+    }
+
+    private static String remoteAddress(ServerWebExchange exchange) {
+        InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+
+    private static BucketLimit copy(BucketLimit limit) {
+        return new BucketLimit(limit.getCapacity(), limit.getRefillPerSecond());
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String limit) {
+        return Counter.builder("gateway.rate-limit.rejected")
+                .description("Requests rejected by the gateway rate limiter")
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Настройки {@link RequestCoalescingFilter}.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "request-coalescing")
+public class RequestCoalescingConfig {
+
+    private boolean enabled = true;
+
+    private Duration maxWait = Duration.ofSeconds(2);
+
+    private DataSize maxBodySize = DataSize.ofMegabytes(1);
+}
@@ -0,0 +1,188 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import ru.otus.projectwork.apigateway.util.cache.BoundedBody;
+import ru.otus.projectwork.apigateway.util.cache.RequestKey;
+import ru.otus.projectwork.apigateway.util.cache.SingleFlight;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Фильтр объединения одновременных одинаковых GET запросов для Spring Cloud Gateway.
+ *
+ * <p>Этот фильтр выполняет следующие функции:
+ * <ul>
+ *   <li>Отправляет в downstream сервис только первый из одновременных GET запросов клиента с одинаковыми путем,
+ *   параметрами и заголовками {@code varyHeaders}</li>
+ *   <li>Раздает ответ 200 первого запроса остальным, ожидающим не дольше {@code request-coalescing.max-wait}</li>
+ *   <li>Выполняет запрос отдельно, если ожидание истекло или первый запрос не вернул ответ 200</li>
+ * </ul>
+ *
+ * <p>Ключ строится по clientId из атрибута {@link JwtAuthFilter#CLIENT_ID_ATTR}, поэтому фильтр должен стоять
+ * после JwtAuthFilter, а при совместном использовании с {@link ResponseCacheFilter} - после него, чтобы
+ * объединялись только промахи кэша. Количество сэкономленных обращений к downstream сервису публикуется метрикой
+ * {@code gateway.coalescing.requests} с тегом {@code result=coalesced}.
+ */
+@Component
+public class RequestCoalescingFilter extends AbstractGatewayFilterFactory<RequestCoalescingFilter.Config> {
+
+    private final SingleFlight<String, SharedResponse> singleFlight = new SingleFlight<>();
+
+    private final RequestCoalescingConfig coalescingConfig;
+
+    private final Counter leaderCounter;
+
+    private final Counter coalescedCounter;
+
+    private final Counter fallbackCounter;
+
+    /**
+     * Конфигурационный класс для RequestCoalescingFilter.
+     *
+     * <p>Содержит заголовки запроса, от которых зависит ответ, и которые поэтому входят в ключ.
+     */
+    @Getter
+    @Setter
+    public static class Config {
+
+        private List<String> varyHeaders = new ArrayList<>();
+    }
+
+    /**
+     * Ответ первого запроса, разделяемый с ожидающими.
+     *
+     * @param headers заголовки ответа, только для чтения
+     * @param body    тело ответа
+     */
+    private record SharedResponse(HttpHeaders headers, byte[] body) {
+    }
+
+    /**
+     * Создает фильтр объединения запросов.
+     *
+     * @param coalescingConfig настройки объединения
+     * @param meterRegistry    реестр метрик
+     */
+    public RequestCoalescingFilter(RequestCoalescingConfig coalescingConfig, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.coalescingConfig = coalescingConfig;
+        this.leaderCounter = requestsCounter(meterRegistry, "leader");
+        this.coalescedCounter = requestsCounter(meterRegistry, "coalesced");
+        this.fallbackCounter = requestsCounter(meterRegistry, "fallback");
+        Gauge.builder("gateway.coalescing.in-flight", singleFlight, SingleFlight::size)
+                .description("Distinct coalesced GET requests currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Создает GatewayFilter объединения запросов.
+     *
+     * @param config конфигурация фильтра
+     * @return GatewayFilter настроенный фильтр объединения запросов
+     */
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<String> varyHeaders = List.copyOf(config.getVaryHeaders());
+
+        return (exchange, chain) -> {
+            String clientId = exchange.getAttribute(JwtAuthFilter.CLIENT_ID_ATTR);
+            if (!coalescingConfig.isEnabled() || clientId == null
+                    || exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            SingleFlight<String, SharedResponse>.Flight flight =
+                    singleFlight.join(RequestKey.of(clientId, exchange.getRequest(), varyHeaders));
+            if (flight.isLeader()) {
+                leaderCounter.increment();
+                return chain.filter(exchange.mutate().response(sharing(exchange.getResponse(), flight)).build())
+                        .doFinally(signal -> flight.abandon());
+            }
+
+            return flight.result()
+                    .timeout(coalescingConfig.getMaxWait())
+                    .map(Optional::of)
+                    .onErrorReturn(Optional.empty())
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(shared -> {
+                        if (shared.isPresent()) {
+                            coalescedCounter.increment();
+                            return write(exchange.getResponse(), shared.get());
+                        }
+                        fallbackCounter.increment();
+                        return chain.filter(exchange);
+                    });
+        };
+    }
+
+    /**
+     * Оборачивает ответ первого запроса так, чтобы тело ответа 200 было опубликовано ожидающим до отправки клиенту.
+     *
+     * <p>Тело собирается не больше {@code max-body-size}: при большем Content-Length или как только тело неизвестной
+     * длины превысило предел, ожидающие отпускаются выполнять запрос сами, а ответ передается клиенту потоком.
+     */
+    private ServerHttpResponseDecorator sharing(ServerHttpResponse response,
+                                                SingleFlight<String, SharedResponse>.Flight flight) {
+        long maxBodyBytes = coalescingConfig.getMaxBodySize().toBytes();
+        return new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                // Content-Length равен -1, если длина тела неизвестна
+                if (getStatusCode() != HttpStatus.OK || getHeaders().getContentLength() > maxBodyBytes) {
+                    flight.abandon();
+                    return super.writeWith(body);
+                }
+                return BoundedBody.collect(body, maxBodyBytes,
+                        bytes -> {
+                            flight.complete(new SharedResponse(copyOf(getHeaders()), bytes));
+                            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        },
+                        parts -> {
+                            flight.abandon();
+                            return super.writeWith(parts);
+                        });
+            }
+        };
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().putAll(shared.headers());
+        response.getHeaders().setContentLength(shared.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(shared.body())));
+    }
+
+    private static HttpHeaders copyOf(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (!HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)) {
+                copy.put(name, List.copyOf(values));
+            }
+        });
+        return HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+
+    private static Counter requestsCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.coalescing.requests")
+                .description("GET requests by coalescing outcome, coalesced ones did not reach the service")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.otus.projectwork.apigateway.util.resilience.RoutePolicy;
+import ru.otus.projectwork.apigateway.util.resilience.RouteResilienceRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Настройки изоляции маршрутов: таймауты ответа, bulkhead и circuit breaker.
+ *
+ * <p>Значения {@code resilience.defaults} действуют для всех маршрутов, {@code resilience.routes.<id маршрута>}
+ * переопределяет любую их часть.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "resilience")
+public class ResilienceConfig {
+
+    private boolean enabled = true;
+
+    private RoutePolicy defaults = RoutePolicy.defaults();
+
+    private Map<String, RoutePolicy> routes = new LinkedHashMap<>();
+
+    @Bean
+    public RouteResilienceRegistry routeResilienceRegistry(MeterRegistry meterRegistry) {
+        return new RouteResilienceRegistry(defaults, routes, meterRegistry);
+    }
+}
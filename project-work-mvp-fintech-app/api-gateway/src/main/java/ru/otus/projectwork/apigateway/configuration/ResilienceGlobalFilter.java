@@ -0,0 +1,141 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import ru.otus.projectwork.apigateway.util.resilience.CircuitBreaker;
+import ru.otus.projectwork.apigateway.util.resilience.RouteResilience;
+import ru.otus.projectwork.apigateway.util.resilience.RouteResilienceRegistry;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Глобальный фильтр изоляции downstream сервисов.
+ *
+ * <p>Для каждого маршрута фильтр:
+ * <ul>
+ *   <li>Отклоняет запрос ответом 503, пока circuit breaker маршрута разомкнут</li>
+ *   <li>Отклоняет запрос ответом 503, если bulkhead маршрута заполнен, не ставя его в очередь</li>
+ *   <li>Завершает запрос ответом 504, если downstream сервис не ответил за таймаут маршрута</li>
+ *   <li>Учитывает таймауты, ошибки соединения и ответы 5xx как неуспешные вызовы circuit breaker</li>
+ * </ul>
+ *
+ * <p>Фильтр выполняется после фильтров маршрута, поэтому запросы, отклоненные {@link JwtAuthFilter} и
+ * {@link RateLimitFilter}, не занимают место в bulkhead и не влияют на circuit breaker. Количество отклоненных
+ * запросов публикуется метрикой {@code gateway.resilience.rejected} с тегами {@code route} и {@code reason}.
+ */
+@Slf4j
+@Component
+public class ResilienceGlobalFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Порядок фильтра: сразу после вычисления адреса downstream сервиса и перед фильтрами маршрутизации.
+     */
+    public static final int ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+
+    private final RouteResilienceRegistry registry;
+
+    private final ResilienceConfig resilienceConfig;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Создает фильтр изоляции маршрутов.
+     *
+     * @param registry         изоляция по идентификатору маршрута
+     * @param resilienceConfig настройки изоляции
+     * @param meterRegistry    реестр метрик
+     */
+    public ResilienceGlobalFilter(RouteResilienceRegistry registry, ResilienceConfig resilienceConfig,
+                                  MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.resilienceConfig = resilienceConfig;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!resilienceConfig.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+
+        RouteResilience resilience = registry.forRoute(route.getId());
+        if (!resilience.tryAcquireBulkhead()) {
+            return reject(exchange, route.getId(), "bulkhead_full", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        CircuitBreaker circuitBreaker = resilience.getCircuitBreaker();
+        if (!circuitBreaker.tryAcquirePermission()) {
+            resilience.releaseBulkhead();
+            long retryAfterMillis = circuitBreaker.remainingOpenMillis();
+            if (retryAfterMillis > 0) {
+                exchange.getResponse().getHeaders()
+                        .set(HttpHeaders.RETRY_AFTER, Long.toString((retryAfterMillis + 999) / 1000));
+            }
+            return reject(exchange, route.getId(), "circuit_open", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        return chain.filter(exchange)
+                .timeout(resilience.getTimeout())
+                .doOnSuccess(ignored -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is5xxServerError()) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                })
+                .onErrorResume(TimeoutException.class, e -> {
+                    circuitBreaker.onFailure();
+                    log.warn("⏱️ Route {} did not respond within {}", route.getId(), resilience.getTimeout());
+                    if (exchange.getResponse().isCommitted()) {
+                        return Mono.error(e);
+                    }
+                    return reject(exchange, route.getId(), "timeout", HttpStatus.GATEWAY_TIMEOUT);
+                })
+                .doOnError(e -> {
+                    if (!(e instanceof TimeoutException)) {
+                        circuitBreaker.onFailure();
+                    }
+                })
+                .doOnCancel(circuitBreaker::releasePermission)
+                .doFinally(signal -> resilience.releaseBulkhead());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * Завершает запрос без обращения к downstream сервису.
+     *
+     * @param exchange текущий exchange
+     * @param routeId  идентификатор маршрута
+     * @param reason   причина отказа для метрики
+     * @param status   статус ответа
+     * @return завершенный ответ
+     */
+    private Mono<Void> reject(ServerWebExchange exchange, String routeId, String reason, HttpStatus status) {
+        Counter.builder("gateway.resilience.rejected")
+                .description("Requests rejected by route timeouts, bulkheads and circuit breakers")
+                .tag("route", routeId)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        exchange.getResponse().setStatusCode(status);
+        return exchange.getResponse().setComplete();
+    }
+}
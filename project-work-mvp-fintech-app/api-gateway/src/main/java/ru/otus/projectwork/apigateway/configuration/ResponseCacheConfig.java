@@ -0,0 +1,40 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import ru.otus.projectwork.apigateway.util.cache.ResponseCache;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша ответов {@link ResponseCacheFilter}.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "response-cache")
+public class ResponseCacheConfig {
+
+    private boolean enabled = true;
+
+    private DataSize maximumSize = DataSize.ofMegabytes(64);
+
+    private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+
+    private Duration defaultTtl = Duration.ofSeconds(5);
+
+    private Duration maxTtl = Duration.ofMinutes(1);
+
+    @Bean
+    public ResponseCache responseCache(MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return ResponseCache.disabled();
+        }
+        return ResponseCache.create(maximumSize.toBytes(), (int) maxEntrySize.toBytes(), maxTtl, meterRegistry);
+    }
+}
@@ -0,0 +1,236 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import ru.otus.projectwork.apigateway.util.cache.BoundedBody;
+import ru.otus.projectwork.apigateway.util.cache.RequestKey;
+import ru.otus.projectwork.apigateway.util.cache.ResponseCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Фильтр кэширования ответов GET запросов для Spring Cloud Gateway.
+ *
+ * <p>Этот фильтр выполняет следующие функции:
+ * <ul>
+ *   <li>Отдает повторные GET запросы клиента из {@link ResponseCache} без обращения к downstream сервису</li>
+ *   <li>Сохраняет ответы 200 на GET запросы на {@code ttl}, ключ - clientId, путь с параметрами и заголовки
+ *   {@code varyHeaders}. Ответы больше {@code max-entry-size} передаются клиенту потоком и не кэшируются</li>
+ *   <li>Добавляет заголовок ETag и отвечает 304 без тела, если он совпадает с If-None-Match запроса</li>
+ *   <li>После любого другого запроса клиента к маршруту инвалидирует все его ответы</li>
+ * </ul>
+ *
+ * <p>Ключ строится по clientId из атрибута {@link JwtAuthFilter#CLIENT_ID_ATTR}, а не из заголовка X-User-Id
+ * запроса, поэтому фильтр должен стоять после JwtAuthFilter. Запросы без проверенного clientId не кэшируются.
+ * Результат обработки записывается в заголовок ответа {@value #CACHE_HEADER}.
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    /**
+     * Заголовок ответа с результатом обращения к кэшу: HIT или MISS.
+     */
+    public static final String CACHE_HEADER = "X-Cache";
+
+    private final ResponseCache responseCache;
+
+    private final ResponseCacheConfig responseCacheConfig;
+
+    private final Counter hitCounter;
+
+    private final Counter notModifiedCounter;
+
+    /**
+     * Конфигурационный класс для ResponseCacheFilter.
+     *
+     * <p>По умолчанию {@code ttl} берется из {@code response-cache.default-ttl}, маршрут может переопределить его и
+     * перечислить заголовки запроса, от которых зависит ответ, через args фильтра.
+     */
+    @Getter
+    @Setter
+    public static class Config {
+
+        private Duration ttl;
+
+        private List<String> varyHeaders = new ArrayList<>();
+    }
+
+    /**
+     * Создает фильтр кэширования ответов.
+     *
+     * @param responseCache       кэш ответов
+     * @param responseCacheConfig настройки кэша
+     * @param meterRegistry       реестр метрик
+     */
+    public ResponseCacheFilter(ResponseCache responseCache, ResponseCacheConfig responseCacheConfig,
+                               MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.responseCache = responseCache;
+        this.responseCacheConfig = responseCacheConfig;
+        this.hitCounter = responsesCounter(meterRegistry, "hit");
+        this.notModifiedCounter = responsesCounter(meterRegistry, "not_modified");
+    }
+
+    /**
+     * Создает конфигурацию маршрута, заполненную TTL по умолчанию.
+     *
+     * @return конфигурация фильтра
+     */
+    @Override
+    public Config newConfig() {
+        Config config = new Config();
+        config.setTtl(responseCacheConfig.getDefaultTtl());
+        return config;
+    }
+
+    /**
+     * Создает GatewayFilter кэширования ответов.
+     *
+     * @param config конфигурация фильтра
+     * @return GatewayFilter настроенный фильтр кэширования
+     */
+    @Override
+    public GatewayFilter apply(Config config) {
+        Duration ttl = config.getTtl();
+        List<String> varyHeaders = List.copyOf(config.getVaryHeaders());
+
+        return (exchange, chain) -> {
+            String clientId = exchange.getAttribute(JwtAuthFilter.CLIENT_ID_ATTR);
+            if (!responseCache.isEnabled() || clientId == null) {
+                return chain.filter(exchange);
+            }
+
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                // Инвалидация после ответа: GET, начатый до завершения изменения, не попадет в кэш
+                return chain.filter(exchange).doFinally(signal -> responseCache.invalidate(clientId));
+            }
+
+            String key = RequestKey.of(clientId, request, varyHeaders);
+            ResponseCache.CachedResponse cached = responseCache.get(clientId, key);
+            if (cached != null) {
+                hitCounter.increment();
+                return writeCached(exchange, cached);
+            }
+
+            long requestedAt = responseCache.now();
+            CachingResponse caching = new CachingResponse(exchange.getResponse(), request, key, requestedAt, ttl);
+            return chain.filter(exchange.mutate().response(caching).build());
+        };
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, ResponseCache.CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.set(CACHE_HEADER, "HIT");
+        if (matches(exchange.getRequest().getHeaders().getIfNoneMatch(), cached.etag())) {
+            return notModified(response);
+        }
+        response.setStatusCode(HttpStatus.OK);
+        if (cached.contentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, cached.contentType());
+        }
+        headers.setContentLength(cached.body().remaining());
+        // Тело вне кучи передается в сокет без копирования, duplicate не меняет позицию общего буфера
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body().duplicate())));
+    }
+
+    /**
+     * Ответ, тело которого сохраняется в кэш, если запрос завершился со статусом 200.
+     *
+     * <p>В памяти накапливается не больше {@code max-entry-size} байт тела: ответ с большим Content-Length
+     * передается клиенту без буферизации, а ответ неизвестной длины, превысивший предел, передается дальше потоком
+     * вместе с уже накопленными частями и не кэшируется.
+     */
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerHttpRequest request;
+
+        private final String key;
+
+        private final long requestedAt;
+
+        private final Duration ttl;
+
+        CachingResponse(ServerHttpResponse delegate, ServerHttpRequest request, String key, long requestedAt,
+                        Duration ttl) {
+            super(delegate);
+            this.request = request;
+            this.key = key;
+            this.requestedAt = requestedAt;
+            this.ttl = ttl;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (getStatusCode() != HttpStatus.OK) {
+                return super.writeWith(body);
+            }
+            getHeaders().set(CACHE_HEADER, "MISS");
+            int maxEntryBytes = responseCache.maxEntryBytes();
+            // Content-Length равен -1, если длина тела неизвестна
+            if (getHeaders().getContentLength() > maxEntryBytes) {
+                return super.writeWith(body);
+            }
+            return BoundedBody.collect(body, maxEntryBytes, this::store, super::writeWith);
+        }
+
+        private Mono<Void> store(byte[] bytes) {
+            HttpHeaders headers = getHeaders();
+            String etag = headers.getETag() != null ? headers.getETag() : ResponseCache.etag(bytes);
+            headers.setETag(etag);
+            String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+            responseCache.put(key, bytes, contentType, etag, requestedAt, ttl);
+            if (matches(request.getHeaders().getIfNoneMatch(), etag)) {
+                return notModified(getDelegate());
+            }
+            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+    }
+
+    private Mono<Void> notModified(ServerHttpResponse response) {
+        notModifiedCounter.increment();
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        return response.setComplete();
+    }
+
+    /**
+     * Проверяет, совпадает ли ETag с одним из значений If-None-Match. Слабые значения сравниваются без
+     * префикса W/, как требует RFC 9110 для If-None-Match.
+     */
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        for (String value : ifNoneMatch) {
+            if ("*".equals(value) || etag.equals(value.startsWith("W/") ? value.substring(2) : value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Counter responsesCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.response-cache.responses")
+                .description("Responses served by the gateway response cache without calling the service")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.otus.projectwork.apigateway.util.token.VerifiedTokenCache;
+
+/**
+ * Настройки кэша проверенных JWT токенов.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "jwt.cache")
+public class TokenCacheConfig {
+
+    private boolean enabled = true;
+
+    private Long maximumSize = 100_000L;
+
+    @Bean
+    public VerifiedTokenCache verifiedTokenCache(MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return VerifiedTokenCache.disabled();
+        }
+        return VerifiedTokenCache.create(maximumSize, meterRegistry);
+    }
+}
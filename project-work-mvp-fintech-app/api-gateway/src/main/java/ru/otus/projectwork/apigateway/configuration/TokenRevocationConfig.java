@@ -0,0 +1,54 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import ru.otus.projectwork.apigateway.util.token.RevokedTokenList;
+import ru.otus.projectwork.common.jwt.TokenRevocation;
+
+import java.time.Duration;
+
+/**
+ * Настройки проверки отозванных токенов.
+ *
+ * <p>Список отозванных токенов ведет user-service в Redis (см. {@link TokenRevocation}), gateway перечитывает
+ * его раз в {@code sync-interval} и проверяет токены по локальной копии.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "jwt.revocation")
+public class TokenRevocationConfig {
+
+    private boolean enabled = true;
+
+    private Duration syncInterval = Duration.ofSeconds(5);
+
+    private double falsePositiveRate = 0.001;
+
+    @Bean(destroyMethod = "close")
+    public RevokedTokenList revokedTokenList(ObjectProvider<ReactiveStringRedisTemplate> redisTemplate,
+                                             MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return RevokedTokenList.disabled();
+        }
+        ReactiveStringRedisTemplate redis = redisTemplate.getObject();
+        RevokedTokenList revokedTokenList = RevokedTokenList.start(() -> redis.opsForZSet()
+                        .rangeByScoreWithScores(TokenRevocation.REVOKED_TOKENS_KEY,
+                                Range.rightUnbounded(Range.Bound.exclusive((double) System.currentTimeMillis())))
+                        .collectMap(ZSetOperations.TypedTuple::getValue, tuple -> tuple.getScore().longValue()),
+                syncInterval, falsePositiveRate);
+        Gauge.builder("gateway.revoked-tokens", revokedTokenList, RevokedTokenList::size)
+                .description("Revoked tokens in the local copy of the revocation list")
+                .register(meterRegistry);
+        return revokedTokenList;
+    }
+}
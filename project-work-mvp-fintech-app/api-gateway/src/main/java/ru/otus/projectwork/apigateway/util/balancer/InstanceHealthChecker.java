@@ -0,0 +1,82 @@
+package ru.otus.projectwork.apigateway.util.balancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Активная проверка экземпляров всех сервисов из {@link ReactiveDiscoveryClient}.
+ *
+ * <p>Раз в {@code interval} каждому экземпляру отправляется {@code GET path}, экземпляр считается доступным, если
+ * ответил кодом 2xx за {@code timeout}. Проверки выполняются параллельно, следующий цикл начинается только после
+ * завершения предыдущего, поэтому зависший экземпляр не накапливает запросы проверки.
+ */
+@Slf4j
+public class InstanceHealthChecker implements AutoCloseable {
+
+    private final Disposable subscription;
+
+    private InstanceHealthChecker(Disposable subscription) {
+        this.subscription = subscription;
+    }
+
+    /**
+     * Создает объект без проверок: экземпляры исключаются только по ошибкам соединения.
+     *
+     * @return отключенные проверки
+     */
+    public static InstanceHealthChecker disabled() {
+        return new InstanceHealthChecker(Disposables.disposed());
+    }
+
+    /**
+     * Запускает периодические проверки.
+     *
+     * @param discoveryClient источник экземпляров
+     * @param webClient       клиент для запросов проверки
+     * @param healthRegistry  реестр, в который записываются результаты
+     * @param path            путь проверки
+     * @param interval        интервал между проверками
+     * @param timeout         время ожидания ответа
+     * @return запущенные проверки
+     */
+    public static InstanceHealthChecker start(ReactiveDiscoveryClient discoveryClient, WebClient webClient,
+                                              InstanceHealthRegistry healthRegistry, String path,
+                                              Duration interval, Duration timeout) {
+        Disposable subscription = Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> discoveryClient.getServices()
+                        .flatMap(discoveryClient::getInstances)
+                        .flatMap(instance -> check(webClient, instance, path, timeout)
+                                .doOnNext(healthy -> healthRegistry.onHealthCheck(instance, healthy)))
+                        .onErrorResume(e -> {
+                            log.warn("⚠️ Instance health check cycle failed: {}", e.getMessage());
+                            return Mono.empty();
+                        })
+                        .then())
+                .subscribe();
+        return new InstanceHealthChecker(subscription);
+    }
+
+    private static Mono<Boolean> check(WebClient webClient, ServiceInstance instance, String path,
+                                       Duration timeout) {
+        return webClient.get()
+                .uri(instance.getUri().resolve(path))
+                .exchangeToMono(response -> response.releaseBody()
+                        .thenReturn(response.statusCode().is2xxSuccessful()))
+                .timeout(timeout)
+                .onErrorReturn(false);
+    }
+
+    @Override
+    public void close() {
+        subscription.dispose();
+    }
+}
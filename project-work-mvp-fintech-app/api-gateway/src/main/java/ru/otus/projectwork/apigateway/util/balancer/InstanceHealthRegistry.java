@@ -0,0 +1,184 @@
+package ru.otus.projectwork.apigateway.util.balancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.net.ConnectException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Состояние экземпляров downstream сервисов: доступность и количество выполняющихся запросов.
+ *
+ * <p>Доступность обновляется активными проверками {@link InstanceHealthChecker} и результатами запросов: ошибка
+ * соединения сразу исключает экземпляр из балансировки, вернуть его может только успешная активная проверка.
+ * Экземпляр считается доступным, пока о нем нет сведений, чтобы gateway не отвечал 503 до первой проверки.
+ *
+ * <p>Как {@link LoadBalancerLifecycle} реестр вызывается {@code ReactiveLoadBalancerClientFilter} в начале и в
+ * конце каждого запроса через балансировщик и ведет счетчики выполняющихся запросов для
+ * {@link PowerOfTwoChoicesLoadBalancer}.
+ */
+@Slf4j
+public class InstanceHealthRegistry implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final int unhealthyThreshold;
+
+    private final int healthyThreshold;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, InstanceState> states = new ConcurrentHashMap<>();
+
+    /**
+     * Создает реестр.
+     *
+     * @param unhealthyThreshold количество неуспешных проверок подряд, после которого экземпляр исключается
+     * @param healthyThreshold   количество успешных проверок подряд, после которого экземпляр возвращается
+     * @param meterRegistry      реестр метрик
+     */
+    public InstanceHealthRegistry(int unhealthyThreshold, int healthyThreshold, MeterRegistry meterRegistry) {
+        this.unhealthyThreshold = Math.max(1, unhealthyThreshold);
+        this.healthyThreshold = Math.max(1, healthyThreshold);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Проверяет, участвует ли экземпляр в балансировке.
+     *
+     * @param instance экземпляр сервиса
+     * @return true если экземпляр доступен или еще не проверялся
+     */
+    public boolean isHealthy(ServiceInstance instance) {
+        InstanceState state = states.get(key(instance));
+        return state == null || state.healthy;
+    }
+
+    /**
+     * Возвращает количество запросов к экземпляру, выполняющихся сейчас.
+     *
+     * @param instance экземпляр сервиса
+     * @return выполняющиеся запросы
+     */
+    public int outstanding(ServiceInstance instance) {
+        InstanceState state = states.get(key(instance));
+        return state != null ? state.outstanding.get() : 0;
+    }
+
+    /**
+     * Учитывает результат активной проверки.
+     *
+     * @param instance экземпляр сервиса
+     * @param healthy  true если проверка успешна
+     */
+    public void onHealthCheck(ServiceInstance instance, boolean healthy) {
+        InstanceState state = state(instance);
+        if (healthy) {
+            state.failures.set(0);
+            if (!state.healthy && state.successes.incrementAndGet() >= healthyThreshold) {
+                markHealthy(instance, state);
+            }
+        } else {
+            state.successes.set(0);
+            if (state.healthy && state.failures.incrementAndGet() >= unhealthyThreshold) {
+                markUnhealthy(instance, state, "health check failed");
+            }
+        }
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer()) {
+            state(lbResponse.getServer()).outstanding.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        ServiceInstance instance = lbResponse.getServer();
+        InstanceState state = state(instance);
+        state.outstanding.decrementAndGet();
+        if (completionContext.status() == CompletionContext.Status.FAILED
+                && isConnectionFailure(completionContext.getThrowable()) && state.healthy) {
+            state.successes.set(0);
+            markUnhealthy(instance, state, "connection failed");
+        }
+    }
+
+    private void markHealthy(ServiceInstance instance, InstanceState state) {
+        state.healthy = true;
+        state.successes.set(0);
+        log.info("✅ Instance {} of {} is back in rotation", key(instance), instance.getServiceId());
+    }
+
+    private void markUnhealthy(ServiceInstance instance, InstanceState state, String reason) {
+        state.healthy = false;
+        state.failures.set(0);
+        log.warn("🚫 Instance {} of {} is ejected from rotation: {}", key(instance), instance.getServiceId(), reason);
+    }
+
+    private InstanceState state(ServiceInstance instance) {
+        String key = key(instance);
+        InstanceState existing = states.get(key);
+        return existing != null ? existing : states.computeIfAbsent(key, k -> register(instance, k));
+    }
+
+    private InstanceState register(ServiceInstance instance, String key) {
+        InstanceState state = new InstanceState();
+        Gauge.builder("gateway.lb.instance.healthy", state, s -> s.healthy ? 1 : 0)
+                .description("Whether the service instance takes part in load balancing")
+                .tag("service", String.valueOf(instance.getServiceId()))
+                .tag("instance", key)
+                .register(meterRegistry);
+        Gauge.builder("gateway.lb.instance.outstanding", state, s -> s.outstanding.get())
+                .description("Requests currently in flight to the service instance")
+                .tag("service", String.valueOf(instance.getServiceId()))
+                .tag("instance", key)
+                .register(meterRegistry);
+        return state;
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ':' + instance.getPort();
+    }
+
+    private static boolean isConnectionFailure(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class InstanceState {
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private final AtomicInteger successes = new AtomicInteger();
+
+        private volatile boolean healthy = true;
+    }
+}
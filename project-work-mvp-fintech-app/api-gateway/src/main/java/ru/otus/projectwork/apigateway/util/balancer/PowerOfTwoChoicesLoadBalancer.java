@@ -0,0 +1,92 @@
+package ru.otus.projectwork.apigateway.util.balancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Балансировщик "power of two choices": из доступных экземпляров случайно выбираются два, запрос отправляется
+ * тому, у которого меньше выполняющихся запросов.
+ *
+ * <p>В отличие от выбора экземпляра с наименьшим числом запросов среди всех, случайная пара не направляет все
+ * запросы нескольких узлов gateway на один и тот же экземпляр, пока счетчики не обновились, а в отличие от
+ * round-robin медленный экземпляр быстро перестает получать новые запросы. Экземпляры, исключенные
+ * {@link InstanceHealthRegistry}, не выбираются, если доступных нет, балансировщик возвращает пустой ответ и
+ * gateway отвечает 503.
+ */
+public class PowerOfTwoChoicesLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final String serviceId;
+
+    private final Supplier<ServiceInstanceListSupplier> instances;
+
+    private final InstanceHealthRegistry healthRegistry;
+
+    /**
+     * Создает балансировщик сервиса.
+     *
+     * @param serviceId      идентификатор сервиса
+     * @param instances      источник списка экземпляров сервиса
+     * @param healthRegistry состояние экземпляров
+     */
+    public PowerOfTwoChoicesLoadBalancer(String serviceId, Supplier<ServiceInstanceListSupplier> instances,
+                                         InstanceHealthRegistry healthRegistry) {
+        this.serviceId = serviceId;
+        this.instances = instances;
+        this.healthRegistry = healthRegistry;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = instances.get();
+        if (supplier == null) {
+            return Mono.just(new EmptyResponse());
+        }
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    /**
+     * Выбирает экземпляр из списка.
+     *
+     * @param all все экземпляры сервиса
+     * @return выбранный экземпляр или пустой ответ, если доступных экземпляров нет
+     */
+    Response<ServiceInstance> choose(List<ServiceInstance> all) {
+        List<ServiceInstance> healthy = new ArrayList<>(all.size());
+        for (ServiceInstance instance : all) {
+            if (healthRegistry.isHealthy(instance)) {
+                healthy.add(instance);
+            }
+        }
+        int size = healthy.size();
+        if (size == 0) {
+            return new EmptyResponse();
+        }
+        if (size == 1) {
+            return new DefaultResponse(healthy.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = healthy.get(first);
+        ServiceInstance b = healthy.get(second);
+        return new DefaultResponse(healthRegistry.outstanding(b) < healthRegistry.outstanding(a) ? b : a);
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+}
@@ -0,0 +1,96 @@
+package ru.otus.projectwork.apigateway.util.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Сборка тела ответа с ограничением размера для фильтров, которые сохраняют или разделяют ответ.
+ *
+ * <p>Части тела накапливаются, пока их суммарный размер не превысил предел, поэтому в памяти находится не больше
+ * предела и одной части. Тело, уместившееся в предел, передается целиком после завершения. После превышения
+ * предела накопленные части и остаток тела сразу передаются дальше потоком, без ожидания завершения.
+ */
+public final class BoundedBody {
+
+    private BoundedBody() {
+    }
+
+    /**
+     * Собирает тело ответа.
+     *
+     * @param body     тело ответа
+     * @param maxBytes максимальный размер собираемого тела
+     * @param complete обработчик тела не больше {@code maxBytes}, получает его содержимое
+     * @param exceeded обработчик тела больше {@code maxBytes} или завершившегося ошибкой, получает все тело,
+     *                 включая уже накопленные части
+     * @return результат обработчика
+     */
+    public static Mono<Void> collect(Publisher<? extends DataBuffer> body, long maxBytes,
+                                     Function<byte[], Mono<Void>> complete,
+                                     Function<Flux<DataBuffer>, Mono<Void>> exceeded) {
+        Limit limit = new Limit(maxBytes);
+        return Flux.<DataBuffer>from(body)
+                .bufferUntil(limit::exceededBy)
+                .<Void>switchOnFirst((first, parts) -> {
+                    if (limit.exceeded || first.isOnError()) {
+                        return exceeded.apply(parts.concatMapIterable(Function.identity()));
+                    }
+                    // Тело уместилось в предел: единственный список частей приходит после завершения тела
+                    return parts.defaultIfEmpty(List.of()).concatMap(buffers -> complete.apply(toBytes(buffers)));
+                })
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .then();
+    }
+
+    private static byte[] toBytes(List<DataBuffer> buffers) {
+        int size = 0;
+        for (DataBuffer buffer : buffers) {
+            size += buffer.readableByteCount();
+        }
+        byte[] bytes = new byte[size];
+        int offset = 0;
+        for (DataBuffer buffer : buffers) {
+            int length = buffer.readableByteCount();
+            buffer.read(bytes, offset, length);
+            offset += length;
+            DataBufferUtils.release(buffer);
+        }
+        return bytes;
+    }
+
+    /**
+     * Счетчик размера тела до превышения предела, используется одной подпиской.
+     */
+    private static final class Limit {
+
+        private final long maxBytes;
+
+        private long bytes;
+
+        private boolean exceeded;
+
+        private Limit(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        /**
+         * Учитывает часть тела.
+         *
+         * @param part часть тела
+         * @return true если предел превышен этой или одной из предыдущих частей
+         */
+        private boolean exceededBy(DataBuffer part) {
+            if (!exceeded) {
+                bytes += part.readableByteCount();
+                exceeded = bytes > maxBytes;
+            }
+            return exceeded;
+        }
+    }
+}
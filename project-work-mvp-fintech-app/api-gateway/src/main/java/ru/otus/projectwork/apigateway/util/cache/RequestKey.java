@@ -0,0 +1,34 @@
+package ru.otus.projectwork.apigateway.util.cache;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.util.List;
+
+/**
+ * Ключ GET запроса клиента для кэширования и объединения одинаковых запросов.
+ */
+public final class RequestKey {
+
+    private RequestKey() {
+    }
+
+    /**
+     * Строит ключ из clientId, пути с параметрами и значений заголовков, от которых зависит ответ.
+     *
+     * @param clientId    идентификатор клиента
+     * @param request     запрос
+     * @param varyHeaders заголовки запроса, входящие в ключ
+     * @return ключ запроса
+     */
+    public static String of(String clientId, ServerHttpRequest request, List<String> varyHeaders) {
+        StringBuilder key = new StringBuilder(clientId).append('\n').append(request.getURI().getRawPath());
+        String query = request.getURI().getRawQuery();
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        for (String header : varyHeaders) {
+            key.append('\n').append(request.getHeaders().getOrEmpty(header));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,253 @@
+package ru.otus.projectwork.apigateway.util.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Ограниченный по объему кэш ответов GET запросов клиентов.
+ *
+ * <p>Тело ответа хранится в direct {@link ByteBuffer} вне кучи Java, поэтому кэш не увеличивает паузы сборщика
+ * мусора, а при отдаче тело передается в сокет без копирования. Объем тел ограничен {@code maximumBytes}, вытеснение
+ * выполняется политикой W-TinyLFU (Caffeine), каждая запись истекает через свой TTL.
+ *
+ * <p>Запись принадлежит клиенту. {@link #invalidate(String)} делает все записи клиента, сохраненные по запросам,
+ * начатым до вызова, недействительными без перебора кэша: момент инвалидации хранится не дольше максимального TTL,
+ * а записи старше него к этому времени уже истекли.
+ *
+ * <p>Статистика попаданий и промахов публикуется в Micrometer под именем {@value #CACHE_NAME}, объем тел - метрикой
+ * {@code gateway.response-cache.bytes}.
+ */
+public class ResponseCache {
+
+    /**
+     * Имя кэша в метриках Micrometer.
+     */
+    public static final String CACHE_NAME = "gateway.responses";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    });
+
+    private static final int ETAG_BYTES = 16;
+
+    private final Cache<String, CachedResponse> entries;
+
+    private final Cache<String, Long> invalidations;
+
+    private final Ticker ticker;
+
+    private final int maxEntryBytes;
+
+    private final Duration maxTtl;
+
+    private ResponseCache(Cache<String, CachedResponse> entries, Cache<String, Long> invalidations, Ticker ticker,
+                          int maxEntryBytes, Duration maxTtl) {
+        this.entries = entries;
+        this.invalidations = invalidations;
+        this.ticker = ticker;
+        this.maxEntryBytes = maxEntryBytes;
+        this.maxTtl = maxTtl;
+    }
+
+    /**
+     * Создает кэш и регистрирует его метрики.
+     *
+     * @param maximumBytes  максимальный суммарный объем тел ответов
+     * @param maxEntryBytes максимальный размер тела одного ответа, большие ответы не кэшируются
+     * @param maxTtl        максимальный TTL записи
+     * @param meterRegistry реестр метрик
+     * @return включенный кэш
+     */
+    public static ResponseCache create(long maximumBytes, int maxEntryBytes, Duration maxTtl,
+                                       MeterRegistry meterRegistry) {
+        ResponseCache cache = create(maximumBytes, maxEntryBytes, maxTtl, Ticker.systemTicker());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.entries, CACHE_NAME);
+        Gauge.builder("gateway.response-cache.bytes", cache, ResponseCache::bytes)
+                .description("Off-heap bytes held by cached gateway responses")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        return cache;
+    }
+
+    static ResponseCache create(long maximumBytes, int maxEntryBytes, Duration maxTtl, Ticker ticker) {
+        Cache<String, CachedResponse> entries = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, CachedResponse response) -> response.body().capacity())
+                .expireAfter(new ResponseExpiry())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        // Без ограничения по размеру: вытеснение момента инвалидации раньше TTL вернуло бы устаревшие записи
+        Cache<String, Long> invalidations = Caffeine.newBuilder()
+                .expireAfterWrite(maxTtl)
+                .ticker(ticker)
+                .build();
+        return new ResponseCache(entries, invalidations, ticker, maxEntryBytes, maxTtl);
+    }
+
+    /**
+     * Создает выключенный кэш, который ничего не хранит.
+     *
+     * @return выключенный кэш
+     */
+    public static ResponseCache disabled() {
+        return new ResponseCache(null, null, Ticker.systemTicker(), 0, Duration.ZERO);
+    }
+
+    public boolean isEnabled() {
+        return entries != null;
+    }
+
+    /**
+     * Возвращает максимальный размер тела одного ответа, который может быть сохранен.
+     *
+     * @return размер в байтах
+     */
+    public int maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * Возвращает текущее время кэша, с которым сравниваются моменты сохранения и инвалидации.
+     *
+     * @return время в наносекундах
+     */
+    public long now() {
+        return ticker.read();
+    }
+
+    /**
+     * Возвращает действительный ответ.
+     *
+     * @param clientId идентификатор клиента
+     * @param key      ключ запроса, включающий clientId
+     * @return ответ или null, если ответа нет, он истек или был инвалидирован
+     */
+    public CachedResponse get(String clientId, String key) {
+        if (entries == null) {
+            return null;
+        }
+        CachedResponse response = entries.getIfPresent(key);
+        if (response == null) {
+            return null;
+        }
+        Long invalidatedAt = invalidations.getIfPresent(clientId);
+        if (invalidatedAt != null && response.requestedAtNanos() - invalidatedAt <= 0) {
+            entries.asMap().remove(key, response);
+            return null;
+        }
+        return response;
+    }
+
+    /**
+     * Сохраняет ответ.
+     *
+     * @param key              ключ запроса, включающий clientId
+     * @param body             тело ответа
+     * @param contentType      значение заголовка Content-Type, может быть null
+     * @param etag             значение заголовка ETag
+     * @param requestedAtNanos время начала запроса по {@link #now()}
+     * @param ttl              время жизни записи, не больше максимального TTL
+     * @return true если ответ сохранен
+     */
+    public boolean put(String key, byte[] body, String contentType, String etag, long requestedAtNanos,
+                       Duration ttl) {
+        if (entries == null || body.length > maxEntryBytes || ttl.isZero() || ttl.isNegative()) {
+            return false;
+        }
+        ByteBuffer offHeap = ByteBuffer.allocateDirect(body.length).put(body).flip().asReadOnlyBuffer();
+        long ttlNanos = Math.min(ttl.toNanos(), maxTtl.toNanos());
+        entries.put(key, new CachedResponse(offHeap, contentType, etag, requestedAtNanos, ttlNanos));
+        return true;
+    }
+
+    /**
+     * Делает недействительными все ответы клиента на запросы, начатые до вызова.
+     *
+     * @param clientId идентификатор клиента
+     */
+    public void invalidate(String clientId) {
+        if (invalidations != null) {
+            invalidations.put(clientId, ticker.read());
+        }
+    }
+
+    /**
+     * Возвращает суммарный объем тел ответов. Перед чтением выполняет отложенное обслуживание кэша, поэтому
+     * предназначен для метрик, а не для пути запроса.
+     *
+     * @return объем в байтах
+     */
+    public long bytes() {
+        if (entries == null) {
+            return 0;
+        }
+        entries.cleanUp();
+        return entries.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+    }
+
+    /**
+     * Вычисляет сильный ETag тела ответа: первые 128 бит SHA-256 в Base64 URL.
+     *
+     * @param body тело ответа
+     * @return значение заголовка ETag в кавычках
+     */
+    public static String etag(byte[] body) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        byte[] hash = digest.digest(body);
+        return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, ETAG_BYTES)) + '"';
+    }
+
+    /**
+     * Сохраненный ответ.
+     *
+     * @param body             тело ответа вне кучи, только для чтения
+     * @param contentType      значение заголовка Content-Type, может быть null
+     * @param etag             значение заголовка ETag
+     * @param requestedAtNanos время начала запроса, по которому получен ответ
+     * @param ttlNanos         время жизни записи
+     */
+    public record CachedResponse(ByteBuffer body, String contentType, String etag, long requestedAtNanos,
+                                 long ttlNanos) {
+    }
+
+    /**
+     * Срок жизни записи задается при сохранении и не продлевается чтением.
+     */
+    private static final class ResponseExpiry implements Expiry<String, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ru.otus.projectwork.apigateway.util.cache;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Объединение одновременных одинаковых операций: первая операция с ключом выполняется, остальные ждут ее результат.
+ *
+ * <p>Ключ удаляется из таблицы в момент публикации результата, поэтому операция, начатая после этого, выполняется
+ * заново и не получает устаревший результат. Если ведущая операция завершилась без результата, ожидающие получают
+ * пустой {@link Mono} и выполняют операцию сами.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип результата
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, Sinks.One<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Присоединяется к операции с ключом или начинает ее.
+     *
+     * @param key ключ операции
+     * @return участие в операции: ведущее, если операции с ключом не было
+     */
+    public Flight join(K key) {
+        Sinks.One<V> sink = Sinks.one();
+        Sinks.One<V> existing = inFlight.putIfAbsent(key, sink);
+        return existing == null ? new Flight(key, sink, true) : new Flight(key, existing, false);
+    }
+
+    /**
+     * Возвращает количество выполняющихся операций.
+     *
+     * @return количество ключей
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    /**
+     * Участие в операции.
+     */
+    public final class Flight {
+
+        private final K key;
+
+        private final Sinks.One<V> sink;
+
+        private final boolean leader;
+
+        private Flight(K key, Sinks.One<V> sink, boolean leader) {
+            this.key = key;
+            this.sink = sink;
+            this.leader = leader;
+        }
+
+        /**
+         * Проверяет, должен ли участник выполнить операцию сам.
+         *
+         * @return true для первого участника
+         */
+        public boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * Возвращает результат ведущей операции.
+         *
+         * @return результат или пустой Mono, если ведущая операция завершилась без результата
+         */
+        public Mono<V> result() {
+            return sink.asMono();
+        }
+
+        /**
+         * Публикует результат ведущей операции ожидающим участникам.
+         *
+         * @param value результат
+         */
+        public void complete(V value) {
+            inFlight.remove(key, sink);
+            sink.tryEmitValue(value);
+        }
+
+        /**
+         * Завершает ведущую операцию без результата. После {@link #complete(Object)} ничего не делает.
+         */
+        public void abandon() {
+            inFlight.remove(key, sink);
+            sink.tryEmitEmpty();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package ru.otus.projectwork.apigateway.util.path;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Скомпилированный набор публичных путей в виде префиксного дерева.
+ *
+ * <p>Поддерживаются два вида шаблонов:
+ * <ul>
+ *   <li>{@code /api/users/public/**} - любой путь, начинающийся с {@code /api/users/public/}</li>
+ *   <li>{@code /actuator/health} - точное совпадение пути</li>
+ * </ul>
+ *
+ * <p>Дерево строится один раз при создании маршрута и после этого не изменяется, поэтому экземпляр потокобезопасен.
+ * Проверка пути проходит по символам строки и дочерним узлам дерева без создания объектов и не зависит от
+ * количества шаблонов.
+ */
+public final class PublicPathMatcher {
+
+    private static final String PREFIX_WILDCARD = "**";
+
+    private static final PublicPathMatcher EMPTY = new PublicPathMatcher(null);
+
+    private final Node root;
+
+    private PublicPathMatcher(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Компилирует шаблоны публичных путей.
+     *
+     * @param patterns шаблоны путей, может быть null
+     * @return матчер публичных путей
+     */
+    public static PublicPathMatcher compile(Collection<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return EMPTY;
+        }
+        MutableNode root = new MutableNode();
+        for (String pattern : patterns) {
+            if (pattern == null || pattern.isBlank()) {
+                continue;
+            }
+            String trimmed = pattern.trim();
+            boolean prefix = trimmed.endsWith(PREFIX_WILDCARD);
+            String literal = prefix ? trimmed.substring(0, trimmed.length() - PREFIX_WILDCARD.length()) : trimmed;
+            MutableNode node = root;
+            for (int i = 0; i < literal.length(); i++) {
+                node = node.children.computeIfAbsent(literal.charAt(i), c -> new MutableNode());
+            }
+            if (prefix) {
+                node.prefix = true;
+            } else {
+                node.exact = true;
+            }
+        }
+        return root.children.isEmpty() && !root.prefix && !root.exact ? EMPTY : new PublicPathMatcher(root.freeze());
+    }
+
+    /**
+     * Проверяет, содержит ли набор хотя бы один шаблон.
+     *
+     * @return true если шаблонов нет и любой путь считается защищенным
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Проверяет, является ли путь публичным.
+     *
+     * @param path путь запроса
+     * @return true если путь соответствует одному из шаблонов
+     */
+    public boolean matches(String path) {
+        Node node = root;
+        if (node == null || path == null) {
+            return false;
+        }
+        for (int i = 0, length = path.length(); i < length; i++) {
+            if (node.prefix) {
+                return true;
+            }
+            node = node.child(path.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.prefix || node.exact;
+    }
+
+    /**
+     * Неизменяемый узел дерева. Метки дочерних узлов отсортированы для бинарного поиска.
+     */
+    private static final class Node {
+
+        private final char[] labels;
+
+        private final Node[] children;
+
+        private final boolean prefix;
+
+        private final boolean exact;
+
+        private Node(char[] labels, Node[] children, boolean prefix, boolean exact) {
+            this.labels = labels;
+            this.children = children;
+            this.prefix = prefix;
+            this.exact = exact;
+        }
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    /**
+     * Изменяемый узел, используемый только при компиляции.
+     */
+    private static final class MutableNode {
+
+        private final Map<Character, MutableNode> children = new TreeMap<>();
+
+        private boolean prefix;
+
+        private boolean exact;
+
+        private Node freeze() {
+            char[] labels = new char[children.size()];
+            Node[] frozen = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, MutableNode> entry : children.entrySet()) {
+                labels[i] = entry.getKey();
+                frozen[i] = entry.getValue().freeze();
+                i++;
+            }
+            return new Node(labels, frozen, prefix, exact);
+        }
+    }
+}
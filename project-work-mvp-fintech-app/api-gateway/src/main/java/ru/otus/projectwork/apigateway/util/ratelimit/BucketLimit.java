@@ -0,0 +1,45 @@
+package ru.otus.projectwork.apigateway.util.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Параметры token bucket.
+ *
+ * <p>{@code capacity} - максимальный размер пачки запросов, {@code refillPerSecond} - скорость пополнения
+ * корзины, то есть средний допустимый поток запросов в секунду.
+ */
+@Getter
+@Setter
+public class BucketLimit {
+
+    private long capacity;
+
+    private double refillPerSecond;
+
+    public BucketLimit() {
+    }
+
+    public BucketLimit(long capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+    }
+
+    /**
+     * Возвращает интервал пополнения одного токена.
+     *
+     * @return интервал в наносекундах
+     */
+    public long emissionIntervalNanos() {
+        return (long) (1_000_000_000L / refillPerSecond);
+    }
+
+    /**
+     * Проверяет, что лимит задан корректно и должен применяться.
+     *
+     * @return true если емкость и скорость пополнения положительны
+     */
+    public boolean isEnabled() {
+        return capacity > 0 && refillPerSecond > 0;
+    }
+}
@@ -0,0 +1,72 @@
+package ru.otus.projectwork.apigateway.util.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket в памяти узла gateway.
+ *
+ * <p>Корзина хранится как одно значение {@link AtomicLong} - теоретическое время прибытия следующего запроса
+ * (GCRA, эквивалент token bucket). Запрос разрешен, если это время опережает текущее не больше чем на
+ * {@code capacity} интервалов пополнения. Обновление выполняется CAS без блокировок и без создания объектов на
+ * запрос.
+ *
+ * <p>Корзины, к которым не обращались дольше {@code idleTimeout}, удаляются: простоявшая корзина уже полностью
+ * пополнена, поэтому ее удаление не меняет решения, если {@code idleTimeout} не меньше времени пополнения.
+ */
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private static final Mono<Long> ALLOWED = Mono.just(0L);
+
+    private final Cache<String, AtomicLong> buckets;
+
+    private final LongSupplier nanoClock;
+
+    public InMemoryRateLimiter(long maximumKeys, Duration idleTimeout) {
+        this(maximumKeys, idleTimeout, System::nanoTime);
+    }
+
+    InMemoryRateLimiter(long maximumKeys, Duration idleTimeout, LongSupplier nanoClock) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Long> tryAcquire(String key, BucketLimit limit) {
+        long waitNanos = acquire(key, limit);
+        return waitNanos == 0L ? ALLOWED : Mono.just(Math.max(1L, waitNanos / 1_000_000L));
+    }
+
+    /**
+     * Пытается забрать токен.
+     *
+     * @param key   ключ корзины
+     * @param limit параметры корзины
+     * @return 0 если токен получен, иначе время ожидания в наносекундах
+     */
+    long acquire(String key, BucketLimit limit) {
+        long interval = limit.emissionIntervalNanos();
+        long tolerance = interval * limit.getCapacity();
+        AtomicLong theoreticalArrival = buckets.get(key, k -> new AtomicLong(nanoClock.getAsLong()));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + interval;
+            long ahead = next - now;
+            if (ahead > tolerance) {
+                return ahead - tolerance;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0L;
+            }
+        }
+    }
+}
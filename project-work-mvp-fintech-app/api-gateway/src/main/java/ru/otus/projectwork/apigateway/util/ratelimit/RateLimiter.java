@@ -0,0 +1,18 @@
+package ru.otus.projectwork.apigateway.util.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Ограничитель частоты запросов по ключу (clientId, IP адрес).
+ */
+public interface RateLimiter {
+
+    /**
+     * Пытается забрать один токен из корзины ключа.
+     *
+     * @param key   ключ корзины
+     * @param limit параметры корзины
+     * @return 0 если запрос разрешен, иначе время в миллисекундах, через которое появится свободный токен
+     */
+    Mono<Long> tryAcquire(String key, BucketLimit limit);
+}
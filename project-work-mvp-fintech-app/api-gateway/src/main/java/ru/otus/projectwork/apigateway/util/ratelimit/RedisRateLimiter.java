@@ -0,0 +1,62 @@
+package ru.otus.projectwork.apigateway.util.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Token bucket в Redis, общий для всех узлов gateway.
+ *
+ * <p>Алгоритм тот же, что и у {@link InMemoryRateLimiter}: по ключу хранится теоретическое время прибытия
+ * следующего запроса в микросекундах. Чтение, проверка и запись выполняются одним Lua скриптом, время берется
+ * из Redis ({@code TIME}), поэтому расхождение часов узлов gateway на решение не влияет.
+ *
+ * <p>Если Redis недоступен, запрос пропускается: отказ ограничителя не должен останавливать весь трафик.
+ */
+@Slf4j
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final String KEY_PREFIX = "rate-limit:";
+
+    private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT = RedisScript.of("""
+            local interval = tonumber(ARGV[1])
+            local tolerance = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local tat = tonumber(redis.call('GET', KEYS[1])) or now
+            if tat < now then
+                tat = now
+            end
+            local next = tat + interval
+            local ahead = next - now
+            if ahead > tolerance then
+                return ahead - tolerance
+            end
+            redis.call('SET', KEYS[1], next, 'PX', math.ceil(ahead / 1000) + 1)
+            return 0
+            """, Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisRateLimiter(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<Long> tryAcquire(String key, BucketLimit limit) {
+        long intervalMicros = Math.max(1L, limit.emissionIntervalNanos() / 1_000L);
+        long toleranceMicros = intervalMicros * limit.getCapacity();
+        return redisTemplate.execute(TOKEN_BUCKET_SCRIPT, List.of(KEY_PREFIX + key),
+                        List.of(Long.toString(intervalMicros), Long.toString(toleranceMicros)))
+                .next()
+                .map(waitMicros -> waitMicros == 0L ? 0L : Math.max(1L, waitMicros / 1_000L))
+                .onErrorResume(e -> {
+                    log.warn("⚠️ Redis rate limiter is unavailable, request is allowed: {}", e.getMessage());
+                    return Mono.just(0L);
+                })
+                .defaultIfEmpty(0L);
+    }
+}
@@ -0,0 +1,177 @@
+package ru.otus.projectwork.apigateway.util.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker без блокировок.
+ *
+ * <p>В замкнутом состоянии результаты вызовов накапливаются в окне из {@code slidingWindowSize} вызовов: счетчики
+ * вызовов и ошибок упакованы в один {@link AtomicLong} и обновляются CAS. Когда окно заполнено, оно сбрасывается,
+ * и если доля ошибок не меньше {@code failureRateThreshold}, breaker размыкается. Через {@code openDuration}
+ * первый запрос переводит breaker в полуоткрытое состояние, в котором пропускается {@code halfOpenProbes}
+ * пробных запросов: ошибка любого из них снова размыкает breaker, успех всех - замыкает.
+ *
+ * <p>Переходы между состояниями выполняются CAS, поэтому из нескольких одновременных потоков переход выполняет
+ * ровно один.
+ */
+public final class CircuitBreaker {
+
+    /**
+     * Состояние circuit breaker. Порядковый номер публикуется в метриках.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureRateThreshold;
+
+    private final int slidingWindowSize;
+
+    private final long openDurationNanos;
+
+    private final int halfOpenProbes;
+
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+    /**
+     * Количество вызовов в старших 32 битах, количество ошибок в младших.
+     */
+    private final AtomicLong window = new AtomicLong();
+
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    private volatile long openedAtNanos;
+
+    public CircuitBreaker(RoutePolicy policy) {
+        this(policy, System::nanoTime);
+    }
+
+    CircuitBreaker(RoutePolicy policy, LongSupplier nanoClock) {
+        this.failureRateThreshold = policy.getFailureRateThreshold();
+        this.slidingWindowSize = Math.max(1, policy.getSlidingWindowSize());
+        this.openDurationNanos = policy.getOpenDuration().toNanos();
+        this.halfOpenProbes = Math.max(1, policy.getHalfOpenProbes());
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Проверяет, можно ли выполнить вызов. В полуоткрытом состоянии разрешение расходует один пробный запрос,
+     * его нужно завершить вызовом {@link #onSuccess()}, {@link #onFailure()} или {@link #releasePermission()}.
+     *
+     * @return true если вызов разрешен
+     */
+    public boolean tryAcquirePermission() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < openDurationNanos) {
+                return false;
+            }
+            if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                halfOpenSuccesses.set(0);
+                halfOpenPermits.set(halfOpenProbes);
+            }
+        }
+        return tryTakeProbe();
+    }
+
+    /**
+     * Возвращает неиспользованное разрешение, например если запрос был отменен клиентом.
+     */
+    public void releasePermission() {
+        if (state.get() == State.HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    /**
+     * Учитывает успешный вызов.
+     */
+    public void onSuccess() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            record(false);
+        } else if (current == State.HALF_OPEN
+                && halfOpenSuccesses.incrementAndGet() >= halfOpenProbes
+                && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            window.set(0);
+        }
+    }
+
+    /**
+     * Учитывает неуспешный вызов: ошибку соединения, таймаут или ответ 5xx.
+     */
+    public void onFailure() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            record(true);
+        } else if (current == State.HALF_OPEN) {
+            open(State.HALF_OPEN);
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Возвращает время до перехода в полуоткрытое состояние.
+     *
+     * @return миллисекунды до пробных запросов или 0, если breaker не разомкнут
+     */
+    public long remainingOpenMillis() {
+        if (state.get() != State.OPEN) {
+            return 0;
+        }
+        long remainingNanos = openDurationNanos - (nanoClock.getAsLong() - openedAtNanos);
+        return Math.max(0, remainingNanos / 1_000_000);
+    }
+
+    private boolean tryTakeProbe() {
+        while (true) {
+            int permits = halfOpenPermits.get();
+            if (permits <= 0) {
+                return false;
+            }
+            if (halfOpenPermits.compareAndSet(permits, permits - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void record(boolean failure) {
+        while (true) {
+            long current = window.get();
+            long calls = (current >>> 32) + 1;
+            long failures = (current & 0xFFFF_FFFFL) + (failure ? 1 : 0);
+            if (calls < slidingWindowSize) {
+                if (window.compareAndSet(current, (calls << 32) | failures)) {
+                    return;
+                }
+            } else if (window.compareAndSet(current, 0)) {
+                if (failures * 100 >= (long) failureRateThreshold * calls) {
+                    open(State.CLOSED);
+                }
+                return;
+            }
+        }
+    }
+
+    private void open(State from) {
+        // Разрешения и момент размыкания записываются до публикации состояния OPEN
+        halfOpenPermits.set(0);
+        openedAtNanos = nanoClock.getAsLong();
+        state.compareAndSet(from, State.OPEN);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.otus.projectwork.apigateway.util.resilience;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Параметры изоляции маршрута: таймаут ответа, bulkhead и circuit breaker.
+ *
+ * <p>Незаданные параметры маршрута берутся из значений по умолчанию, см. {@link #withDefaults(RoutePolicy)}.
+ */
+@Getter
+@Setter
+public class RoutePolicy {
+
+    /**
+     * Максимальное время ожидания ответа downstream сервиса (до заголовков ответа).
+     */
+    private Duration timeout;
+
+    /**
+     * Максимальное количество одновременных запросов к маршруту.
+     */
+    private Integer maxConcurrentCalls;
+
+    /**
+     * Доля неуспешных вызовов в окне, в процентах, при которой circuit breaker размыкается.
+     */
+    private Integer failureRateThreshold;
+
+    /**
+     * Количество вызовов в окне, по которому считается доля неуспешных.
+     */
+    private Integer slidingWindowSize;
+
+    /**
+     * Время, на которое circuit breaker размыкается перед пробными запросами.
+     */
+    private Duration openDuration;
+
+    /**
+     * Количество пробных запросов в полуоткрытом состоянии, все они должны завершиться успешно.
+     */
+    private Integer halfOpenProbes;
+
+    /**
+     * Создает параметры по умолчанию.
+     *
+     * @return параметры по умолчанию
+     */
+    public static RoutePolicy defaults() {
+        RoutePolicy policy = new RoutePolicy();
+        policy.setTimeout(Duration.ofSeconds(5));
+        policy.setMaxConcurrentCalls(100);
+        policy.setFailureRateThreshold(50);
+        policy.setSlidingWindowSize(20);
+        policy.setOpenDuration(Duration.ofSeconds(10));
+        policy.setHalfOpenProbes(3);
+        return policy;
+    }
+
+    /**
+     * Дополняет незаданные параметры значениями по умолчанию.
+     *
+     * @param defaults значения по умолчанию
+     * @return новые параметры, в которых заданы все значения
+     */
+    public RoutePolicy withDefaults(RoutePolicy defaults) {
+        RoutePolicy policy = new RoutePolicy();
+        policy.setTimeout(timeout != null ? timeout : defaults.getTimeout());
+        policy.setMaxConcurrentCalls(maxConcurrentCalls != null ? maxConcurrentCalls : defaults.getMaxConcurrentCalls());
+        policy.setFailureRateThreshold(failureRateThreshold != null
+                ? failureRateThreshold : defaults.getFailureRateThreshold());
+        policy.setSlidingWindowSize(slidingWindowSize != null ? slidingWindowSize : defaults.getSlidingWindowSize());
+        policy.setOpenDuration(openDuration != null ? openDuration : defaults.getOpenDuration());
+        policy.setHalfOpenProbes(halfOpenProbes != null ? halfOpenProbes : defaults.getHalfOpenProbes());
+        return policy;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.otus.projectwork.apigateway.util.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Таймаут, bulkhead и circuit breaker одного маршрута.
+ *
+ * <p>Bulkhead - семафор, который захватывается без ожидания: запрос сверх {@code maxConcurrentCalls} сразу
+ * отклоняется, а не встает в очередь, поэтому медленный downstream сервис занимает не больше своей доли
+ * соединений gateway.
+ */
+public final class RouteResilience {
+
+    private final String routeId;
+
+    private final Duration timeout;
+
+    private final int maxConcurrentCalls;
+
+    private final Semaphore bulkhead;
+
+    private final CircuitBreaker circuitBreaker;
+
+    public RouteResilience(String routeId, RoutePolicy policy) {
+        this.routeId = routeId;
+        this.timeout = policy.getTimeout();
+        this.maxConcurrentCalls = policy.getMaxConcurrentCalls();
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.circuitBreaker = new CircuitBreaker(policy);
+    }
+
+    /**
+     * Занимает место в bulkhead без ожидания.
+     *
+     * @return true если место получено, его нужно освободить вызовом {@link #releaseBulkhead()}
+     */
+    public boolean tryAcquireBulkhead() {
+        return bulkhead.tryAcquire();
+    }
+
+    public void releaseBulkhead() {
+        bulkhead.release();
+    }
+
+    /**
+     * Возвращает количество запросов, выполняющихся сейчас.
+     *
+     * @return занятые места bulkhead
+     */
+    public int inFlight() {
+        return maxConcurrentCalls - bulkhead.availablePermits();
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+}
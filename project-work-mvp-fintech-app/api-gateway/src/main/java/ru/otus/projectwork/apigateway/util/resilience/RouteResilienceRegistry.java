@@ -0,0 +1,73 @@
+package ru.otus.projectwork.apigateway.util.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реестр {@link RouteResilience} по идентификатору маршрута.
+ *
+ * <p>Объекты создаются при первом запросе к маршруту из параметров маршрута, дополненных значениями по умолчанию,
+ * и публикуют метрики с тегом {@code route}:
+ * <ul>
+ *   <li>{@code gateway.circuit-breaker.state} - 0 замкнут, 1 разомкнут, 2 полуоткрыт</li>
+ *   <li>{@code gateway.bulkhead.in-flight} - выполняющиеся запросы</li>
+ *   <li>{@code gateway.bulkhead.max} - размер bulkhead</li>
+ * </ul>
+ */
+public class RouteResilienceRegistry {
+
+    private final RoutePolicy defaults;
+
+    private final Map<String, RoutePolicy> routes;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, RouteResilience> byRouteId = new ConcurrentHashMap<>();
+
+    /**
+     * Создает реестр.
+     *
+     * @param defaults      параметры по умолчанию
+     * @param routes        параметры по идентификатору маршрута, могут задавать только часть значений
+     * @param meterRegistry реестр метрик
+     */
+    public RouteResilienceRegistry(RoutePolicy defaults, Map<String, RoutePolicy> routes,
+                                   MeterRegistry meterRegistry) {
+        this.defaults = defaults.withDefaults(RoutePolicy.defaults());
+        this.routes = Map.copyOf(routes);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Возвращает изоляцию маршрута, создавая ее при первом обращении.
+     *
+     * @param routeId идентификатор маршрута
+     * @return изоляция маршрута
+     */
+    public RouteResilience forRoute(String routeId) {
+        RouteResilience existing = byRouteId.get(routeId);
+        return existing != null ? existing : byRouteId.computeIfAbsent(routeId, this::create);
+    }
+
+    private RouteResilience create(String routeId) {
+        RoutePolicy policy = routes.getOrDefault(routeId, new RoutePolicy()).withDefaults(defaults);
+        RouteResilience resilience = new RouteResilience(routeId, policy);
+        Gauge.builder("gateway.circuit-breaker.state", resilience,
+                        r -> r.getCircuitBreaker().getState().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.bulkhead.in-flight", resilience, RouteResilience::inFlight)
+                .description("Requests currently in flight through the route bulkhead")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.bulkhead.max", resilience, RouteResilience::getMaxConcurrentCalls)
+                .description("Maximum concurrent requests allowed by the route bulkhead")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return resilience;
+    }
+}
@@ -0,0 +1,82 @@
+package ru.otus.projectwork.apigateway.util.token;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import ru.otus.projectwork.common.jwt.JwksKeyCache;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Неблокирующий источник JWKS для {@link JwksKeyCache#nonBlocking}.
+ *
+ * <p>Документ запрашивается через {@link WebClient}, поэтому загрузка не занимает поток event loop, в котором
+ * проверяется токен. Неудачный запрос повторяется с экспоненциальной задержкой до {@code maxRetryBackoff}, пока
+ * издатель не ответит: gateway, запущенный раньше user-service, получает ключи сразу после его запуска.
+ * {@link JwksKeyCache} не запускает новую загрузку, пока выполняется предыдущая, поэтому повторы не
+ * накапливаются.
+ */
+@Slf4j
+public final class JwksClient implements Supplier<CompletionStage<String>>, AutoCloseable {
+
+    private final Mono<String> request;
+
+    private final Disposable.Swap inFlight = Disposables.swap();
+
+    /**
+     * Создает источник.
+     *
+     * @param webClient       клиент, для адреса вида {@code http://<сервис>/...} с балансировкой между экземплярами
+     * @param uri             адрес JWK Set
+     * @param timeout         время ожидания ответа на один запрос
+     * @param retryBackoff    задержка перед первым повтором
+     * @param maxRetryBackoff максимальная задержка между повторами
+     */
+    public JwksClient(WebClient webClient, URI uri, Duration timeout, Duration retryBackoff,
+                      Duration maxRetryBackoff) {
+        this.request = webClient.get()
+                .uri(uri)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(timeout)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, retryBackoff)
+                        .maxBackoff(maxRetryBackoff)
+                        .doBeforeRetry(signal -> {
+                            // Предупреждение пишется один раз на серию ошибок, чтобы недоступный издатель не
+                            // заполнял лог
+                            if (signal.totalRetriesInARow() == 0) {
+                                log.warn("⚠️ JWKS request to {} failed, retrying: {}", uri,
+                                        signal.failure().getMessage());
+                            } else {
+                                log.debug("🚨 JWKS request to {} failed: {}", uri, signal.failure().getMessage());
+                            }
+                        }));
+    }
+
+    /**
+     * Запускает загрузку JWKS.
+     *
+     * @return JSON документ JWK Set, null если издатель ответил без тела
+     */
+    @Override
+    public CompletionStage<String> get() {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        inFlight.update(request.subscribe(result::complete, result::completeExceptionally,
+                () -> result.complete(null)));
+        return result;
+    }
+
+    @Override
+    public void close() {
+        inFlight.dispose();
+    }
+}
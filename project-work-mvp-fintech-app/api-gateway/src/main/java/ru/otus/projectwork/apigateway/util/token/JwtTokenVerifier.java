@@ -0,0 +1,70 @@
+package ru.otus.projectwork.apigateway.util.token;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.otus.projectwork.common.jwt.JwtKeyRing;
+
+import java.util.Optional;
+
+/**
+ * Верификатор JWT токенов для API Gateway.
+ *
+ * <p>Использует общий {@link JwtParser} из {@link JwtKeyRing}: ключи декодируются один раз при старте, ключ
+ * проверки выбирается по заголовку {@code kid}. Подпись и срок действия токена проверяются за один разбор,
+ * результатом которого являются claims токена.
+ */
+@Slf4j
+@Component
+public class JwtTokenVerifier {
+
+    private final JwtParser jwtParser;
+
+    /**
+     * Создает верификатор на основе набора ключей.
+     *
+     * @param jwtKeyRing набор ключей проверки
+     */
+    public JwtTokenVerifier(JwtKeyRing jwtKeyRing) {
+        this.jwtParser = jwtKeyRing.parser();
+        log.info("✅ JwtTokenVerifier initialized with key ids {}", jwtKeyRing.getKids());
+    }
+
+    /**
+     * Проверяет подпись и срок действия токена за один разбор.
+     *
+     * @param token JWT токен
+     * @return claims токена или пустой Optional, если токен невалиден или просрочен
+     */
+    public Optional<Claims> verify(String token) {
+        try {
+            return Optional.of(jwtParser.parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("🚨 Token validation failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Извлекает идентификатор пользователя из проверенных claims.
+     *
+     * <p>Пытается извлечь clientId в следующем порядке:
+     * <ol>
+     *   <li>Из claims по ключу "clientId"</li>
+     *   <li>Из subject токена, если clientId не найден</li>
+     * </ol>
+     *
+     * @param claims проверенные claims токена
+     * @return clientId пользователя или null если не удалось извлечь
+     */
+    public static String resolveClientId(Claims claims) {
+        String clientId = claims.get("clientId", String.class);
+        if (clientId != null) {
+            return clientId;
+        }
+        String subject = claims.getSubject();
+        return subject != null && !subject.isEmpty() ? subject : null;
+    }
+}
@@ -0,0 +1,154 @@
+package ru.otus.projectwork.apigateway.util.token;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.otus.projectwork.common.bloom.BloomFilter;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Локальная копия списка отозванных токенов.
+ *
+ * <p>Проверка выполняется без сетевых обращений: сначала фильтр Блума, который для подавляющего большинства
+ * неотозванных токенов отвечает "точно нет" за несколько чтений бит, затем, только при положительном ответе
+ * фильтра, неизменяемая карта {@code jti -> exp}, которая исключает ложноположительные ответы. Запись считается
+ * действующей до окончания срока действия отозванного токена, поэтому истекшие записи не мешают, даже если
+ * очередная синхронизация еще не прошла.
+ *
+ * <p>Список периодически перечитывается из источника (Redis), новый снимок с фильтром и картой строится целиком и
+ * публикуется одной volatile записью, поэтому читатели никогда не блокируются. Ошибка синхронизации не сбрасывает
+ * последний полученный снимок. Отзыв становится виден gateway не позднее чем через интервал синхронизации.
+ */
+@Slf4j
+public final class RevokedTokenList implements AutoCloseable {
+
+    private static final RevokedTokenList DISABLED = new RevokedTokenList(0.01, System::currentTimeMillis);
+
+    private final double falsePositiveRate;
+
+    private final LongSupplier clock;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private volatile Disposable sync;
+
+    private boolean syncFailing;
+
+    RevokedTokenList(double falsePositiveRate, LongSupplier clock) {
+        this.falsePositiveRate = falsePositiveRate;
+        this.clock = clock;
+    }
+
+    /**
+     * Создает список и запускает периодическую синхронизацию.
+     *
+     * @param source            источник актуального списка {@code jti -> exp в миллисекундах epoch}
+     * @param interval          интервал синхронизации, первая выполняется сразу
+     * @param falsePositiveRate вероятность ложноположительного ответа фильтра Блума
+     * @return запущенный список
+     */
+    public static RevokedTokenList start(Supplier<Mono<Map<String, Long>>> source, Duration interval,
+                                         double falsePositiveRate) {
+        RevokedTokenList list = new RevokedTokenList(falsePositiveRate, System::currentTimeMillis);
+        list.sync = Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.defer(source)
+                        .doOnNext(list::update)
+                        .onErrorResume(e -> {
+                            list.onSyncError(e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+        return list;
+    }
+
+    /**
+     * Возвращает выключенный список, в котором нет ни одного токена.
+     *
+     * @return выключенный список
+     */
+    public static RevokedTokenList disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Проверяет, отозван ли токен.
+     *
+     * @param tokenId идентификатор токена {@code jti}, может быть null
+     * @return true если токен отозван и срок его действия еще не истек
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        Snapshot current = snapshot;
+        if (current.revoked.isEmpty() || !current.filter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAtMillis = current.revoked.get(tokenId);
+        return expiresAtMillis != null && expiresAtMillis > clock.getAsLong();
+    }
+
+    /**
+     * Возвращает количество записей в последнем снимке.
+     *
+     * @return количество отозванных токенов
+     */
+    public int size() {
+        return snapshot.revoked.size();
+    }
+
+    /**
+     * Заменяет снимок списка. Истекшие записи в новый снимок не попадают.
+     *
+     * @param revoked отозванные токены {@code jti -> exp в миллисекундах epoch}
+     */
+    void update(Map<String, Long> revoked) {
+        long now = clock.getAsLong();
+        Map<String, Long> active = new HashMap<>();
+        revoked.forEach((tokenId, expiresAtMillis) -> {
+            if (tokenId != null && expiresAtMillis != null && expiresAtMillis > now) {
+                active.put(tokenId, expiresAtMillis);
+            }
+        });
+        BloomFilter filter = BloomFilter.create(active.size(), falsePositiveRate);
+        active.keySet().forEach(filter::put);
+        snapshot = new Snapshot(filter, Map.copyOf(active));
+        if (syncFailing) {
+            syncFailing = false;
+            log.info("✅ Revoked token list synchronized again, {} tokens", active.size());
+        }
+    }
+
+    private void onSyncError(Throwable e) {
+        // Предупреждение пишется один раз на серию ошибок, чтобы недоступный Redis не заполнял лог
+        if (!syncFailing) {
+            syncFailing = true;
+            log.warn("⚠️ Revoked token list sync failed, keeping {} tokens: {}", size(), e.getMessage());
+        } else {
+            log.debug("🚨 Revoked token list sync failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        Disposable current = sync;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    /**
+     * Неизменяемый снимок списка.
+     */
+    private record Snapshot(BloomFilter filter, Map<String, Long> revoked) {
+
+        private static final Snapshot EMPTY = new Snapshot(BloomFilter.create(1, 0.5), Map.of());
+    }
+}
@@ -0,0 +1,151 @@
+package ru.otus.projectwork.apigateway.util.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Ограниченный по размеру кэш уже проверенных JWT токенов.
+ *
+ * <p>Ключом служит SHA-256 дайджест токена, значением - извлеченные из него clientId и идентификатор токена
+ * {@code jti}, по которому проверяется отзыв. Вытеснение выполняется
+ * политикой W-TinyLFU (Caffeine), а каждая запись истекает в момент окончания срока действия самого токена
+ * (claim {@code exp}), поэтому повторная проверка подписи не нужна, пока токен действителен.
+ *
+ * <p>Статистика попаданий, промахов и вытеснений публикуется в Micrometer под именем {@value #CACHE_NAME}.
+ */
+public class VerifiedTokenCache {
+
+    /**
+     * Имя кэша в метриках Micrometer.
+     */
+    public static final String CACHE_NAME = "jwt.verified-tokens";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    });
+
+    private final Cache<String, VerifiedToken> cache;
+
+    private VerifiedTokenCache(Cache<String, VerifiedToken> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Создает кэш заданного размера и регистрирует его метрики.
+     *
+     * @param maximumSize   максимальное количество записей
+     * @param meterRegistry реестр метрик
+     * @return включенный кэш
+     */
+    public static VerifiedTokenCache create(long maximumSize, MeterRegistry meterRegistry) {
+        Cache<String, VerifiedToken> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        return new VerifiedTokenCache(cache);
+    }
+
+    /**
+     * Создает выключенный кэш, который ничего не хранит.
+     *
+     * @return выключенный кэш
+     */
+    public static VerifiedTokenCache disabled() {
+        return new VerifiedTokenCache(null);
+    }
+
+    /**
+     * Возвращает результат ранее выполненной проверки токена.
+     *
+     * @param token JWT токен
+     * @return проверенный токен или пустой Optional, если токен не проверялся, истек или кэш выключен
+     */
+    public Optional<VerifiedToken> get(String token) {
+        if (cache == null) {
+            return Optional.empty();
+        }
+        VerifiedToken cached = cache.getIfPresent(digest(token));
+        if (cached == null || cached.expiresAtMillis() <= System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(cached);
+    }
+
+    /**
+     * Возвращает clientId ранее проверенного токена.
+     *
+     * @param token JWT токен
+     * @return clientId или пустой Optional, если токен не проверялся, истек или кэш выключен
+     */
+    public Optional<String> getClientId(String token) {
+        return get(token).map(VerifiedToken::clientId);
+    }
+
+    /**
+     * Сохраняет результат успешной проверки токена до окончания его срока действия.
+     *
+     * @param token      JWT токен
+     * @param clientId   clientId, извлеченный из токена
+     * @param tokenId    идентификатор токена {@code jti}, может быть null
+     * @param expiration срок действия токена, токены без срока действия не кэшируются
+     */
+    public void put(String token, String clientId, String tokenId, Date expiration) {
+        if (cache == null || clientId == null || expiration == null) {
+            return;
+        }
+        cache.put(digest(token), new VerifiedToken(clientId, tokenId, expiration.getTime()));
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    /**
+     * Запись кэша.
+     *
+     * @param clientId        идентификатор клиента
+     * @param tokenId         идентификатор токена {@code jti}, null для токенов без него
+     * @param expiresAtMillis момент окончания срока действия токена
+     */
+    public record VerifiedToken(String clientId, String tokenId, long expiresAtMillis) {
+    }
+
+    /**
+     * Политика истечения записи в момент окончания срока действия токена.
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+            return Math.max(0L, remainingMillis) * 1_000_000L;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.otus.projectwork.apigateway.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.otus.projectwork.apigateway.util.token.JwtTokenVerifier;
+import ru.otus.projectwork.common.jwt.JwtKeyRing;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение стоимости проверки JWT токена на один запрос.
+ *
+ * <p>{@code legacy} воспроизводит прежнюю логику JwtAuthFilter: ключ декодируется из Base64 и парсер создается
+ * заново дважды за запрос (validateToken и getUserIdFromToken). {@code singleParse} использует
+ * {@link JwtTokenVerifier} с ключом и парсером, созданными один раз.
+ *
+ * <p>Запуск: метод {@link #main(String[])} из IDE или
+ * {@code mvn -pl api-gateway test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.otus.projectwork.apigateway.benchmark.JwtVerificationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET_KEY =
+            "VGhpcyBpcyBhIHZlcnkgc2VjdXJlIGFuZCBsb25nIGVuY3J5cHRpb24ga2V5IGZvciBKV1QgdG9rZW5z";
+
+    private String token;
+
+    private JwtTokenVerifier verifier;
+
+    @Setup
+    public void setUp() {
+        Date issuedDate = new Date();
+        token = Jwts.builder()
+                .claims(Map.of("clientId", UUID.randomUUID().toString(), "userFullName", "Иван Иванов"))
+                .issuedAt(issuedDate)
+                .expiration(new Date(issuedDate.getTime() + Duration.ofMinutes(30).toMillis()))
+                .signWith(legacySigningKey())
+                .compact();
+        verifier = new JwtTokenVerifier(JwtKeyRing.ofSecret(SECRET_KEY));
+    }
+
+    @Benchmark
+    public String legacy() {
+        Claims validated = Jwts.parser()
+                .verifyWith(legacySigningKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        if (validated.getExpiration().before(new Date())) {
+            return null;
+        }
+        Claims claims = Jwts.parser()
+                .verifyWith(legacySigningKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        return claims.get("clientId", String.class);
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return verifier.verify(token)
+                .map(JwtTokenVerifier::resolveClientId)
+                .orElse(null);
+    }
+
+    private static SecretKey legacySigningKey() {
+        return Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET_KEY));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
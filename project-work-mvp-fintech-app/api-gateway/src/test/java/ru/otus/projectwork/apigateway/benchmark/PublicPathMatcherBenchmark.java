@@ -0,0 +1,120 @@
+package ru.otus.projectwork.apigateway.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.otus.projectwork.apigateway.util.path.PublicPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение проверки публичного пути цепочкой startsWith/equals и скомпилированным префиксным деревом.
+ *
+ * <p>Таблица маршрутов содержит 40 сервисов по 5 шаблонов и 8 actuator-путей (208 шаблонов). Набор проверяемых
+ * путей смешивает публичные и защищенные запросы, защищенные пути проходят всю цепочку без совпадения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublicPathMatcherBenchmark {
+
+    private static final int SERVICES = 40;
+
+    private static final String[] REQUEST_PATHS = {
+            "/api/service-7/public/catalog/items",
+            "/api/service-39/auth/profile",
+            "/api/service-21/auth/accounts/3f1c/transactions",
+            "/actuator/health",
+            "/api/service-12/public/v2/rates",
+            "/api/accounts/auth/accounts",
+            "/service-33/public/login",
+            "/actuator/prometheus"
+    };
+
+    private List<String> prefixes;
+
+    private List<String> exactPaths;
+
+    private PublicPathMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < SERVICES; i++) {
+            patterns.add("/api/service-" + i + "/public/**");
+            patterns.add("/service-" + i + "/public/**");
+            patterns.add("/actuator/service-" + i + "/**");
+            patterns.add("/api/service-" + i + "/docs");
+            patterns.add("/api/service-" + i + "/openapi.json");
+        }
+        for (String endpoint : List.of("health", "info", "health/liveness", "health/readiness",
+                "status", "version", "ping", "build")) {
+            patterns.add("/actuator/" + endpoint);
+        }
+
+        prefixes = new ArrayList<>();
+        exactPaths = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (pattern.endsWith("**")) {
+                prefixes.add(pattern.substring(0, pattern.length() - 2));
+            } else {
+                exactPaths.add(pattern);
+            }
+        }
+        matcher = PublicPathMatcher.compile(patterns);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void chainedStartsWith(Blackhole blackhole) {
+        for (String path : REQUEST_PATHS) {
+            blackhole.consume(isPublicByChain(path));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void prefixTrie(Blackhole blackhole) {
+        for (String path : REQUEST_PATHS) {
+            blackhole.consume(matcher.matches(path));
+        }
+    }
+
+    private boolean isPublicByChain(String path) {
+        for (String prefix : prefixes) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        for (String exactPath : exactPaths) {
+            if (path.equals(exactPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PublicPathMatcherBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
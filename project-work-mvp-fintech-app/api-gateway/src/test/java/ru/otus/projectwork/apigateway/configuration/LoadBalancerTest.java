@@ -0,0 +1,163 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import ru.otus.projectwork.apigateway.util.balancer.InstanceHealthRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет балансировку маршрутов lb:// между несколькими заглушками сервиса на случайных портах.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "jwt.revocation.enabled=false",
+        "load-balancer.health-check.interval=200ms",
+        "load-balancer.health-check.healthy-threshold=1"
+})
+@DisplayName("Тестирование балансировки нагрузки")
+class LoadBalancerTest {
+
+    private static final AtomicBoolean failingUp = new AtomicBoolean(true);
+
+    private static final DisposableServer first = stub("first", new AtomicBoolean(true));
+
+    private static final DisposableServer second = stub("second", new AtomicBoolean(true));
+
+    private static final DisposableServer down = stub("down", new AtomicBoolean(false));
+
+    private static final DisposableServer failing = stub("failing", failingUp);
+
+    private static final DisposableServer survivor = stub("survivor", new AtomicBoolean(true));
+
+    private static final int deadPort = freePort();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private InstanceHealthRegistry healthRegistry;
+
+    @DynamicPropertySource
+    static void instances(DynamicPropertyRegistry registry) {
+        route(registry, 0, "stub-service");
+        route(registry, 1, "failover-service");
+        instance(registry, "stub-service", 0, first);
+        instance(registry, "stub-service", 1, second);
+        instance(registry, "stub-service", 2, down);
+        instance(registry, "failover-service", 0, failing);
+        instance(registry, "failover-service", 1, survivor);
+        registry.add("spring.cloud.discovery.client.simple.instances.failover-service[2].uri",
+                () -> "http://localhost:" + deadPort);
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        for (DisposableServer stub : List.of(first, second, down, failing, survivor)) {
+            stub.disposeNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Распределяет запросы между доступными экземплярами и не отправляет их экземпляру с DOWN")
+    void route_BalancesAcrossHealthyInstances() throws InterruptedException {
+        awaitHealthy("stub-service", down.port(), false);
+
+        Set<String> responders = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            responders.add(call("/stub-service/whoami"));
+        }
+
+        assertEquals(Set.of("first", "second"), responders);
+    }
+
+    @Test
+    @DisplayName("Исключает недоступный экземпляр и экземпляр с DOWN не позже чем через интервал проверки")
+    void route_EjectsFailedInstances() throws InterruptedException {
+        awaitHealthy("failover-service", deadPort, false);
+        awaitHealthy("failover-service", failing.port(), true);
+        failingUp.set(false);
+        long failedAt = System.nanoTime();
+
+        awaitHealthy("failover-service", failing.port(), false);
+        long ejectedAfterMillis = (System.nanoTime() - failedAt) / 1_000_000;
+
+        assertTrue(ejectedAfterMillis < 1000, "ejected after " + ejectedAfterMillis + " ms");
+        for (int i = 0; i < 10; i++) {
+            assertEquals("survivor", call("/failover-service/whoami"));
+        }
+    }
+
+    private String call(String uri) {
+        return webTestClient.get().uri(uri).exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private void awaitHealthy(String serviceId, int port, boolean healthy) throws InterruptedException {
+        ServiceInstance instance = new DefaultServiceInstance(null, serviceId, "localhost", port, false);
+        for (int i = 0; i < 100 && healthRegistry.isHealthy(instance) != healthy; i++) {
+            Thread.sleep(20);
+        }
+        if (healthy) {
+            assertTrue(healthRegistry.isHealthy(instance));
+        } else {
+            assertFalse(healthRegistry.isHealthy(instance));
+        }
+    }
+
+    private static DisposableServer stub(String name, AtomicBoolean up) {
+        return HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/whoami", (request, response) -> response.sendString(Mono.just(name)))
+                        .get("/actuator/health", (request, response) -> up.get()
+                                ? response.sendString(Mono.just("{\"status\":\"UP\"}"))
+                                : response.status(503).sendString(Mono.just("{\"status\":\"DOWN\"}"))))
+                .bindNow();
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void route(DynamicPropertyRegistry registry, int index, String serviceId) {
+        String prefix = "spring.cloud.gateway.routes[" + index + "]";
+        registry.add(prefix + ".id", () -> serviceId);
+        registry.add(prefix + ".uri", () -> "lb://" + serviceId);
+        registry.add(prefix + ".predicates[0]", () -> "Path=/" + serviceId + "/**");
+        registry.add(prefix + ".filters[0]", () -> "StripPrefix=1");
+    }
+
+    private static void instance(DynamicPropertyRegistry registry, String serviceId, int index,
+                                 DisposableServer stub) {
+        registry.add("spring.cloud.discovery.client.simple.instances." + serviceId + "[" + index + "].uri",
+                () -> "http://localhost:" + stub.port());
+    }
+}
@@ -0,0 +1,80 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import ru.otus.projectwork.apigateway.util.ratelimit.BucketLimit;
+import ru.otus.projectwork.apigateway.util.ratelimit.InMemoryRateLimiter;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DisplayName("Тестирование RateLimitFilter")
+class RateLimitFilterTest {
+
+    private final AtomicInteger downstreamCalls = new AtomicInteger();
+
+    private final GatewayFilterChain chain = exchange -> {
+        downstreamCalls.incrementAndGet();
+        return Mono.empty();
+    };
+
+    private final RateLimitFilter filterFactory = new RateLimitFilter(
+            new InMemoryRateLimiter(100, Duration.ofMinutes(1)), new RateLimitConfig(), new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("Возвращает 429 без обращения к downstream после исчерпания лимита IP адреса")
+    void filter_IpLimitExceeded() {
+        RateLimitFilter.Config config = filterFactory.newConfig();
+        config.setIp(new BucketLimit(2, 0.001));
+        GatewayFilter filter = filterFactory.apply(config);
+
+        filter.filter(exchange("10.0.0.1", null), chain).block();
+        filter.filter(exchange("10.0.0.1", null), chain).block();
+        MockServerWebExchange rejected = exchange("10.0.0.1", null);
+        filter.filter(rejected, chain).block();
+
+        assertEquals(2, downstreamCalls.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("1000", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    @DisplayName("Считает лимит клиента по проверенному clientId, а не по заголовку X-User-Id")
+    void filter_ClientLimitUsesVerifiedClientId() {
+        RateLimitFilter.Config config = filterFactory.newConfig();
+        config.setClient(new BucketLimit(1, 0.001));
+        GatewayFilter filter = filterFactory.apply(config);
+
+        filter.filter(exchange("10.0.0.1", "client-a"), chain).block();
+        MockServerWebExchange rejected = exchange("10.0.0.2", "client-a");
+        filter.filter(rejected, chain).block();
+        MockServerWebExchange anonymous = exchange("10.0.0.3", null);
+        filter.filter(anonymous, chain).block();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertNull(anonymous.getResponse().getStatusCode());
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    private static MockServerWebExchange exchange(String remoteAddress, String clientId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/accounts/auth/accounts")
+                .header("X-User-Id", "spoofed")
+                .remoteAddress(new InetSocketAddress(remoteAddress, 40000)));
+        if (clientId != null) {
+            exchange.getAttributes().put(JwtAuthFilter.CLIENT_ID_ATTR, clientId);
+        }
+        return exchange;
+    }
+}
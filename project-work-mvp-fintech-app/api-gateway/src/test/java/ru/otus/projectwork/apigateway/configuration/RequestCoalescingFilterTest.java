@@ -0,0 +1,141 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Тестирование RequestCoalescingFilter")
+class RequestCoalescingFilterTest {
+
+    private final AtomicInteger downstreamCalls = new AtomicInteger();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RequestCoalescingConfig config = new RequestCoalescingConfig();
+
+    private Duration downstreamDelay = Duration.ofMillis(200);
+
+    private HttpStatus downstreamStatus = HttpStatus.OK;
+
+    private final GatewayFilterChain chain = exchange -> Mono.delay(downstreamDelay).then(Mono.defer(() -> {
+        int call = downstreamCalls.incrementAndGet();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(downstreamStatus);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = ("[{\"call\":" + call + "}]").getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }));
+
+    @Test
+    @DisplayName("Отправляет в downstream один запрос из одновременных одинаковых и раздает ответ всем")
+    void filter_ConcurrentIdenticalGetsShareOneCall() {
+        GatewayFilter filter = filter();
+
+        List<MockServerWebExchange> exchanges = runConcurrently(filter, "client-a", "client-a", "client-a", "client-a");
+
+        assertEquals(1, downstreamCalls.get());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+            assertEquals(MediaType.APPLICATION_JSON, exchange.getResponse().getHeaders().getContentType());
+            assertEquals("[{\"call\":1}]", exchange.getResponse().getBodyAsString().block());
+        }
+        assertEquals(3.0, meterRegistry.get("gateway.coalescing.requests").tag("result", "coalesced").counter().count());
+    }
+
+    @Test
+    @DisplayName("Не объединяет запросы разных клиентов")
+    void filter_DifferentClientsNotCoalesced() {
+        runConcurrently(filter(), "client-a", "client-b");
+
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    @Test
+    @DisplayName("Выполняет запрос сам, если ожидание ответа превысило max-wait")
+    void filter_FallsBackAfterMaxWait() {
+        config.setMaxWait(Duration.ofMillis(50));
+
+        runConcurrently(filter(), "client-a", "client-a", "client-a");
+
+        assertEquals(3, downstreamCalls.get());
+        assertEquals(2.0, meterRegistry.get("gateway.coalescing.requests").tag("result", "fallback").counter().count());
+    }
+
+    @Test
+    @DisplayName("Не раздает ответ, отличный от 200")
+    void filter_ErrorResponseNotShared() {
+        downstreamStatus = HttpStatus.INTERNAL_SERVER_ERROR;
+
+        runConcurrently(filter(), "client-a", "client-a");
+
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    @Test
+    @DisplayName("Отпускает ожидающих, как только тело первого ответа превысило max-body-size")
+    void filter_LargeBodyReleasesWaitersBeforeItEnds() {
+        config.setMaxWait(Duration.ofMinutes(1));
+        config.setMaxBodySize(DataSize.ofBytes(16));
+        // Вторая часть тела первого ответа отправляется только после обращения к downstream второго запроса
+        Sinks.Empty<Void> secondCall = Sinks.empty();
+        GatewayFilterChain streaming = exchange -> {
+            if (downstreamCalls.incrementAndGet() == 2) {
+                secondCall.tryEmitEmpty();
+            }
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            byte[] chunk = "a".repeat(32).getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Flux.concat(Mono.fromSupplier(() -> response.bufferFactory().wrap(chunk)),
+                    secondCall.asMono().then(Mono.fromSupplier(() -> response.bufferFactory().wrap(chunk)))));
+        };
+        GatewayFilter filter = filter();
+        List<MockServerWebExchange> exchanges = Flux.just("client-a", "client-a").map(this::exchange).collectList()
+                .block();
+
+        Flux.fromIterable(exchanges)
+                .flatMap(exchange -> filter.filter(exchange, streaming))
+                .blockLast(Duration.ofSeconds(5));
+
+        assertEquals(2, downstreamCalls.get());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals("a".repeat(64), exchange.getResponse().getBodyAsString().block());
+        }
+    }
+
+    private GatewayFilter filter() {
+        RequestCoalescingFilter filterFactory = new RequestCoalescingFilter(config, meterRegistry);
+        return filterFactory.apply(filterFactory.newConfig());
+    }
+
+    private List<MockServerWebExchange> runConcurrently(GatewayFilter filter, String... clientIds) {
+        List<MockServerWebExchange> exchanges = Flux.fromArray(clientIds).map(this::exchange).collectList().block();
+        Flux.fromIterable(exchanges)
+                .flatMap(exchange -> filter.filter(exchange, chain))
+                .blockLast(Duration.ofSeconds(5));
+        return exchanges;
+    }
+
+    private MockServerWebExchange exchange(String clientId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/accounts/auth/accounts"));
+        exchange.getAttributes().put(JwtAuthFilter.CLIENT_ID_ATTR, clientId);
+        return exchange;
+    }
+}
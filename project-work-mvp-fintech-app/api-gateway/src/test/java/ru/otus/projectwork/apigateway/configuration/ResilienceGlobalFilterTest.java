@@ -0,0 +1,114 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет изоляцию маршрутов на заглушке downstream сервиса, которая отвечает с задержкой из пути запроса.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "jwt.revocation.enabled=false",
+        "resilience.routes.slow.timeout=200ms",
+        "resilience.routes.slow.sliding-window-size=2",
+        "resilience.routes.slow.open-duration=1m",
+        "resilience.routes.crowded.max-concurrent-calls=2"
+})
+@DisplayName("Тестирование ResilienceGlobalFilter")
+class ResilienceGlobalFilterTest {
+
+    private static final AtomicInteger stubCalls = new AtomicInteger();
+
+    private static final DisposableServer stub = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.get("/delay/{millis}", (request, response) -> {
+                stubCalls.incrementAndGet();
+                long millis = Long.parseLong(request.param("millis"));
+                return Mono.delay(Duration.ofMillis(millis))
+                        .then(response.sendString(Mono.just("ok")).then());
+            }))
+            .bindNow();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        String uri = "http://localhost:" + stub.port();
+        route(registry, 0, "slow", uri);
+        route(registry, 1, "crowded", uri);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.disposeNow();
+    }
+
+    @Test
+    @DisplayName("Возвращает 504 по таймауту маршрута и 503 без обращения к сервису после размыкания")
+    void filter_TimeoutOpensCircuit() {
+        webTestClient.get().uri("/slow/delay/2000").exchange().expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        webTestClient.get().uri("/slow/delay/2000").exchange().expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        int callsBeforeOpen = stubCalls.get();
+
+        webTestClient.get().uri("/slow/delay/0").exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectHeader().exists("Retry-After");
+
+        assertEquals(callsBeforeOpen, stubCalls.get());
+        assertEquals(1.0, meterRegistry.get("gateway.circuit-breaker.state").tag("route", "slow").gauge().value());
+        assertEquals(2.0, meterRegistry.get("gateway.resilience.rejected")
+                .tags("route", "slow", "reason", "timeout").counter().count());
+    }
+
+    @Test
+    @DisplayName("Отклоняет запросы сверх bulkhead маршрута, не ставя их в очередь")
+    void filter_BulkheadRejectsOverflow() {
+        WebClient webClient = WebClient.create("http://localhost:" + port);
+        List<HttpStatus> statuses = Flux.range(0, 4)
+                .flatMap(i -> webClient.get().uri("/crowded/delay/500")
+                        .exchangeToMono(response -> Mono.just(HttpStatus.valueOf(response.statusCode().value()))))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(2, statuses.stream().filter(HttpStatus.OK::equals).count(), statuses.toString());
+        assertEquals(2, statuses.stream().filter(HttpStatus.SERVICE_UNAVAILABLE::equals).count(), statuses.toString());
+        assertTrue(meterRegistry.get("gateway.resilience.rejected")
+                .tags("route", "crowded", "reason", "bulkhead_full").counter().count() >= 2);
+        assertEquals(0.0, meterRegistry.get("gateway.bulkhead.in-flight").tag("route", "crowded").gauge().value());
+    }
+
+    private static void route(DynamicPropertyRegistry registry, int index, String id, String uri) {
+        String prefix = "spring.cloud.gateway.routes[" + index + "]";
+        registry.add(prefix + ".id", () -> id);
+        registry.add(prefix + ".uri", () -> uri);
+        registry.add(prefix + ".predicates[0]", () -> "Path=/" + id + "/**");
+        registry.add(prefix + ".filters[0]", () -> "StripPrefix=1");
+    }
+}
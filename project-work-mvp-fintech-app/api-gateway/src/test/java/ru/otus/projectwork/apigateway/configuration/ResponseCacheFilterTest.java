@@ -0,0 +1,198 @@
+package ru.otus.projectwork.apigateway.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.otus.projectwork.apigateway.util.cache.ResponseCache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DisplayName("Тестирование ResponseCacheFilter")
+class ResponseCacheFilterTest {
+
+    private final AtomicInteger downstreamCalls = new AtomicInteger();
+
+    private final GatewayFilterChain chain = exchange -> {
+        int call = downstreamCalls.incrementAndGet();
+        ServerHttpResponse response = exchange.getResponse();
+        if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+            response.setStatusCode(HttpStatus.CREATED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = ("[{\"call\":" + call + "}]").getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    };
+
+    private final GatewayFilter filter;
+
+    ResponseCacheFilterTest() {
+        ResponseCacheConfig config = new ResponseCacheConfig();
+        ResponseCache responseCache = ResponseCache.create(DataSize.ofMegabytes(1).toBytes(), 1024,
+                Duration.ofMinutes(1), new SimpleMeterRegistry());
+        ResponseCacheFilter filterFactory = new ResponseCacheFilter(responseCache, config, new SimpleMeterRegistry());
+        ResponseCacheFilter.Config routeConfig = filterFactory.newConfig();
+        routeConfig.setVaryHeaders(List.of("accountId"));
+        filter = filterFactory.apply(routeConfig);
+    }
+
+    @Test
+    @DisplayName("Отдает повторный GET клиента из кэша с тем же телом и ETag")
+    void filter_RepeatedGetServedFromCache() {
+        MockServerWebExchange first = exchange(HttpMethod.GET, "client-a", null);
+        filter.filter(first, chain).block();
+        MockServerWebExchange second = exchange(HttpMethod.GET, "client-a", null);
+        filter.filter(second, chain).block();
+
+        assertEquals(1, downstreamCalls.get());
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals(first.getResponse().getBodyAsString().block(), second.getResponse().getBodyAsString().block());
+        assertNotNull(second.getResponse().getHeaders().getETag());
+        assertEquals(first.getResponse().getHeaders().getETag(), second.getResponse().getHeaders().getETag());
+        assertEquals(MediaType.APPLICATION_JSON, second.getResponse().getHeaders().getContentType());
+    }
+
+    @Test
+    @DisplayName("Отвечает 304 без тела, если ETag совпадает с If-None-Match")
+    void filter_IfNoneMatchReturnsNotModified() {
+        MockServerWebExchange first = exchange(HttpMethod.GET, "client-a", null);
+        filter.filter(first, chain).block();
+        String etag = first.getResponse().getHeaders().getETag();
+
+        MockServerWebExchange revalidated = exchange(HttpMethod.GET, "client-a", "W/" + etag);
+        filter.filter(revalidated, chain).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getResponse().getStatusCode());
+        assertEquals("", revalidated.getResponse().getBodyAsString().defaultIfEmpty("").block());
+        assertEquals(1, downstreamCalls.get());
+    }
+
+    @Test
+    @DisplayName("Изменяющий запрос клиента инвалидирует только его ответы")
+    void filter_WriteInvalidatesClientEntries() {
+        filter.filter(exchange(HttpMethod.GET, "client-a", null), chain).block();
+        filter.filter(exchange(HttpMethod.GET, "client-b", null), chain).block();
+
+        filter.filter(exchange(HttpMethod.POST, "client-a", null), chain).block();
+        MockServerWebExchange clientA = exchange(HttpMethod.GET, "client-a", null);
+        filter.filter(clientA, chain).block();
+        MockServerWebExchange clientB = exchange(HttpMethod.GET, "client-b", null);
+        filter.filter(clientB, chain).block();
+
+        assertEquals("MISS", clientA.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals("[{\"call\":4}]", clientA.getResponse().getBodyAsString().block());
+        assertEquals("HIT", clientB.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals(4, downstreamCalls.get());
+    }
+
+    @Test
+    @DisplayName("Различает ответы по заголовкам varyHeaders и не кэширует запросы без clientId")
+    void filter_KeyIncludesVaryHeadersAndClient() {
+        filter.filter(exchange(HttpMethod.GET, "client-a", null, "acc-1"), chain).block();
+        filter.filter(exchange(HttpMethod.GET, "client-a", null, "acc-2"), chain).block();
+        filter.filter(exchange(HttpMethod.GET, null, null), chain).block();
+        filter.filter(exchange(HttpMethod.GET, null, null), chain).block();
+
+        assertEquals(4, downstreamCalls.get());
+    }
+
+    @Test
+    @DisplayName("Собирает ответ из нескольких частей в пределах max-entry-size и кэширует его")
+    void filter_CachesChunkedBodyWithinLimit() {
+        GatewayFilterChain chunked = chunkedChain(4, 200, false);
+
+        filter.filter(exchange(HttpMethod.GET, "client-a", null), chunked).block();
+        MockServerWebExchange second = exchange(HttpMethod.GET, "client-a", null);
+        filter.filter(second, chunked).block();
+
+        assertEquals(1, downstreamCalls.get());
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER));
+        assertEquals(800, second.getResponse().getBodyAsString().block().length());
+    }
+
+    @Test
+    @DisplayName("Не кэширует ответ, Content-Length которого больше max-entry-size")
+    void filter_SkipsBodyWithLargeContentLength() {
+        GatewayFilterChain large = chunkedChain(4, 512, true);
+
+        MockServerWebExchange first = exchange(HttpMethod.GET, "client-a", null);
+        filter.filter(first, large).block();
+        filter.filter(exchange(HttpMethod.GET, "client-a", null), large).block();
+
+        assertEquals(2, downstreamCalls.get());
+        assertEquals(2048, first.getResponse().getBodyAsString().block().length());
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER));
+    }
+
+    @Test
+    @DisplayName("Передает ответ неизвестной длины больше max-entry-size целиком и не кэширует его")
+    void filter_StreamsBodyOfUnknownLengthPastLimit() {
+        GatewayFilterChain large = chunkedChain(4, 512, false);
+
+        MockServerWebExchange first = exchange(HttpMethod.GET, "client-a", null);
+        filter.filter(first, large).block();
+        filter.filter(exchange(HttpMethod.GET, "client-a", null), large).block();
+
+        assertEquals(2, downstreamCalls.get());
+        assertEquals("a".repeat(2048), first.getResponse().getBodyAsString().block());
+        assertNull(first.getResponse().getHeaders().getETag());
+    }
+
+    /**
+     * Создает downstream, отвечающий телом из {@code chunks} частей по {@code chunkSize} байт.
+     */
+    private GatewayFilterChain chunkedChain(int chunks, int chunkSize, boolean contentLength) {
+        return exchange -> {
+            downstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            if (contentLength) {
+                response.getHeaders().setContentLength((long) chunks * chunkSize);
+            }
+            byte[] chunk = "a".repeat(chunkSize).getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Flux.range(0, chunks).map(i -> response.bufferFactory().wrap(chunk)));
+        };
+    }
+
+    private static MockServerWebExchange exchange(HttpMethod method, String clientId, String ifNoneMatch) {
+        return exchange(method, clientId, ifNoneMatch, null);
+    }
+
+    private static MockServerWebExchange exchange(HttpMethod method, String clientId, String ifNoneMatch,
+                                                  String accountId) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.method(method,
+                "/api/accounts/auth/accounts/transactions");
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        if (accountId != null) {
+            request.header("accountId", accountId);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        if (clientId != null) {
+            exchange.getAttributes().put(JwtAuthFilter.CLIENT_ID_ATTR, clientId);
+        }
+        return exchange;
+    }
+}
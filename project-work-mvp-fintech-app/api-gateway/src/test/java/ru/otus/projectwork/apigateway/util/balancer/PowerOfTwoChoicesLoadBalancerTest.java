@@ -0,0 +1,99 @@
+package ru.otus.projectwork.apigateway.util.balancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.net.ConnectException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование PowerOfTwoChoicesLoadBalancer")
+class PowerOfTwoChoicesLoadBalancerTest {
+
+    private final ServiceInstance a = instance(9001);
+
+    private final ServiceInstance b = instance(9002);
+
+    private final ServiceInstance c = instance(9003);
+
+    private final InstanceHealthRegistry healthRegistry = new InstanceHealthRegistry(1, 2, new SimpleMeterRegistry());
+
+    private final PowerOfTwoChoicesLoadBalancer loadBalancer =
+            new PowerOfTwoChoicesLoadBalancer("user-service", () -> null, healthRegistry);
+
+    @Test
+    @DisplayName("Из двух экземпляров выбирает тот, у которого меньше выполняющихся запросов")
+    void choose_LeastOutstandingOfPair() {
+        for (int i = 0; i < 3; i++) {
+            healthRegistry.onStartRequest(new DefaultRequest<>(), new DefaultResponse(a));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(b, loadBalancer.choose(List.of(a, b)).getServer());
+        }
+        assertEquals(3, healthRegistry.outstanding(a));
+    }
+
+    @Test
+    @DisplayName("Не выбирает исключенный экземпляр и возвращает его после успешных проверок")
+    void choose_SkipsUnhealthyInstance() {
+        healthRegistry.onHealthCheck(c, false);
+
+        assertEquals(Set.of(a, b), chooseMany(List.of(a, b, c)));
+
+        healthRegistry.onHealthCheck(c, true);
+        assertFalse(healthRegistry.isHealthy(c));
+        healthRegistry.onHealthCheck(c, true);
+        assertEquals(Set.of(a, b, c), chooseMany(List.of(a, b, c)));
+    }
+
+    @Test
+    @DisplayName("Сразу исключает экземпляр после ошибки соединения")
+    void onComplete_ConnectionFailureEjects() {
+        DefaultResponse response = new DefaultResponse(a);
+        healthRegistry.onStartRequest(new DefaultRequest<>(), response);
+
+        healthRegistry.onComplete(new CompletionContext<>(CompletionContext.Status.FAILED,
+                new IllegalStateException(new ConnectException("Connection refused")), new DefaultRequest<>(),
+                response));
+
+        assertFalse(healthRegistry.isHealthy(a));
+        assertEquals(0, healthRegistry.outstanding(a));
+        assertEquals(Set.of(b), chooseMany(List.of(a, b)));
+    }
+
+    @Test
+    @DisplayName("Возвращает пустой ответ, если доступных экземпляров нет")
+    void choose_NoHealthyInstances() {
+        healthRegistry.onHealthCheck(a, false);
+
+        Response<ServiceInstance> response = loadBalancer.choose(List.of(a));
+
+        assertFalse(response.hasServer());
+        assertTrue(healthRegistry.isHealthy(b));
+    }
+
+    private Set<ServiceInstance> chooseMany(List<ServiceInstance> instances) {
+        Set<ServiceInstance> chosen = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            chosen.add(loadBalancer.choose(instances).getServer());
+        }
+        return chosen;
+    }
+
+    private static ServiceInstance instance(int port) {
+        return new DefaultServiceInstance("user-service-" + port, "user-service", "localhost", port, false);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.otus.projectwork.apigateway.util.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование ResponseCache")
+class ResponseCacheTest {
+
+    private static final byte[] BODY = "[{\"balance\":100}]".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicLong nanos = new AtomicLong(1_000);
+
+    private final ResponseCache cache = ResponseCache.create(1024, 64, Duration.ofMinutes(1), nanos::get);
+
+    @Test
+    @DisplayName("Хранит тело вне кучи и отдает его до истечения TTL записи")
+    void get_ExpiresAfterTtl() {
+        cache.put("a\n/accounts", BODY, "application/json", "\"e1\"", cache.now(), Duration.ofSeconds(5));
+
+        ResponseCache.CachedResponse cached = cache.get("a", "a\n/accounts");
+        assertNotNull(cached);
+        assertTrue(cached.body().isDirect());
+        assertEquals(BODY.length, cached.body().remaining());
+        assertEquals(BODY.length, cache.bytes());
+
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertNull(cache.get("a", "a\n/accounts"));
+    }
+
+    @Test
+    @DisplayName("Инвалидирует ответы клиента на запросы, начатые до изменения, и не трогает других клиентов")
+    void invalidate_OnlyEarlierRequestsOfClient() {
+        long requestedAt = cache.now();
+        nanos.incrementAndGet();
+        cache.put("a\n/accounts", BODY, null, "\"e1\"", requestedAt, Duration.ofSeconds(5));
+        cache.put("b\n/accounts", BODY, null, "\"e1\"", requestedAt, Duration.ofSeconds(5));
+
+        nanos.incrementAndGet();
+        cache.invalidate("a");
+        nanos.incrementAndGet();
+        cache.put("a\n/accounts/1", BODY, null, "\"e2\"", cache.now(), Duration.ofSeconds(5));
+
+        assertNull(cache.get("a", "a\n/accounts"));
+        assertNotNull(cache.get("b", "b\n/accounts"));
+        assertNotNull(cache.get("a", "a\n/accounts/1"));
+    }
+
+    @Test
+    @DisplayName("Не сохраняет ответы больше max-entry-size")
+    void put_RejectsLargeBody() {
+        assertFalse(cache.put("a\n/big", new byte[65], null, "\"e\"", cache.now(), Duration.ofSeconds(5)));
+        assertNull(cache.get("a", "a\n/big"));
+    }
+
+    @Test
+    @DisplayName("Вычисляет одинаковый ETag для одинаковых тел и разный для разных")
+    void etag_DependsOnBodyOnly() {
+        String etag = ResponseCache.etag(BODY);
+
+        assertEquals(etag, ResponseCache.etag(BODY.clone()));
+        assertFalse(etag.equals(ResponseCache.etag("[]".getBytes(StandardCharsets.UTF_8))));
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+    }
+}
@@ -0,0 +1,68 @@
+package ru.otus.projectwork.apigateway.util.path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование PublicPathMatcher")
+class PublicPathMatcherTest {
+
+    private static final List<String> PUBLIC_PATHS = List.of(
+            "/api/users/public/**",
+            "/user-service/public/**",
+            "/actuator/health",
+            "/actuator/info",
+            "/actuator/user-service/**",
+            "/actuator/account-service/**");
+
+    private final PublicPathMatcher matcher = PublicPathMatcher.compile(PUBLIC_PATHS);
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @DisplayName("Совпадает с прежней цепочкой startsWith/equals")
+    @CsvSource({
+            "/api/users/public/authorization, true",
+            "/api/users/public/, true",
+            "/api/users/public, false",
+            "/api/users/auth/otp/creation, false",
+            "/user-service/public/users/registration, true",
+            "/actuator/health, true",
+            "/actuator/health/liveness, false",
+            "/actuator/info, true",
+            "/actuator/infos, false",
+            "/actuator/user-service/metrics, true",
+            "/actuator/account-service/health, true",
+            "/actuator/prometheus, false",
+            "/api/accounts/auth/accounts, false",
+            "/, false"
+    })
+    void matches_SameAsLegacyChain(String path, boolean expected) {
+        assertEquals(expected, matcher.matches(path));
+        assertEquals(expected, legacyIsPublicPath(path));
+    }
+
+    @Test
+    @DisplayName("Пустой набор шаблонов не пропускает ни один путь")
+    void compile_EmptyPatterns() {
+        PublicPathMatcher empty = PublicPathMatcher.compile(List.of());
+
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.matches("/api/users/public/authorization"));
+        assertTrue(PublicPathMatcher.compile(null).isEmpty());
+    }
+
+    private static boolean legacyIsPublicPath(String path) {
+        return path.startsWith("/api/users/public/") ||
+                path.startsWith("/user-service/public/") ||
+                path.equals("/actuator/health") ||
+                path.equals("/actuator/info") ||
+                path.startsWith("/actuator/user-service/") ||
+                path.startsWith("/actuator/account-service/");
+    }
+}
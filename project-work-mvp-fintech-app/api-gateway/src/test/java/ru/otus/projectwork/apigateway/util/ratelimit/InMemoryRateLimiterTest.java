@@ -0,0 +1,57 @@
+package ru.otus.projectwork.apigateway.util.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование InMemoryRateLimiter")
+class InMemoryRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(SECOND);
+
+    private final InMemoryRateLimiter rateLimiter = new InMemoryRateLimiter(100, Duration.ofMinutes(1), clock::get);
+
+    @Test
+    @DisplayName("Пропускает пачку запросов размером capacity и отклоняет следующий")
+    void acquire_BurstUpToCapacity() {
+        BucketLimit limit = new BucketLimit(5, 10);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, rateLimiter.acquire("ip:10.0.0.1", limit));
+        }
+
+        assertEquals(SECOND / 10, rateLimiter.acquire("ip:10.0.0.1", limit));
+        assertEquals(100L, rateLimiter.tryAcquire("ip:10.0.0.1", limit).block());
+    }
+
+    @Test
+    @DisplayName("Пополняет корзину со скоростью refillPerSecond")
+    void acquire_RefillsOverTime() {
+        BucketLimit limit = new BucketLimit(2, 10);
+        rateLimiter.acquire("client:a", limit);
+        rateLimiter.acquire("client:a", limit);
+        assertTrue(rateLimiter.acquire("client:a", limit) > 0);
+
+        clock.addAndGet(SECOND / 10);
+
+        assertEquals(0L, rateLimiter.acquire("client:a", limit));
+        assertTrue(rateLimiter.acquire("client:a", limit) > 0);
+    }
+
+    @Test
+    @DisplayName("Корзины разных ключей независимы")
+    void acquire_KeysAreIndependent() {
+        BucketLimit limit = new BucketLimit(1, 1);
+
+        assertEquals(0L, rateLimiter.acquire("client:a", limit));
+        assertTrue(rateLimiter.acquire("client:a", limit) > 0);
+        assertEquals(0L, rateLimiter.acquire("client:b", limit));
+    }
+}
@@ -0,0 +1,110 @@
+package ru.otus.projectwork.apigateway.util.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование CircuitBreaker")
+class CircuitBreakerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(policy(), nanos::get);
+
+    @Test
+    @DisplayName("Размыкается, когда доля ошибок в заполненном окне достигает порога")
+    void onFailure_OpensAtThreshold() {
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(10_000, circuitBreaker.remainingOpenMillis());
+    }
+
+    @Test
+    @DisplayName("Не размыкается, если доля ошибок в окне ниже порога")
+    void onFailure_StaysClosedBelowThreshold() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("После open-duration пропускает только пробные запросы и замыкается после их успеха")
+    void tryAcquirePermission_HalfOpenProbesClose() {
+        open();
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("Снова размыкается при ошибке пробного запроса")
+    void onFailure_HalfOpenProbeReopens() {
+        open();
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("Возвращает пробный запрос, отмененный клиентом")
+    void releasePermission_ReturnsProbe() {
+        open();
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.releasePermission();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private static RoutePolicy policy() {
+        RoutePolicy policy = new RoutePolicy();
+        policy.setFailureRateThreshold(50);
+        policy.setSlidingWindowSize(4);
+        policy.setOpenDuration(Duration.ofSeconds(10));
+        policy.setHalfOpenProbes(2);
+        return policy.withDefaults(RoutePolicy.defaults());
+    }
+}
@@ -0,0 +1,50 @@
+package ru.otus.projectwork.apigateway.util.token;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Тестирование JwksClient")
+class JwksClientTest {
+
+    private static final String JWKS = "{\"keys\":[]}";
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final DisposableServer issuer = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.get("/jwks.json", (request, response) -> requests.incrementAndGet() < 3
+                    ? response.status(503).send()
+                    : response.sendString(Mono.just(JWKS))))
+            .bindNow();
+
+    private final JwksClient client = new JwksClient(WebClient.create(),
+            URI.create("http://localhost:" + issuer.port() + "/jwks.json"),
+            Duration.ofSeconds(1), Duration.ofMillis(10), Duration.ofMillis(50));
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        issuer.disposeNow();
+    }
+
+    @Test
+    @DisplayName("Повторяет запрос, пока издатель не ответит")
+    void get_RetriesUntilIssuerResponds() throws Exception {
+        String json = client.get().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        assertEquals(JWKS, json);
+        assertEquals(3, requests.get());
+    }
+}
@@ -0,0 +1,61 @@
+package ru.otus.projectwork.apigateway.util.token;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование RevokedTokenList")
+class RevokedTokenListTest {
+
+    private static final String REVOKED = "2b3f0c1e-7a44-4d7e-8f55-0e1d2c3b4a59";
+
+    private static final String ACTIVE = "9c8d7e6f-5a4b-4c3d-8e2f-1a0b9c8d7e6f";
+
+    @Test
+    @DisplayName("Отклоняет отозванный токен до окончания его срока действия")
+    void isRevoked_UntilTokenExpires() {
+        AtomicLong now = new AtomicLong(1_000);
+        RevokedTokenList list = new RevokedTokenList(0.001, now::get);
+
+        list.update(Map.of(REVOKED, 2_000L, "already-expired", 500L));
+
+        assertTrue(list.isRevoked(REVOKED));
+        assertFalse(list.isRevoked(ACTIVE));
+        assertFalse(list.isRevoked(null));
+        assertEquals(1, list.size());
+
+        now.set(2_000);
+        assertFalse(list.isRevoked(REVOKED));
+    }
+
+    @Test
+    @DisplayName("Сохраняет последний снимок, если синхронизация завершилась ошибкой")
+    void start_KeepsSnapshotOnSyncError() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        RevokedTokenList list = RevokedTokenList.start(() -> calls.incrementAndGet() == 1
+                        ? Mono.just(Map.of(REVOKED, expiresAt))
+                        : Mono.error(new IllegalStateException("Redis is unavailable")),
+                Duration.ofMillis(20), 0.001);
+        try {
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (calls.get() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertTrue(calls.get() >= 3);
+            assertTrue(list.isRevoked(REVOKED));
+        } finally {
+            list.close();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.otus.projectwork.apigateway.util.token;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование VerifiedTokenCache")
+class VerifiedTokenCacheTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final String CLIENT_ID = "8f0c6d1e-0b55-4c55-9a53-3ad0a0c4f2b1";
+    private static final String TOKEN_ID = "5b0f7d8e-3c2a-4e61-9d3f-1f6a2c7b9e40";
+
+    @Test
+    @DisplayName("Возвращает clientId проверенного токена до истечения его срока действия")
+    void getClientId_ReturnsCachedValue() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VerifiedTokenCache cache = VerifiedTokenCache.create(10, registry);
+
+        assertTrue(cache.getClientId(TOKEN).isEmpty());
+        cache.put(TOKEN, CLIENT_ID, TOKEN_ID, new Date(System.currentTimeMillis() + 60_000));
+
+        assertEquals(Optional.of(CLIENT_ID), cache.getClientId(TOKEN));
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", VerifiedTokenCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", VerifiedTokenCache.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Не возвращает токен, срок действия которого истек")
+    void getClientId_ExpiredToken() {
+        VerifiedTokenCache cache = VerifiedTokenCache.create(10, new SimpleMeterRegistry());
+
+        cache.put(TOKEN, CLIENT_ID, TOKEN_ID, new Date(System.currentTimeMillis() - 1));
+
+        assertTrue(cache.getClientId(TOKEN).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Выключенный кэш ничего не хранит")
+    void disabled_StoresNothing() {
+        VerifiedTokenCache cache = VerifiedTokenCache.disabled();
+
+        cache.put(TOKEN, CLIENT_ID, TOKEN_ID, new Date(System.currentTimeMillis() + 60_000));
+
+        assertTrue(cache.getClientId(TOKEN).isEmpty());
+    }
+}
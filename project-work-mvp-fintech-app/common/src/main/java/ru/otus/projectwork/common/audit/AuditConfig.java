@@ -0,0 +1,43 @@
+package ru.otus.projectwork.common.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Настройки журнала аудита запросов, общие для сервисов. Сервис, который пишет аудит, подключает их через
+ * {@code @Import(AuditConfig.class)}.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "audit")
+public class AuditConfig {
+
+    private boolean enabled = true;
+
+    private double sampleRate = 0.01;
+
+    private Integer bufferSize = 8192;
+
+    @Bean(destroyMethod = "close")
+    public AuditLog auditLog(@Value("${spring.application.name}") String applicationName, MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return AuditLog.disabled();
+        }
+        AuditLog auditLog = AuditLog.start(applicationName, bufferSize, sampleRate,
+                new Slf4jAuditSink(applicationName));
+        FunctionCounter.builder("audit.events.recorded", auditLog, AuditLog::getRecordedCount)
+                .description("Audit events accepted into the ring buffer")
+                .register(meterRegistry);
+        FunctionCounter.builder("audit.events.dropped", auditLog, AuditLog::getDroppedCount)
+                .description("Audit events dropped because the ring buffer was full")
+                .register(meterRegistry);
+        return auditLog;
+    }
+}
@@ -0,0 +1,72 @@
+package ru.otus.projectwork.common.audit;
+
+/**
+ * Событие аудита запроса.
+ *
+ * <p>Экземпляры заранее создаются кольцевым буфером и переиспользуются: поля заполняет поток запроса, читает только
+ * поток записи журнала. Ссылку на событие нельзя сохранять после возврата из {@link AuditSink#write(AuditEvent)}.
+ */
+public final class AuditEvent {
+
+    private AuditEventType type;
+
+    private long timestampMillis;
+
+    private String method;
+
+    private String path;
+
+    private String clientId;
+
+    private int status;
+
+    private long durationNanos;
+
+    AuditEvent() {
+    }
+
+    void fill(AuditEventType type, String method, String path, String clientId, int status, long durationNanos) {
+        this.type = type;
+        this.timestampMillis = System.currentTimeMillis();
+        this.method = method;
+        this.path = path;
+        this.clientId = clientId;
+        this.status = status;
+        this.durationNanos = durationNanos;
+    }
+
+    void clear() {
+        this.type = null;
+        this.method = null;
+        this.path = null;
+        this.clientId = null;
+    }
+
+    public AuditEventType getType() {
+        return type;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.otus.projectwork.common.audit;
+
+/**
+ * Тип события аудита.
+ */
+public enum AuditEventType {
+
+    /**
+     * Обработанный запрос. Записывается с заданной вероятностью выборки.
+     */
+    REQUEST(false),
+
+    /**
+     * Запрос к защищенному ресурсу без токена. Записывается всегда.
+     */
+    MISSING_TOKEN(true),
+
+    /**
+     * Запрос с невалидным или просроченным токеном. Записывается всегда.
+     */
+    INVALID_TOKEN(true),
+
+    /**
+     * Запрос с отозванным токеном. Записывается всегда.
+     */
+    REVOKED_TOKEN(true);
+
+    private final boolean alwaysRecorded;
+
+    AuditEventType(boolean alwaysRecorded) {
+        this.alwaysRecorded = alwaysRecorded;
+    }
+
+    /**
+     * Проверяет, записывается ли событие независимо от выборки.
+     *
+     * @return true для событий безопасности
+     */
+    public boolean isAlwaysRecorded() {
+        return alwaysRecorded;
+    }
+}
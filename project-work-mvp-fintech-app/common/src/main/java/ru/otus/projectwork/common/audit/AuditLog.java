@@ -0,0 +1,197 @@
+package ru.otus.projectwork.common.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронный журнал аудита запросов.
+ *
+ * <p>Поток запроса только решает, попадает ли событие в выборку, и кладет ссылки на его поля в кольцевой буфер.
+ * Форматирование и запись выполняет отдельный поток. События с {@link AuditEventType#isAlwaysRecorded()}
+ * записываются независимо от выборки. Если буфер заполнен, событие отбрасывается и учитывается в
+ * {@link #getDroppedCount()}, поток запроса никогда не ждет.
+ *
+ * <p>Поток записи без событий не опрашивает буфер, а засыпает: поток запроса будит его, только если добавил
+ * событие, пока поток записи простаивает.
+ */
+public final class AuditLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    /**
+     * Предельное время сна потока записи. Поток будит первое событие после простоя, предел только страхует от
+     * пропущенного пробуждения.
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final AuditLog DISABLED = new AuditLog();
+
+    private final AuditRingBuffer ringBuffer;
+
+    private final AuditSink sink;
+
+    private final double sampleRate;
+
+    private final Thread writer;
+
+    private final LongAdder recorded = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running;
+
+    private volatile boolean idle;
+
+    private AuditLog() {
+        this.ringBuffer = null;
+        this.sink = null;
+        this.sampleRate = 0;
+        this.writer = null;
+    }
+
+    private AuditLog(String name, int capacity, double sampleRate, AuditSink sink) {
+        this.ringBuffer = new AuditRingBuffer(capacity);
+        this.sink = sink;
+        this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+        this.running = true;
+        this.writer = new Thread(this::writeLoop, name + "-audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Создает журнал и запускает поток записи.
+     *
+     * @param name       имя журнала, используется в имени потока записи
+     * @param capacity   размер кольцевого буфера, округляется вверх до степени двойки
+     * @param sampleRate доля записываемых событий {@link AuditEventType#REQUEST} от 0 до 1
+     * @param sink       получатель событий
+     * @return запущенный журнал
+     */
+    public static AuditLog start(String name, int capacity, double sampleRate, AuditSink sink) {
+        return new AuditLog(name, capacity, sampleRate, sink);
+    }
+
+    /**
+     * Возвращает выключенный журнал, который ничего не записывает.
+     *
+     * @return выключенный журнал
+     */
+    public static AuditLog disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Решает, попадает ли очередной запрос в выборку. Позволяет не замерять время запросов вне выборки.
+     *
+     * @return true если событие {@link AuditEventType#REQUEST} для запроса нужно записать
+     */
+    public boolean sample() {
+        double rate = sampleRate;
+        return rate > 0 && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Записывает событие, если оно попадает в выборку.
+     *
+     * @param type     тип события
+     * @param method   HTTP метод
+     * @param path     путь запроса
+     * @param clientId идентификатор клиента, может быть null
+     * @param status   HTTP статус ответа
+     */
+    public void record(AuditEventType type, String method, String path, String clientId, int status) {
+        if (type.isAlwaysRecorded() || sample()) {
+            recordSampled(type, method, path, clientId, status, -1L);
+        }
+    }
+
+    /**
+     * Записывает событие запроса, для которого выборка уже выполнена через {@link #sample()}.
+     *
+     * @param type          тип события
+     * @param method        HTTP метод
+     * @param path          путь запроса
+     * @param clientId      идентификатор клиента, может быть null
+     * @param status        HTTP статус ответа
+     * @param durationNanos длительность обработки или -1, если не измерялась
+     */
+    public void recordSampled(AuditEventType type, String method, String path, String clientId, int status,
+                              long durationNanos) {
+        if (ringBuffer == null) {
+            return;
+        }
+        if (ringBuffer.offer(type, method, path, clientId, status, durationNanos)) {
+            recorded.increment();
+            if (idle) {
+                LockSupport.unpark(writer);
+            }
+        } else {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Возвращает количество событий, принятых в буфер.
+     *
+     * @return количество событий
+     */
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    /**
+     * Возвращает количество событий, отброшенных из-за заполненного буфера.
+     *
+     * @return количество событий
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Останавливает поток записи, предварительно записав накопленные события.
+     */
+    @Override
+    public void close() {
+        if (writer == null || !running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        while (running) {
+            if (drain() > 0) {
+                continue;
+            }
+            idle = true;
+            // Повторная проверка после установки idle: событие, добавленное до нее, не разбудило бы поток
+            if (drain() == 0 && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+        drain();
+    }
+
+    private int drain() {
+        try {
+            return ringBuffer.drain(sink);
+        } catch (RuntimeException e) {
+            log.warn("Audit event was not written: {}", e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ru.otus.projectwork.common.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ограниченный кольцевой буфер событий для многих писателей и одного читателя.
+ *
+ * <p>Слоты создаются заранее. Писатель занимает позицию CAS по общему счетчику, заполняет слот и публикует его
+ * записью номера последовательности слота, читатель забирает слоты по порядку. Блокировок нет, при заполненном
+ * буфере событие не записывается.
+ */
+final class AuditRingBuffer {
+
+    private final AuditEvent[] slots;
+
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private long head;
+
+    AuditRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AuditEvent[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new AuditEvent();
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Публикует событие.
+     *
+     * @return false если буфер заполнен
+     */
+    boolean offer(AuditEventType type, String method, String path, String clientId, int status, long durationNanos) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index].fill(type, method, path, clientId, status, durationNanos);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Передает опубликованные события получателю. Вызывается только одним потоком.
+     *
+     * @param sink получатель событий
+     * @return количество переданных событий
+     */
+    int drain(AuditSink sink) {
+        int drained = 0;
+        while (true) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                return drained;
+            }
+            AuditEvent event = slots[index];
+            try {
+                sink.write(event);
+            } finally {
+                event.clear();
+                sequences.set(index, head + slots.length);
+                head++;
+            }
+            drained++;
+        }
+    }
+}
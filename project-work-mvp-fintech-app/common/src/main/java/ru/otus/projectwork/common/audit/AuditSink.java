@@ -0,0 +1,15 @@
+package ru.otus.projectwork.common.audit;
+
+/**
+ * Получатель событий аудита. Вызывается только из потока записи журнала.
+ */
+@FunctionalInterface
+public interface AuditSink {
+
+    /**
+     * Записывает событие.
+     *
+     * @param event событие, действительное только на время вызова
+     */
+    void write(AuditEvent event);
+}
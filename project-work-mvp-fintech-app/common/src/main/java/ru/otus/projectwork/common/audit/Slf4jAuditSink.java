@@ -0,0 +1,49 @@
+package ru.otus.projectwork.common.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Записывает события аудита одной строкой {@code key=value} в логгер {@value #LOGGER_NAME}.
+ *
+ * <p>Строка собирается в переиспользуемом буфере потока записи журнала, потоки запросов форматированием не
+ * занимаются.
+ */
+public class Slf4jAuditSink implements AuditSink {
+
+    /**
+     * Имя логгера событий аудита.
+     */
+    public static final String LOGGER_NAME = "audit";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final String service;
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    public Slf4jAuditSink(String service) {
+        this.service = service;
+    }
+
+    @Override
+    public void write(AuditEvent event) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        line.setLength(0);
+        line.append("service=").append(service)
+                .append(" type=").append(event.getType())
+                .append(" ts=").append(event.getTimestampMillis())
+                .append(" method=").append(event.getMethod())
+                .append(" path=").append(event.getPath())
+                .append(" status=").append(event.getStatus());
+        if (event.getClientId() != null) {
+            line.append(" clientId=").append(event.getClientId());
+        }
+        if (event.getDurationNanos() >= 0) {
+            line.append(" durationMicros=").append(event.getDurationNanos() / 1_000L);
+        }
+        log.info(line.toString());
+    }
+}
@@ -0,0 +1,128 @@
+package ru.otus.projectwork.common.bloom;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Потокобезопасный фильтр Блума для строковых ключей.
+ *
+ * <p>Отвечает на вопрос "ключ мог быть добавлен?" за {@code k} чтений бит без аллокаций: отрицательный ответ
+ * точен, положительный ложен с вероятностью, заданной при создании. Биты хранятся в {@link AtomicLongArray}, поэтому
+ * добавление и проверка могут выполняться одновременно из разных потоков без блокировок. Удаление ключей не
+ * поддерживается, фильтр пересоздается целиком.
+ *
+ * <p>Индексы бит вычисляются двойным хешированием (Kirsch, Mitzenmacher) из одного 64-битного хеша ключа.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    private BloomFilter(long bitCount, int hashCount) {
+        int words = (int) ((bitCount + 63) >>> 6);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Создает фильтр, рассчитанный на заданное количество ключей.
+     *
+     * @param expectedInsertions ожидаемое количество ключей
+     * @param falsePositiveRate  допустимая вероятность ложноположительного ответа, от 0 до 1 не включительно
+     * @return пустой фильтр
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        long n = Math.max(1, expectedInsertions);
+        long m = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        if (m > (long) Integer.MAX_VALUE << 6) {
+            throw new IllegalArgumentException("Bloom filter is too large for " + expectedInsertions + " keys");
+        }
+        int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        return new BloomFilter(m, k);
+    }
+
+    /**
+     * Добавляет ключ.
+     *
+     * @param key ключ
+     */
+    public void put(CharSequence key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = index(h1 + i * h2);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.weakCompareAndSetVolatile(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * Проверяет, мог ли ключ быть добавлен.
+     *
+     * @param key ключ
+     * @return false если ключ точно не добавлялся
+     */
+    public boolean mightContain(CharSequence key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = index(h1 + i * h2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает размер фильтра в битах.
+     *
+     * @return количество бит
+     */
+    public long bitSize() {
+        return bitCount;
+    }
+
+    /**
+     * Возвращает количество хеш-функций.
+     *
+     * @return количество хеш-функций
+     */
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private long index(int combinedHash) {
+        // Отрицательный хеш инвертируется, как в Guava, чтобы не терять равномерность распределения
+        return (combinedHash < 0 ? ~combinedHash : combinedHash) % bitCount;
+    }
+
+    /**
+     * 64-битный хеш ключа: FNV-1a по символам с финальным перемешиванием MurmurHash3.
+     */
+    private static long hash(CharSequence key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, length = key.length(); i < length; i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
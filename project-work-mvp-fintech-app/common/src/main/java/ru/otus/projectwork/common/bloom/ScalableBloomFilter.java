@@ -0,0 +1,144 @@
+package ru.otus.projectwork.common.bloom;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Потокобезопасный масштабируемый фильтр Блума (Almeida et al.) для множества ключей, размер которого заранее
+ * неизвестен и растет.
+ *
+ * <p>Фильтр состоит из цепочки {@link BloomFilter}: ключи добавляются в последний, а когда он заполнен до своей
+ * емкости, создается следующий с вдвое большей емкостью и вдвое меньшей вероятностью ложноположительного ответа.
+ * Проверка опрашивает все фильтры цепочки. Вероятность первого фильтра - половина заданной, поэтому суммарная
+ * вероятность ложноположительного ответа не превышает заданную при любом количестве ключей.
+ *
+ * <p>Повторно добавляемый ключ, на который фильтр уже отвечает положительно, не расходует емкость: множество можно
+ * досыпать пересекающимися выборками без роста цепочки.
+ */
+public final class ScalableBloomFilter {
+
+    private static final int GROWTH = 2;
+
+    private static final double TIGHTENING = 0.5;
+
+    private volatile Stage[] stages;
+
+    private ScalableBloomFilter(Stage first) {
+        this.stages = new Stage[]{first};
+    }
+
+    /**
+     * Создает пустой фильтр.
+     *
+     * @param initialCapacity   емкость первого фильтра цепочки
+     * @param falsePositiveRate допустимая вероятность ложноположительного ответа, от 0 до 1 не включительно
+     * @return пустой фильтр
+     */
+    public static ScalableBloomFilter create(long initialCapacity, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        return new ScalableBloomFilter(new Stage(Math.max(1, initialCapacity), falsePositiveRate * (1 - TIGHTENING)));
+    }
+
+    /**
+     * Добавляет ключ.
+     *
+     * @param key ключ
+     */
+    public void put(CharSequence key) {
+        if (mightContain(key)) {
+            return;
+        }
+        Stage[] current = stages;
+        Stage stage = current[current.length - 1];
+        while (stage.insertions.incrementAndGet() > stage.capacity) {
+            stage = grow(stage);
+        }
+        stage.filter.put(key);
+    }
+
+    /**
+     * Проверяет, мог ли ключ быть добавлен.
+     *
+     * @param key ключ
+     * @return false если ключ точно не добавлялся
+     */
+    public boolean mightContain(CharSequence key) {
+        for (Stage stage : stages) {
+            if (stage.filter.mightContain(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает приблизительное количество добавленных ключей. Ключи, на которые фильтр уже отвечал
+     * положительно, не учитываются.
+     *
+     * @return количество ключей
+     */
+    public long approximateSize() {
+        long size = 0;
+        for (Stage stage : stages) {
+            size += Math.min(stage.insertions.get(), stage.capacity);
+        }
+        return size;
+    }
+
+    /**
+     * Оценивает текущую вероятность ложноположительного ответа по заполненности фильтров цепочки.
+     *
+     * @return вероятность ложноположительного ответа
+     */
+    public double expectedFalsePositiveRate() {
+        double allNegative = 1;
+        for (Stage stage : stages) {
+            long insertions = Math.min(stage.insertions.get(), stage.capacity);
+            double bitSet = 1 - Math.exp(-(double) stage.filter.hashCount() * insertions / stage.filter.bitSize());
+            allNegative *= 1 - Math.pow(bitSet, stage.filter.hashCount());
+        }
+        return 1 - allNegative;
+    }
+
+    /**
+     * Возвращает количество фильтров в цепочке.
+     *
+     * @return количество фильтров
+     */
+    public int stageCount() {
+        return stages.length;
+    }
+
+    private synchronized Stage grow(Stage full) {
+        Stage[] current = stages;
+        Stage last = current[current.length - 1];
+        if (last != full) {
+            // Следующий фильтр уже создан другим потоком
+            return last;
+        }
+        Stage next = new Stage(full.capacity * GROWTH, full.falsePositiveRate * TIGHTENING);
+        Stage[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = next;
+        stages = grown;
+        return next;
+    }
+
+    private static final class Stage {
+
+        private final BloomFilter filter;
+
+        private final long capacity;
+
+        private final double falsePositiveRate;
+
+        private final AtomicLong insertions = new AtomicLong();
+
+        private Stage(long capacity, double falsePositiveRate) {
+            this.filter = BloomFilter.create(capacity, falsePositiveRate);
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ru.otus.projectwork.common.http;
+
+/**
+ * Поиск значения cookie в заголовке Cookie без разбора всего заголовка.
+ *
+ * <p>Заголовок просматривается один раз по индексам исходной {@link CharSequence}: в начале каждой пары
+ * сравнивается имя, остальные cookies пропускаются поиском следующего {@code ;} без выделения строк, массивов
+ * и коллекций. Единственная аллокация - строка найденного значения в {@link #findValue(CharSequence, String)},
+ * {@link #findValueRange(CharSequence, String)} не создает объектов вовсе.
+ *
+ * <p>Разбор следует RFC 6265: пары {@code name=value} разделены {@code ;}, пробелы и табуляции вокруг имени и
+ * значения игнорируются, значение может содержать {@code =} и может быть заключено в двойные кавычки. Имя
+ * сравнивается с учетом регистра, если cookie встречается несколько раз, возвращается первое непустое значение.
+ */
+public final class CookieHeaderScanner {
+
+    /**
+     * Результат {@link #findValueRange(CharSequence, String)}, если cookie не найдена.
+     */
+    public static final long NOT_FOUND = -1L;
+
+    private CookieHeaderScanner() {
+    }
+
+    /**
+     * Ищет значение cookie.
+     *
+     * @param header значение заголовка Cookie, может быть null
+     * @param name   имя cookie
+     * @return значение cookie или null, если cookie отсутствует или ее значение пустое
+     */
+    public static String findValue(CharSequence header, String name) {
+        long range = findValueRange(header, name);
+        if (range == NOT_FOUND) {
+            return null;
+        }
+        return header.subSequence(rangeStart(range), rangeEnd(range)).toString();
+    }
+
+    /**
+     * Ищет границы значения cookie без создания объектов.
+     *
+     * @param header значение заголовка Cookie, может быть null
+     * @param name   имя cookie
+     * @return начало значения в старших 32 битах и конец (не включительно) в младших 32 битах или
+     * {@link #NOT_FOUND}
+     */
+    public static long findValueRange(CharSequence header, String name) {
+        if (header == null || name == null || name.isEmpty()) {
+            return NOT_FOUND;
+        }
+        int length = header.length();
+        int nameLength = name.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && (isWhitespace(header.charAt(i)) || header.charAt(i) == ';')) {
+                i++;
+            }
+            int pairEnd = indexOf(header, ';', i, length);
+            int valueStart = pairEnd - i > nameLength && regionMatches(header, i, name)
+                    ? valueStart(header, i + nameLength, pairEnd)
+                    : -1;
+            if (valueStart >= 0) {
+                int valueEnd = pairEnd;
+                while (valueStart < valueEnd && isWhitespace(header.charAt(valueStart))) {
+                    valueStart++;
+                }
+                while (valueEnd > valueStart && isWhitespace(header.charAt(valueEnd - 1))) {
+                    valueEnd--;
+                }
+                if (valueEnd - valueStart >= 2 && header.charAt(valueStart) == '"'
+                        && header.charAt(valueEnd - 1) == '"') {
+                    valueStart++;
+                    valueEnd--;
+                }
+                if (valueEnd > valueStart) {
+                    return ((long) valueStart << 32) | valueEnd;
+                }
+            }
+            // Остальные cookies пропускаются целиком до следующего ';'
+            i = pairEnd + 1;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Возвращает начало значения из результата {@link #findValueRange(CharSequence, String)}.
+     *
+     * @param range границы значения
+     * @return индекс начала значения
+     */
+    public static int rangeStart(long range) {
+        return (int) (range >>> 32);
+    }
+
+    /**
+     * Возвращает конец значения из результата {@link #findValueRange(CharSequence, String)}.
+     *
+     * @param range границы значения
+     * @return индекс конца значения (не включительно)
+     */
+    public static int rangeEnd(long range) {
+        return (int) range;
+    }
+
+    /**
+     * Проверяет, что за именем cookie следуют только пробелы и '='.
+     *
+     * @return индекс начала значения или -1, если имя cookie длиннее искомого
+     */
+    private static int valueStart(CharSequence header, int afterName, int pairEnd) {
+        int i = afterName;
+        while (i < pairEnd && isWhitespace(header.charAt(i))) {
+            i++;
+        }
+        return i < pairEnd && header.charAt(i) == '=' ? i + 1 : -1;
+    }
+
+    /**
+     * Ищет символ, для {@link String} используя интринсик {@link String#indexOf(int, int)}.
+     *
+     * @return индекс символа или {@code length}, если символа нет
+     */
+    private static int indexOf(CharSequence header, char c, int from, int length) {
+        if (header instanceof String string) {
+            int index = string.indexOf(c, from);
+            return index < 0 ? length : index;
+        }
+        for (int i = from; i < length; i++) {
+            if (header.charAt(i) == c) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static boolean regionMatches(CharSequence header, int offset, String name) {
+        for (int j = 0, nameLength = name.length(); j < nameLength; j++) {
+            if (header.charAt(offset + j) != name.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t';
+    }
+}
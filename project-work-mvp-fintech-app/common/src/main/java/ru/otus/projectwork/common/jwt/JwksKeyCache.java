@@ -0,0 +1,195 @@
+package ru.otus.projectwork.common.jwt;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Кэш открытых ключей издателя токенов, загруженных из JWKS.
+ *
+ * <p>Позволяет сервису проверять подпись ES256 и Ed25519 локально, не зная общего секрета и не обращаясь к
+ * издателю на каждый запрос. Ключи хранятся в неизменяемой карте, которая целиком заменяется при обновлении,
+ * поэтому чтение ключа не требует блокировок. JWKS перечитывается только при встрече неизвестного {@code kid}
+ * (ротация ключа у издателя), одновременно выполняется не больше одной загрузки, а после успешной загрузки
+ * следующая начинается не раньше чем через {@code minRefreshInterval}, чтобы поток токенов с выдуманными
+ * {@code kid} не превращался в поток запросов к издателю. Неудачная загрузка интервал не отсчитывает: если
+ * издатель был недоступен, ключи загружаются при следующей попытке.
+ *
+ * <p>Источник, созданный через {@link #nonBlocking}, загружает JWKS асинхронно: токен с неизвестным {@code kid}
+ * отклоняется сразу, не дожидаясь ответа издателя. Так кэш используется в потоках event loop, где ожидание
+ * сетевого ответа недопустимо.
+ *
+ * <p>Симметричные ключи в JWKS игнорируются: токен, подписанный HS256, такой парсер не примет.
+ */
+public final class JwksKeyCache {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeyCache.class);
+
+    private final Supplier<? extends CompletionStage<String>> jwksSource;
+
+    private final long minRefreshIntervalNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final JwtParser parser;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    private volatile long loadedAtNanos;
+
+    private volatile boolean loaded;
+
+    /**
+     * Создает кэш с синхронной загрузкой: поток, встретивший неизвестный {@code kid}, ждет ответа издателя.
+     *
+     * @param jwksSource         источник JSON документа JWKS, например HTTP запрос к издателю
+     * @param minRefreshInterval минимальный интервал между успешными загрузками JWKS
+     */
+    public JwksKeyCache(Supplier<String> jwksSource, Duration minRefreshInterval) {
+        this(() -> CompletableFuture.completedFuture(jwksSource.get()), minRefreshInterval, System::nanoTime);
+    }
+
+    JwksKeyCache(Supplier<? extends CompletionStage<String>> jwksSource, Duration minRefreshInterval,
+                 LongSupplier nanoClock) {
+        this.jwksSource = jwksSource;
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+        this.nanoClock = nanoClock;
+        this.parser = Jwts.parser()
+                .keyLocator(new KidLocator())
+                .build();
+    }
+
+    /**
+     * Создает кэш с асинхронной загрузкой.
+     *
+     * @param jwksSource         источник, запускающий загрузку JSON документа JWKS и не блокирующий вызывающий поток
+     * @param minRefreshInterval минимальный интервал между успешными загрузками JWKS
+     * @return кэш
+     */
+    public static JwksKeyCache nonBlocking(Supplier<? extends CompletionStage<String>> jwksSource,
+                                           Duration minRefreshInterval) {
+        return new JwksKeyCache(jwksSource, minRefreshInterval, System::nanoTime);
+    }
+
+    /**
+     * Возвращает общий потокобезопасный парсер, проверяющий подпись открытым ключом из заголовка {@code kid}.
+     *
+     * @return парсер токенов
+     */
+    public JwtParser parser() {
+        return parser;
+    }
+
+    /**
+     * Возвращает идентификаторы загруженных ключей.
+     *
+     * @return идентификаторы ключей
+     */
+    public Set<String> getKids() {
+        return keys.keySet();
+    }
+
+    /**
+     * Запускает загрузку JWKS, если другая загрузка не выполняется и с последней успешной прошло не меньше
+     * {@code minRefreshInterval}.
+     *
+     * @return результат загрузки: true если ключи обновлены, false если загрузка не запускалась или не удалась
+     */
+    public CompletionStage<Boolean> refresh() {
+        if (loaded && nanoClock.getAsLong() - loadedAtNanos < minRefreshIntervalNanos
+                || !loading.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        CompletionStage<String> load;
+        try {
+            load = jwksSource.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        return load.handle((json, error) -> {
+            try {
+                if (error != null) {
+                    throw error instanceof RuntimeException runtime ? runtime : new IllegalStateException(error);
+                }
+                keys = parse(json);
+                loadedAtNanos = nanoClock.getAsLong();
+                loaded = true;
+                log.info("JWKS loaded, key ids: {}", keys.keySet());
+                return true;
+            } catch (RuntimeException e) {
+                log.warn("JWKS refresh failed, keeping key ids {}: {}", keys.keySet(), e.getMessage());
+                return false;
+            } finally {
+                loading.set(false);
+            }
+        });
+    }
+
+    /**
+     * Возвращает открытый ключ по {@code kid}, при неизвестном {@code kid} запускает загрузку JWKS. Синхронный
+     * источник успевает загрузить ключи до возврата, асинхронный - нет, и ключ появится для следующих токенов.
+     *
+     * @param kid идентификатор ключа
+     * @return открытый ключ или null, если ключа нет
+     */
+    PublicKey find(String kid) {
+        PublicKey key = keys.get(kid);
+        if (key == null) {
+            refresh();
+            key = keys.get(kid);
+        }
+        return key;
+    }
+
+    private static Map<String, PublicKey> parse(String json) {
+        JwkSet jwkSet = Jwks.setParser().build().parse(json);
+        Map<String, PublicKey> parsed = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet.getKeys()) {
+            if (jwk instanceof PublicJwk<?> publicJwk && jwk.getId() != null) {
+                parsed.put(jwk.getId(), publicJwk.toKey());
+            }
+        }
+        return Map.copyOf(parsed);
+    }
+
+    /**
+     * Выбирает открытый ключ по заголовку {@code kid}, при неизвестном {@code kid} запускает загрузку JWKS.
+     */
+    private final class KidLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                throw new InvalidKeyException("JWT key id is missing");
+            }
+            PublicKey key = find(kid);
+            if (key == null) {
+                throw new InvalidKeyException("Unknown JWT key id");
+            }
+            return key;
+        }
+    }
+}
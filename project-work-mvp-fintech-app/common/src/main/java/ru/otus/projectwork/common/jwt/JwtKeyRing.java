@@ -0,0 +1,335 @@
+package ru.otus.projectwork.common.jwt;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Неизменяемый набор ключей подписи JWT с выбором ключа по {@code kid}.
+ *
+ * <p>Ключи декодируются из Base64 и проверяются один раз при создании набора. Новые токены подписываются активным
+ * ключом, его идентификатор записывается в заголовок {@code kid}. Проверка принимает токены, подписанные любым
+ * ключом набора, поэтому ротация выполняется без простоя:
+ * <ol>
+ *   <li>новый ключ добавляется на все экземпляры как неактивный</li>
+ *   <li>новый ключ становится активным</li>
+ *   <li>старый ключ удаляется после истечения выданных им токенов</li>
+ * </ol>
+ *
+ * <p>Кроме секретов HS256 набор может содержать асимметричные пары ключей ES256 и Ed25519. Их открытые ключи
+ * публикуются через {@link #publicJwksJson()}, и сервисы без общего секрета проверяют токены локально. Сервис,
+ * проверяющий токены и секретами, и открытыми ключами издателя, добавляет в набор {@link JwksKeyCache}: ключ,
+ * которого нет в наборе, ищется в JWKS.
+ *
+ * <p>Токены без {@code kid}, выданные до перехода на набор ключей, проверяются ключом {@value #DEFAULT_KID}, если
+ * он есть, иначе активным ключом. {@link JwtParser} создается один раз и потокобезопасен.
+ */
+public final class JwtKeyRing {
+
+    /**
+     * Идентификатор ключа, заданного единственным секретом {@code jwt.secret.key}.
+     */
+    public static final String DEFAULT_KID = "default";
+
+    private static final int MIN_KEY_BYTES = 32;
+
+    private final Map<String, Key> verificationKeys;
+
+    private final String activeKid;
+
+    private final Key activeSigningKey;
+
+    private final Key legacyKey;
+
+    private final String publicJwksJson;
+
+    private final JwksKeyCache jwks;
+
+    private final JwtParser parser;
+
+    private JwtKeyRing(Map<String, Key> verificationKeys, String activeKid, Key activeSigningKey,
+                       List<PublicJwk<?>> publicJwks, JwksKeyCache jwks) {
+        this.verificationKeys = verificationKeys;
+        this.activeKid = activeKid;
+        this.activeSigningKey = activeSigningKey;
+        this.jwks = jwks;
+        this.legacyKey = verificationKeys.getOrDefault(DEFAULT_KID,
+                activeKid != null ? verificationKeys.get(activeKid) : null);
+        this.publicJwksJson = publicJwks.stream()
+                .map(Jwks::json)
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        this.parser = Jwts.parser()
+                .keyLocator(new KidLocator())
+                .build();
+    }
+
+    /**
+     * Создает построитель набора ключей.
+     *
+     * @return построитель
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Создает набор из одного ключа с идентификатором {@value #DEFAULT_KID}.
+     *
+     * @param base64Secret секрет в Base64
+     * @return набор ключей
+     * @throws IllegalStateException если секрет не задан, не является Base64 или короче 256 бит
+     */
+    public static JwtKeyRing ofSecret(String base64Secret) {
+        return builder().secret(DEFAULT_KID, base64Secret).activeKid(DEFAULT_KID).build();
+    }
+
+    /**
+     * Создает набор ключей из настроек сервиса.
+     *
+     * <p>Если {@code base64Secrets} пуст, используется единственный секрет {@code legacySecret}. Иначе
+     * {@code legacySecret}, если он задан, добавляется в набор с идентификатором {@value #DEFAULT_KID}, чтобы
+     * ранее выданные токены без {@code kid} оставались валидными во время ротации.
+     *
+     * @param legacySecret  секрет {@code jwt.secret.key} в Base64, может быть null
+     * @param base64Secrets секреты {@code jwt.keys} в Base64 по идентификатору ключа, может быть null
+     * @param activeKid     идентификатор ключа для подписи новых токенов, по умолчанию {@value #DEFAULT_KID}
+     * @return набор ключей
+     * @throws IllegalStateException если ключи не заданы или некорректны
+     */
+    public static JwtKeyRing of(String legacySecret, Map<String, String> base64Secrets, String activeKid) {
+        return builder().secrets(legacySecret, base64Secrets).activeKid(activeKid).build();
+    }
+
+    /**
+     * Создает набор ключей.
+     *
+     * @param base64Secrets секреты в Base64 по идентификатору ключа
+     * @param activeKid     идентификатор ключа для подписи новых токенов
+     * @return набор ключей
+     * @throws IllegalStateException если набор пуст, активный ключ отсутствует или один из секретов некорректен
+     */
+    public static JwtKeyRing of(Map<String, String> base64Secrets, String activeKid) {
+        Builder builder = builder();
+        if (base64Secrets != null) {
+            base64Secrets.forEach(builder::secret);
+        }
+        return builder.activeKid(activeKid).build();
+    }
+
+    /**
+     * Подписывает токен активным ключом и записывает его идентификатор в заголовок.
+     *
+     * @param builder построитель токена
+     * @return построитель токена
+     * @throws IllegalStateException если набор только проверяет токены
+     */
+    public JwtBuilder sign(JwtBuilder builder) {
+        if (activeSigningKey == null) {
+            throw new IllegalStateException("JWT key ring has no signing key");
+        }
+        return builder.header().keyId(activeKid).and().signWith(activeSigningKey);
+    }
+
+    /**
+     * Возвращает общий потокобезопасный парсер, проверяющий подпись ключом из заголовка {@code kid}.
+     *
+     * @return парсер токенов
+     */
+    public JwtParser parser() {
+        return parser;
+    }
+
+    /**
+     * Возвращает открытые ключи асимметричных пар в формате JWK Set (RFC 7517). Документ сериализуется один раз
+     * при создании набора, секреты HS256 в него не попадают.
+     *
+     * @return JSON документ JWK Set, пустой список ключей если асимметричных пар нет
+     */
+    public String publicJwksJson() {
+        return publicJwksJson;
+    }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public Set<String> getKids() {
+        return verificationKeys.keySet();
+    }
+
+    private static SecretKey decode(String kid, String base64Secret) {
+        if (base64Secret == null || base64Secret.isBlank()) {
+            throw new IllegalStateException("JWT key '" + kid + "' is not configured");
+        }
+        byte[] keyBytes;
+        try {
+            keyBytes = Base64.getDecoder().decode(base64Secret.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("JWT key '" + kid + "' is not valid Base64", e);
+        }
+        if (keyBytes.length < MIN_KEY_BYTES) {
+            throw new IllegalStateException("JWT key '" + kid + "' is too short: " + keyBytes.length
+                    + " bytes, at least " + MIN_KEY_BYTES + " required");
+        }
+        return Keys.hmacShaKeyFor(keyBytes);
+    }
+
+    /**
+     * Построитель набора ключей.
+     */
+    public static final class Builder {
+
+        private final Map<String, Key> verificationKeys = new LinkedHashMap<>();
+
+        private final Map<String, Key> signingKeys = new LinkedHashMap<>();
+
+        private final List<PublicJwk<?>> publicJwks = new ArrayList<>();
+
+        private String activeKid;
+
+        private JwksKeyCache jwks;
+
+        private Builder() {
+        }
+
+        /**
+         * Добавляет секреты HS256 из настроек сервиса, см. {@link JwtKeyRing#of(String, Map, String)}. Незаданный
+         * {@code legacySecret} пропускается.
+         *
+         * @param legacySecret  секрет {@code jwt.secret.key} в Base64, может быть null
+         * @param base64Secrets секреты по идентификатору ключа, может быть null
+         * @return построитель
+         */
+        public Builder secrets(String legacySecret, Map<String, String> base64Secrets) {
+            if (base64Secrets != null) {
+                base64Secrets.forEach(this::secret);
+            }
+            if (legacySecret != null && !legacySecret.isBlank() && !verificationKeys.containsKey(DEFAULT_KID)) {
+                secret(DEFAULT_KID, legacySecret);
+            }
+            return this;
+        }
+
+        /**
+         * Добавляет секрет HS256.
+         *
+         * @param kid          идентификатор ключа
+         * @param base64Secret секрет в Base64, не короче 256 бит
+         * @return построитель
+         */
+        public Builder secret(String kid, String base64Secret) {
+            SecretKey key = decode(kid, base64Secret);
+            verificationKeys.put(kid, key);
+            signingKeys.put(kid, key);
+            return this;
+        }
+
+        /**
+         * Добавляет асимметричную пару ключей ES256 или Ed25519.
+         *
+         * @param kid        идентификатор ключа
+         * @param privateKey закрытый ключ для подписи, null если экземпляр только проверяет токены
+         * @param publicKey  открытый ключ
+         * @return построитель
+         */
+        public Builder keyPair(String kid, PrivateKey privateKey, PublicKey publicKey) {
+            if (publicKey == null) {
+                throw new IllegalStateException("JWT public key '" + kid + "' is not configured");
+            }
+            verificationKeys.put(kid, publicKey);
+            if (privateKey != null) {
+                signingKeys.put(kid, privateKey);
+            }
+            publicJwks.add(Jwks.builder().key(publicKey).id(kid).build());
+            return this;
+        }
+
+        /**
+         * Добавляет открытые ключи издателя из JWKS. Ключ с {@code kid}, которого нет среди ключей набора, ищется в
+         * JWKS. Набор только из JWKS проверяет токены, но не подписывает их.
+         *
+         * @param jwks кэш открытых ключей издателя, может быть null
+         * @return построитель
+         */
+        public Builder jwks(JwksKeyCache jwks) {
+            this.jwks = jwks;
+            return this;
+        }
+
+        /**
+         * Задает ключ подписи новых токенов.
+         *
+         * @param activeKid идентификатор ключа, по умолчанию {@value #DEFAULT_KID}
+         * @return построитель
+         */
+        public Builder activeKid(String activeKid) {
+            this.activeKid = activeKid;
+            return this;
+        }
+
+        /**
+         * Создает набор ключей.
+         *
+         * @return набор ключей
+         * @throws IllegalStateException если набор пуст или для активного ключа нет ключа подписи
+         */
+        public JwtKeyRing build() {
+            if (verificationKeys.isEmpty() && jwks == null) {
+                throw new IllegalStateException("JWT signing keys are not configured");
+            }
+            if (signingKeys.isEmpty() && activeKid == null && jwks != null) {
+                return new JwtKeyRing(Map.copyOf(verificationKeys), null, null, List.copyOf(publicJwks), jwks);
+            }
+            String kid = activeKid != null ? activeKid : DEFAULT_KID;
+            Key signingKey = signingKeys.get(kid);
+            if (signingKey == null) {
+                throw new IllegalStateException("Active JWT key id '" + kid + "' has no signing key among "
+                        + signingKeys.keySet());
+            }
+            return new JwtKeyRing(Map.copyOf(verificationKeys), kid, signingKey, List.copyOf(publicJwks), jwks);
+        }
+    }
+
+    /**
+     * Выбирает ключ проверки по заголовку {@code kid}, ключ вне набора ищет в JWKS.
+     */
+    private final class KidLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                if (legacyKey == null) {
+                    throw new InvalidKeyException("JWT key id is missing");
+                }
+                return legacyKey;
+            }
+            Key key = verificationKeys.get(kid);
+            if (key == null && jwks != null) {
+                key = jwks.find(kid);
+            }
+            if (key == null) {
+                throw new InvalidKeyException("Unknown JWT key id");
+            }
+            return key;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.otus.projectwork.common.jwt;
+
+/**
+ * Формат списка отозванных токенов в Redis, общий для user-service и api-gateway.
+ *
+ * <p>Список хранится в sorted set {@value #REVOKED_TOKENS_KEY}: элемент - идентификатор токена (claim
+ * {@code jti}), score - момент окончания срока действия токена в миллисекундах epoch. Запись нужна только до
+ * этого момента: истекший токен отклоняется и без списка, поэтому устаревшие элементы удаляются по score.
+ */
+public final class TokenRevocation {
+
+    /**
+     * Ключ sorted set отозванных токенов.
+     */
+    public static final String REVOKED_TOKENS_KEY = "jwt:revoked";
+
+    private TokenRevocation() {
+    }
+}
@@ -0,0 +1,102 @@
+package ru.otus.projectwork.common.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование AuditLog")
+class AuditLogTest {
+
+    @Test
+    @DisplayName("Записывает события безопасности независимо от выборки")
+    void record_AlwaysRecordsInvalidToken() {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        AuditLog auditLog = AuditLog.start("test", 16, 0.0,
+                event -> written.add(event.getType() + " " + event.getPath()));
+
+        auditLog.record(AuditEventType.REQUEST, "GET", "/auth/users/info", "client", 200);
+        auditLog.record(AuditEventType.INVALID_TOKEN, "GET", "/auth/users/info", null, 401);
+        auditLog.record(AuditEventType.MISSING_TOKEN, "GET", "/auth/users/info", null, 401);
+        auditLog.close();
+
+        assertEquals(List.of("INVALID_TOKEN /auth/users/info", "MISSING_TOKEN /auth/users/info"), written);
+    }
+
+    @Test
+    @DisplayName("Будит простаивающий поток записи при появлении события")
+    void record_WakesIdleWriter() throws InterruptedException {
+        CountDownLatch written = new CountDownLatch(1);
+        AuditLog auditLog = AuditLog.start("test", 16, 1.0, event -> written.countDown());
+        // Поток записи успевает заснуть на пустом буфере
+        Thread.sleep(50);
+
+        auditLog.record(AuditEventType.REQUEST, "GET", "/auth/users/info", "client", 200);
+
+        // Быстрее предельного времени сна потока записи
+        assertTrue(written.await(500, TimeUnit.MILLISECONDS));
+        auditLog.close();
+    }
+
+    @Test
+    @DisplayName("Отбрасывает события при заполненном буфере, не блокируя поток запроса")
+    void record_DropsWhenBufferIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AuditLog auditLog = AuditLog.start("test", 4, 1.0, event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        for (int i = 0; i < 20; i++) {
+            auditLog.record(AuditEventType.REQUEST, "GET", "/public/users/authorization", null, 200);
+        }
+        release.countDown();
+        auditLog.close();
+
+        assertEquals(20, auditLog.getRecordedCount() + auditLog.getDroppedCount());
+        assertTrue(auditLog.getDroppedCount() >= 20 - 5);
+    }
+
+    @Test
+    @DisplayName("Доставляет все события от нескольких потоков ровно один раз")
+    void record_ConcurrentProducers() throws InterruptedException {
+        Set<String> written = Collections.synchronizedSet(new HashSet<>());
+        List<String> duplicates = Collections.synchronizedList(new ArrayList<>());
+        AuditLog auditLog = AuditLog.start("test", 1 << 16, 1.0, event -> {
+            if (!written.add(event.getPath())) {
+                duplicates.add(event.getPath());
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            int producer = thread;
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    auditLog.record(AuditEventType.REQUEST, "GET", "/" + producer + "/" + i, null, 200);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        auditLog.close();
+
+        assertEquals(0, auditLog.getDroppedCount());
+        assertEquals(40_000, written.size());
+        assertTrue(duplicates.isEmpty());
+    }
+}
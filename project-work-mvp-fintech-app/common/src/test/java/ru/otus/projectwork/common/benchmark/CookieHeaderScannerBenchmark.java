@@ -0,0 +1,102 @@
+package ru.otus.projectwork.common.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.otus.projectwork.common.http.CookieHeaderScanner;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение поиска cookie accessToken через split заголовка и через {@link CookieHeaderScanner}.
+ *
+ * <p>Заголовок собирается из типичных cookies браузера (аналитика, согласие на cookies, сессия, refresh токен) до
+ * размера {@code headerSize}, accessToken с JWT длиной около 300 символов стоит в середине или в конце.
+ * Аллокации удобно сравнивать с профилировщиком {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CookieHeaderScannerBenchmark {
+
+    private static final String ACCESS_TOKEN = "accessToken";
+
+    @Param({"2048", "4096"})
+    private int headerSize;
+
+    @Param({"middle", "last"})
+    private String tokenPosition;
+
+    private String header;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String token = "eyJhbGciOiJIUzI1NiJ9." + randomValue(random, 220) + "." + randomValue(random, 43);
+        StringBuilder filler = new StringBuilder("_ga=GA1.1.1234567890.1700000000; _gid=GA1.1.987654321.1700000000; "
+                + "_fbp=fb.1.1700000000000.123456789; cookie_consent=" + randomValue(random, 600) + "; "
+                + "refreshToken=" + randomValue(random, 320));
+        int i = 0;
+        while (filler.length() + token.length() < headerSize) {
+            filler.append("; _hjSession_").append(i++).append('=').append(randomValue(random, 120));
+        }
+        String accessCookie = ACCESS_TOKEN + "=" + token;
+        if ("last".equals(tokenPosition)) {
+            header = filler + "; " + accessCookie;
+        } else {
+            int middle = filler.indexOf("; ", filler.length() / 2);
+            header = filler.substring(0, middle) + "; " + accessCookie + filler.substring(middle);
+        }
+    }
+
+    @Benchmark
+    public String split() {
+        for (String cookie : header.split(";")) {
+            if (cookie.trim().startsWith(ACCESS_TOKEN + "=")) {
+                return cookie.split("=")[1].trim();
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public String scanner() {
+        return CookieHeaderScanner.findValue(header, ACCESS_TOKEN);
+    }
+
+    @Benchmark
+    public long scannerRange() {
+        return CookieHeaderScanner.findValueRange(header, ACCESS_TOKEN);
+    }
+
+    private static String randomValue(Random random, int length) {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        StringBuilder value = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return value.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CookieHeaderScannerBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
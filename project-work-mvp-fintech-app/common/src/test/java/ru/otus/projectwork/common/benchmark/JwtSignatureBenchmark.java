@@ -0,0 +1,100 @@
+package ru.otus.projectwork.common.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.otus.projectwork.common.jwt.JwksKeyCache;
+import ru.otus.projectwork.common.jwt.JwtKeyRing;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость подписи и проверки токена для HS256, ES256 и Ed25519.
+ *
+ * <p>Для асимметричных алгоритмов проверка идет через {@link JwksKeyCache}, как в downstream сервисах: ключ берется
+ * из кэша по {@code kid}, JWKS загружается один раз в {@code setUp}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSignatureBenchmark {
+
+    private static final String KID = "k1";
+
+    @Param({"HS256", "ES256", "Ed25519"})
+    private String algorithm;
+
+    private JwtKeyRing keyRing;
+
+    private JwtParser parser;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        if ("HS256".equals(algorithm)) {
+            String secret = Base64.getEncoder().encodeToString(
+                    "benchmark-key-for-hmac-sha256-signing".getBytes(StandardCharsets.UTF_8));
+            keyRing = JwtKeyRing.builder().secret(KID, secret).activeKid(KID).build();
+            parser = keyRing.parser();
+        } else {
+            KeyPair keyPair = "ES256".equals(algorithm)
+                    ? Jwts.SIG.ES256.keyPair().build()
+                    : Jwks.CRV.Ed25519.keyPair().build();
+            keyRing = JwtKeyRing.builder()
+                    .keyPair(KID, keyPair.getPrivate(), keyPair.getPublic())
+                    .activeKid(KID)
+                    .build();
+            JwksKeyCache cache = new JwksKeyCache(keyRing::publicJwksJson, Duration.ofMinutes(1));
+            cache.refresh();
+            parser = cache.parser();
+        }
+        token = sign();
+    }
+
+    @Benchmark
+    public String sign() {
+        return keyRing.sign(Jwts.builder()
+                        .claim("clientId", UUID.randomUUID().toString())
+                        .claim("userFullName", "Иванов Иван Иванович")
+                        .issuedAt(new Date())
+                        .expiration(new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(30))))
+                .compact();
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtSignatureBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,59 @@
+package ru.otus.projectwork.common.bloom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование BloomFilter")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Не дает ложноотрицательных ответов и держит заданную долю ложноположительных")
+    void mightContain_NoFalseNegativesAndBoundedFalsePositives() {
+        int keys = 10_000;
+        BloomFilter filter = BloomFilter.create(keys, 0.01);
+        List<String> added = new ArrayList<>(keys);
+        for (int i = 0; i < keys; i++) {
+            String key = UUID.randomUUID().toString();
+            added.add(key);
+            filter.put(key);
+        }
+
+        assertTrue(added.stream().allMatch(filter::mightContain));
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+                .count();
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("Не теряет ключи при одновременном добавлении из нескольких потоков")
+    void put_Concurrent() {
+        BloomFilter filter = BloomFilter.create(40_000, 0.01);
+        List<List<String>> batches = IntStream.range(0, 4)
+                .mapToObj(t -> IntStream.range(0, 10_000).mapToObj(i -> t + "-" + i).toList())
+                .toList();
+
+        CompletableFuture.allOf(batches.stream()
+                        .map(batch -> CompletableFuture.runAsync(() -> batch.forEach(filter::put)))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+
+        assertTrue(batches.stream().flatMap(List::stream).allMatch(filter::mightContain));
+    }
+
+    @Test
+    @DisplayName("Отклоняет некорректную вероятность ложноположительного ответа")
+    void create_InvalidFalsePositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1));
+    }
+}
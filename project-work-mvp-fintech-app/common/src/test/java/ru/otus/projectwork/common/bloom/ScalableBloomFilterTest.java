@@ -0,0 +1,61 @@
+package ru.otus.projectwork.common.bloom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование ScalableBloomFilter")
+class ScalableBloomFilterTest {
+
+    @Test
+    @DisplayName("Растет сверх начальной емкости и держит заданную долю ложноположительных ответов")
+    void put_GrowsBeyondInitialCapacity() {
+        ScalableBloomFilter filter = ScalableBloomFilter.create(1_000, 0.01);
+        List<String> added = IntStream.range(0, 20_000).mapToObj(i -> UUID.randomUUID().toString()).toList();
+        added.forEach(filter::put);
+
+        assertTrue(filter.stageCount() > 1);
+        assertTrue(added.stream().allMatch(filter::mightContain));
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+                .count();
+        assertTrue(falsePositives < 1_500, "false positives: " + falsePositives);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.01, "expected: " + filter.expectedFalsePositiveRate());
+    }
+
+    @Test
+    @DisplayName("Повторно добавленные ключи не расходуют емкость")
+    void put_DuplicatesDoNotGrow() {
+        ScalableBloomFilter filter = ScalableBloomFilter.create(1_000, 0.01);
+        List<String> keys = IntStream.range(0, 1_000).mapToObj(i -> "7999" + i).toList();
+        for (int pass = 0; pass < 5; pass++) {
+            keys.forEach(filter::put);
+        }
+
+        assertEquals(1, filter.stageCount());
+        assertTrue(filter.approximateSize() <= 1_000);
+    }
+
+    @Test
+    @DisplayName("Не теряет ключи при одновременном добавлении во время роста")
+    void put_ConcurrentGrowth() {
+        ScalableBloomFilter filter = ScalableBloomFilter.create(100, 0.01);
+        List<List<String>> batches = IntStream.range(0, 4)
+                .mapToObj(t -> IntStream.range(0, 10_000).mapToObj(i -> t + "-" + i).toList())
+                .toList();
+
+        CompletableFuture.allOf(batches.stream()
+                        .map(batch -> CompletableFuture.runAsync(() -> batch.forEach(filter::put)))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+
+        assertTrue(batches.stream().flatMap(List::stream).allMatch(filter::mightContain));
+    }
+}
@@ -0,0 +1,110 @@
+package ru.otus.projectwork.common.http;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.Tuple;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@Label("Тестирование CookieHeaderScanner")
+class CookieHeaderScannerTest {
+
+    private static final String ACCESS_TOKEN = "accessToken";
+
+    @Property(tries = 2000)
+    @Label("Находит то же значение, что и разбор заголовка на пары")
+    void findValue_SameAsReferenceParser(@ForAll("cookieHeaders") String header) {
+        assertEquals(referenceFindValue(header, ACCESS_TOKEN), CookieHeaderScanner.findValue(header, ACCESS_TOKEN));
+    }
+
+    @Property(tries = 1000)
+    @Label("Возвращает значение целиком, включая символы '='")
+    void findValue_KeepsValueWithEquals(@ForAll("cookieValues") String value,
+                                        @ForAll("cookies") List<String> before,
+                                        @ForAll("cookies") List<String> after) {
+        String header = String.join("; ", before) + (before.isEmpty() ? "" : "; ")
+                + ACCESS_TOKEN + "=" + value + "=="
+                + (after.isEmpty() ? "" : "; ") + String.join("; ", after);
+        String expected = referenceFindValue(String.join("; ", before), ACCESS_TOKEN);
+
+        assertEquals(expected != null ? expected : value + "==", CookieHeaderScanner.findValue(header, ACCESS_TOKEN));
+    }
+
+    @Example
+    @Label("Не путает cookie с совпадающим суффиксом или префиксом имени")
+    void findValue_ExactNameOnly() {
+        assertNull(CookieHeaderScanner.findValue("xaccessToken=a; accessTokenx=b", ACCESS_TOKEN));
+        assertEquals("c", CookieHeaderScanner.findValue("xaccessToken=a; accessTokenx=b;accessToken=c", ACCESS_TOKEN));
+    }
+
+    @Example
+    @Label("Снимает кавычки и пропускает пустые значения")
+    void findValue_QuotedAndEmpty() {
+        assertEquals("a.b.c", CookieHeaderScanner.findValue("accessToken=\"a.b.c\"", ACCESS_TOKEN));
+        assertEquals("d", CookieHeaderScanner.findValue("accessToken=; accessToken = d ", ACCESS_TOKEN));
+        assertNull(CookieHeaderScanner.findValue("accessToken", ACCESS_TOKEN));
+        assertNull(CookieHeaderScanner.findValue(null, ACCESS_TOKEN));
+    }
+
+    @Provide
+    Arbitrary<String> cookieHeaders() {
+        Arbitrary<String> separator = Arbitraries.of(";", "; ", " ;  ", ";\t", ";;");
+        return Combinators.combine(cookies(), separator)
+                .as((cookies, sep) -> String.join(sep, cookies));
+    }
+
+    @Provide
+    Arbitrary<List<String>> cookies() {
+        Arbitrary<String> name = Arbitraries.oneOf(
+                Arbitraries.of(ACCESS_TOKEN, "refreshToken", "_ga", "session", "xaccessToken", "accessTokenx"),
+                Arbitraries.strings().withCharRange('a', 'z').withChars('_', '-').ofMinLength(1).ofMaxLength(12));
+        Arbitrary<String> cookie = Combinators.combine(name, cookieValues(), Arbitraries.of("", " ", "\t"))
+                .as((n, v, ows) -> n + ows + "=" + ows + v);
+        Arbitrary<String> malformed = Arbitraries.of("flag", "", " ");
+        return Arbitraries.frequencyOf(
+                        Tuple.of(10, cookie),
+                        Tuple.of(1, malformed))
+                .list()
+                .ofMaxSize(12);
+    }
+
+    @Provide
+    Arbitrary<String> cookieValues() {
+        Arbitrary<String> plain = Arbitraries.strings()
+                .withCharRange('a', 'z')
+                .withCharRange('A', 'Z')
+                .withCharRange('0', '9')
+                .withChars('.', '_', '-', '=', '/', '+')
+                .ofMaxLength(40);
+        return Arbitraries.oneOf(plain, plain.map(v -> "\"" + v + "\""));
+    }
+
+    /**
+     * Эталонный разбор: делит заголовок на пары и возвращает первое непустое значение cookie с заданным именем.
+     */
+    private static String referenceFindValue(String header, String name) {
+        for (String pair : header.split(";")) {
+            int eq = pair.indexOf('=');
+            if (eq < 0 || !pair.substring(0, eq).strip().equals(name)) {
+                continue;
+            }
+            String value = pair.substring(eq + 1).strip();
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            if (!value.isEmpty()) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,134 @@
+package ru.otus.projectwork.common.jwt;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Тестирование JwksKeyCache")
+class JwksKeyCacheTest {
+
+    private static final Duration MIN_REFRESH_INTERVAL = Duration.ofSeconds(30);
+
+    private final KeyPair first = Jwts.SIG.ES256.keyPair().build();
+
+    private final KeyPair second = Jwts.SIG.ES256.keyPair().build();
+
+    private final AtomicReference<String> jwks = new AtomicReference<>();
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final JwksKeyCache cache = new JwksKeyCache(() -> {
+        fetches.incrementAndGet();
+        String json = jwks.get();
+        return json != null
+                ? CompletableFuture.completedFuture(json)
+                : CompletableFuture.failedFuture(new IllegalStateException("issuer is unavailable"));
+    }, MIN_REFRESH_INTERVAL, nanos::get);
+
+    @Test
+    @DisplayName("Проверяет токен открытым ключом и загружает JWKS один раз")
+    void parser_VerifiesWithCachedPublicKey() {
+        JwtKeyRing issuer = ring("k1", first);
+        jwks.set(issuer.publicJwksJson());
+
+        for (int i = 0; i < 3; i++) {
+            String token = issuer.sign(Jwts.builder().subject("client-" + i)).compact();
+            assertEquals("client-" + i, cache.parser().parseSignedClaims(token).getPayload().getSubject());
+        }
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    @DisplayName("Перечитывает JWKS при новом kid не чаще минимального интервала")
+    void parser_RefreshesOnUnknownKidWithRateLimit() {
+        jwks.set(ring("k1", first).publicJwksJson());
+        cache.refresh();
+
+        JwtKeyRing rotated = JwtKeyRing.builder()
+                .keyPair("k1", null, first.getPublic())
+                .keyPair("k2", second.getPrivate(), second.getPublic())
+                .activeKid("k2")
+                .build();
+        String token = rotated.sign(Jwts.builder().subject("client")).compact();
+        jwks.set(rotated.publicJwksJson());
+
+        assertThrows(JwtException.class, () -> cache.parser().parseSignedClaims(token));
+        assertEquals(1, fetches.get());
+
+        nanos.addAndGet(MIN_REFRESH_INTERVAL.toNanos());
+        assertEquals("client", cache.parser().parseSignedClaims(token).getPayload().getSubject());
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    @DisplayName("Неудачная загрузка не откладывает следующую на минимальный интервал")
+    void parser_RetriesAfterFailedLoad() {
+        JwtKeyRing issuer = ring("k1", first);
+        String token = issuer.sign(Jwts.builder().subject("client")).compact();
+
+        assertThrows(JwtException.class, () -> cache.parser().parseSignedClaims(token));
+
+        jwks.set(issuer.publicJwksJson());
+        assertEquals("client", cache.parser().parseSignedClaims(token).getPayload().getSubject());
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    @DisplayName("Асинхронная загрузка не блокирует проверку и выполняется одна")
+    void nonBlocking_RejectsUnknownKidUntilLoaded() {
+        JwtKeyRing issuer = ring("k1", first);
+        String token = issuer.sign(Jwts.builder().subject("client")).compact();
+        CompletableFuture<String> response = new CompletableFuture<>();
+        JwksKeyCache nonBlocking = JwksKeyCache.nonBlocking(() -> {
+            fetches.incrementAndGet();
+            return response;
+        }, MIN_REFRESH_INTERVAL);
+
+        assertThrows(JwtException.class, () -> nonBlocking.parser().parseSignedClaims(token));
+        assertThrows(JwtException.class, () -> nonBlocking.parser().parseSignedClaims(token));
+        assertEquals(1, fetches.get());
+
+        response.complete(issuer.publicJwksJson());
+        assertEquals("client", nonBlocking.parser().parseSignedClaims(token).getPayload().getSubject());
+        assertFalse(nonBlocking.refresh().toCompletableFuture().join());
+    }
+
+    @Test
+    @DisplayName("Не принимает токены HS256 и токены без kid")
+    void parser_RejectsSymmetricAndKidlessTokens() {
+        String secret = Base64.getEncoder().encodeToString(
+                "shared-key-for-hmac-sha256-sign!".getBytes(StandardCharsets.UTF_8));
+        JwtKeyRing hmac = JwtKeyRing.of(null, Map.of("k1", secret), "k1");
+        jwks.set(ring("k1", first).publicJwksJson());
+
+        String hmacToken = hmac.sign(Jwts.builder().subject("client")).compact();
+        String kidless = Jwts.builder().subject("client").signWith(first.getPrivate()).compact();
+
+        assertThrows(JwtException.class, () -> cache.parser().parseSignedClaims(hmacToken));
+        assertThrows(JwtException.class, () -> cache.parser().parseSignedClaims(kidless));
+    }
+
+    private static JwtKeyRing ring(String kid, KeyPair keyPair) {
+        return JwtKeyRing.builder()
+                .keyPair(kid, keyPair.getPrivate(), keyPair.getPublic())
+                .activeKid(kid)
+                .build();
+    }
+}
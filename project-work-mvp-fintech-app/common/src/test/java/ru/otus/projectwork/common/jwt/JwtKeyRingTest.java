@@ -0,0 +1,113 @@
+package ru.otus.projectwork.common.jwt;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование JwtKeyRing")
+class JwtKeyRingTest {
+
+    private static final String OLD_SECRET = secret("old-key-for-hmac-sha256-signing!");
+
+    private static final String NEW_SECRET = secret("new-key-for-hmac-sha256-signing!");
+
+    @Test
+    @DisplayName("Проверяет токены старого ключа после переключения подписи на новый")
+    void parser_AcceptsAllKidsDuringRotation() {
+        JwtKeyRing before = JwtKeyRing.of(Map.of("k1", OLD_SECRET), "k1");
+        String oldToken = before.sign(Jwts.builder().subject("client")).compact();
+
+        JwtKeyRing after = JwtKeyRing.of(Map.of("k1", OLD_SECRET, "k2", NEW_SECRET), "k2");
+        String newToken = after.sign(Jwts.builder().subject("client")).compact();
+
+        assertEquals("client", after.parser().parseSignedClaims(oldToken).getPayload().getSubject());
+        assertEquals("k2", after.parser().parseSignedClaims(newToken).getHeader().getKeyId());
+        assertThrows(JwtException.class, () -> before.parser().parseSignedClaims(newToken));
+    }
+
+    @Test
+    @DisplayName("Проверяет токены без kid ключом default")
+    void parser_LegacyTokenWithoutKid() {
+        String legacyToken = Jwts.builder()
+                .subject("client")
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(OLD_SECRET)))
+                .compact();
+
+        JwtKeyRing ring = JwtKeyRing.of(Map.of(JwtKeyRing.DEFAULT_KID, OLD_SECRET, "k2", NEW_SECRET), "k2");
+
+        assertEquals("client", ring.parser().parseSignedClaims(legacyToken).getPayload().getSubject());
+    }
+
+    @Test
+    @DisplayName("Подписывает ES256 и Ed25519 и публикует только открытые ключи")
+    void keyPair_SignsAsymmetricAndPublishesPublicKeys() {
+        KeyPair es256 = Jwts.SIG.ES256.keyPair().build();
+        KeyPair ed25519 = Jwks.CRV.Ed25519.keyPair().build();
+        JwtKeyRing ring = JwtKeyRing.builder()
+                .secret(JwtKeyRing.DEFAULT_KID, OLD_SECRET)
+                .keyPair("es1", es256.getPrivate(), es256.getPublic())
+                .keyPair("ed1", ed25519.getPrivate(), ed25519.getPublic())
+                .activeKid("ed1")
+                .build();
+
+        String token = ring.sign(Jwts.builder().subject("client")).compact();
+
+        assertEquals("EdDSA", ring.parser().parseSignedClaims(token).getHeader().getAlgorithm());
+        String json = ring.publicJwksJson();
+        assertTrue(json.contains("\"kid\":\"es1\"") && json.contains("\"kid\":\"ed1\""));
+        assertFalse(json.contains("\"kid\":\"default\"") || json.contains("\"d\":"));
+    }
+
+    @Test
+    @DisplayName("Проверяет секретом HS256 и открытым ключом издателя из JWKS")
+    void jwks_VerifiesSecretAndIssuerPublicKeys() {
+        KeyPair ed25519 = Jwks.CRV.Ed25519.keyPair().build();
+        JwtKeyRing issuer = JwtKeyRing.builder()
+                .secret(JwtKeyRing.DEFAULT_KID, OLD_SECRET)
+                .keyPair("ed1", ed25519.getPrivate(), ed25519.getPublic())
+                .activeKid("ed1")
+                .build();
+        String legacyToken = JwtKeyRing.ofSecret(OLD_SECRET).sign(Jwts.builder().subject("legacy")).compact();
+        String token = issuer.sign(Jwts.builder().subject("client")).compact();
+        JwksKeyCache jwks = new JwksKeyCache(issuer::publicJwksJson, Duration.ofMinutes(1));
+
+        JwtKeyRing verifier = JwtKeyRing.builder().secrets(OLD_SECRET, Map.of()).jwks(jwks).build();
+        JwtKeyRing verifyOnly = JwtKeyRing.builder().jwks(jwks).build();
+
+        assertEquals("legacy", verifier.parser().parseSignedClaims(legacyToken).getPayload().getSubject());
+        assertEquals("client", verifier.parser().parseSignedClaims(token).getPayload().getSubject());
+        assertEquals("client", verifyOnly.parser().parseSignedClaims(token).getPayload().getSubject());
+        assertThrows(JwtException.class, () -> verifyOnly.parser().parseSignedClaims(legacyToken));
+        assertThrows(IllegalStateException.class, () -> verifyOnly.sign(Jwts.builder()));
+    }
+
+    @Test
+    @DisplayName("Не запускается с некорректной конфигурацией вместо генерации случайного ключа")
+    void of_FailsFastOnInvalidConfiguration() {
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.ofSecret(null));
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.ofSecret("not base64!"));
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.ofSecret(secret("short")));
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.of(Map.of("k1", OLD_SECRET), "k2"));
+        KeyPair verifyOnly = Jwts.SIG.ES256.keyPair().build();
+        assertThrows(IllegalStateException.class,
+                () -> JwtKeyRing.builder().keyPair("es1", null, verifyOnly.getPublic()).activeKid("es1").build());
+    }
+
+    private static String secret(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
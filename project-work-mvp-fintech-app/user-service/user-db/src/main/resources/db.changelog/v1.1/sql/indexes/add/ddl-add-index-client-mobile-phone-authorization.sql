@@ -0,0 +1,2 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_client_mobile_phone_authorization
+    ON client (mobile_phone) INCLUDE (id, first_name, last_name);
\ No newline at end of file
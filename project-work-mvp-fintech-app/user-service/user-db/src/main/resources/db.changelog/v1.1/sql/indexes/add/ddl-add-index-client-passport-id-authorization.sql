@@ -0,0 +1,2 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_client_passport_id_authorization
+    ON client (passport_id) INCLUDE (id, first_name, last_name);
\ No newline at end of file
@@ -0,0 +1,2 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_passport_data_passport_number
+    ON passport_data (passport_number) INCLUDE (id);
\ No newline at end of file
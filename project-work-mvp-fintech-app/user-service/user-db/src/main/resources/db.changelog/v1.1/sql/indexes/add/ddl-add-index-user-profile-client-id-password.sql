@@ -0,0 +1,2 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_profile_client_id_password
+    ON user_profile (client_id) INCLUDE (password);
\ No newline at end of file
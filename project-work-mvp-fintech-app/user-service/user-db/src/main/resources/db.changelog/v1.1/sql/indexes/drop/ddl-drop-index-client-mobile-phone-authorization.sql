@@ -0,0 +1 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_client_mobile_phone_authorization;
\ No newline at end of file
@@ -0,0 +1 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_client_passport_id_authorization;
\ No newline at end of file
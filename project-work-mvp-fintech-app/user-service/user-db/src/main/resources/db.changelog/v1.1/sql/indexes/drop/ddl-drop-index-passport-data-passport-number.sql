@@ -0,0 +1 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_passport_data_passport_number;
\ No newline at end of file
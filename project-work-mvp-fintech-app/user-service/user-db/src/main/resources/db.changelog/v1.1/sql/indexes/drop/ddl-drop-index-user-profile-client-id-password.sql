@@ -0,0 +1 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_user_profile_client_id_password;
\ No newline at end of file
@@ -0,0 +1,56 @@
+package ru.otus.projectwork.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Запрос на отправку OTP-кода клиенту (outbox). Запись создается в транзакции запроса и удаляется после
+ * доставки кода, истечения его срока действия или исчерпания попыток отправки.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class OtpDelivery {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(length = 11, nullable = false)
+    private String mobilePhone;
+
+    @Column(length = 6, nullable = false)
+    @ToString.Exclude
+    private String otpCode;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false, columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false, columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    @CreationTimestamp
+    private LocalDateTime createDate;
+
+}
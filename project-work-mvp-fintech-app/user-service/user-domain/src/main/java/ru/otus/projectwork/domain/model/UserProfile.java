@@ -44,7 +44,7 @@ public class UserProfile {
     @ToString.Exclude
     private Client client;
 
-    @Column(nullable = false, length = 65)
+    @Column(nullable = false)
     private String password;
 
     @ColumnDefault("false")
@@ -0,0 +1,16 @@
+package ru.otus.projectwork.domain.model.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция для сущности Client.
+ * Интерфейс используется для выбора номера телефона и даты создания клиента при загрузке фильтра
+ * зарегистрированных телефонов без загрузки сущностей.
+ */
+public interface RegisteredKeysProjection {
+
+    String getMobilePhone();
+
+    LocalDateTime getCreateDate();
+
+}
@@ -1,13 +1,21 @@
 package ru.otus.projectwork.domain.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import ru.otus.projectwork.domain.model.Client;
+import ru.otus.projectwork.domain.model.projection.RegisteredKeysProjection;
 import ru.otus.projectwork.domain.model.projection.UserAuthorizationProjection;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Класс для осуществления операций чтения и записи данных о клиенте банка/пользователя приложения в базу данных
@@ -54,4 +62,40 @@ public interface ClientRepository extends JpaRepository<Client, UUID> {
             """, nativeQuery = true)
     Optional<UserAuthorizationProjection> findAuthorizationInfoByMobilePhone(@Param("mobilePhone") String mobilePhone);
 
-}
\ No newline at end of file
+    /**
+     * Метод используется для поиска уже зарегистрированных номеров телефонов среди переданных
+     *
+     * @param mobilePhones - номера телефонов
+     * @return номера телефонов, с которыми уже существуют клиенты
+     */
+    @Query("SELECT c.mobilePhone FROM Client c WHERE c.mobilePhone IN :mobilePhones")
+    List<String> findExistingMobilePhones(@Param("mobilePhones") Collection<String> mobilePhones);
+
+    /**
+     * Метод используется для потокового чтения номеров телефонов всех клиентов. Строки читаются с сервера порциями,
+     * поток читается и закрывается внутри транзакции
+     *
+     * @return поток номеров телефонов и дат создания клиентов
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT c.mobilePhone AS mobilePhone, c.createDate AS createDate
+            FROM Client c
+            """)
+    Stream<RegisteredKeysProjection> streamAllRegisteredKeys();
+
+    /**
+     * Метод используется для потокового чтения номеров телефонов клиентов, созданных не раньше указанного момента.
+     * Поток читается и закрывается внутри транзакции
+     *
+     * @param since - момент, начиная с которого выбираются клиенты
+     * @return поток номеров телефонов и дат создания клиентов
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT c.mobilePhone AS mobilePhone, c.createDate AS createDate
+            FROM Client c
+            WHERE c.createDate >= :since
+            """)
+    Stream<RegisteredKeysProjection> streamRegisteredKeysSince(@Param("since") LocalDateTime since);
+}
@@ -0,0 +1,47 @@
+package ru.otus.projectwork.domain.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.otus.projectwork.domain.model.OtpDelivery;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Класс для осуществления операций чтения и записи запросов на отправку OTP-кодов в базу данных
+ */
+public interface OtpDeliveryRepository extends JpaRepository<OtpDelivery, UUID> {
+
+    /**
+     * Метод используется для выборки и блокировки запросов, время отправки которых наступило. Записи,
+     * заблокированные другим экземпляром сервиса, пропускаются, поэтому экземпляры разбирают outbox параллельно
+     * без повторной отправки. Блокировка действует до конца транзакции и требует ее наличия.
+     *
+     * @param now   - текущее время
+     * @param limit - максимальное количество записей
+     * @return запросы на отправку в порядке времени отправки
+     */
+    @Query(value = """
+            SELECT * FROM otp_delivery
+            WHERE next_attempt_at <= :now
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OtpDelivery> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Метод используется для переноса времени следующей отправки запросов после неудачной попытки.
+     *
+     * @param ids           - идентификаторы запросов
+     * @param nextAttemptAt - время следующей отправки
+     * @return количество обновленных запросов
+     */
+    @Modifying
+    @Query("UPDATE OtpDelivery d SET d.nextAttemptAt = :nextAttemptAt WHERE d.id IN :ids")
+    int reschedule(@Param("ids") Collection<UUID> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+}
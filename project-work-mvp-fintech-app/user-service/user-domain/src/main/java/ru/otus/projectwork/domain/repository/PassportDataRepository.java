@@ -1,8 +1,12 @@
 package ru.otus.projectwork.domain.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.otus.projectwork.domain.model.PassportData;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -10,4 +14,13 @@ import java.util.UUID;
  */
 public interface PassportDataRepository extends JpaRepository<PassportData, UUID> {
     boolean existsByPassportNumber(String passportNumber);
+
+    /**
+     * Метод используется для поиска уже сохраненных номеров паспортов среди переданных
+     *
+     * @param passportNumbers - номера паспортов
+     * @return номера паспортов, которые уже есть в базе данных
+     */
+    @Query("SELECT pd.passportNumber FROM PassportData pd WHERE pd.passportNumber IN :passportNumbers")
+    List<String> findExistingPassportNumbers(@Param("passportNumbers") Collection<String> passportNumbers);
 }
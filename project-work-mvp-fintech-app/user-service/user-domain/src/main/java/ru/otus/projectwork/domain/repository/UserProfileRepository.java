@@ -1,12 +1,43 @@
 package ru.otus.projectwork.domain.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.otus.projectwork.domain.model.UserProfile;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Класс для осуществления операций чтения и записи данных о профиле клиента в базу данных
  */
 public interface UserProfileRepository extends JpaRepository<UserProfile, UUID> {
+
+    /**
+     * Метод используется для замены хеша пароля клиента, если хеш не изменился с момента чтения. Пароль, измененный
+     * параллельным запросом, не перезаписывается.
+     *
+     * @param clientId    - идентификатор клиента
+     * @param oldPassword - прочитанный хеш пароля
+     * @param newPassword - новый хеш пароля
+     * @return количество обновленных профилей, 0 - если хеш уже изменен
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserProfile up SET up.password = :newPassword WHERE up.client.id = :clientId AND up.password = :oldPassword")
+    int replacePassword(@Param("clientId") UUID clientId,
+                        @Param("oldPassword") String oldPassword,
+                        @Param("newPassword") String newPassword);
+
+    /**
+     * Метод используется для поиска уже занятых адресов электронной почты среди переданных
+     *
+     * @param emails - адреса электронной почты
+     * @return адреса электронной почты, которые уже указаны в профилях
+     */
+    @Query("SELECT up.email FROM UserProfile up WHERE up.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
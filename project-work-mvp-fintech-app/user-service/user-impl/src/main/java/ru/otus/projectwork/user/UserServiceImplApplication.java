@@ -3,9 +3,12 @@ package ru.otus.projectwork.user;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import ru.otus.projectwork.common.audit.AuditConfig;
 
 @SpringBootApplication
+@Import(AuditConfig.class)
 @EntityScan("ru.otus.projectwork.domain.model")
 @EnableJpaRepositories(basePackages = "ru.otus.projectwork.domain.repository")
 public class UserServiceImplApplication {
@@ -0,0 +1,36 @@
+package ru.otus.projectwork.user.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Настройки административных эндпоинтов {@code /admin/**}.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "admin")
+public class AdminConfig {
+
+    /**
+     * Токен доступа в заголовке {@code X-Admin-Token}. Без токена административные эндпоинты недоступны.
+     */
+    private String token;
+
+    private ClientImport clientImport = new ClientImport();
+
+    /**
+     * Импорт клиентов: строки обрабатываются пачками по {@code chunkSize}, каждая пачка записывается одной
+     * транзакцией. В ответе перечисляется не больше {@code maxReportedErrors} ошибок, счетчик ошибок полный.
+     */
+    @Getter
+    @Setter
+    public static class ClientImport {
+
+        private Integer chunkSize = 1000;
+
+        private Integer maxReportedErrors = 10000;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.otus.projectwork.user.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import ru.otus.projectwork.user.util.cache.AuthorizationInfoCache;
+import ru.otus.projectwork.user.util.cache.RedisAuthorizationInfoStore;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша данных авторизации клиентов, см. {@link AuthorizationInfoCache}.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "authorization-cache")
+public class AuthorizationCacheConfig {
+
+    private boolean enabled = true;
+
+    private Long maximumSize = 100_000L;
+
+    /**
+     * Время жизни записи, ограничивает задержку изменения пароля на других экземплярах без общего хранилища.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * Хранить данные также в Redis и оповещать экземпляры сервиса о сбросе через Redis.
+     */
+    private boolean redisSync = false;
+
+    @Bean(destroyMethod = "close")
+    public AuthorizationInfoCache authorizationInfoCache(StringRedisTemplate stringRedisTemplate,
+                                                         MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return AuthorizationInfoCache.disabled();
+        }
+        RedisAuthorizationInfoStore sharedStore = redisSync
+                ? new RedisAuthorizationInfoStore(stringRedisTemplate, ttl)
+                : null;
+        return new AuthorizationInfoCache(maximumSize, ttl, sharedStore, meterRegistry);
+    }
+}
@@ -5,7 +5,17 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import ru.otus.projectwork.common.jwt.JwtKeyRing;
+import ru.otus.projectwork.common.jwt.PemKeys;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Configuration
 @Getter
@@ -20,9 +30,26 @@ public class JwtConfig {
 
     private Time time = new Time();
 
+    /**
+     * Ключи подписи по {@code kid} для ротации без простоя. Если не заданы, используется {@code secret.key}.
+     */
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    /**
+     * Асимметричные пары ключей ES256 или Ed25519 по {@code kid}. Их открытые ключи публикуются в JWKS, и
+     * downstream сервисы проверяют токены без общего секрета.
+     */
+    private Map<String, KeyPairLocation> keyPairs = new LinkedHashMap<>();
+
+    /**
+     * Идентификатор ключа, которым подписываются новые токены.
+     */
+    private String activeKid;
+
     @PostConstruct
     public void validate() {
-        if (secret == null || secret.getKey() == null || secret.getKey().trim().isEmpty()) {
+        if ((secret == null || secret.getKey() == null || secret.getKey().trim().isEmpty())
+                && (keys == null || keys.isEmpty()) && (keyPairs == null || keyPairs.isEmpty())) {
             throw new IllegalStateException("JWT secret key is not configured in application.yml");
         }
         if (cookies == null || cookies.getName() == null || cookies.getName().trim().isEmpty()) {
@@ -31,6 +58,38 @@ public class JwtConfig {
         log.info("SecurityConfig validated successfully");
     }
 
+    /**
+     * Создает набор ключей подписи. Некорректный ключ останавливает запуск сервиса: случайный ключ сделал бы
+     * токены одного экземпляра невалидными для остальных.
+     *
+     * @return набор ключей подписи
+     */
+    @Bean
+    public JwtKeyRing jwtKeyRing() {
+        JwtKeyRing.Builder builder = JwtKeyRing.builder()
+                .secrets(secret != null ? secret.getKey() : null, keys)
+                .activeKid(activeKid);
+        if (keyPairs != null) {
+            keyPairs.forEach((kid, location) -> builder.keyPair(kid,
+                    location.getPrivateKey() != null ? PemKeys.readPrivateKey(read(location.getPrivateKey())) : null,
+                    PemKeys.readPublicKey(read(location.getPublicKey()))));
+        }
+        JwtKeyRing keyRing = builder.build();
+        log.info("JWT key ring initialized, active key id: {}, key ids: {}", keyRing.getActiveKid(), keyRing.getKids());
+        return keyRing;
+    }
+
+    private static String read(Resource resource) {
+        if (resource == null) {
+            throw new IllegalStateException("JWT public key location is not configured in application.yml");
+        }
+        try {
+            return resource.getContentAsString(StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read JWT key " + resource.getDescription(), e);
+        }
+    }
+
     @Getter
     @Setter
     public static class Secret {
@@ -50,4 +109,11 @@ public class JwtConfig {
         private String access;
     }
 
+    @Getter
+    @Setter
+    public static class KeyPairLocation {
+        private Resource privateKey;
+        private Resource publicKey;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package ru.otus.projectwork.user.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import ru.otus.projectwork.user.util.attempt.LoginAttemptTracker;
+import ru.otus.projectwork.user.util.attempt.RedisSlidingWindowCounter;
+import ru.otus.projectwork.user.util.attempt.SlidingWindowCounter;
+
+import java.time.Duration;
+
+/**
+ * Настройки защиты входа от подбора пароля, см. {@link LoginAttemptTracker}.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "login-attempts")
+public class LoginAttemptConfig {
+
+    private boolean enabled = true;
+
+    private Duration window = Duration.ofMinutes(15);
+
+    private Integer maxPrincipalFailures = 5;
+
+    private Integer maxAddressFailures = 100;
+
+    private Integer stripes = 64;
+
+    private Integer maxEntriesPerStripe = 4096;
+
+    /**
+     * Учитывать попытки также в Redis, чтобы блокировка действовала на всех экземплярах сервиса.
+     */
+    private boolean redisSync = false;
+
+    @Bean
+    public LoginAttemptTracker loginAttemptTracker(StringRedisTemplate stringRedisTemplate,
+                                                   MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return LoginAttemptTracker.disabled();
+        }
+        SlidingWindowCounter localCounter = new SlidingWindowCounter(window, stripes, maxEntriesPerStripe,
+                System::currentTimeMillis);
+        Gauge.builder("login.attempts.tracked", localCounter, SlidingWindowCounter::size)
+                .description("Principals and addresses with recent failed login attempts tracked locally")
+                .register(meterRegistry);
+        RedisSlidingWindowCounter sharedCounter = redisSync
+                ? new RedisSlidingWindowCounter(stringRedisTemplate, window, System::currentTimeMillis)
+                : null;
+        return new LoginAttemptTracker(localCounter, sharedCounter, maxPrincipalFailures, maxAddressFailures,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,132 @@
+package ru.otus.projectwork.user.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.otus.projectwork.domain.repository.OtpDeliveryRepository;
+import ru.otus.projectwork.user.util.otp.InMemoryOtpStore;
+import ru.otus.projectwork.user.util.otp.LoggingOtpSender;
+import ru.otus.projectwork.user.util.otp.OtpDeliveryOutbox;
+import ru.otus.projectwork.user.util.otp.OtpSender;
+import ru.otus.projectwork.user.util.otp.OtpStore;
+import ru.otus.projectwork.user.util.otp.RedisOtpStore;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Настройки хранилища и отправки OTP-кодов. Срок действия кода и количество попыток задаются в {@link RedisConfig}.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "otp")
+public class OtpConfig {
+
+    /**
+     * {@code redis} - коды общие для всех экземпляров, {@code in-memory} - коды в памяти экземпляра для запуска
+     * на одном узле и тестов без Redis.
+     */
+    private Store store = Store.REDIS;
+
+    private InMemory inMemory = new InMemory();
+
+    private Delivery delivery = new Delivery();
+
+    public enum Store {
+        REDIS,
+        IN_MEMORY
+    }
+
+    /**
+     * Колесо таймеров {@link InMemoryOtpStore}: истекшие коды удаляются с точностью до {@code tick}, один оборот
+     * колеса - {@code tick * wheelSize}.
+     */
+    @Getter
+    @Setter
+    public static class InMemory {
+
+        private Duration tick = Duration.ofSeconds(1);
+
+        private Integer wheelSize = 256;
+    }
+
+    /**
+     * Диспетчер {@link OtpDeliveryOutbox}: пачки до {@code batchSize} кодов, периодический обход раз в
+     * {@code pollInterval}, задержка между попытками от {@code initialBackoff} до {@code maxBackoff}. На время
+     * отправки запись забирается на {@code lease}, больше времени ответа канала доставки.
+     */
+    @Getter
+    @Setter
+    public static class Delivery {
+
+        private Integer batchSize = 100;
+
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        private Duration initialBackoff = Duration.ofSeconds(1);
+
+        private Duration maxBackoff = Duration.ofMinutes(1);
+
+        private Integer maxAttempts = 8;
+
+        private Duration lease = Duration.ofMinutes(1);
+    }
+
+    /**
+     * Создает хранилище OTP-кодов. {@link InMemoryOtpStore#close()} останавливает поток колеса таймеров при
+     * закрытии контекста.
+     *
+     * @param stringRedisTemplate шаблон Redis
+     * @param meterRegistry       реестр метрик
+     * @return хранилище OTP-кодов
+     */
+    @Bean
+    public OtpStore otpStore(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        if (store == Store.REDIS) {
+            return new RedisOtpStore(stringRedisTemplate);
+        }
+        InMemoryOtpStore otpStore = InMemoryOtpStore.start(inMemory.getTick(), inMemory.getWheelSize());
+        Gauge.builder("otp.store.size", otpStore, InMemoryOtpStore::size)
+                .description("OTP codes held by the in-memory store")
+                .register(meterRegistry);
+        return otpStore;
+    }
+
+    /**
+     * Создает канал доставки OTP-кодов: заглушку, записывающую коды в журнал приложения.
+     *
+     * @return канал доставки
+     */
+    @Bean
+    public OtpSender otpSender() {
+        return new LoggingOtpSender(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Создает outbox отправки OTP-кодов. {@link OtpDeliveryOutbox#close()} останавливает поток диспетчера при
+     * закрытии контекста.
+     *
+     * @param otpDeliveryRepository репозиторий запросов на отправку
+     * @param otpSender             канал доставки
+     * @param transactionManager    менеджер транзакций
+     * @param meterRegistry         реестр метрик
+     * @return outbox
+     */
+    @Bean
+    public OtpDeliveryOutbox otpDeliveryOutbox(OtpDeliveryRepository otpDeliveryRepository, OtpSender otpSender,
+                                               PlatformTransactionManager transactionManager,
+                                               MeterRegistry meterRegistry) {
+        return OtpDeliveryOutbox.start(otpDeliveryRepository, otpSender, new TransactionTemplate(transactionManager),
+                Clock.systemDefaultZone(), meterRegistry, delivery.getBatchSize(), delivery.getPollInterval(),
+                delivery.getInitialBackoff(), delivery.getMaxBackoff(), delivery.getMaxAttempts(),
+                delivery.getLease());
+    }
+}
@@ -1,23 +1,109 @@
 package ru.otus.projectwork.user.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.otus.projectwork.user.util.password.BoundedPasswordEncoder;
+import ru.otus.projectwork.user.util.password.PasswordCostCalibrator;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.IntFunction;
 
 @Configuration
 @Getter
 @Setter
 @ConfigurationProperties(prefix = "spring.security.password-encoder")
+@Slf4j
 public class PasswordEncoderConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+
+    private static final String ARGON2_ID = "argon2";
+
+    /**
+     * Алгоритм хеширования новых паролей. Хеши другого алгоритма проверяются по префиксу {@code {id}} и
+     * перехешируются при следующем входе.
+     */
+    private Algorithm algorithm = Algorithm.BCRYPT;
+
+    /**
+     * Стоимость BCrypt, если калибровка отключена.
+     */
     private Integer strength = 15;
 
     private BCryptVersion version = BCryptVersion.$2A;
 
+    private Argon2 argon2 = new Argon2();
+
+    private Calibration calibration = new Calibration();
+
+    private Hashing hashing = new Hashing();
+
+    public enum Algorithm {
+        BCRYPT,
+        ARGON2
+    }
+
+    /**
+     * Параметры Argon2id. Память задается в КиБ, {@code iterations} - количество проходов, если калибровка
+     * отключена, и нижняя граница калибровки.
+     */
+    @Getter
+    @Setter
+    public static class Argon2 {
+
+        private Integer memory = 19456;
+
+        private Integer iterations = 2;
+
+        private Integer parallelism = 1;
+
+        private Integer saltLength = 16;
+
+        private Integer hashLength = 32;
+    }
+
+    /**
+     * Подбор стоимости хеширования при старте, см. {@link PasswordCostCalibrator}. Калибровка отключена, если не
+     * задан {@code targetLatency}.
+     */
+    @Getter
+    @Setter
+    public static class Calibration {
+
+        private Duration targetLatency;
+
+        private Integer minStrength = 10;
+
+        private Integer maxStrength = 16;
+
+        private Integer maxIterations = 10;
+    }
+
+    /**
+     * Настройки пула потоков хеширования паролей, см. {@link BoundedPasswordEncoder}. {@code bulkThreads} - потоки
+     * пакетного хеширования при импорте, по умолчанию половина ядер, чтобы вход продолжал обслуживаться.
+     */
+    @Getter
+    @Setter
+    public static class Hashing {
+
+        private Integer threads = Runtime.getRuntime().availableProcessors();
+
+        private Integer queueCapacity = 64;
+
+        private Integer bulkThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
     public enum BCryptVersion {
         $2A(BCryptPasswordEncoder.BCryptVersion.$2A),
         $2B(BCryptPasswordEncoder.BCryptVersion.$2B),
@@ -34,8 +120,54 @@ public class PasswordEncoderConfig {
         }
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(version.getVersion(), strength);
+    /**
+     * Создает кодировщик паролей.
+     *
+     * <p>Новые пароли хешируются выбранным алгоритмом с префиксом {@code {bcrypt}} или {@code {argon2}}. Хеши без
+     * префикса, сохраненные до перехода на {@link DelegatingPasswordEncoder}, проверяются BCrypt.
+     * {@link PasswordEncoder#upgradeEncoding(String)} возвращает true для хешей другого алгоритма, без префикса и
+     * с меньшей стоимостью, чем текущая, такие хеши перехешируются после успешного входа.
+     *
+     * @param meterRegistry реестр метрик
+     * @return кодировщик паролей на ограниченном пуле потоков
+     */
+    @Bean(destroyMethod = "close")
+    public BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        BCryptPasswordEncoder bcrypt = algorithm == Algorithm.BCRYPT
+                ? bcrypt(calibrate(this::bcrypt, calibration.getMinStrength(), calibration.getMaxStrength(), strength))
+                : bcrypt(strength);
+        Argon2PasswordEncoder argon2Encoder = algorithm == Algorithm.ARGON2
+                ? argon2(calibrate(this::argon2, argon2.getIterations(), calibration.getMaxIterations(),
+                argon2.getIterations()))
+                : argon2(argon2.getIterations());
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(
+                algorithm == Algorithm.ARGON2 ? ARGON2_ID : BCRYPT_ID,
+                Map.of(BCRYPT_ID, bcrypt, ARGON2_ID, argon2Encoder));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return new BoundedPasswordEncoder(delegating, hashing.getThreads(), hashing.getQueueCapacity(),
+                hashing.getBulkThreads(), meterRegistry);
+    }
+
+    private int calibrate(IntFunction<PasswordEncoder> encoderForCost, int minCost, int maxCost,
+                          int fixedCost) {
+        Duration targetLatency = calibration.getTargetLatency();
+        if (targetLatency == null) {
+            return fixedCost;
+        }
+        int cost = PasswordCostCalibrator.calibrate(encoderForCost, minCost, maxCost, targetLatency);
+        log.info("Password hashing calibrated: algorithm {}, cost {} in [{}, {}], target {} ms", algorithm, cost,
+                minCost, maxCost, targetLatency.toMillis());
+        return cost;
+    }
+
+    private BCryptPasswordEncoder bcrypt(int cost) {
+        return new BCryptPasswordEncoder(version.getVersion(), cost);
+    }
+
+    private Argon2PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(argon2.getSaltLength(), argon2.getHashLength(), argon2.getParallelism(),
+                argon2.getMemory(), iterations);
     }
 }
@@ -0,0 +1,56 @@
+package ru.otus.projectwork.user.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.otus.projectwork.domain.repository.ClientRepository;
+import ru.otus.projectwork.user.util.bloom.RegisteredKeyFilter;
+
+import java.time.Duration;
+
+/**
+ * Настройки фильтра зарегистрированных номеров телефонов, см. {@link RegisteredKeyFilter}.
+ */
+@Configuration
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "registered-key-filter")
+public class RegisteredKeyFilterConfig {
+
+    private boolean enabled = true;
+
+    /**
+     * Емкость первого фильтра цепочки, при заполнении добавляется фильтр вдвое большей емкости.
+     */
+    private Long initialCapacity = 100_000L;
+
+    private Double falsePositiveRate = 0.01;
+
+    /**
+     * Интервал догрузки регистраций других экземпляров сервиса.
+     */
+    private Duration refreshInterval = Duration.ofSeconds(5);
+
+    /**
+     * Перекрытие догрузки: клиенты, созданные за это время до последнего прочитанного, читаются повторно.
+     */
+    private Duration refreshOverlap = Duration.ofMinutes(1);
+
+    @Bean(destroyMethod = "close")
+    public RegisteredKeyFilter registeredKeyFilter(ClientRepository clientRepository,
+                                                   PlatformTransactionManager transactionManager,
+                                                   MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return RegisteredKeyFilter.disabled();
+        }
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return RegisteredKeyFilter.start(clientRepository, readOnlyTransaction, meterRegistry, initialCapacity,
+                falsePositiveRate, refreshInterval, refreshOverlap);
+    }
+}
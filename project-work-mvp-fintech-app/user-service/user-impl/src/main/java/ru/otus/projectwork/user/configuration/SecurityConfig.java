@@ -9,6 +9,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import ru.otus.projectwork.user.configuration.filter.AdminTokenFilter;
 import ru.otus.projectwork.user.configuration.filter.JwtTokenFilter;
 
 @Configuration
@@ -18,6 +19,8 @@ public class SecurityConfig {
 
     private final JwtTokenFilter jwtTokenFilter;
 
+    private final AdminTokenFilter adminTokenFilter;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -47,6 +50,9 @@ public class SecurityConfig {
                         // Защита доступа на аутентифицированные эндпоинты
                         .requestMatchers("/auth/**").authenticated()
 
+                        // Административные эндпоинты доступны только по токену администратора
+                        .requestMatchers("/admin/**").hasRole(AdminTokenFilter.ADMIN_ROLE)
+
                         // Все остальные запросы требуют аутентификации
                         .anyRequest().authenticated()
                 )
@@ -57,7 +63,8 @@ public class SecurityConfig {
                             response.getWriter().write("{\"error\": \"Unauthorized\", \"message\": \"Authentication required\"}");
                         })
                 )
-                .addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(adminTokenFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,54 @@
+package ru.otus.projectwork.user.configuration.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.otus.projectwork.user.configuration.AdminConfig;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Аутентификация административных запросов {@code /admin/**} по токену из заголовка {@code X-Admin-Token}.
+ * Совпавший токен дает роль {@code ADMIN}, иначе запрос остается неаутентифицированным и отклоняется Spring
+ * Security. Токен сравнивается за постоянное время.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdminTokenFilter extends OncePerRequestFilter {
+
+    public static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+
+    public static final String ADMIN_ROLE = "ADMIN";
+
+    private final AdminConfig adminConfig;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String token = adminConfig.getToken();
+        String presented = request.getHeader(ADMIN_TOKEN_HEADER);
+        if (token != null && !token.isBlank() && presented != null
+                && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                presented.getBytes(StandardCharsets.UTF_8))) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    ADMIN_ROLE, null, List.of(new SimpleGrantedAuthority("ROLE_" + ADMIN_ROLE))));
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/admin/");
+    }
+}
@@ -0,0 +1,57 @@
+package ru.otus.projectwork.user.configuration.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.otus.projectwork.common.audit.AuditEventType;
+import ru.otus.projectwork.common.audit.AuditLog;
+
+import java.io.IOException;
+
+/**
+ * Фильтр аудита запросов.
+ *
+ * <p>Для запросов, попавших в выборку, после обработки записывает одно событие {@link AuditEventType#REQUEST} со
+ * статусом ответа и длительностью. Если событие о запросе уже записал {@link JwtTokenFilter}, повторное событие
+ * не создается.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class AuditFilter extends OncePerRequestFilter {
+
+    /**
+     * Атрибут запроса, отмечающий, что событие аудита о запросе уже записано.
+     */
+    public static final String AUDITED_ATTR = AuditFilter.class.getName() + ".audited";
+
+    private final AuditLog auditLog;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!auditLog.sample()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.getAttribute(AUDITED_ATTR) == null) {
+                Object clientId = request.getAttribute(JwtTokenFilter.CLIENT_ID_ATTR);
+                auditLog.recordSampled(AuditEventType.REQUEST, request.getMethod(), request.getRequestURI(),
+                        clientId != null ? clientId.toString() : null, response.getStatus(),
+                        System.nanoTime() - startNanos);
+            }
+        }
+    }
+}
@@ -5,25 +5,34 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import ru.otus.projectwork.common.audit.AuditEventType;
+import ru.otus.projectwork.common.audit.AuditLog;
+import ru.otus.projectwork.user.exception.UnauthorizedUserException;
+import ru.otus.projectwork.user.util.token.JwtPrincipal;
 import ru.otus.projectwork.user.util.token.JwtTokenUtils;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.UUID;
 
-@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtTokenFilter extends OncePerRequestFilter {
 
+    /**
+     * Атрибут запроса, в котором хранится clientId из проверенного токена. В отличие от SecurityContext доступен
+     * и после завершения цепочки Spring Security.
+     */
+    public static final String CLIENT_ID_ATTR = JwtTokenFilter.class.getName() + ".clientId";
+
     private final JwtTokenUtils jwtTokenUtils;
 
+    private final AuditLog auditLog;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -31,15 +40,11 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
         final String requestUri = request.getRequestURI();
 
-        log.debug("=== JWT FILTER START ===");
-        log.debug("Request URI: {}", requestUri);
-
         // Пропускает публичные эндпоинты без проверки токена
         if (requestUri.startsWith("/public/") ||
                 requestUri.contains("/actuator/") ||
                 requestUri.contains("/swagger-ui") ||
                 requestUri.contains("/v3/api-docs")) {
-            log.debug("Skipping JWT check for public endpoint: {}", requestUri);
             filterChain.doFilter(request, response);
             return;
         }
@@ -49,47 +54,50 @@ public class JwtTokenFilter extends OncePerRequestFilter {
             // Если уже есть аутентификация и пользователь аутентифицирован, пропускает проверку
             if (SecurityContextHolder.getContext().getAuthentication() != null &&
                     SecurityContextHolder.getContext().getAuthentication().isAuthenticated()) {
-                log.debug("Authentication already present, skipping JWT check");
                 filterChain.doFilter(request, response);
                 return;
             }
 
+            String token;
             try {
-                String token = jwtTokenUtils.getToken();
-                log.debug("Extracted token: {}", token != null ? "PRESENT" : "NULL");
-
-                if (token != null) {
-                    UUID clientId = jwtTokenUtils.tokenValidate(token);
-                    log.debug("Token validation result: {}", clientId);
-
-                    if (clientId != null) {
-                        UsernamePasswordAuthenticationToken authentication =
-                                new UsernamePasswordAuthenticationToken(clientId, null, Collections.emptyList());
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                        log.debug("Authenticated user with ID: {}", clientId);
-                    } else {
-                        log.debug("Token validation failed, sending 401");
-                        sendUnauthorizedResponse(response, "Invalid token");
-                        return;
-                    }
-                } else {
-                    log.debug("No token found, sending 401");
-                    sendUnauthorizedResponse(response, "Missing authentication token");
-                    return;
-                }
+                token = jwtTokenUtils.getToken();
+            } catch (UnauthorizedUserException e) {
+                token = null;
+            }
+            if (token == null) {
+                reject(request, response, AuditEventType.MISSING_TOKEN, "Missing authentication token");
+                return;
+            }
+
+            try {
+                // Токен проверяется один раз за запрос, контроллеры и сервисы берут principal из SecurityContext
+                JwtPrincipal principal = jwtTokenUtils.verify(token);
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                request.setAttribute(CLIENT_ID_ATTR, principal.clientId());
             } catch (Exception e) {
-                log.debug("JWT authentication failed: {}", e.getMessage());
-                sendUnauthorizedResponse(response, "Invalid or expired token: " + e.getMessage());
+                reject(request, response, AuditEventType.INVALID_TOKEN, "Invalid or expired token: " + e.getMessage());
                 return;
             }
         }
 
-        log.debug("=== JWT FILTER END ===");
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Отвечает 401 и записывает событие аудита, которое не зависит от выборки.
+     */
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        AuditEventType type, String message) throws IOException {
+        request.setAttribute(AuditFilter.AUDITED_ATTR, Boolean.TRUE);
+        auditLog.record(type, request.getMethod(), request.getRequestURI(), null,
+                HttpServletResponse.SC_UNAUTHORIZED);
+        sendUnauthorizedResponse(response, message);
+    }
+
     private void sendUnauthorizedResponse(HttpServletResponse response, String message) throws IOException {
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         response.setContentType("application/json");
@@ -0,0 +1,67 @@
+package ru.otus.projectwork.user.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import ru.otus.projectwork.user.configuration.filter.AdminTokenFilter;
+import ru.otus.projectwork.user.dto.response.ClientImportResponseDto;
+import ru.otus.projectwork.user.exception.handler.ErrorResponseDto;
+import ru.otus.projectwork.user.service.ClientImportService;
+import ru.otus.projectwork.user.util.bulk.RegistrationRowReader;
+
+import java.io.IOException;
+
+@RestController
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor
+public class ClientImportController {
+
+    ClientImportService clientImportService;
+
+    ObjectMapper objectMapper;
+
+    /**
+     * Обрабатывает запрос на импорт клиентов, например при переводе клиентов из банка-партнера.
+     * <p>
+     * Тело запроса - NDJSON ({@code application/x-ndjson}, объект запроса регистрации в каждой строке) или CSV
+     * ({@code text/csv}, заголовок с именами полей запроса регистрации). Тело читается потоком, ответ отправляется
+     * после обработки всех строк.
+     * </p>
+     *
+     * @param request запрос с файлом импорта в теле
+     * @return количество импортированных строк и ошибки по строкам
+     */
+    @PostMapping(value = "/admin/users/import", consumes = {"application/x-ndjson", "text/csv"})
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Импорт клиентов из NDJSON или CSV",
+            parameters = @Parameter(name = AdminTokenFilter.ADMIN_TOKEN_HEADER, in = ParameterIn.HEADER,
+                    required = true, description = "Токен администратора"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Файл обработан, ошибки строк перечислены в ответе"),
+            @ApiResponse(responseCode = "401", description = "Отсутствует или неверный токен администратора",
+                    content = {@Content(schema = @Schema(implementation = ErrorResponseDto.class))}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера",
+                    content = {@Content(schema = @Schema(implementation = ErrorResponseDto.class))}),
+    })
+    public ClientImportResponseDto importClients(HttpServletRequest request) throws IOException {
+        MediaType format = MediaType.parseMediaType(request.getContentType());
+        try (RegistrationRowReader reader = RegistrationRowReader.open(format, request.getInputStream(),
+                objectMapper)) {
+            return clientImportService.importClients(reader);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.otus.projectwork.user.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.otus.projectwork.common.jwt.JwtKeyRing;
+
+import java.time.Duration;
+
+@RestController
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor
+public class JwksController {
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(5);
+
+    JwtKeyRing jwtKeyRing;
+
+    /**
+     * Возвращает открытые ключи подписи токенов, по которым downstream сервисы проверяют токены локально.
+     *
+     * @return JWK Set открытых ключей
+     */
+    @GetMapping(value = "/public/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Открытые ключи подписи JWT")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "JWK Set открытых ключей"),
+    })
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(MAX_AGE).cachePublic())
+                .body(jwtKeyRing.publicJwksJson());
+    }
+}
@@ -19,12 +19,14 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.otus.projectwork.user.dto.request.AuthorizationRequestDto;
 import ru.otus.projectwork.user.dto.request.CheckOtpRequestDto;
 import ru.otus.projectwork.user.dto.request.CheckRegistrationRequestDto;
+import ru.otus.projectwork.user.dto.request.LogoutRequestDto;
 import ru.otus.projectwork.user.dto.request.RegistrationRequestDto;
 import ru.otus.projectwork.user.dto.response.AuthorizationResponseDto;
 import ru.otus.projectwork.user.dto.response.CheckPhoneResponseDto;
 import ru.otus.projectwork.user.dto.response.RegistrationResponseDto;
 import ru.otus.projectwork.user.exception.handler.ErrorResponseDto;
 import ru.otus.projectwork.user.service.ClientService;
+import ru.otus.projectwork.user.service.TokenRevocationService;
 
 @RestController
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
@@ -33,6 +35,8 @@ public class UserController {
 
     ClientService clientService;
 
+    TokenRevocationService tokenRevocationService;
+
     /**
      * Обрабатывает запрос на регистрацию нового пользователя.
      *
@@ -159,4 +163,27 @@ public class UserController {
         return clientService.checkOtpCode(request);
     }
 
-}
+    /**
+     * Обрабатывает запрос на выход из приложения.
+     *
+     * @param request  запрос с токеном обновления
+     * @param response удаляет cookie с jwt
+     */
+    @PostMapping("/auth/users/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(
+            summary = "Выход из приложения с отзывом токенов",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Токены отозваны"),
+            @ApiResponse(responseCode = "401", description = "Отсутствует авторизация. Доступ запрещен",
+                    content = {@Content(schema = @Schema(implementation = ErrorResponseDto.class))}),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера",
+                    content = {@Content(schema = @Schema(implementation = ErrorResponseDto.class))}),
+    })
+    public void logout(@RequestBody(required = false) LogoutRequestDto request, HttpServletResponse response) {
+        tokenRevocationService.logout(request, response);
+    }
+
+}
\ No newline at end of file
@@ -20,6 +20,12 @@ public class ChainAuthorizationDto {
     @Schema(description = "Запрос на авторизацию клиента")
     private AuthorizationRequestDto request;
 
+    @Schema(description = "Ключ учетной записи для учета неудачных попыток входа")
+    private String loginPrincipal;
+
+    @Schema(description = "Адрес клиента для учета неудачных попыток входа")
+    private String clientAddress;
+
     @Schema(description = "Объект обернутый в Optional который содержит информацию о клиенте полученную из базы данных")
     private Optional<UserAuthorizationProjection> userInfo;
 
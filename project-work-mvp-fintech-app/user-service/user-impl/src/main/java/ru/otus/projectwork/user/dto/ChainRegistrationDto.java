@@ -16,6 +16,9 @@ import ru.otus.projectwork.domain.model.UserProfile;
 @Schema(description = "DTO для передачи данных между частями цепочки регистрации")
 public class ChainRegistrationDto {
 
+    @Schema(description = "Хеш пароля, вычисленный до начала транзакции регистрации")
+    private String encodedPassword;
+
     @Schema(description = "Паспортные данные клиента")
     private PassportData passportData;
 
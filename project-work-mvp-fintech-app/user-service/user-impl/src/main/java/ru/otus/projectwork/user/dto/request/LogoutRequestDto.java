@@ -0,0 +1,18 @@
+package ru.otus.projectwork.user.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+/**
+ * DTO для запроса выхода из приложения.
+ *
+ * @param refreshToken токен обновления, выданный при авторизации, отзывается вместе с токеном доступа
+ */
+@Builder
+@Schema(description = "Данные для выхода из приложения")
+public record LogoutRequestDto(
+
+        @Schema(description = "Токен обновления, который нужно отозвать вместе с токеном доступа")
+        String refreshToken
+) {
+}
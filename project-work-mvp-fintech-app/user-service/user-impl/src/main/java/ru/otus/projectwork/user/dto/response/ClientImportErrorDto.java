@@ -0,0 +1,19 @@
+package ru.otus.projectwork.user.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+/**
+ * DTO ошибки импорта одной строки.
+ */
+@Builder
+@Schema(description = "Строка файла импорта, которая не была импортирована")
+public record ClientImportErrorDto(
+
+        @Schema(description = "Номер строки в файле, начиная с 1", example = "42")
+        long line,
+
+        @Schema(description = "Причина", example = "Пользователь с таким номером телефона уже существует")
+        String message
+) {
+}
@@ -0,0 +1,27 @@
+package ru.otus.projectwork.user.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * DTO для ответа на импорт клиентов.
+ */
+@Builder
+@Schema(description = "Результат импорта клиентов")
+public record ClientImportResponseDto(
+
+        @Schema(description = "Количество строк с данными", example = "1000")
+        long total,
+
+        @Schema(description = "Количество зарегистрированных клиентов", example = "998")
+        long imported,
+
+        @Schema(description = "Количество строк с ошибками", example = "2")
+        long failed,
+
+        @Schema(description = "Ошибки по строкам, список может быть усечен")
+        List<ClientImportErrorDto> errors
+) {
+}
@@ -0,0 +1,20 @@
+package ru.otus.projectwork.user.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, выбрасываемое, когда сервис временно перегружен и не может принять запрос.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends RuntimeException {
+
+    /**
+     * Создает новый объект исключения с заданным сообщением.
+     *
+     * @param message сообщение об ошибке
+     */
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.otus.projectwork.user.exception.BadRequestException;
 import ru.otus.projectwork.user.exception.ConflictException;
 import ru.otus.projectwork.user.exception.NotFoundException;
+import ru.otus.projectwork.user.exception.ServiceUnavailableException;
 import ru.otus.projectwork.user.exception.TooManyRequestException;
 import ru.otus.projectwork.user.exception.UnauthorizedUserException;
 
@@ -96,6 +97,18 @@ public class RestExceptionHandler {
         return new ErrorResponseDto(runTimeEx.getMessage());
     }
 
+    /**
+     * Обрабатывает исключение ServiceUnavailableException и возвращает HTTP-ответ с кодом 503 Service Unavailable.
+     *
+     * @param runTimeEx исключение ServiceUnavailableException
+     * @return ответ клиенту с сообщением об ошибке и кодом состояния 503
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponseDto handleServiceUnavailableException(RuntimeException runTimeEx) {
+        return new ErrorResponseDto(runTimeEx.getMessage());
+    }
+
     /**
      * Обрабатывает исключение InternalServerError и возвращает HTTP-ответ с кодом 500 Internal Server Error.
      *
@@ -0,0 +1,23 @@
+package ru.otus.projectwork.user.service;
+
+import ru.otus.projectwork.user.dto.response.ClientImportResponseDto;
+import ru.otus.projectwork.user.util.bulk.RegistrationRowReader;
+
+import java.io.IOException;
+
+public interface ClientImportService {
+
+    /**
+     * Регистрирует клиентов из файла импорта.
+     * <p>
+     * Строки проверяются ограничениями {@link ru.otus.projectwork.user.dto.request.RegistrationRequestDto} и
+     * регистрируются так же, как при {@link ClientService#registration}. Строка с ошибкой не прерывает импорт, а
+     * попадает в список ошибок ответа с номером строки и причиной.
+     * </p>
+     *
+     * @param reader строки файла импорта
+     * @return количество импортированных строк и ошибки по строкам
+     * @throws IOException ошибка чтения файла
+     */
+    ClientImportResponseDto importClients(RegistrationRowReader reader) throws IOException;
+}
@@ -0,0 +1,20 @@
+package ru.otus.projectwork.user.service;
+
+import java.util.UUID;
+
+public interface PasswordRehashService {
+
+    /**
+     * Перехеширует пароль клиента текущим алгоритмом и стоимостью, если сохраненный хеш устарел.
+     * <p>
+     * Вызывается после успешной проверки пароля, пока известен введенный пароль. Хеширование выполняется в фоне
+     * и не задерживает ответ на вход. Если пул хеширования занят, перехеширование пропускается до следующего
+     * входа. Хеш заменяется только если он не изменился с момента чтения.
+     * </p>
+     *
+     * @param clientId        идентификатор клиента
+     * @param rawPassword     введенный пароль, совпавший с хешем
+     * @param encodedPassword сохраненный хеш пароля
+     */
+    void rehashIfOutdated(UUID clientId, String rawPassword, String encodedPassword);
+}
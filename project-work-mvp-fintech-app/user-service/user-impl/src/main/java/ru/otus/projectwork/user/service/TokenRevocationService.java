@@ -0,0 +1,22 @@
+package ru.otus.projectwork.user.service;
+
+import jakarta.servlet.http.HttpServletResponse;
+import ru.otus.projectwork.user.dto.request.LogoutRequestDto;
+
+public interface TokenRevocationService {
+
+    /**
+     * Выполняет выход клиента из приложения.
+     * <p>
+     * Отзывает токен доступа текущего запроса и, если он передан, токен обновления того же клиента. Идентификаторы
+     * токенов записываются в Redis до окончания их срока действия, api-gateway отклоняет отозванные токены по
+     * локальной копии списка. Cookie с токеном доступа удаляется.
+     * </p>
+     *
+     * @param request  запрос с токеном обновления, может быть null
+     * @param response для удаления cookie с jwt
+     * @throws ru.otus.projectwork.user.exception.UnauthorizedUserException если токен обновления невалиден или
+     *                                                                      выдан другому клиенту
+     */
+    void logout(LogoutRequestDto request, HttpServletResponse response);
+}
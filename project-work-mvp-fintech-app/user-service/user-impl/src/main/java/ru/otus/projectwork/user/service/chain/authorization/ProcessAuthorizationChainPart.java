@@ -6,9 +6,9 @@ import ru.otus.projectwork.user.dto.ChainAuthorizationDto;
  * Интерфейс для определения части цепочки обработки авторизации.
  *
  * @see ru.otus.projectwork.user.service.chain.authorization.impl.CheckAuthorizationParamsChainPart 1 шаг
- * @see ru.otus.projectwork.user.service.chain.authorization.impl.GettingClientInfoChainPart 2 шаг
- * @see ru.otus.projectwork.user.service.chain.authorization.impl.CheckClientPasswordChainPart 3 шаг
- * @see ru.otus.projectwork.user.service.chain.authorization.impl.GettingTokensChainPart 4 шаг
+ * @see ru.otus.projectwork.user.service.chain.authorization.impl.GettingClientInfoChainPart 3 шаг
+ * @see ru.otus.projectwork.user.service.chain.authorization.impl.CheckClientPasswordChainPart 4 шаг
+ * @see ru.otus.projectwork.user.service.chain.authorization.impl.GettingTokensChainPart 5 шаг
  */
 public interface ProcessAuthorizationChainPart {
 
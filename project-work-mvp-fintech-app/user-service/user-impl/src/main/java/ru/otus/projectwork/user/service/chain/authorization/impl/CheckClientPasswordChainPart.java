@@ -7,7 +7,9 @@ import org.springframework.stereotype.Component;
 import ru.otus.projectwork.domain.model.projection.UserAuthorizationProjection;
 import ru.otus.projectwork.user.dto.ChainAuthorizationDto;
 import ru.otus.projectwork.user.exception.NotFoundException;
+import ru.otus.projectwork.user.service.PasswordRehashService;
 import ru.otus.projectwork.user.service.chain.authorization.ProcessAuthorizationChainPart;
+import ru.otus.projectwork.user.util.attempt.LoginAttemptTracker;
 
 import static ru.otus.projectwork.user.service.chain.authorization.impl.CheckClientPasswordChainPart.ORDER;
 import static ru.otus.projectwork.user.util.ExceptionMessage.ACCOUNT_DOES_NOT_EXISTS;
@@ -21,15 +23,21 @@ import static ru.otus.projectwork.user.util.ExceptionMessage.INCORRECT_PASSWORD;
 @Order(ORDER)
 public class CheckClientPasswordChainPart implements ProcessAuthorizationChainPart {
 
-    protected static final int ORDER = 3;
+    protected static final int ORDER = 4;
 
     public static final String SPACE = "";
 
     private final PasswordEncoder passwordEncoder;
 
+    private final PasswordRehashService passwordRehashService;
+
+    private final LoginAttemptTracker loginAttemptTracker;
+
     /**
      * Выполняет проверку введенного пароля клиента и полученного из базы данных. В случае несоответствия выбрасывается
-     * исключение BadRequestException, в случае соответствия происходит переход на новый этап авторизации.
+     * исключение BadRequestException, в случае соответствия происходит переход на новый этап авторизации. Хеш,
+     * созданный устаревшим алгоритмом или с меньшей стоимостью, перехешируется в фоне. Неудачная попытка
+     * учитывается в {@link LoginAttemptTracker}, успешная сбрасывает попытки учетной записи.
      *
      * @param chain объект ChainAuthorizationDto, содержащий данные для обработки
      * @return ChainAuthorizationDto после успешной проверки пароля клиента
@@ -40,12 +48,18 @@ public class CheckClientPasswordChainPart implements ProcessAuthorizationChainPa
 
         String rawPassword = chain.getRequest().password();
 
-        UserAuthorizationProjection userInfo = chain.getUserInfo()
-                .orElseThrow(() -> new NotFoundException(ACCOUNT_DOES_NOT_EXISTS.getDescription()));
+        UserAuthorizationProjection userInfo = chain.getUserInfo().orElse(null);
+        if (userInfo == null) {
+            loginAttemptTracker.recordFailure(chain.getLoginPrincipal(), chain.getClientAddress());
+            throw new NotFoundException(ACCOUNT_DOES_NOT_EXISTS.getDescription());
+        }
 
         if (!passwordEncoder.matches(rawPassword, userInfo.getPassword())) {
+            loginAttemptTracker.recordFailure(chain.getLoginPrincipal(), chain.getClientAddress());
             throw new NotFoundException(INCORRECT_PASSWORD.getDescription());
         }
+        loginAttemptTracker.recordSuccess(chain.getLoginPrincipal());
+        passwordRehashService.rehashIfOutdated(userInfo.getId(), rawPassword, userInfo.getPassword());
 
         chain.setClientId(userInfo.getId());
         chain.setUserFullName(String.join(SPACE, userInfo.getFirstName(), userInfo.getLastName()));
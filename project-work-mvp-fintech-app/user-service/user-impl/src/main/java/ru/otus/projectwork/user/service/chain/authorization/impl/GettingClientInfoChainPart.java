@@ -6,6 +6,7 @@ import org.springframework.stereotype.Component;
 import ru.otus.projectwork.domain.repository.ClientRepository;
 import ru.otus.projectwork.user.dto.ChainAuthorizationDto;
 import ru.otus.projectwork.user.service.chain.authorization.ProcessAuthorizationChainPart;
+import ru.otus.projectwork.user.util.cache.AuthorizationInfoCache;
 
 import java.util.Optional;
 
@@ -19,15 +20,18 @@ import static ru.otus.projectwork.user.service.chain.authorization.impl.GettingC
 @Order(ORDER)
 public class GettingClientInfoChainPart implements ProcessAuthorizationChainPart {
 
-    protected static final int ORDER = 2;
+    protected static final int ORDER = 3;
 
     private final ClientRepository clientRepository;
 
+    private final AuthorizationInfoCache authorizationInfoCache;
+
     /**
      * Выполняет получение информации о клиенте (имя клиента, фамилию, идентификатор, пароль),
      * в зависимости от переданных параметров поиска, поиск клиента в базе данных может осуществляться по паролю и
      * телефону либо по паролю и номеру паспорта. Один из параметров поиска моет быть null, в этом случае поиск происходит
-     * по другому параметру.
+     * по другому параметру. Повторные входы клиента отвечаются из {@link AuthorizationInfoCache} без запроса к базе
+     * данных.
      *
      * @param chain объект ChainAuthorizationDto, содержащий данные для обработки
      * @return ChainAuthorizationDto после выполнения поиска информации о клинте
@@ -39,8 +43,10 @@ public class GettingClientInfoChainPart implements ProcessAuthorizationChainPart
         Optional<String> optionalMobilePhone = Optional.ofNullable(chain.getRequest().mobilePhone());
 
         optionalMobilePhone.ifPresentOrElse(
-                value ->chain.setUserInfo(clientRepository.findAuthorizationInfoByMobilePhone(value)),
-                () -> chain.setUserInfo(clientRepository.findAuthorizationInfoByPassportNumber(passportNumber))
+                value -> chain.setUserInfo(authorizationInfoCache.findByMobilePhone(
+                        value, clientRepository::findAuthorizationInfoByMobilePhone)),
+                () -> chain.setUserInfo(authorizationInfoCache.findByPassportNumber(
+                        passportNumber, clientRepository::findAuthorizationInfoByPassportNumber))
         );
 
         return chain;
@@ -23,7 +23,7 @@ import static ru.otus.projectwork.user.util.ExceptionMessage.COULD_NOT_GENERATE_
 @Order(ORDER)
 public class GettingTokensChainPart implements ProcessAuthorizationChainPart {
 
-    protected static final int ORDER = 4;
+    protected static final int ORDER = 5;
 
     private final JwtTokenUtils jwtTokenUtils;
 
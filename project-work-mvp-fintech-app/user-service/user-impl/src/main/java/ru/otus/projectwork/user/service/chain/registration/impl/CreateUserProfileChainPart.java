@@ -2,7 +2,6 @@ package ru.otus.projectwork.user.service.chain.registration.impl;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.annotation.Order;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import ru.otus.projectwork.domain.model.UserProfile;
 import ru.otus.projectwork.domain.model.enums.AuthorizationType;
@@ -32,9 +31,10 @@ import static ru.otus.projectwork.user.service.chain.registration.impl.CreateUse
  * ChainRegistrationDto result = createUserProfileChainPart.process(request, previous);
  * }</pre>
  * <p>
- * Примечания: Для успешного создания профиля пользователя необходимо, чтобы в запросе регистрации были заполнены
- * необходимые поля, такие как пароль и адрес электронной почты. Устанавливаются также значения по умолчанию для других
- * параметров профиля пользователя, таких как включение уведомлений и тип авторизации.
+ * Примечания: Для успешного создания профиля пользователя необходимо, чтобы в запросе регистрации был заполнен адрес
+ * электронной почты, а в объекте previous - хеш пароля: пароль хешируется до начала транзакции регистрации, чтобы
+ * соединение с базой данных не удерживалось на время хеширования. Устанавливаются также значения по умолчанию для
+ * других параметров профиля пользователя, таких как включение уведомлений и тип авторизации.
  * <p>
  * Предусловия: Входные данные должны соответствовать структуре и типам, определенным в классе RegistrationRequestDto.
  * <p>
@@ -52,8 +52,6 @@ public class CreateUserProfileChainPart implements ProcessRegistrationChainPart
 
     private final UserProfileRepository userProfileRepository;
 
-    private final PasswordEncoder passwordEncoder;
-
     /**
      * Создает новую запись профиля пользователя на основе данных запроса регистрации. Сохраняет созданный профиль
      * пользователя в репозитории профилей пользователей.
@@ -83,7 +81,7 @@ public class CreateUserProfileChainPart implements ProcessRegistrationChainPart
     private UserProfile getUserProfile(RegistrationRequestDto request, ChainRegistrationDto previous) {
         return UserProfile.builder()
                 .client(previous.getClient())
-                .password(passwordEncoder.encode(request.password()))
+                .password(previous.getEncodedPassword())
                 .isSmsEnabled(false)
                 .isPushEnabled(false)
                 .email(request.email())
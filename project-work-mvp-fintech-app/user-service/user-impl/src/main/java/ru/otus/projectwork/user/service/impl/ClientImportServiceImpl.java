@@ -0,0 +1,252 @@
+package ru.otus.projectwork.user.service.impl;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.otus.projectwork.domain.repository.ClientRepository;
+import ru.otus.projectwork.domain.repository.PassportDataRepository;
+import ru.otus.projectwork.domain.repository.UserProfileRepository;
+import ru.otus.projectwork.user.configuration.AdminConfig;
+import ru.otus.projectwork.user.dto.ChainRegistrationDto;
+import ru.otus.projectwork.user.dto.request.RegistrationRequestDto;
+import ru.otus.projectwork.user.dto.response.ClientImportErrorDto;
+import ru.otus.projectwork.user.dto.response.ClientImportResponseDto;
+import ru.otus.projectwork.user.service.ClientImportService;
+import ru.otus.projectwork.user.service.chain.registration.ProcessRegistrationChainPart;
+import ru.otus.projectwork.user.util.bloom.RegisteredKeyFilter;
+import ru.otus.projectwork.user.util.bulk.RegistrationRow;
+import ru.otus.projectwork.user.util.bulk.RegistrationRowReader;
+import ru.otus.projectwork.user.util.password.BoundedPasswordEncoder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static ru.otus.projectwork.user.util.ExceptionMessage.CLIENT_WITH_PASSPORT_NUMBER_EXIST;
+import static ru.otus.projectwork.user.util.ExceptionMessage.EMAIL_REGISTERED;
+import static ru.otus.projectwork.user.util.ExceptionMessage.IMPORT_ROW_REJECTED;
+import static ru.otus.projectwork.user.util.ExceptionMessage.MOBILE_PHONE_REGISTERED;
+import static ru.otus.projectwork.user.util.ExceptionMessage.PASSWORD_HASHING_FAILED;
+
+/**
+ * Импорт клиентов пачками.
+ * <p>
+ * Строки читаются потоком и копятся в пачку из {@code admin.client-import.chunk-size} строк. Для пачки три запроса
+ * находят уже занятые телефоны, номера паспортов и адреса почты, пароли хешируются параллельно на пуле пакетного
+ * хеширования {@link BoundedPasswordEncoder#encodeAll}, затем пачка регистрируется цепочкой регистрации в одной
+ * транзакции, и Hibernate вставляет записи пакетами по таблицам. Если транзакция пачки отклонена базой данных, ее
+ * строки регистрируются по одной, чтобы найти отклоненные и сохранить остальные.
+ * </p>
+ */
+@Slf4j
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor
+public class ClientImportServiceImpl implements ClientImportService {
+
+    List<ProcessRegistrationChainPart> registrationChainParts;
+
+    ClientRepository clientRepository;
+
+    PassportDataRepository passportDataRepository;
+
+    UserProfileRepository userProfileRepository;
+
+    RegisteredKeyFilter registeredKeyFilter;
+
+    BoundedPasswordEncoder passwordEncoder;
+
+    TransactionOperations transactionOperations;
+
+    Validator validator;
+
+    AdminConfig adminConfig;
+
+    @Override
+    public ClientImportResponseDto importClients(RegistrationRowReader reader) throws IOException {
+        int chunkSize = adminConfig.getClientImport().getChunkSize();
+        Report report = new Report(adminConfig.getClientImport().getMaxReportedErrors());
+        List<RegistrationRow> chunk = new ArrayList<>(chunkSize);
+
+        for (RegistrationRow row = reader.next(); row != null; row = reader.next()) {
+            report.total++;
+            String error = row.error() != null ? row.error() : validate(row.request());
+            if (error != null) {
+                report.fail(row.line(), error);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+
+        log.info("Client import finished: {} rows, {} imported, {} failed", report.total, report.imported,
+                report.failed);
+        return report.toResponse();
+    }
+
+    private void importChunk(List<RegistrationRow> chunk, Report report) {
+        List<RegistrationRow> rows = rejectRegistered(chunk, report);
+
+        List<CompletableFuture<String>> hashes = passwordEncoder.encodeAll(
+                rows.stream().map(row -> row.request().password()).toList());
+        List<HashedRow> hashedRows = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                hashedRows.add(new HashedRow(rows.get(i), hashes.get(i).join()));
+            } catch (CompletionException e) {
+                report.fail(rows.get(i).line(), PASSWORD_HASHING_FAILED.getDescription());
+            }
+        }
+
+        try {
+            transactionOperations.executeWithoutResult(status -> hashedRows.forEach(this::register));
+            report.imported += hashedRows.size();
+        } catch (DataAccessException e) {
+            log.warn("Client import chunk rejected, importing {} rows one by one: {}", hashedRows.size(),
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            hashedRows.forEach(row -> importOne(row, report));
+        }
+    }
+
+    private void importOne(HashedRow row, Report report) {
+        try {
+            transactionOperations.executeWithoutResult(status -> register(row));
+            report.imported++;
+        } catch (DataAccessException e) {
+            String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            report.fail(row.row().line(), IMPORT_ROW_REJECTED.getDescription().formatted(firstLine(reason)));
+        }
+    }
+
+    private void register(HashedRow row) {
+        ChainRegistrationDto chainDto = ChainRegistrationDto.builder()
+                .encodedPassword(row.encodedPassword())
+                .build();
+        for (ProcessRegistrationChainPart part : registrationChainParts) {
+            chainDto = part.process(row.row().request(), chainDto);
+        }
+        registeredKeyFilter.register(row.row().request().mobilePhone());
+    }
+
+    /**
+     * Отклоняет строки с телефоном, номером паспорта или почтой, которые уже есть в базе данных или в предыдущих
+     * строках пачки. Повтор строки из предыдущей пачки находится в базе данных: та пачка уже зафиксирована.
+     *
+     * @return строки, которые можно регистрировать
+     */
+    private List<RegistrationRow> rejectRegistered(List<RegistrationRow> chunk, Report report) {
+        Set<String> phones = existing(chunk, RegistrationRequestDto::mobilePhone,
+                clientRepository::findExistingMobilePhones);
+        Set<String> passports = existing(chunk, RegistrationRequestDto::passportNumber,
+                passportDataRepository::findExistingPassportNumbers);
+        Set<String> emails = existing(chunk, RegistrationRequestDto::email, userProfileRepository::findExistingEmails);
+
+        List<RegistrationRow> rows = new ArrayList<>(chunk.size());
+        for (RegistrationRow row : chunk) {
+            RegistrationRequestDto request = row.request();
+            if (phones.contains(request.mobilePhone())) {
+                report.fail(row.line(), MOBILE_PHONE_REGISTERED.getDescription());
+            } else if (passports.contains(request.passportNumber())) {
+                report.fail(row.line(), CLIENT_WITH_PASSPORT_NUMBER_EXIST.getDescription());
+            } else if (emails.contains(request.email())) {
+                report.fail(row.line(), EMAIL_REGISTERED.getDescription());
+            } else {
+                phones.add(request.mobilePhone());
+                passports.add(request.passportNumber());
+                emails.add(request.email());
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static Set<String> existing(List<RegistrationRow> chunk, Function<RegistrationRequestDto, String> key,
+                                        Function<Set<String>, List<String>> query) {
+        Set<String> keys = chunk.stream().map(row -> key.apply(row.request())).collect(Collectors.toSet());
+        return new HashSet<>(query.apply(keys));
+    }
+
+    /**
+     * Проверяет строку ограничениями {@link RegistrationRequestDto}. Группы проверяются по порядку
+     * {@link jakarta.validation.GroupSequence}, поэтому возвращаются нарушения первой непройденной группы.
+     *
+     * @return сообщения нарушений или null, если строка корректна
+     */
+    private String validate(RegistrationRequestDto request) {
+        Set<ConstraintViolation<RegistrationRequestDto>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "";
+        }
+        int end = message.indexOf('\n');
+        return end < 0 ? message : message.substring(0, end);
+    }
+
+    private record HashedRow(RegistrationRow row, String encodedPassword) {
+    }
+
+    /**
+     * Счетчики и ошибки импорта. Используется одним потоком запроса.
+     */
+    private static final class Report {
+
+        private final int maxReportedErrors;
+
+        private final List<ClientImportErrorDto> errors = new ArrayList<>();
+
+        private long total;
+
+        private long imported;
+
+        private long failed;
+
+        private Report(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ClientImportErrorDto(line, message));
+            }
+        }
+
+        private ClientImportResponseDto toResponse() {
+            return ClientImportResponseDto.builder()
+                    .total(total)
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(errors.stream().sorted(Comparator.comparingLong(ClientImportErrorDto::line)).toList())
+                    .build();
+        }
+    }
+}
@@ -5,9 +5,13 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import ru.otus.projectwork.domain.repository.ClientRepository;
 import ru.otus.projectwork.user.configuration.JwtConfig;
 import ru.otus.projectwork.user.configuration.RedisConfig;
@@ -28,11 +32,14 @@ import ru.otus.projectwork.user.service.PassportDataService;
 import ru.otus.projectwork.user.service.chain.authorization.ProcessAuthorizationChainPart;
 import ru.otus.projectwork.user.service.chain.registration.ProcessRegistrationChainPart;
 import ru.otus.projectwork.user.util.Constant;
+import ru.otus.projectwork.user.util.attempt.LoginAttemptTracker;
+import ru.otus.projectwork.user.util.bloom.RegisteredKeyFilter;
+import ru.otus.projectwork.user.util.otp.OtpDeliveryOutbox;
+import ru.otus.projectwork.user.util.otp.OtpStore;
 
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
-import static org.hibernate.type.descriptor.java.IntegerJavaType.ZERO;
 import static ru.otus.projectwork.user.util.ExceptionMessage.CLIENT_BY_MOBILE_PHONE_NOT_FOUND;
 import static ru.otus.projectwork.user.util.ExceptionMessage.CLIENT_WITH_PASSPORT_NUMBER_EXIST;
 import static ru.otus.projectwork.user.util.ExceptionMessage.INCORRECT_CODE_ENTERED;
@@ -53,29 +60,54 @@ public class ClientServiceImpl implements ClientService {
 
     ClientRepository clientRepository;
 
-    RedisTemplate<String, Object> redisTemplate;
+    RegisteredKeyFilter registeredKeyFilter;
+
+    OtpStore otpStore;
+
+    OtpDeliveryOutbox otpDeliveryOutbox;
 
     JwtConfig JWTConfig;
 
     RedisConfig redisConfig;
 
+    PasswordEncoder passwordEncoder;
+
+    LoginAttemptTracker loginAttemptTracker;
+
+    TransactionOperations transactionOperations;
+
+    /**
+     * Регистрация клиента.
+     * <p>
+     * Пароль хешируется до начала транзакции: хеширование занимает сотни миллисекунд, и соединение с базой данных
+     * не удерживается на это время. Части цепочки только передают сущности в контекст персистентности, записи
+     * вставляются при фиксации транзакции пакетами по таблицам ({@code hibernate.jdbc.batch_size},
+     * {@code hibernate.order_inserts}).
+     * </p>
+     */
     @Override
-    @Transactional
     public RegistrationResponseDto registration(RegistrationRequestDto request) {
 
         if (passportDataService.existsByPassportNumber(request.passportNumber())) {
             throw new ConflictException(CLIENT_WITH_PASSPORT_NUMBER_EXIST.getDescription());
         }
 
-        ChainRegistrationDto chainDto = ChainRegistrationDto.builder().build();
+        ChainRegistrationDto initial = ChainRegistrationDto.builder()
+                .encodedPassword(passwordEncoder.encode(request.password()))
+                .build();
 
-        for (ProcessRegistrationChainPart part : registrationChainParts) {
-            chainDto = part.process(request, chainDto);
-        }
+        return transactionOperations.execute(status -> {
+            ChainRegistrationDto chainDto = initial;
 
-        return RegistrationResponseDto.builder()
-                .id(chainDto.getClient().getId())
-                .build();
+            for (ProcessRegistrationChainPart part : registrationChainParts) {
+                chainDto = part.process(request, chainDto);
+            }
+            registeredKeyFilter.register(request.mobilePhone());
+
+            return RegistrationResponseDto.builder()
+                    .id(chainDto.getClient().getId())
+                    .build();
+        });
     }
 
     @Override
@@ -83,25 +115,40 @@ public class ClientServiceImpl implements ClientService {
     public CheckPhoneResponseDto checkRegistration(CheckRegistrationRequestDto request) {
 
         String phoneNumber = request.mobilePhone();
-        if (clientRepository.isMobilePhoneExists(phoneNumber)) {
+        if (registeredKeyFilter.mobilePhoneExists(phoneNumber, clientRepository::isMobilePhoneExists)) {
             throw new ConflictException(MOBILE_PHONE_REGISTERED.getDescription());
         }
 
         return new CheckPhoneResponseDto(phoneNumber);
     }
 
+    /**
+     * Авторизация клиента.
+     * <p>
+     * Блокировка учетной записи и адреса после подбора пароля проверяется до начала транзакции: отклоненная
+     * попытка не занимает соединение с базой данных. Адрес клиента - {@code remoteAddr} запроса, заголовок
+     * X-Forwarded-For учитывается только от доверенных прокси ({@code server.tomcat.remoteip.internal-proxies}).
+     * </p>
+     */
     @Override
-    @Transactional
     public AuthorizationResponseDto authorize(AuthorizationRequestDto request, HttpServletResponse response) {
 
-        ChainAuthorizationDto chainDto = ChainAuthorizationDto
+        ChainAuthorizationDto initial = ChainAuthorizationDto
                 .builder()
                 .request(request)
+                .loginPrincipal(resolveLoginPrincipal(request))
+                .clientAddress(resolveClientAddress())
                 .build();
 
-        for (ProcessAuthorizationChainPart part : authorizationChainParts) {
-            chainDto = part.process(chainDto);
-        }
+        loginAttemptTracker.checkAllowed(initial.getLoginPrincipal(), initial.getClientAddress());
+
+        ChainAuthorizationDto chainDto = transactionOperations.execute(status -> {
+            ChainAuthorizationDto chain = initial;
+            for (ProcessAuthorizationChainPart part : authorizationChainParts) {
+                chain = part.process(chain);
+            }
+            return chain;
+        });
 
         String jwt = chainDto.getAccessToken();
         Cookie cookie = new Cookie(JWTConfig.getCookies().getName(), jwt);
@@ -132,32 +179,22 @@ public class ClientServiceImpl implements ClientService {
     }
 
     @Override
-    @Transactional
     public CheckPhoneResponseDto checkOtpCode(CheckOtpRequestDto request) {
         String phone = request.mobilePhone();
-        String otpFromUser = request.otpCode();
-
-        String[] resultFromDb = getRedisData(phone).split(",");
-        String otpCodeInDb = resultFromDb[0];
-
-        int numberAttempts = Integer.parseInt(resultFromDb[1]);
-
-        validateNumberAttempts(numberAttempts);
 
-        if (otpFromUser.equals(otpCodeInDb)) {
-            redisTemplate.delete(phone);
-            return new CheckPhoneResponseDto(phone);
-        } else {
-            updateAttemptsInRedis(phone, otpCodeInDb, ++numberAttempts);
-            throw new ConflictException(INCORRECT_CODE_ENTERED.getDescription());
-        }
+        return switch (otpStore.check(phone, request.otpCode(), redisConfig.getMaxAttemptsToCheckOtp())) {
+            case MATCHED -> new CheckPhoneResponseDto(phone);
+            case MISMATCHED -> throw new ConflictException(INCORRECT_CODE_ENTERED.getDescription());
+            case ATTEMPTS_EXCEEDED -> throw new TooManyRequestException(MANY_REQUEST.getDescription());
+            case NOT_FOUND -> throw new NotFoundException(NO_RECORD_IN_THE_SYSTEM.getDescription());
+        };
     }
 
     /**
      * Сохранение OTP кода.
      * <p>
-     * Создает запись в Redis с OTP кодом и отправляет сообщение клиенту в консоль приложения (заглушка
-     * реального провайдера сервиса отправки).
+     * Создает запись в Redis с OTP кодом и запрос на его отправку клиенту в outbox. Код отправляется после
+     * фиксации транзакции потоком диспетчера, запрос клиента не ждет канал доставки.
      * </p>
      *
      * @param phone номер телефона для сохранения в Redis в качестве ключа
@@ -166,78 +203,50 @@ public class ClientServiceImpl implements ClientService {
 
         String otpCode = createOtp();
 
-        int numberAttempts = ZERO;
-
-        String stringCodeAndAttempts = String.format("%s,%s", otpCode, numberAttempts);
-
-        saveOtpToRedis(phone, stringCodeAndAttempts, redisConfig.getOtpTtl());
+        Duration ttl = Duration.ofSeconds(redisConfig.getOtpTtl());
+        otpStore.save(phone, otpCode, ttl);
+        otpDeliveryOutbox.enqueue(phone, otpCode, ttl);
 
-        System.out.printf(
-                "OTP-код %s направлен клиенту по номеру телефона +%s. Срок действия OTP-кода %s секунд%n",
-                otpCode, phone, redisConfig.getOtpTtl());
         return new CheckPhoneResponseDto(phone);
     }
 
     /**
-     * Создание OTP кода.
+     * Определяет ключ учетной записи для учета неудачных попыток входа.
      *
-     * @return OTP код состоящий из 6 случайных чисел от 0 до 9.
+     * @param request запрос на авторизацию
+     * @return ключ учетной записи или null, если не задан ни номер телефона, ни номер паспорта
      */
-    private String createOtp() {
-        StringBuilder str = new StringBuilder();
-        for (int i = 0; i < 6; i++) {
-            str.append(Constant.RANDOM.nextInt(10));
+    private static String resolveLoginPrincipal(AuthorizationRequestDto request) {
+        if (request.mobilePhone() != null) {
+            return "phone:" + request.mobilePhone();
         }
-        return str.toString();
+        return request.passportNumber() != null ? "passport:" + request.passportNumber() : null;
     }
 
     /**
-     * Сохранение OTP кода в Redis.
-     */
-    private void saveOtpToRedis(String phone, String stringCodeAndAttempts, Long expirationDate) {
-        redisTemplate.opsForValue().set(phone, stringCodeAndAttempts, expirationDate, TimeUnit.SECONDS);
-    }
-
-    /**
-     * Получение данных из Redis.
+     * Определяет адрес клиента. За api-gateway Tomcat подставляет в {@code remoteAddr} адрес клиента из
+     * X-Forwarded-For, если запрос пришел от доверенного прокси, иначе это адрес соединения.
      *
-     * @param phone ключ для получения значения из Redis.
-     * @return значение по ключу phone.
-     * @throws NotFoundException - если значение отсутствует в бд.
+     * @return адрес клиента или null, если запрос выполняется вне HTTP запроса
      */
-    private String getRedisData(String phone) {
-        Object redisData = redisTemplate.opsForValue().get(phone);
-
-        if (redisData == null) {
-            throw new NotFoundException(NO_RECORD_IN_THE_SYSTEM.getDescription());
+    private static String resolveClientAddress() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
         }
-
-        return redisData.toString();
+        return "address:" + servletAttributes.getRequest().getRemoteAddr();
     }
 
     /**
-     * Обновление количества использованных попыток и оставшегося времени жизни OTP-кода в Redis.
-     *
-     * @param phone ключ для обновления numberAttempts в значении Redis.
-     */
-    private void updateAttemptsInRedis(String phone, String otpCodeInDb, int numberAttempts) {
-        String updateString = String.format("%s,%s", otpCodeInDb, numberAttempts);
-        Long ttl = redisTemplate.getExpire(phone, TimeUnit.SECONDS);
-        if (ttl != null && ttl > 0) {
-            saveOtpToRedis(phone, updateString, ttl);
-        }
-    }
-
-    /**
-     * Проверка на превышение допустимого количества попыток.
+     * Создание OTP кода.
      *
-     * @param numberAttempts количество сделанных попыток.
-     * @throws ru.otus.projectwork.user.exception.TooManyRequestException если количество запросов на проверку больше допустимого
+     * @return OTP код состоящий из 6 случайных чисел от 0 до 9.
      */
-    private void validateNumberAttempts(int numberAttempts) {
-        if (numberAttempts >= redisConfig.getMaxAttemptsToCheckOtp()) {
-            throw new TooManyRequestException(MANY_REQUEST.getDescription());
+    private String createOtp() {
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            str.append(Constant.RANDOM.nextInt(10));
         }
+        return str.toString();
     }
-
 }
@@ -0,0 +1,95 @@
+package ru.otus.projectwork.user.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.otus.projectwork.domain.repository.UserProfileRepository;
+import ru.otus.projectwork.user.service.PasswordRehashService;
+import ru.otus.projectwork.user.util.cache.AuthorizationInfoCache;
+import ru.otus.projectwork.user.util.password.BoundedPasswordEncoder;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Новый хеш вычисляется на пуле хеширования {@link BoundedPasswordEncoder}, а записывается в базу и сбрасывается из
+ * кэша в отдельном потоке {@code password-rehash-write}: потоки хеширования не ждут соединения с базой, пока
+ * входы стоят в очереди за ними. Ожидающих записей не больше {@value #WRITE_QUEUE_CAPACITY}, лишние пропускаются,
+ * хеш будет заменен при следующем входе.
+ *
+ * <p>Метрика {@code password.rehash} с тегом {@code result}: {@code upgraded} - хеш заменен, {@code skipped} - пул
+ * хеширования или очередь записи заняты, {@code conflict} - хеш изменен параллельно, {@code failed} - ошибка
+ * хеширования или записи. Замененный хеш сбрасывается из {@link AuthorizationInfoCache}, иначе вход по старому
+ * хешу из кэша повторял бы перехеширование.
+ */
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PasswordRehashServiceImpl implements PasswordRehashService, AutoCloseable {
+
+    private static final int WRITE_QUEUE_CAPACITY = 64;
+
+    BoundedPasswordEncoder passwordEncoder;
+
+    UserProfileRepository userProfileRepository;
+
+    AuthorizationInfoCache authorizationInfoCache;
+
+    MeterRegistry meterRegistry;
+
+    ExecutorService writeExecutor;
+
+    public PasswordRehashServiceImpl(BoundedPasswordEncoder passwordEncoder,
+                                     UserProfileRepository userProfileRepository,
+                                     AuthorizationInfoCache authorizationInfoCache, MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.userProfileRepository = userProfileRepository;
+        this.authorizationInfoCache = authorizationInfoCache;
+        this.meterRegistry = meterRegistry;
+        this.writeExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(WRITE_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "password-rehash-write");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void rehashIfOutdated(UUID clientId, String rawPassword, String encodedPassword) {
+        if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+            return;
+        }
+        passwordEncoder.encodeIfIdle(rawPassword)
+                .thenApplyAsync(newPassword -> {
+                    int updated = userProfileRepository.replacePassword(clientId, encodedPassword, newPassword);
+                    authorizationInfoCache.invalidate(clientId);
+                    return updated;
+                }, writeExecutor)
+                .whenComplete((updated, error) -> {
+                    if (error == null) {
+                        record(updated > 0 ? "upgraded" : "conflict");
+                    } else if (error.getCause() instanceof RejectedExecutionException
+                            || error instanceof RejectedExecutionException) {
+                        record("skipped");
+                    } else {
+                        log.warn("Password rehash of client {} failed", clientId, error);
+                        record("failed");
+                    }
+                });
+    }
+
+    @Override
+    public void close() {
+        writeExecutor.shutdownNow();
+    }
+
+    private void record(String result) {
+        meterRegistry.counter("password.rehash", "result", result).increment();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.otus.projectwork.user.service.impl;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+import ru.otus.projectwork.common.jwt.TokenRevocation;
+import ru.otus.projectwork.user.configuration.JwtConfig;
+import ru.otus.projectwork.user.dto.request.LogoutRequestDto;
+import ru.otus.projectwork.user.exception.UnauthorizedUserException;
+import ru.otus.projectwork.user.service.TokenRevocationService;
+import ru.otus.projectwork.user.util.token.JwtPrincipal;
+import ru.otus.projectwork.user.util.token.JwtTokenUtils;
+
+import static ru.otus.projectwork.user.util.ExceptionMessage.DENIED_ACCESS;
+
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    StringRedisTemplate stringRedisTemplate;
+
+    JwtTokenUtils jwtTokenUtils;
+
+    JwtConfig jwtConfig;
+
+    @Override
+    public void logout(LogoutRequestDto request, HttpServletResponse response) {
+        JwtPrincipal accessToken = jwtTokenUtils.getCurrentPrincipal();
+
+        JwtPrincipal refreshToken = null;
+        if (request != null && request.refreshToken() != null && !request.refreshToken().isBlank()) {
+            refreshToken = jwtTokenUtils.verify(request.refreshToken());
+            if (!refreshToken.clientId().equals(accessToken.clientId())) {
+                throw new UnauthorizedUserException(DENIED_ACCESS.getDescription());
+            }
+        }
+
+        revoke(accessToken);
+        if (refreshToken != null) {
+            revoke(refreshToken);
+        }
+
+        Cookie cookie = new Cookie(jwtConfig.getCookies().getName(), "");
+        cookie.setHttpOnly(true);
+        cookie.setPath("/");
+        cookie.setMaxAge(0);
+        response.addCookie(cookie);
+    }
+
+    /**
+     * Записывает токен в список отозванных до окончания его срока действия и удаляет из списка истекшие записи.
+     * Токены без {@code jti}, выданные до его появления, отозвать по отдельности нельзя, они истекают сами.
+     *
+     * @param token данные проверенного токена
+     */
+    private void revoke(JwtPrincipal token) {
+        if (token.tokenId() == null || token.expiresAt() == null) {
+            log.debug("Token of client {} has no jti and cannot be revoked", token.clientId());
+            return;
+        }
+        ZSetOperations<String, String> revokedTokens = stringRedisTemplate.opsForZSet();
+        revokedTokens.add(TokenRevocation.REVOKED_TOKENS_KEY, token.tokenId(), token.expiresAt().toEpochMilli());
+        revokedTokens.removeRangeByScore(TokenRevocation.REVOKED_TOKENS_KEY, Double.NEGATIVE_INFINITY,
+                System.currentTimeMillis());
+    }
+}
@@ -17,11 +17,17 @@ public enum ExceptionMessage {
     CLIENT_WITH_PASSPORT_NUMBER_EXIST("Клиент с таким номером паспорта уже существует."),
     COULD_NOT_GENERATE_TOKENS("Не удалось сгенерировать jwt токен."),
     DENIED_ACCESS("В доступе отказано"),
+    EMAIL_REGISTERED("Пользователь с такой электронной почтой уже существует"),
+    IMPORT_ROW_MALFORMED("Некорректная строка: %s"),
+    IMPORT_ROW_REJECTED("Запись отклонена базой данных: %s"),
     INCORRECT_CODE_ENTERED("Введен неверный OTP-код"),
     INCORRECT_PASSWORD("Введен неверный пароль"),
+    LOGIN_ATTEMPTS_EXCEEDED("Превышено количество попыток входа, повторите попытку позже"),
     MANY_REQUEST("Превышено количество попыток ввода OTP-кода"),
     MOBILE_PHONE_REGISTERED("Пользователь с таким номером телефона уже существует"),
     NO_RECORD_IN_THE_SYSTEM("Запись отсутствует в системе, OTP-код не найден"),
+    PASSWORD_HASHING_FAILED("Не удалось вычислить хеш пароля"),
+    SERVICE_OVERLOADED("Сервис перегружен, повторите попытку позже"),
     UNAUTHORIZED_USER("Отсутствует авторизация. Доступ запрещен");
 
     private final String description;
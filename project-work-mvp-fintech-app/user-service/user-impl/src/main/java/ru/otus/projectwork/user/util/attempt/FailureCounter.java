@@ -0,0 +1,33 @@
+package ru.otus.projectwork.user.util.attempt;
+
+/**
+ * Счетчик неудачных попыток входа в скользящем окне.
+ *
+ * <p>Окно приближается двумя соседними интервалами фиксированной длины: количество попыток равно числу попыток
+ * текущего интервала плюс доля попыток предыдущего, пропорциональная еще не истекшей части окна. Такой счетчик
+ * хранит два числа на ключ вместо отметок времени каждой попытки.
+ */
+public interface FailureCounter {
+
+    /**
+     * Учитывает неудачную попытку.
+     *
+     * @param key ключ, например номер телефона или адрес клиента
+     */
+    void record(String key);
+
+    /**
+     * Возвращает количество неудачных попыток в окне.
+     *
+     * @param key ключ
+     * @return приближенное количество попыток
+     */
+    double count(String key);
+
+    /**
+     * Сбрасывает попытки ключа.
+     *
+     * @param key ключ
+     */
+    void reset(String key);
+}
@@ -0,0 +1,172 @@
+package ru.otus.projectwork.user.util.attempt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import ru.otus.projectwork.user.exception.TooManyRequestException;
+
+import static ru.otus.projectwork.user.util.ExceptionMessage.LOGIN_ATTEMPTS_EXCEEDED;
+
+/**
+ * Защита входа от подбора пароля.
+ *
+ * <p>Неудачные попытки считаются отдельно по учетной записи (номер телефона или паспорта) и по адресу клиента.
+ * Учетная запись блокируется после {@code maxPrincipalFailures} неудачных попыток в окне, адрес - после
+ * {@code maxAddressFailures}. Проверка выполняется до чтения клиента из базы данных и до проверки хеша пароля,
+ * поэтому перебор паролей не нагружает ни базу, ни процессор.
+ *
+ * <p>Локальный счетчик {@link SlidingWindowCounter} проверяется всегда. Если задан общий счетчик
+ * {@link RedisSlidingWindowCounter}, попытки учитываются и в нем, и блокировка на одном экземпляре действует на
+ * всех. При недоступности Redis используется только локальный счетчик.
+ *
+ * <p>Метрика {@code login.attempts.rejected} с тегом {@code scope} ({@code principal} или {@code address}) - входы,
+ * отклоненные блокировкой.
+ */
+@Slf4j
+public class LoginAttemptTracker {
+
+    private static final LoginAttemptTracker DISABLED = new LoginAttemptTracker();
+
+    private final FailureCounter localCounter;
+
+    private final FailureCounter sharedCounter;
+
+    private final int maxPrincipalFailures;
+
+    private final int maxAddressFailures;
+
+    private final Counter principalRejections;
+
+    private final Counter addressRejections;
+
+    /**
+     * Создает защиту входа.
+     *
+     * @param localCounter         локальный счетчик попыток
+     * @param sharedCounter        общий счетчик попыток экземпляров, может быть null
+     * @param maxPrincipalFailures количество неудачных попыток в окне, после которого учетная запись блокируется
+     * @param maxAddressFailures   количество неудачных попыток в окне, после которого блокируется адрес
+     * @param meterRegistry        реестр метрик
+     */
+    public LoginAttemptTracker(FailureCounter localCounter, FailureCounter sharedCounter, int maxPrincipalFailures,
+                               int maxAddressFailures, MeterRegistry meterRegistry) {
+        this.localCounter = localCounter;
+        this.sharedCounter = sharedCounter;
+        this.maxPrincipalFailures = maxPrincipalFailures;
+        this.maxAddressFailures = maxAddressFailures;
+        this.principalRejections = rejections(meterRegistry, "principal");
+        this.addressRejections = rejections(meterRegistry, "address");
+    }
+
+    private LoginAttemptTracker() {
+        this.localCounter = null;
+        this.sharedCounter = null;
+        this.maxPrincipalFailures = 0;
+        this.maxAddressFailures = 0;
+        this.principalRejections = null;
+        this.addressRejections = null;
+    }
+
+    /**
+     * Возвращает отключенную защиту, пропускающую все попытки.
+     *
+     * @return отключенная защита входа
+     */
+    public static LoginAttemptTracker disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Проверяет, не заблокированы ли учетная запись и адрес.
+     *
+     * @param principal ключ учетной записи, может быть null
+     * @param address   адрес клиента, может быть null
+     * @throws TooManyRequestException если учетная запись или адрес заблокированы
+     */
+    public void checkAllowed(String principal, String address) {
+        if (localCounter == null) {
+            return;
+        }
+        if (isLocked(principal, maxPrincipalFailures)) {
+            principalRejections.increment();
+            throw new TooManyRequestException(LOGIN_ATTEMPTS_EXCEEDED.getDescription());
+        }
+        if (isLocked(address, maxAddressFailures)) {
+            addressRejections.increment();
+            throw new TooManyRequestException(LOGIN_ATTEMPTS_EXCEEDED.getDescription());
+        }
+    }
+
+    /**
+     * Учитывает неудачную попытку входа.
+     *
+     * @param principal ключ учетной записи, может быть null
+     * @param address   адрес клиента, может быть null
+     */
+    public void recordFailure(String principal, String address) {
+        if (localCounter == null) {
+            return;
+        }
+        record(principal);
+        record(address);
+    }
+
+    /**
+     * Сбрасывает неудачные попытки учетной записи после успешного входа. Попытки адреса не сбрасываются: за одним
+     * адресом может перебирать пароли чужих учетных записей владелец одной из них.
+     *
+     * @param principal ключ учетной записи, может быть null
+     */
+    public void recordSuccess(String principal) {
+        if (localCounter == null || principal == null) {
+            return;
+        }
+        localCounter.reset(principal);
+        if (sharedCounter != null) {
+            try {
+                sharedCounter.reset(principal);
+            } catch (DataAccessException e) {
+                log.debug("Failed to reset shared login failures: {}", e.getMessage());
+            }
+        }
+    }
+
+    private boolean isLocked(String key, int maxFailures) {
+        if (key == null) {
+            return false;
+        }
+        if (localCounter.count(key) >= maxFailures) {
+            return true;
+        }
+        if (sharedCounter != null) {
+            try {
+                return sharedCounter.count(key) >= maxFailures;
+            } catch (DataAccessException e) {
+                log.debug("Failed to read shared login failures: {}", e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private void record(String key) {
+        if (key == null) {
+            return;
+        }
+        localCounter.record(key);
+        if (sharedCounter != null) {
+            try {
+                sharedCounter.record(key);
+            } catch (DataAccessException e) {
+                log.debug("Failed to record shared login failure: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("login.attempts.rejected")
+                .description("Login attempts rejected before password check because of too many failures")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+}
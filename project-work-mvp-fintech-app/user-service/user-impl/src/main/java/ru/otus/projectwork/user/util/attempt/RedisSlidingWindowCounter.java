@@ -0,0 +1,72 @@
+package ru.otus.projectwork.user.util.attempt;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link FailureCounter}, общий для всех экземпляров сервиса.
+ *
+ * <p>Попытки интервала хранятся в ключе {@code login-failures:{key}:{interval}}, который живет два окна. Номер
+ * интервала считается от эпохи, поэтому экземпляры с синхронизированными часами пишут в одни ключи. Учет попытки -
+ * {@code INCR} и {@code PEXPIRE}, подсчет - один {@code MGET} текущего и предыдущего интервала.
+ */
+public final class RedisSlidingWindowCounter implements FailureCounter {
+
+    private static final String KEY_PREFIX = "login-failures:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final long windowMillis;
+
+    private final LongSupplier clock;
+
+    /**
+     * Создает счетчик.
+     *
+     * @param redisTemplate шаблон Redis
+     * @param window        длина окна
+     * @param clock         текущее время от эпохи, мс
+     */
+    public RedisSlidingWindowCounter(StringRedisTemplate redisTemplate, Duration window, LongSupplier clock) {
+        this.redisTemplate = redisTemplate;
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public void record(String key) {
+        String intervalKey = intervalKey(key, clock.getAsLong() / windowMillis);
+        redisTemplate.opsForValue().increment(intervalKey);
+        redisTemplate.expire(intervalKey, Duration.ofMillis(2 * windowMillis));
+    }
+
+    @Override
+    public double count(String key) {
+        long now = clock.getAsLong();
+        long interval = now / windowMillis;
+        List<String> values = redisTemplate.opsForValue()
+                .multiGet(List.of(intervalKey(key, interval), intervalKey(key, interval - 1)));
+        if (values == null) {
+            return 0;
+        }
+        double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+        return parse(values.get(0)) + parse(values.get(1)) * previousWeight;
+    }
+
+    @Override
+    public void reset(String key) {
+        long interval = clock.getAsLong() / windowMillis;
+        redisTemplate.delete(List.of(intervalKey(key, interval), intervalKey(key, interval - 1)));
+    }
+
+    private static String intervalKey(String key, long interval) {
+        return KEY_PREFIX + key + ":" + interval;
+    }
+
+    private static long parse(String value) {
+        return value == null ? 0 : Long.parseLong(value);
+    }
+}
@@ -0,0 +1,135 @@
+package ru.otus.projectwork.user.util.attempt;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Локальный {@link FailureCounter} в памяти экземпляра.
+ *
+ * <p>Ключи распределяются по {@code stripes} сегментам по хешу, каждый сегмент - отдельная карта под своей
+ * блокировкой, поэтому параллельные входы разных клиентов почти не конкурируют. Сегмент хранит не больше
+ * {@code maxEntriesPerStripe} ключей и вытесняет давно не использованный, так что перебор случайных номеров не
+ * исчерпывает память.
+ */
+public final class SlidingWindowCounter implements FailureCounter {
+
+    private final long windowMillis;
+
+    private final Stripe[] stripes;
+
+    private final LongSupplier clock;
+
+    /**
+     * Создает счетчик.
+     *
+     * @param window              длина окна
+     * @param stripes             количество сегментов, округляется вверх до степени двойки
+     * @param maxEntriesPerStripe максимальное количество ключей в сегменте
+     * @param clock               текущее время, мс
+     */
+    public SlidingWindowCounter(Duration window, int stripes, int maxEntriesPerStripe, LongSupplier clock) {
+        this.windowMillis = window.toMillis();
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe(maxEntriesPerStripe);
+        }
+        this.clock = clock;
+    }
+
+    @Override
+    public void record(String key) {
+        long now = clock.getAsLong();
+        long interval = now / windowMillis;
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            Window window = stripe.computeIfAbsent(key, k -> new Window());
+            window.roll(interval);
+            window.current++;
+        }
+    }
+
+    @Override
+    public double count(String key) {
+        long now = clock.getAsLong();
+        long interval = now / windowMillis;
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            Window window = stripe.get(key);
+            if (window == null) {
+                return 0;
+            }
+            window.roll(interval);
+            double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+            return window.current + window.previous * previousWeight;
+        }
+    }
+
+    @Override
+    public void reset(String key) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.remove(key);
+        }
+    }
+
+    /**
+     * Возвращает количество отслеживаемых ключей.
+     *
+     * @return количество ключей во всех сегментах
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Попытки текущего и предыдущего интервала.
+     */
+    private static final class Window {
+
+        private long interval;
+
+        private int current;
+
+        private int previous;
+
+        private void roll(long now) {
+            if (now == interval) {
+                return;
+            }
+            previous = now == interval + 1 ? current : 0;
+            current = 0;
+            interval = now;
+        }
+    }
+
+    /**
+     * Сегмент ключей с вытеснением давно не использованных.
+     */
+    private static final class Stripe extends LinkedHashMap<String, Window> {
+
+        private final int maxEntries;
+
+        private Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package ru.otus.projectwork.user.util.bloom;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.otus.projectwork.common.bloom.ScalableBloomFilter;
+import ru.otus.projectwork.domain.model.projection.RegisteredKeysProjection;
+import ru.otus.projectwork.domain.repository.ClientRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Фильтр Блума зарегистрированных номеров телефонов перед запросом к базе данных при предварительной проверке
+ * номера.
+ *
+ * <p>Большинство проверок "номер уже зарегистрирован?" приходит с незарегистрированных номеров. Отрицательный ответ
+ * {@link ScalableBloomFilter} точен, поэтому такие проверки отвечают без запроса к базе данных, а при положительном
+ * ответе фильтра проверка выполняется запросом к базе данных, как без фильтра.
+ *
+ * <p>Фильтр загружается потоковым чтением всех клиентов в фоне при старте, до окончания загрузки все проверки идут
+ * в базу данных. Регистрация на этом экземпляре добавляет номер в фильтр до фиксации транзакции. Регистрации на
+ * других экземплярах догружаются раз в {@code refreshInterval} чтением клиентов, созданных после отметки:
+ * отметка - наибольшая прочитанная дата создания минус {@code refreshOverlap}, чтобы не пропустить транзакции,
+ * зафиксированные позже даты создания записи. Поэтому регистрация на другом экземпляре видна не позже чем через
+ * {@code refreshInterval}, и до этого фильтр может ответить, что номера нет. Фильтр годится только для проверок,
+ * где такой ответ исправляется позже: повторная регистрация номера отклоняется уникальным ограничением
+ * {@code client.mobile_phone}. Проверки, ответ которых окончателен, например поиск клиента перед отправкой
+ * одноразового кода, выполняются в базе данных.
+ *
+ * <p>Метрики:
+ * <ul>
+ *   <li>{@code registered.key.filter} с тегами {@code key} ({@code mobile_phone}) и {@code result}:
+ *   {@code absent} - ответ без базы данных, {@code present} - фильтр и база данных подтвердили номер,
+ *   {@code false_positive} - положительный ответ фильтра не подтвердился, {@code not_ready} - фильтр еще
+ *   загружается. Наблюдаемая доля ложноположительных ответов - {@code false_positive / (false_positive + absent)}</li>
+ *   <li>{@code registered.key.filter.expected.fpp} - оценка вероятности ложноположительного ответа по заполненности
+ *   фильтра</li>
+ *   <li>{@code registered.key.filter.size} - количество номеров в фильтре</li>
+ * </ul>
+ */
+@Slf4j
+public class RegisteredKeyFilter implements AutoCloseable {
+
+    private static final RegisteredKeyFilter DISABLED = new RegisteredKeyFilter();
+
+    private final ClientRepository clientRepository;
+
+    private final TransactionOperations readOnlyTransaction;
+
+    private final Duration refreshOverlap;
+
+    private final KeySet mobilePhones;
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean ready;
+
+    private LocalDateTime watermark;
+
+    /**
+     * Создает фильтр и запускает его загрузку и догрузку в фоне.
+     *
+     * @param clientRepository    репозиторий клиентов
+     * @param readOnlyTransaction транзакция только для чтения, в которой читается поток клиентов
+     * @param meterRegistry       реестр метрик
+     * @param initialCapacity     емкость первого фильтра цепочки
+     * @param falsePositiveRate   допустимая вероятность ложноположительного ответа
+     * @param refreshInterval     интервал догрузки регистраций других экземпляров
+     * @param refreshOverlap      перекрытие догрузки по дате создания клиента
+     * @return фильтр
+     */
+    public static RegisteredKeyFilter start(ClientRepository clientRepository,
+                                            TransactionOperations readOnlyTransaction, MeterRegistry meterRegistry,
+                                            long initialCapacity, double falsePositiveRate,
+                                            Duration refreshInterval, Duration refreshOverlap) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "registered-key-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        RegisteredKeyFilter filter = new RegisteredKeyFilter(clientRepository, readOnlyTransaction, meterRegistry,
+                initialCapacity, falsePositiveRate, refreshOverlap, scheduler);
+        scheduler.scheduleWithFixedDelay(filter::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        return filter;
+    }
+
+    RegisteredKeyFilter(ClientRepository clientRepository, TransactionOperations readOnlyTransaction,
+                        MeterRegistry meterRegistry, long initialCapacity, double falsePositiveRate,
+                        Duration refreshOverlap, ScheduledExecutorService scheduler) {
+        this.clientRepository = clientRepository;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.refreshOverlap = refreshOverlap;
+        this.mobilePhones = new KeySet("mobile_phone", initialCapacity, falsePositiveRate, meterRegistry);
+        this.scheduler = scheduler;
+    }
+
+    private RegisteredKeyFilter() {
+        this.clientRepository = null;
+        this.readOnlyTransaction = null;
+        this.refreshOverlap = null;
+        this.mobilePhones = null;
+        this.scheduler = null;
+    }
+
+    /**
+     * Возвращает отключенный фильтр, передающий все проверки в базу данных.
+     *
+     * @return отключенный фильтр
+     */
+    public static RegisteredKeyFilter disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Проверяет, зарегистрирован ли клиент с номером телефона. Регистрация на другом экземпляре за последние
+     * {@code refreshInterval} может быть еще не видна.
+     *
+     * @param mobilePhone номер телефона
+     * @param lookup      проверка в базе данных
+     * @return true, если клиент с номером телефона существует
+     */
+    public boolean mobilePhoneExists(String mobilePhone, Predicate<String> lookup) {
+        return mobilePhones == null ? lookup.test(mobilePhone) : mobilePhones.exists(mobilePhone, lookup);
+    }
+
+    /**
+     * Добавляет номер телефона регистрируемого клиента. Вызывается до фиксации транзакции регистрации: после отката
+     * номер остается в фильтре и дает только лишний запрос к базе данных.
+     *
+     * @param mobilePhone номер телефона
+     */
+    public void register(String mobilePhone) {
+        if (mobilePhones != null) {
+            mobilePhones.filter.put(mobilePhone);
+        }
+    }
+
+    /**
+     * Возвращает признак окончания начальной загрузки.
+     *
+     * @return true, если фильтр загружен и отвечает без базы данных
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Загружает клиентов, созданных после отметки, при первом вызове - всех. Вызывается одним потоком.
+     */
+    void refresh() {
+        LocalDateTime since = watermark;
+        try {
+            long loaded = readOnlyTransaction.execute(status -> {
+                try (Stream<RegisteredKeysProjection> keys = since == null
+                        ? clientRepository.streamAllRegisteredKeys()
+                        : clientRepository.streamRegisteredKeysSince(since)) {
+                    return load(keys);
+                }
+            });
+            if (!ready) {
+                ready = true;
+                log.info("Registered key filter loaded: {} clients, {} mobile phones", loaded,
+                        mobilePhones.filter.approximateSize());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Registered key filter refresh since {} failed: {}", since, e.getMessage());
+        }
+    }
+
+    private long load(Stream<RegisteredKeysProjection> keys) {
+        long loaded = 0;
+        LocalDateTime latest = null;
+        for (RegisteredKeysProjection key : (Iterable<RegisteredKeysProjection>) keys::iterator) {
+            mobilePhones.filter.put(key.getMobilePhone());
+            if (latest == null || key.getCreateDate().isAfter(latest)) {
+                latest = key.getCreateDate();
+            }
+            loaded++;
+        }
+        if (latest != null) {
+            LocalDateTime next = latest.minus(refreshOverlap);
+            if (watermark == null || next.isAfter(watermark)) {
+                watermark = next;
+            }
+        }
+        return loaded;
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String key, String result) {
+        return Counter.builder("registered.key.filter")
+                .description("Registered key lookups by Bloom filter outcome")
+                .tag("key", key)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Фильтр и метрики проверок одного типа номеров.
+     */
+    private final class KeySet {
+
+        private final ScalableBloomFilter filter;
+
+        private final Counter absent;
+
+        private final Counter present;
+
+        private final Counter falsePositive;
+
+        private final Counter notReady;
+
+        private KeySet(String key, long initialCapacity, double falsePositiveRate, MeterRegistry meterRegistry) {
+            this.filter = ScalableBloomFilter.create(initialCapacity, falsePositiveRate);
+            this.absent = lookups(meterRegistry, key, "absent");
+            this.present = lookups(meterRegistry, key, "present");
+            this.falsePositive = lookups(meterRegistry, key, "false_positive");
+            this.notReady = lookups(meterRegistry, key, "not_ready");
+            Gauge.builder("registered.key.filter.expected.fpp", filter, ScalableBloomFilter::expectedFalsePositiveRate)
+                    .description("Estimated false positive probability of the registered key Bloom filter")
+                    .tag("key", key)
+                    .register(meterRegistry);
+            Gauge.builder("registered.key.filter.size", filter, ScalableBloomFilter::approximateSize)
+                    .description("Keys in the registered key Bloom filter")
+                    .tag("key", key)
+                    .register(meterRegistry);
+        }
+
+        private boolean exists(String key, Predicate<String> lookup) {
+            if (!ready) {
+                notReady.increment();
+                return lookup.test(key);
+            }
+            if (!filter.mightContain(key)) {
+                absent.increment();
+                return false;
+            }
+            boolean exists = lookup.test(key);
+            (exists ? present : falsePositive).increment();
+            return exists;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ru.otus.projectwork.user.util.bulk;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.otus.projectwork.user.dto.request.RegistrationRequestDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static ru.otus.projectwork.user.util.ExceptionMessage.IMPORT_ROW_MALFORMED;
+
+/**
+ * Чтение CSV с заголовком. Первая строка - имена полей {@link RegistrationRequestDto} в JSON ({@code firstName},
+ * {@code mobilePhone}, {@code issueDate} и т.д.), порядок столбцов произвольный. Разделитель - запятая, значение
+ * с запятой или кавычкой заключается в двойные кавычки, кавычка внутри значения удваивается. Перевод строки внутри
+ * значения не поддерживается. Пустое значение читается как отсутствующее поле.
+ */
+public class CsvRegistrationRowReader implements RegistrationRowReader {
+
+    private static final char SEPARATOR = ',';
+
+    private static final char QUOTE = '"';
+
+    private static final String BOM = "\uFEFF";
+
+    private final BufferedReader reader;
+
+    private final ObjectMapper objectMapper;
+
+    private List<String> header;
+
+    private boolean headerParsed;
+
+    private long line;
+
+    public CsvRegistrationRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public RegistrationRow next() throws IOException {
+        String text = nextLine();
+        if (!headerParsed && text != null) {
+            // Некорректный заголовок дает ошибку в каждой строке, а не прерывает импорт
+            header = parse(text.startsWith(BOM) ? text.substring(1) : text);
+            headerParsed = true;
+            text = nextLine();
+        }
+        if (text == null) {
+            return null;
+        }
+        if (header == null) {
+            return malformed("unterminated quoted value in header");
+        }
+        List<String> values = parse(text);
+        if (values == null) {
+            return malformed("unterminated quoted value");
+        }
+        if (values.size() != header.size()) {
+            return malformed("expected %d values, found %d".formatted(header.size(), values.size()));
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            if (!values.get(i).isEmpty()) {
+                fields.put(header.get(i), values.get(i));
+            }
+        }
+        try {
+            return RegistrationRow.parsed(line, objectMapper.convertValue(fields, RegistrationRequestDto.class));
+        } catch (IllegalArgumentException e) {
+            return malformed(e.getCause() instanceof JsonMappingException cause
+                    ? cause.getOriginalMessage()
+                    : e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String nextLine() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+        } while (text != null && text.isBlank());
+        return text;
+    }
+
+    private RegistrationRow malformed(String reason) {
+        return RegistrationRow.malformed(line, IMPORT_ROW_MALFORMED.getDescription().formatted(reason));
+    }
+
+    /**
+     * Разбирает строку CSV на значения.
+     *
+     * @param text строка
+     * @return значения без обрамляющих кавычек или null, если кавычка не закрыта
+     */
+    static List<String> parse(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != QUOTE) {
+                    value.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == QUOTE) {
+                    value.append(QUOTE);
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == QUOTE) {
+                quoted = true;
+            } else if (c == SEPARATOR) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,50 @@
+package ru.otus.projectwork.user.util.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.otus.projectwork.user.dto.request.RegistrationRequestDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import static ru.otus.projectwork.user.util.ExceptionMessage.IMPORT_ROW_MALFORMED;
+
+/**
+ * Чтение NDJSON: одна строка - один JSON-объект {@link RegistrationRequestDto}, пустые строки пропускаются.
+ */
+public class NdjsonRegistrationRowReader implements RegistrationRowReader {
+
+    private final BufferedReader reader;
+
+    private final ObjectMapper objectMapper;
+
+    private long line;
+
+    public NdjsonRegistrationRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public RegistrationRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+        } while (text != null && text.isBlank());
+        if (text == null) {
+            return null;
+        }
+        try {
+            return RegistrationRow.parsed(line, objectMapper.readValue(text, RegistrationRequestDto.class));
+        } catch (JsonProcessingException e) {
+            return RegistrationRow.malformed(line,
+                    IMPORT_ROW_MALFORMED.getDescription().formatted(e.getOriginalMessage()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,21 @@
+package ru.otus.projectwork.user.util.bulk;
+
+import ru.otus.projectwork.user.dto.request.RegistrationRequestDto;
+
+/**
+ * Строка файла импорта клиентов.
+ *
+ * @param line    номер строки в файле, начиная с 1
+ * @param request данные регистрации, null - если строку не удалось разобрать
+ * @param error   описание ошибки разбора, null - если строка разобрана
+ */
+public record RegistrationRow(long line, RegistrationRequestDto request, String error) {
+
+    public static RegistrationRow parsed(long line, RegistrationRequestDto request) {
+        return new RegistrationRow(line, request, null);
+    }
+
+    public static RegistrationRow malformed(long line, String error) {
+        return new RegistrationRow(line, null, error);
+    }
+}
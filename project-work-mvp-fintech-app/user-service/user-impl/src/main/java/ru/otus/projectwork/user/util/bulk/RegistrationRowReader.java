@@ -0,0 +1,49 @@
+package ru.otus.projectwork.user.util.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Потоковое чтение строк файла импорта клиентов. Строки читаются по одной, файл целиком в память не загружается.
+ * Ошибка разбора строки не прерывает чтение, а возвращается в {@link RegistrationRow#error()}.
+ */
+public interface RegistrationRowReader extends Closeable {
+
+    MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    /**
+     * Читает следующую непустую строку.
+     *
+     * @return строка файла или null, если файл прочитан
+     * @throws IOException ошибка чтения потока
+     */
+    RegistrationRow next() throws IOException;
+
+    /**
+     * Создает читателя для формата файла.
+     *
+     * @param format       {@code application/x-ndjson} или {@code text/csv}
+     * @param input        содержимое файла в UTF-8
+     * @param objectMapper преобразование строк в {@link ru.otus.projectwork.user.dto.request.RegistrationRequestDto}
+     * @return читатель строк
+     */
+    static RegistrationRowReader open(MediaType format, InputStream input, ObjectMapper objectMapper) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        if (TEXT_CSV.isCompatibleWith(format)) {
+            return new CsvRegistrationRowReader(reader, objectMapper);
+        }
+        if (APPLICATION_NDJSON.isCompatibleWith(format)) {
+            return new NdjsonRegistrationRowReader(reader, objectMapper);
+        }
+        throw new IllegalArgumentException("Unsupported import format " + format);
+    }
+}
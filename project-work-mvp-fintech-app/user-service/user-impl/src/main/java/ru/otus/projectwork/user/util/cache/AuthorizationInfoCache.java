@@ -0,0 +1,245 @@
+package ru.otus.projectwork.user.util.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import ru.otus.projectwork.domain.model.projection.UserAuthorizationProjection;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Кэш данных авторизации клиента (идентификатор, имя, фамилия, хеш пароля) перед запросом к базе данных при входе.
+ *
+ * <p>Локальный уровень - два ограниченных по размеру кэша Caffeine: учетная запись (номер телефона или паспорта)
+ * - идентификатор клиента и идентификатор клиента - данные авторизации. Поэтому сброс по идентификатору клиента
+ * действует на вход и по телефону, и по паспорту. Если задано общее хранилище {@link RedisAuthorizationInfoStore},
+ * промах локального уровня проверяется в нем, и только затем выполняется запрос к базе данных. Отсутствующие
+ * клиенты не кэшируются, чтобы только что зарегистрированный клиент мог сразу войти.
+ *
+ * <p>{@link #invalidate(UUID)} вызывается после изменения пароля или профиля клиента. Без общего хранилища
+ * другие экземпляры видят изменение не позже чем через {@code ttl}, с общим - сразу после оповещения. Данные,
+ * прочитанные до сброса, не сохраняются в кэш после него: в локальный уровень - по счетчику сбросов, в общий - по
+ * версии чтения {@link RedisAuthorizationInfoStore#readVersion()}, поэтому сброс на другом экземпляре во время
+ * запроса к базе данных тоже учитывается. При недоступности Redis используется только локальный
+ * уровень, а если Redis недоступен при старте, изменения на других экземплярах видны не позже чем через
+ * {@code ttl}.
+ *
+ * <p>Метрики:
+ * <ul>
+ *   <li>{@code authorization.info.lookups} с тегом {@code source}: {@code local} и {@code redis} - входы без
+ *   запроса к базе данных, {@code database} - запрос к базе данных выполнен</li>
+ *   <li>статистика кэша Caffeine под именем {@value #CACHE_NAME}</li>
+ * </ul>
+ */
+@Slf4j
+public class AuthorizationInfoCache implements AutoCloseable {
+
+    /**
+     * Имя кэша в метриках Micrometer.
+     */
+    public static final String CACHE_NAME = "authorization.info";
+
+    private static final AuthorizationInfoCache DISABLED = new AuthorizationInfoCache();
+
+    private final Cache<String, UUID> principals;
+
+    private final Cache<UUID, CachedAuthorizationInfo> infos;
+
+    private final RedisAuthorizationInfoStore sharedStore;
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter localHits;
+
+    private final Counter sharedHits;
+
+    private final Counter databaseLookups;
+
+    /**
+     * Создает кэш.
+     *
+     * @param maximumSize   максимальное количество клиентов в локальном кэше
+     * @param ttl           время жизни записи
+     * @param sharedStore   общее хранилище экземпляров, может быть null
+     * @param meterRegistry реестр метрик
+     */
+    public AuthorizationInfoCache(long maximumSize, Duration ttl, RedisAuthorizationInfoStore sharedStore,
+                                  MeterRegistry meterRegistry) {
+        // На клиента приходится до двух учетных записей: телефон и паспорт
+        this.principals = Caffeine.newBuilder().maximumSize(2 * maximumSize).expireAfterWrite(ttl).build();
+        this.infos = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+        this.sharedStore = sharedStore;
+        this.localHits = lookups(meterRegistry, "local");
+        this.sharedHits = lookups(meterRegistry, "redis");
+        this.databaseLookups = lookups(meterRegistry, "database");
+        CaffeineCacheMetrics.monitor(meterRegistry, infos, CACHE_NAME);
+        if (sharedStore != null) {
+            try {
+                sharedStore.subscribe(this::invalidateLocal);
+            } catch (DataAccessException e) {
+                log.warn("Failed to subscribe to authorization info invalidations, changes made on other instances "
+                        + "are visible after {}: {}", ttl, e.getMessage());
+            }
+        }
+    }
+
+    private AuthorizationInfoCache() {
+        this.principals = null;
+        this.infos = null;
+        this.sharedStore = null;
+        this.localHits = null;
+        this.sharedHits = null;
+        this.databaseLookups = null;
+    }
+
+    /**
+     * Возвращает отключенный кэш, передающий все запросы в базу данных.
+     *
+     * @return отключенный кэш
+     */
+    public static AuthorizationInfoCache disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Возвращает данные авторизации клиента по номеру телефона.
+     *
+     * @param mobilePhone номер телефона
+     * @param lookup      запрос к базе данных
+     * @return данные авторизации или пустой Optional, если клиента нет
+     */
+    public Optional<UserAuthorizationProjection> findByMobilePhone(
+            String mobilePhone, Function<String, Optional<UserAuthorizationProjection>> lookup) {
+        return find("phone:" + mobilePhone, mobilePhone, lookup);
+    }
+
+    /**
+     * Возвращает данные авторизации клиента по номеру паспорта.
+     *
+     * @param passportNumber номер паспорта
+     * @param lookup         запрос к базе данных
+     * @return данные авторизации или пустой Optional, если клиента нет
+     */
+    public Optional<UserAuthorizationProjection> findByPassportNumber(
+            String passportNumber, Function<String, Optional<UserAuthorizationProjection>> lookup) {
+        return find("passport:" + passportNumber, passportNumber, lookup);
+    }
+
+    /**
+     * Сбрасывает данные авторизации клиента на этом экземпляре и в общем хранилище.
+     *
+     * @param clientId идентификатор клиента
+     */
+    public void invalidate(UUID clientId) {
+        if (infos == null) {
+            return;
+        }
+        invalidateLocal(clientId);
+        if (sharedStore != null) {
+            try {
+                sharedStore.invalidate(clientId);
+            } catch (DataAccessException e) {
+                log.warn("Failed to invalidate shared authorization info of client {}: {}", clientId, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (sharedStore != null) {
+            sharedStore.close();
+        }
+    }
+
+    private Optional<UserAuthorizationProjection> find(String principal, String value,
+                                                      Function<String, Optional<UserAuthorizationProjection>> lookup) {
+        if (infos == null) {
+            return lookup.apply(value);
+        }
+        UUID clientId = principals.getIfPresent(principal);
+        CachedAuthorizationInfo cached = clientId == null ? null : infos.getIfPresent(clientId);
+        if (cached != null) {
+            localHits.increment();
+            return Optional.of(cached);
+        }
+        long generation = invalidations.get();
+        CachedAuthorizationInfo shared = getShared(principal);
+        if (shared != null) {
+            sharedHits.increment();
+            putLocal(principal, shared, generation);
+            return Optional.of(shared);
+        }
+        databaseLookups.increment();
+        Long readVersion = sharedReadVersion();
+        CachedAuthorizationInfo loaded = lookup.apply(value).map(CachedAuthorizationInfo::of).orElse(null);
+        if (loaded != null && putLocal(principal, loaded, generation) && readVersion != null) {
+            putShared(principal, loaded, readVersion);
+        }
+        return Optional.ofNullable(loaded);
+    }
+
+    /**
+     * Сохраняет данные, если после начала их чтения не было сброса: иначе они могли быть прочитаны до изменения.
+     */
+    private boolean putLocal(String principal, CachedAuthorizationInfo info, long generation) {
+        infos.put(info.getId(), info);
+        principals.put(principal, info.getId());
+        if (invalidations.get() != generation) {
+            infos.invalidate(info.getId());
+            return false;
+        }
+        return true;
+    }
+
+    private void invalidateLocal(UUID clientId) {
+        invalidations.incrementAndGet();
+        infos.invalidate(clientId);
+    }
+
+    private CachedAuthorizationInfo getShared(String principal) {
+        if (sharedStore == null) {
+            return null;
+        }
+        try {
+            return sharedStore.get(principal);
+        } catch (DataAccessException e) {
+            log.debug("Failed to read shared authorization info: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Long sharedReadVersion() {
+        if (sharedStore == null) {
+            return null;
+        }
+        try {
+            return sharedStore.readVersion();
+        } catch (DataAccessException e) {
+            log.debug("Failed to read shared authorization info version: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void putShared(String principal, CachedAuthorizationInfo info, long readVersion) {
+        try {
+            sharedStore.put(principal, info, readVersion);
+        } catch (DataAccessException e) {
+            log.debug("Failed to write shared authorization info: {}", e.getMessage());
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("authorization.info.lookups")
+                .description("Login lookups of client authorization info by source")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
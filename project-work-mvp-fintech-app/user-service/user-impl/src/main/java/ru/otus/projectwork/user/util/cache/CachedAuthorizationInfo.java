@@ -0,0 +1,32 @@
+package ru.otus.projectwork.user.util.cache;
+
+import lombok.Value;
+import ru.otus.projectwork.domain.model.projection.UserAuthorizationProjection;
+
+import java.util.UUID;
+
+/**
+ * Неизменяемая копия {@link UserAuthorizationProjection}, которая хранится в {@link AuthorizationInfoCache}.
+ */
+@Value
+public class CachedAuthorizationInfo implements UserAuthorizationProjection {
+
+    UUID id;
+
+    String firstName;
+
+    String lastName;
+
+    String password;
+
+    /**
+     * Копирует проекцию, прочитанную из базы данных.
+     *
+     * @param projection проекция
+     * @return копия проекции
+     */
+    public static CachedAuthorizationInfo of(UserAuthorizationProjection projection) {
+        return new CachedAuthorizationInfo(projection.getId(), projection.getFirstName(), projection.getLastName(),
+                projection.getPassword());
+    }
+}
@@ -0,0 +1,168 @@
+package ru.otus.projectwork.user.util.cache;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Второй уровень {@link AuthorizationInfoCache}, общий для всех экземпляров сервиса.
+ *
+ * <p>Ключ {@code auth-info:principal:{principal}} хранит идентификатор клиента, хеш
+ * {@code auth-info:client:{clientId}} - данные авторизации. Оба ключа живут {@code ttl}. Сброс удаляет хеш клиента,
+ * записывает время сброса по часам Redis в {@code auth-info:version:{clientId}} и публикует идентификатор клиента в
+ * канал {@value #INVALIDATION_CHANNEL}, по которому экземпляры сбрасывают локальный кэш.
+ *
+ * <p>Запись и сброс выполняются Lua-скриптами атомарно. Запись несет версию чтения - время Redis, полученное до
+ * запроса к базе данных ({@link #readVersion()}), и отбрасывается, если клиент сброшен не раньше этого времени:
+ * иначе данные, прочитанные до изменения пароля, вернулись бы в Redis после сброса на другом экземпляре. Время
+ * сброса хранится {@code ttl}, поэтому запись с версией старше {@code ttl} тоже отбрасывается.
+ */
+public final class RedisAuthorizationInfoStore implements AutoCloseable {
+
+    /**
+     * Канал сброса кэша данных авторизации клиента.
+     */
+    public static final String INVALIDATION_CHANNEL = "auth-info:invalidate";
+
+    private static final String PRINCIPAL_PREFIX = "auth-info:principal:";
+
+    private static final String CLIENT_PREFIX = "auth-info:client:";
+
+    private static final String VERSION_PREFIX = "auth-info:version:";
+
+    private static final RedisScript<Long> TIME_SCRIPT = RedisScript.of("""
+            local time = redis.call('TIME')
+            return tonumber(time[1]) * 1000000 + tonumber(time[2])
+            """, Long.class);
+
+    private static final RedisScript<Long> PUT_SCRIPT = RedisScript.of("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local readVersion = tonumber(ARGV[1])
+            if now - readVersion >= tonumber(ARGV[2]) * 1000 then
+                return 0
+            end
+            local invalidated = redis.call('GET', KEYS[3])
+            if invalidated and tonumber(invalidated) >= readVersion then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'firstName', ARGV[3], 'lastName', ARGV[4], 'password', ARGV[5])
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            redis.call('SET', KEYS[2], ARGV[6], 'PX', ARGV[2])
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> INVALIDATE_SCRIPT = RedisScript.of("""
+            local time = redis.call('TIME')
+            redis.call('SET', KEYS[2], time[1] .. string.format('%06d', tonumber(time[2])), 'PX', ARGV[1])
+            redis.call('DEL', KEYS[1])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Duration ttl;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * Создает хранилище.
+     *
+     * @param redisTemplate шаблон Redis
+     * @param ttl           время жизни записей
+     */
+    public RedisAuthorizationInfoStore(StringRedisTemplate redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Возвращает данные авторизации клиента по ключу учетной записи.
+     *
+     * @param principal ключ учетной записи
+     * @return данные авторизации или null, если их нет
+     */
+    public CachedAuthorizationInfo get(String principal) {
+        String clientId = redisTemplate.opsForValue().get(PRINCIPAL_PREFIX + principal);
+        if (clientId == null) {
+            return null;
+        }
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(CLIENT_PREFIX + clientId);
+        if (fields.isEmpty()) {
+            return null;
+        }
+        return new CachedAuthorizationInfo(UUID.fromString(clientId), (String) fields.get("firstName"),
+                (String) fields.get("lastName"), (String) fields.get("password"));
+    }
+
+    /**
+     * Возвращает версию чтения для {@link #put}: текущее время Redis в микросекундах. Запрашивается до чтения
+     * данных из базы данных.
+     *
+     * @return версия чтения
+     */
+    public long readVersion() {
+        return redisTemplate.execute(TIME_SCRIPT, List.of());
+    }
+
+    /**
+     * Сохраняет данные авторизации клиента под ключом учетной записи, если клиент не сброшен после начала чтения.
+     *
+     * @param principal   ключ учетной записи
+     * @param info        данные авторизации
+     * @param readVersion версия, полученная {@link #readVersion()} до чтения данных
+     * @return true, если данные сохранены
+     */
+    public boolean put(String principal, CachedAuthorizationInfo info, long readVersion) {
+        String clientId = info.getId().toString();
+        Long result = redisTemplate.execute(PUT_SCRIPT,
+                List.of(CLIENT_PREFIX + clientId, PRINCIPAL_PREFIX + principal, VERSION_PREFIX + clientId),
+                String.valueOf(readVersion), String.valueOf(ttl.toMillis()),
+                info.getFirstName(), info.getLastName(), info.getPassword(), clientId);
+        return result != null && result == 1;
+    }
+
+    /**
+     * Удаляет данные авторизации клиента, запрещает запись данных, прочитанных до сброса, и оповещает экземпляры
+     * сервиса.
+     *
+     * @param clientId идентификатор клиента
+     */
+    public void invalidate(UUID clientId) {
+        redisTemplate.execute(INVALIDATE_SCRIPT, List.of(CLIENT_PREFIX + clientId, VERSION_PREFIX + clientId),
+                String.valueOf(ttl.toMillis()));
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, clientId.toString());
+    }
+
+    /**
+     * Подписывается на сброс данных авторизации клиентов, в том числе опубликованный этим экземпляром.
+     *
+     * @param listener получатель идентификаторов клиентов
+     */
+    public synchronized void subscribe(Consumer<UUID> listener) {
+        RedisConnectionFactory connectionFactory = redisTemplate.getRequiredConnectionFactory();
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener((message, pattern) ->
+                        listener.accept(UUID.fromString(new String(message.getBody(), StandardCharsets.UTF_8))),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+}
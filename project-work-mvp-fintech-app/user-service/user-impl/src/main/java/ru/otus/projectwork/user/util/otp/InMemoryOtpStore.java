@@ -0,0 +1,150 @@
+package ru.otus.projectwork.user.util.otp;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link OtpStore} в памяти экземпляра для запуска сервиса на одном узле и тестов без Redis.
+ *
+ * <p>Коды хранятся в {@link ConcurrentHashMap}, проверка выполняется одним {@code compute} по номеру телефона и
+ * поэтому атомарна. Истекшие коды удаляет колесо таймеров: {@code wheelSize} ячеек по {@code tick}, код
+ * попадает в ячейку такта своего истечения. Поток колеса раз в такт обходит только одну ячейку, а не всю карту;
+ * код со сроком больше оборота колеса возвращается в ячейку до следующего оборота. Истечение также проверяется при
+ * чтении, поэтому точность удаления не влияет на срок действия кода.
+ */
+public class InMemoryOtpStore implements OtpStore, AutoCloseable {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Queue<String>[] wheel;
+
+    private final long tickNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final long startedAt;
+
+    private final ScheduledExecutorService scheduler;
+
+    private long nextTick;
+
+    /**
+     * Создает хранилище с потоком, удаляющим истекшие коды.
+     *
+     * @param tick      длительность такта колеса
+     * @param wheelSize количество ячеек колеса
+     * @return хранилище
+     */
+    public static InMemoryOtpStore start(Duration tick, int wheelSize) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otp-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        InMemoryOtpStore store = new InMemoryOtpStore(tick, wheelSize, System::nanoTime, scheduler);
+        scheduler.scheduleAtFixedRate(store::expire, tick.toNanos(), tick.toNanos(), TimeUnit.NANOSECONDS);
+        return store;
+    }
+
+    @SuppressWarnings("unchecked")
+    InMemoryOtpStore(Duration tick, int wheelSize, LongSupplier nanoClock, ScheduledExecutorService scheduler) {
+        this.tickNanos = tick.toNanos();
+        this.wheel = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.nanoClock = nanoClock;
+        this.startedAt = nanoClock.getAsLong();
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void save(String phone, String code, Duration ttl) {
+        long expiresAt = nanoClock.getAsLong() + ttl.toNanos();
+        Entry previous = entries.put(phone, new Entry(code, 0, expiresAt));
+        // Повторная выдача кода в тот же такт истечения уже стоит в ячейке колеса
+        if (previous == null || tickOf(previous.expiresAt()) != tickOf(expiresAt)) {
+            schedule(phone, expiresAt);
+        }
+    }
+
+    @Override
+    public OtpCheckResult check(String phone, String code, int maxAttempts) {
+        long now = nanoClock.getAsLong();
+        OtpCheckResult[] result = {OtpCheckResult.NOT_FOUND};
+        entries.computeIfPresent(phone, (key, entry) -> {
+            if (entry.isExpired(now)) {
+                return null;
+            }
+            if (entry.attempts() >= maxAttempts) {
+                result[0] = OtpCheckResult.ATTEMPTS_EXCEEDED;
+                return entry;
+            }
+            if (entry.code().equals(code)) {
+                result[0] = OtpCheckResult.MATCHED;
+                return null;
+            }
+            result[0] = OtpCheckResult.MISMATCHED;
+            return new Entry(entry.code(), entry.attempts() + 1, entry.expiresAt());
+        });
+        return result[0];
+    }
+
+    /**
+     * Возвращает количество хранимых кодов, включая истекшие, но еще не удаленные.
+     *
+     * @return количество кодов
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Обходит ячейки прошедших тактов и удаляет истекшие коды. Вызывается одним потоком.
+     */
+    void expire() {
+        long now = nanoClock.getAsLong();
+        long currentTick = (now - startedAt) / tickNanos;
+        for (; nextTick <= currentTick; nextTick++) {
+            Queue<String> slot = wheel[(int) (nextTick % wheel.length)];
+            for (int i = slot.size(); i > 0; i--) {
+                String phone = slot.poll();
+                if (phone == null) {
+                    break;
+                }
+                Entry entry = entries.computeIfPresent(phone, (key, e) -> e.isExpired(now) ? null : e);
+                if (entry != null && tickOf(entry.expiresAt()) > nextTick) {
+                    schedule(phone, entry.expiresAt());
+                }
+            }
+        }
+    }
+
+    private void schedule(String phone, long expiresAt) {
+        wheel[(int) (tickOf(expiresAt) % wheel.length)].add(phone);
+    }
+
+    private long tickOf(long nanos) {
+        return Math.max(0, (nanos - startedAt + tickNanos - 1) / tickNanos);
+    }
+
+    private record Entry(String code, int attempts, long expiresAt) {
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
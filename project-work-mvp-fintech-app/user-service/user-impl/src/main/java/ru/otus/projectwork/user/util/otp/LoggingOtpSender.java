@@ -0,0 +1,38 @@
+package ru.otus.projectwork.user.util.otp;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.otus.projectwork.domain.model.OtpDelivery;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Заглушка реального провайдера сервиса отправки: записывает OTP-коды в журнал приложения.
+ */
+@Slf4j
+public class LoggingOtpSender implements OtpSender {
+
+    private final Clock clock;
+
+    public LoggingOtpSender(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Set<UUID> send(List<OtpDelivery> batch) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Set<UUID> delivered = new HashSet<>();
+        for (OtpDelivery delivery : batch) {
+            log.info("OTP-код {} направлен клиенту по номеру телефона +{}. Срок действия OTP-кода {} секунд",
+                    delivery.getOtpCode(), delivery.getMobilePhone(),
+                    Duration.between(now, delivery.getExpiresAt()).toSeconds());
+            delivered.add(delivery.getId());
+        }
+        return delivered;
+    }
+}
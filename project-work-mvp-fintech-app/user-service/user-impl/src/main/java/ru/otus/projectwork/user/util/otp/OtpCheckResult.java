@@ -0,0 +1,27 @@
+package ru.otus.projectwork.user.util.otp;
+
+/**
+ * Результат проверки OTP-кода.
+ */
+public enum OtpCheckResult {
+
+    /**
+     * Код совпал, запись удалена.
+     */
+    MATCHED,
+
+    /**
+     * Код не совпал, попытка учтена.
+     */
+    MISMATCHED,
+
+    /**
+     * Допустимое количество попыток исчерпано, код не сравнивался.
+     */
+    ATTEMPTS_EXCEEDED,
+
+    /**
+     * Код не выдавался или истек.
+     */
+    NOT_FOUND
+}
@@ -0,0 +1,293 @@
+package ru.otus.projectwork.user.util.otp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.otus.projectwork.domain.model.OtpDelivery;
+import ru.otus.projectwork.domain.repository.OtpDeliveryRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Outbox отправки OTP-кодов.
+ *
+ * <p>Запрос на отправку записывается в таблицу {@code otp_delivery} в транзакции запроса клиента, сама отправка
+ * выполняется потоком диспетчера через {@link OtpSender}. Поэтому время ответа API не зависит от канала доставки, а
+ * код, выданный в откатившейся транзакции, не отправляется. После фиксации транзакции диспетчер будится сразу, а
+ * периодический обход подбирает повторные попытки и запросы, оставшиеся после перезапуска сервиса.
+ *
+ * <p>Пачка обрабатывается в три шага, и соединение с базой не занято на время отправки:
+ * <ol>
+ *   <li>в короткой транзакции диспетчер забирает до {@code batchSize} записей, время отправки которых наступило,
+ *   с блокировкой {@code FOR UPDATE SKIP LOCKED} и берет их в аренду: увеличивает счетчик попыток и переносит
+ *   время отправки на {@code lease} вперед. Экземпляры сервиса разбирают outbox параллельно, не отправляя один
+ *   код дважды</li>
+ *   <li>коды отправляются вне транзакции</li>
+ *   <li>во второй короткой транзакции доставленные записи удаляются, недоставленные откладываются с
+ *   экспоненциальной задержкой от {@code initialBackoff} до {@code maxBackoff}</li>
+ * </ol>
+ * Если экземпляр остановился после аренды, запись снова станет доступной по истечении {@code lease}, поэтому
+ * {@code lease} должна быть больше времени ответа канала доставки. Запись удаляется без отправки, если код истек:
+ * клиент все равно не сможет его ввести, или после {@code maxAttempts} попыток.
+ *
+ * <p>Метрика {@code otp.delivery} с тегом {@code result}: {@code sent} - код доставлен, {@code retried} - отправка
+ * отложена, {@code dropped} - запрос удален без доставки.
+ */
+@Slf4j
+public class OtpDeliveryOutbox implements AutoCloseable {
+
+    private final OtpDeliveryRepository repository;
+
+    private final OtpSender sender;
+
+    private final TransactionOperations transactions;
+
+    private final Clock clock;
+
+    private final int batchSize;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    private final int maxAttempts;
+
+    private final Duration lease;
+
+    private final Counter sent;
+
+    private final Counter retried;
+
+    private final Counter dropped;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicBoolean signalled = new AtomicBoolean();
+
+    /**
+     * Создает outbox с потоком диспетчера.
+     *
+     * @param repository     репозиторий запросов на отправку
+     * @param sender         канал доставки
+     * @param transactions   транзакции диспетчера
+     * @param clock          часы
+     * @param meterRegistry  реестр метрик
+     * @param batchSize      максимальный размер пачки
+     * @param pollInterval   интервал периодического обхода
+     * @param initialBackoff задержка после первой неудачной попытки
+     * @param maxBackoff     максимальная задержка между попытками
+     * @param maxAttempts    количество попыток отправки
+     * @param lease          время, на которое запись забирается для отправки
+     * @return outbox
+     */
+    public static OtpDeliveryOutbox start(OtpDeliveryRepository repository, OtpSender sender,
+                                          TransactionOperations transactions, Clock clock,
+                                          MeterRegistry meterRegistry, int batchSize, Duration pollInterval,
+                                          Duration initialBackoff, Duration maxBackoff, int maxAttempts,
+                                          Duration lease) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otp-delivery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        OtpDeliveryOutbox outbox = new OtpDeliveryOutbox(repository, sender, transactions, clock, meterRegistry,
+                batchSize, initialBackoff, maxBackoff, maxAttempts, lease, scheduler);
+        scheduler.scheduleWithFixedDelay(outbox::drain, pollInterval.toNanos(), pollInterval.toNanos(),
+                TimeUnit.NANOSECONDS);
+        return outbox;
+    }
+
+    OtpDeliveryOutbox(OtpDeliveryRepository repository, OtpSender sender, TransactionOperations transactions,
+                      Clock clock, MeterRegistry meterRegistry, int batchSize, Duration initialBackoff,
+                      Duration maxBackoff, int maxAttempts, Duration lease, ScheduledExecutorService scheduler) {
+        this.repository = repository;
+        this.sender = sender;
+        this.transactions = transactions;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.sent = meterRegistry.counter("otp.delivery", "result", "sent");
+        this.retried = meterRegistry.counter("otp.delivery", "result", "retried");
+        this.dropped = meterRegistry.counter("otp.delivery", "result", "dropped");
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Записывает запрос на отправку кода. В активной транзакции диспетчер будится после ее фиксации.
+     *
+     * @param phone номер телефона
+     * @param code  OTP-код
+     * @param ttl   срок действия кода
+     */
+    public void enqueue(String phone, String code, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        repository.save(OtpDelivery.builder()
+                .mobilePhone(phone)
+                .otpCode(code)
+                .nextAttemptAt(now)
+                .expiresAt(now.plus(ttl))
+                .build());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    signal();
+                }
+            });
+        } else {
+            signal();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Планирует внеочередной обход, если он еще не запланирован.
+     */
+    private void signal() {
+        if (scheduler != null && signalled.compareAndSet(false, true)) {
+            scheduler.execute(this::drain);
+        }
+    }
+
+    /**
+     * Отправляет пачки, пока очередная пачка заполнена целиком. Вызывается потоком диспетчера.
+     */
+    void drain() {
+        signalled.set(false);
+        try {
+            int processed;
+            do {
+                processed = dispatchBatch();
+            } while (processed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("OTP delivery dispatch failed", e);
+        }
+    }
+
+    /**
+     * Отправляет одну пачку: забирает записи, отправляет коды вне транзакции и фиксирует результат.
+     *
+     * @return количество обработанных запросов
+     */
+    int dispatchBatch() {
+        Claim claim = transactions.execute(status -> claim(LocalDateTime.now(clock)));
+        if (claim == null) {
+            return 0;
+        }
+        if (!claim.live().isEmpty()) {
+            Set<UUID> delivered = send(claim.live());
+            transactions.executeWithoutResult(status -> complete(claim.live(), delivered,
+                    LocalDateTime.now(clock)));
+        }
+        return claim.size();
+    }
+
+    /**
+     * Забирает пачку в аренду, истекшие и исчерпавшие попытки записи удаляет.
+     *
+     * @param now текущее время
+     * @return забранные записи
+     */
+    private Claim claim(LocalDateTime now) {
+        List<OtpDelivery> batch = repository.lockDue(now, batchSize);
+        List<OtpDelivery> live = new ArrayList<>(batch.size());
+        List<UUID> expired = new ArrayList<>();
+        for (OtpDelivery delivery : batch) {
+            if (delivery.getExpiresAt().isAfter(now) && delivery.getAttempts() < maxAttempts) {
+                delivery.setAttempts(delivery.getAttempts() + 1);
+                delivery.setNextAttemptAt(now.plus(lease));
+                live.add(delivery);
+            } else {
+                expired.add(delivery.getId());
+                dropped.increment();
+            }
+        }
+        if (!expired.isEmpty()) {
+            repository.deleteAllByIdInBatch(expired);
+        }
+        return new Claim(batch.size(), live);
+    }
+
+    /**
+     * Удаляет доставленные записи и записи с исчерпанными попытками, остальные откладывает.
+     *
+     * @param live      отправленные записи
+     * @param delivered идентификаторы доставленных записей
+     * @param now       текущее время
+     */
+    private void complete(List<OtpDelivery> live, Set<UUID> delivered, LocalDateTime now) {
+        List<UUID> completed = new ArrayList<>(live.size());
+        Map<LocalDateTime, List<UUID>> rescheduled = new LinkedHashMap<>();
+        for (OtpDelivery delivery : live) {
+            if (delivered.contains(delivery.getId())) {
+                completed.add(delivery.getId());
+                sent.increment();
+            } else if (delivery.getAttempts() >= maxAttempts) {
+                completed.add(delivery.getId());
+                dropped.increment();
+            } else {
+                rescheduled.computeIfAbsent(now.plus(backoff(delivery.getAttempts())), at -> new ArrayList<>())
+                        .add(delivery.getId());
+                retried.increment();
+            }
+        }
+        if (!completed.isEmpty()) {
+            repository.deleteAllByIdInBatch(completed);
+        }
+        rescheduled.forEach((nextAttemptAt, ids) -> repository.reschedule(ids, nextAttemptAt));
+    }
+
+    private Set<UUID> send(List<OtpDelivery> batch) {
+        try {
+            return sender.send(batch);
+        } catch (RuntimeException e) {
+            log.warn("OTP sender rejected a batch of {} messages", batch.size(), e);
+            return Set.of();
+        }
+    }
+
+    /**
+     * Задержка перед повторной отправкой.
+     *
+     * @param attempts количество неудачных попыток, не меньше 1
+     * @return {@code initialBackoff * 2^(attempts - 1)}, но не больше {@code maxBackoff}
+     */
+    private Duration backoff(int attempts) {
+        int shift = Math.min(attempts - 1, 30);
+        Duration delay = initialBackoff.multipliedBy(1L << shift);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    /**
+     * Записи, забранные для отправки.
+     *
+     * @param size количество выбранных записей, включая удаленные без отправки
+     * @param live записи для отправки
+     */
+    private record Claim(int size, List<OtpDelivery> live) {
+    }
+}
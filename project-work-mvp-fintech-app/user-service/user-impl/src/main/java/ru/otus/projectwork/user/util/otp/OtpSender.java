@@ -0,0 +1,25 @@
+package ru.otus.projectwork.user.util.otp;
+
+import ru.otus.projectwork.domain.model.OtpDelivery;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Канал доставки OTP-кодов клиентам (SMS-шлюз).
+ *
+ * <p>Вызывается диспетчером {@link OtpDeliveryOutbox} вне потока запроса, поэтому задержка канала не влияет на
+ * время ответа API. Пачка передается целиком, чтобы реализация могла отправить ее одним запросом к шлюзу.
+ */
+public interface OtpSender {
+
+    /**
+     * Отправляет пачку кодов.
+     *
+     * @param batch запросы на отправку
+     * @return идентификаторы доставленных запросов, остальные будут отправлены повторно; исключение означает, что
+     * не доставлен ни один запрос пачки
+     */
+    Set<UUID> send(List<OtpDelivery> batch);
+}
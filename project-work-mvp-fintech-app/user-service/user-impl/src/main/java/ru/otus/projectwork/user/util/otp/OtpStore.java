@@ -0,0 +1,35 @@
+package ru.otus.projectwork.user.util.otp;
+
+import java.time.Duration;
+
+/**
+ * Хранилище OTP-кодов.
+ *
+ * <p>Проверка кода атомарна: сравнение, учет неудачной попытки и удаление совпавшего кода выполняются как одна
+ * операция, поэтому параллельные запросы не могут сделать больше попыток, чем разрешено. Неудачная попытка не
+ * продлевает срок действия кода.
+ *
+ * @see RedisOtpStore
+ * @see InMemoryOtpStore
+ */
+public interface OtpStore {
+
+    /**
+     * Сохраняет новый код, заменяя ранее выданный, и сбрасывает количество попыток.
+     *
+     * @param phone номер телефона
+     * @param code  OTP-код
+     * @param ttl   срок действия кода
+     */
+    void save(String phone, String code, Duration ttl);
+
+    /**
+     * Проверяет код.
+     *
+     * @param phone       номер телефона
+     * @param code        введенный код
+     * @param maxAttempts допустимое количество неудачных попыток
+     * @return результат проверки
+     */
+    OtpCheckResult check(String phone, String code, int maxAttempts);
+}
@@ -0,0 +1,69 @@
+package ru.otus.projectwork.user.util.otp;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link OtpStore} в Redis, общий для всех экземпляров сервиса.
+ *
+ * <p>Код и количество использованных попыток хранятся в хеше {@code otp:{phone}} с полями {@code code} и
+ * {@code attempts}. Сохранение и проверка выполняются Lua-скриптами: сравнение кода, учет попытки и удаление
+ * записи происходят атомарно за один запрос к Redis, поэтому параллельные запросы не могут сделать больше
+ * попыток, чем разрешено. {@code HINCRBY} не меняет время жизни ключа, и неудачная попытка не продлевает срок
+ * действия кода.
+ *
+ * <p>Ключи и значения передаются через {@link StringRedisTemplate} строками UTF-8 без JSON сериализации.
+ */
+@RequiredArgsConstructor
+public class RedisOtpStore implements OtpStore {
+
+    private static final String KEY_PREFIX = "otp:";
+
+    private static final RedisScript<Long> SAVE_SCRIPT = RedisScript.of("""
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], 'code', ARGV[1], 'attempts', 0)
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> CHECK_SCRIPT = RedisScript.of("""
+            local entry = redis.call('HMGET', KEYS[1], 'code', 'attempts')
+            if not entry[1] then
+                return 3
+            end
+            if tonumber(entry[2]) >= tonumber(ARGV[2]) then
+                return 2
+            end
+            if entry[1] == ARGV[1] then
+                redis.call('DEL', KEYS[1])
+                return 0
+            end
+            redis.call('HINCRBY', KEYS[1], 'attempts', 1)
+            return 1
+            """, Long.class);
+
+    private static final OtpCheckResult[] RESULTS = {
+            OtpCheckResult.MATCHED,
+            OtpCheckResult.MISMATCHED,
+            OtpCheckResult.ATTEMPTS_EXCEEDED,
+            OtpCheckResult.NOT_FOUND
+    };
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public void save(String phone, String code, Duration ttl) {
+        stringRedisTemplate.execute(SAVE_SCRIPT, List.of(KEY_PREFIX + phone), code, String.valueOf(ttl.toMillis()));
+    }
+
+    @Override
+    public OtpCheckResult check(String phone, String code, int maxAttempts) {
+        Long result = stringRedisTemplate.execute(CHECK_SCRIPT, List.of(KEY_PREFIX + phone), code,
+                String.valueOf(maxAttempts));
+        return RESULTS[result.intValue()];
+    }
+}
@@ -0,0 +1,220 @@
+package ru.otus.projectwork.user.util.password;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.otus.projectwork.user.exception.ServiceUnavailableException;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ru.otus.projectwork.user.util.ExceptionMessage.SERVICE_OVERLOADED;
+
+/**
+ * {@link PasswordEncoder}, выполняющий хеширование на отдельном ограниченном пуле потоков.
+ *
+ * <p>BCrypt с высокой стоимостью занимает процессор на сотни миллисекунд на каждую проверку пароля. Если считать
+ * его в потоках Tomcat, всплеск входов занимает все ядра и все потоки запросов, и остальные эндпоинты перестают
+ * отвечать. Здесь хеширование выполняется не более чем в {@code threads} потоках, а ожидающих задач не больше
+ * {@code queueCapacity}: при заполненной очереди запрос сразу отклоняется {@link ServiceUnavailableException}
+ * (HTTP 503), а не ждет. Поток запроса блокируется только на ожидании результата и не занимает процессор.
+ *
+ * <p>Фоновое хеширование через {@link #encodeIfIdle(CharSequence)} выполняется только при пустой очереди и не
+ * вытесняет запросы пользователей.
+ *
+ * <p>Пакетные операции хешируют пароли через {@link #encodeAll(List)} на втором пуле из {@code bulkThreads}
+ * потоков. Он не делит очередь с запросами пользователей, поэтому импорт не получает 503 и не занимает место в
+ * очереди входа, а число потоков ограничивает долю процессора, которую он забирает у входа. Очередь второго пула не
+ * ограничена: вызывающий передает пароли пачками и дожидается их перед следующей.
+ *
+ * <p>Метрики:
+ * <ul>
+ *   <li>{@code password.hash} с тегом {@code operation} - время хеширования</li>
+ *   <li>{@code password.hash.wait} - время ожидания в очереди</li>
+ *   <li>{@code password.hash.queue} и {@code password.hash.active} - задачи в очереди и выполняющиеся</li>
+ *   <li>{@code password.hash.rejected} - запросы, отклоненные из-за заполненной очереди</li>
+ * </ul>
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ThreadPoolExecutor bulkExecutor;
+
+    private final Timer encodeTimer;
+
+    private final Timer bulkEncodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Timer waitTimer;
+
+    private final Counter rejectedCounter;
+
+    /**
+     * Создает кодировщик.
+     *
+     * @param delegate      кодировщик, выполняющий хеширование
+     * @param threads       количество потоков хеширования
+     * @param queueCapacity максимальное количество ожидающих задач
+     * @param meterRegistry реестр метрик
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  MeterRegistry meterRegistry) {
+        this(delegate, threads, queueCapacity, 1, meterRegistry);
+    }
+
+    /**
+     * Создает кодировщик с пулом пакетного хеширования.
+     *
+     * @param delegate      кодировщик, выполняющий хеширование
+     * @param threads       количество потоков хеширования
+     * @param queueCapacity максимальное количество ожидающих задач
+     * @param bulkThreads   количество потоков пакетного хеширования
+     * @param meterRegistry реестр метрик
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, int bulkThreads,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.bulkExecutor = new ThreadPoolExecutor(bulkThreads, bulkThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new HashingThreadFactory("password-hash-bulk-"));
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.bulkEncodeTimer = hashTimer(meterRegistry, "bulk_encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.waitTimer = Timer.builder("password.hash.wait")
+                .description("Time password hashing tasks spend queued before a hashing thread picks them up")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hash.rejected")
+                .description("Password hashing requests rejected because the hashing queue was full")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.queue", executor, pool -> pool.getQueue().size())
+                .description("Password hashing tasks waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Хеширует пароль в фоне, если на пуле нет ожидающих задач.
+     *
+     * @param rawPassword пароль
+     * @return хеш пароля или future, завершенный {@link RejectedExecutionException}, если пул занят
+     */
+    public CompletableFuture<String> encodeIfIdle(CharSequence rawPassword) {
+        if (!executor.getQueue().isEmpty()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Password hashing pool is busy"));
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> encodeTimer.record(() -> delegate.encode(rawPassword)),
+                    executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Хеширует пароли на пуле пакетного хеширования.
+     *
+     * @param rawPasswords пароли
+     * @return хеши паролей в порядке паролей, каждый future завершается независимо от остальных
+     */
+    public List<CompletableFuture<String>> encodeAll(List<? extends CharSequence> rawPasswords) {
+        return rawPasswords.stream()
+                .map(rawPassword -> CompletableFuture.supplyAsync(
+                        () -> bulkEncodeTimer.record(() -> delegate.encode(rawPassword)), bulkExecutor))
+                .toList();
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        bulkExecutor.shutdownNow();
+    }
+
+    private <T> T execute(Timer timer, Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException(SERVICE_OVERLOADED.getDescription());
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(SERVICE_OVERLOADED.getDescription());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("password.hash")
+                .description("Password hashing time on the dedicated hashing pool")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Создает именованные потоки-демоны, чтобы хеширование было видно в дампах потоков.
+     */
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private final String prefix;
+
+        private HashingThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.otus.projectwork.user.util.password;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.function.IntFunction;
+
+/**
+ * Подбор стоимости хеширования пароля под бюджет задержки.
+ *
+ * <p>Стоимость BCrypt и количество итераций Argon2 задают время хеширования, но одно и то же значение на разных
+ * машинах дает разную задержку входа. Калибровщик при старте сервиса замеряет время {@link PasswordEncoder#encode}
+ * для возрастающей стоимости и возвращает наибольшую, укладывающуюся в бюджет. Стоимость не опускается ниже
+ * {@code minCost}, даже если бюджет меньше: это нижняя граница стойкости хешей.
+ *
+ * <p>Каждая стоимость замеряется дважды и берется меньшее время, первый замер разогревает JIT. Подбор
+ * останавливается на первой стоимости, превысившей бюджет, поэтому калибровка занимает не больше нескольких
+ * бюджетов задержки.
+ */
+public final class PasswordCostCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "Calibration1";
+
+    private static final int SAMPLES = 2;
+
+    private PasswordCostCalibrator() {
+    }
+
+    /**
+     * Подбирает стоимость хеширования.
+     *
+     * @param encoderForCost кодировщик для заданной стоимости
+     * @param minCost        минимальная стоимость
+     * @param maxCost        максимальная стоимость
+     * @param targetLatency  бюджет времени одного хеширования
+     * @return наибольшая стоимость в {@code [minCost, maxCost]}, время хеширования с которой не превышает бюджет,
+     * или {@code minCost}, если бюджет превышает уже она
+     */
+    public static int calibrate(IntFunction<PasswordEncoder> encoderForCost, int minCost, int maxCost,
+                                Duration targetLatency) {
+        if (minCost > maxCost) {
+            throw new IllegalArgumentException("Minimal cost " + minCost + " exceeds maximal cost " + maxCost);
+        }
+        long budgetNanos = targetLatency.toNanos();
+        int cost = minCost;
+        while (cost < maxCost && measure(encoderForCost.apply(cost + 1)) <= budgetNanos) {
+            cost++;
+        }
+        return cost;
+    }
+
+    /**
+     * Замеряет время хеширования.
+     *
+     * @param encoder кодировщик
+     * @return наименьшее время хеширования из нескольких замеров, нс
+     */
+    public static long measure(PasswordEncoder encoder) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long startedAt = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - startedAt);
+        }
+        return best;
+    }
+}
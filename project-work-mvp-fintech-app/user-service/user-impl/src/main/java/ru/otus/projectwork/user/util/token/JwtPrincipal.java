@@ -0,0 +1,16 @@
+package ru.otus.projectwork.user.util.token;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Данные пользователя из проверенного JWT токена. Создается один раз за запрос в {@code JwtTokenFilter} и хранится
+ * в SecurityContext как principal аутентификации.
+ *
+ * @param clientId     идентификатор клиента
+ * @param userFullName полное имя пользователя
+ * @param tokenId      идентификатор токена (claim {@code jti}), null для токенов, выданных до его появления
+ * @param expiresAt    момент окончания срока действия токена
+ */
+public record JwtPrincipal(UUID clientId, String userFullName, String tokenId, Instant expiresAt) {
+}
@@ -3,26 +3,25 @@ package ru.otus.projectwork.user.util.token;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import jakarta.annotation.PostConstruct;
-import jakarta.servlet.http.Cookie;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.otus.projectwork.common.http.CookieHeaderScanner;
+import ru.otus.projectwork.common.jwt.JwtKeyRing;
 import ru.otus.projectwork.user.configuration.JwtConfig;
 import ru.otus.projectwork.user.exception.UnauthorizedUserException;
 
-import javax.crypto.SecretKey;
 import java.time.Duration;
-import java.util.Arrays;
-import java.util.Base64;
 import java.util.Date;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.function.Function;
 
 import static ru.otus.projectwork.user.util.ExceptionMessage.DENIED_ACCESS;
 import static ru.otus.projectwork.user.util.ExceptionMessage.UNAUTHORIZED_USER;
@@ -37,49 +36,11 @@ public class JwtTokenUtils {
 
     private final JwtConfig jwtConfig;
 
-    private SecretKey key;
-
-    @PostConstruct
-    private void init() {
-        try {
-            log.info("Starting JWT initialization...");
-
-            String secretKey = jwtConfig.getSecret().getKey();
-
-            if (secretKey == null || secretKey.trim().isEmpty()) {
-                throw new IllegalStateException("JWT secret key is not configured");
-            }
-
-            log.info("JWT config loaded successfully, key present: {}",
-                    secretKey.length() > 10 ? "***" + secretKey.substring(secretKey.length() - 5) : "SHORT_KEY");
-
-            byte[] keyBytes = Base64.getDecoder().decode(secretKey);
-
-            // Проверка длины ключа
-            if (keyBytes.length < 32) {
-                log.warn("JWT key is too short ({} bytes), generating secure key", keyBytes.length);
-                // Генерация безопасного ключа
-                this.key = Jwts.SIG.HS256.key().build();
-                log.info("Using auto-generated secure JWT key");
-            } else {
-                this.key = Keys.hmacShaKeyFor(keyBytes);
-                log.info("JWT initialized successfully with configured key ({} bytes)", keyBytes.length);
-            }
-
-        } catch (IllegalArgumentException e) {
-            log.error("Invalid Base64 format for JWT secret key", e);
-            // Генерация безопасного ключа как fallback
-            this.key = Jwts.SIG.HS256.key().build();
-            log.warn("Using auto-generated JWT key due to configuration error");
-        } catch (Exception e) {
-            log.error("JWT initialization failed, using secure fallback", e);
-            this.key = Jwts.SIG.HS256.key().build();
-            log.warn("Using auto-generated secure JWT key");
-        }
-    }
+    private final JwtKeyRing jwtKeyRing;
 
     /**
-     * Генерирует JWT токен для указанного пользователя.
+     * Генерирует JWT токен для указанного пользователя. Каждый токен получает уникальный идентификатор
+     * {@code jti}, по которому его можно отозвать.
      *
      * @param id идентификатор пользователя
      * @param userFullName полное имя пользователя
@@ -95,38 +56,50 @@ public class JwtTokenUtils {
         claims.put("clientId", id.toString());
         claims.put("userFullName", userFullName);
 
-        return Jwts.builder()
-                .claims(claims)
-                .issuedAt(issuedDate)
-                .expiration(expiredDate)
-                .signWith(key)
+        return jwtKeyRing.sign(Jwts.builder()
+                        .id(UUID.randomUUID().toString())
+                        .claims(claims)
+                        .issuedAt(issuedDate)
+                        .expiration(expiredDate))
                 .compact();
     }
 
     /**
-     * Проверяет токен на валидность
+     * Проверяет подпись и срок действия токена за один разбор и возвращает данные пользователя.
      *
      * @param token токен
-     * @return UUID возвращает идентификатор пользователя если токен валиден
+     * @return данные пользователя из токена
+     * @throws UnauthorizedUserException если токен невалиден, истек или не содержит clientId
      */
-    public UUID tokenValidate(String token) {
+    public JwtPrincipal verify(String token) {
         try {
-            final String id = extractClientId(token);
-
-            // Дополнительная проверка срока действия токена
             Claims claims = extractAllClaims(token);
-            Date expiration = claims.getExpiration();
-            if (expiration.before(new Date())) {
-                throw new UnauthorizedUserException("Token expired");
+            Object clientId = claims.get("clientId");
+            if (clientId == null) {
+                throw new UnauthorizedUserException(DENIED_ACCESS.getDescription());
             }
-
-            return getUuid(id);
+            Object userFullName = claims.get("userFullName");
+            Date expiration = claims.getExpiration();
+            return new JwtPrincipal(getUuid(clientId.toString()),
+                    userFullName != null ? userFullName.toString() : null,
+                    claims.getId(),
+                    expiration != null ? expiration.toInstant() : null);
         } catch (JwtException | IllegalArgumentException e) {
             log.debug("Token validation failed: {}", e.getMessage());
             throw new UnauthorizedUserException(DENIED_ACCESS.getDescription());
         }
     }
 
+    /**
+     * Проверяет токен на валидность
+     *
+     * @param token токен
+     * @return UUID возвращает идентификатор пользователя если токен валиден
+     */
+    public UUID tokenValidate(String token) {
+        return verify(token).clientId();
+    }
+
     /**
      * Проверяет истек ли срок действия токена
      *
@@ -135,46 +108,25 @@ public class JwtTokenUtils {
      */
     public boolean isTokenExpired(String token) {
         try {
-            Claims claims = extractAllClaims(token);
-            Date expiration = claims.getExpiration();
-            return expiration.before(new Date());
+            extractAllClaims(token);
+            return false;
         } catch (JwtException e) {
-            return true; // Если не можем распарсить, считаем токен невалидным
+            return true; // Истекший токен или токен, который не можем распарсить, считаем невалидным
         }
     }
 
     /**
-     * Извлекает все данные из токена
+     * Извлекает все данные из токена. Парсер проверяет подпись и срок действия токена.
      *
      * @param token токен
      * @return данные
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
+        return jwtKeyRing.parser()
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
-    /**
-     * Извлекает данные из токена
-     *
-     * @param token токен
-     * @param claimsResolver функция извлечения данных
-     * @param <T> тип данных
-     * @return данные
-     */
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        try {
-            final Claims claims = extractAllClaims(token);
-            return claimsResolver.apply(claims);
-        } catch (JwtException e) {
-            log.error("Invalid JWT token", e);
-            throw new UnauthorizedUserException(DENIED_ACCESS.getDescription());
-        }
-    }
-
     /**
      * Извлекает clientId из токена
      *
@@ -182,7 +134,7 @@ public class JwtTokenUtils {
      * @return UUID клиента в виде строки
      */
     public String extractClientId(String jwtToken) {
-        return extractClaim(jwtToken, claims -> claims.get("clientId").toString());
+        return verify(jwtToken).clientId().toString();
     }
 
     /**
@@ -192,7 +144,7 @@ public class JwtTokenUtils {
      * @return полное имя пользователя
      */
     public String extractUserFullName(String jwtToken) {
-        return extractClaim(jwtToken, claims -> claims.get("userFullName").toString());
+        return verify(jwtToken).userFullName();
     }
 
     /**
@@ -220,23 +172,15 @@ public class JwtTokenUtils {
             // Сначала пробует получить из заголовка Authorization
             String authHeader = request.getHeader("Authorization");
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                String token = authHeader.substring(7);
-                log.debug("Token extracted from Authorization header");
-                return token;
+                return authHeader.substring(7);
             }
 
-            // Если нет в заголовке, пробует из cookies
-            var cookies = request.getCookies();
-            if (cookies != null && cookies.length > 0) {
-                String cookiesName = jwtConfig.getCookies().getName();
-                String token = Arrays.stream(cookies)
-                        .filter(cook -> cook.getName().equals(cookiesName))
-                        .findFirst()
-                        .map(Cookie::getValue)
-                        .orElse(null);
-
+            // Если нет в заголовке, пробует из cookies без разбора всех cookies запроса
+            String cookiesName = jwtConfig.getCookies().getName();
+            Enumeration<String> cookieHeaders = request.getHeaders(HttpHeaders.COOKIE);
+            while (cookieHeaders != null && cookieHeaders.hasMoreElements()) {
+                String token = CookieHeaderScanner.findValue(cookieHeaders.nextElement(), cookiesName);
                 if (token != null) {
-                    log.debug("Token extracted from cookies");
                     return token;
                 }
             }
@@ -254,15 +198,25 @@ public class JwtTokenUtils {
      * Получает clientId из текущего запроса (удобный метод для контроллеров)
      */
     public UUID getCurrentClientId() {
-        String token = getToken();
-        return tokenValidate(token);
+        return getCurrentPrincipal().clientId();
     }
 
     /**
      * Получает полное имя пользователя из текущего запроса
      */
     public String getCurrentUserFullName() {
-        String token = getToken();
-        return extractUserFullName(token);
+        return getCurrentPrincipal().userFullName();
+    }
+
+    /**
+     * Возвращает данные пользователя, проверенные {@code JwtTokenFilter} для текущего запроса. Повторная проверка
+     * токена выполняется только если запрос не прошел через фильтр.
+     */
+    public JwtPrincipal getCurrentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            return principal;
+        }
+        return verify(getToken());
     }
-}
\ No newline at end of file
+}
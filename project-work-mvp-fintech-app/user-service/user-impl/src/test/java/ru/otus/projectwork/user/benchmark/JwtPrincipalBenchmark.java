@@ -0,0 +1,105 @@
+package ru.otus.projectwork.user.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.otus.projectwork.common.jwt.JwtKeyRing;
+import ru.otus.projectwork.user.configuration.JwtConfig;
+import ru.otus.projectwork.user.util.token.JwtPrincipal;
+import ru.otus.projectwork.user.util.token.JwtTokenUtils;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость проверки токена на один защищенный запрос, в котором контроллер запрашивает clientId и имя.
+ *
+ * <p>{@code legacy} воспроизводит прежнюю логику: фильтр вызывает tokenValidate (два разбора токена), затем
+ * getCurrentClientId снова извлекает токен из запроса и проверяет его дважды, getCurrentUserFullName - еще раз.
+ * {@code singleParse} проверяет токен один раз в фильтре, остальные вызовы читают principal из SecurityContext.
+ *
+ * <p>Запуск: метод {@link #main(String[])} из IDE.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtPrincipalBenchmark {
+
+    private static final String SECRET_KEY =
+            "VGhpcyBpcyBhIHZlcnkgc2VjdXJlIGFuZCBsb25nIGVuY3J5cHRpb24ga2V5IGZvciBKV1QgdG9rZW5z";
+
+    private JwtTokenUtils jwtTokenUtils;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.getCookies().setName("accessToken");
+        jwtTokenUtils = new JwtTokenUtils(jwtConfig, JwtKeyRing.ofSecret(SECRET_KEY));
+        token = jwtTokenUtils.generateToken(UUID.randomUUID(), "Иванов Иван Иванович", Duration.ofMinutes(30));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public String legacy() {
+        // JwtTokenFilter: extractClientId и extractAllClaims
+        jwtTokenUtils.extractClientId(token);
+        jwtTokenUtils.isTokenExpired(token);
+        // getCurrentClientId: getToken и повторная проверка тем же способом
+        String requestToken = jwtTokenUtils.getToken();
+        String clientId = jwtTokenUtils.extractClientId(requestToken);
+        jwtTokenUtils.isTokenExpired(requestToken);
+        // getCurrentUserFullName
+        return clientId + jwtTokenUtils.extractUserFullName(jwtTokenUtils.getToken());
+    }
+
+    @Benchmark
+    public String singleParse() {
+        JwtPrincipal principal = jwtTokenUtils.verify(token);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList()));
+        try {
+            return jwtTokenUtils.getCurrentClientId() + jwtTokenUtils.getCurrentUserFullName();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtPrincipalBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,137 @@
+package ru.otus.projectwork.user.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import ru.otus.projectwork.user.util.otp.InMemoryOtpStore;
+import ru.otus.projectwork.user.util.otp.OtpCheckResult;
+import ru.otus.projectwork.user.util.otp.OtpStore;
+import ru.otus.projectwork.user.util.otp.RedisOtpStore;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость выдачи и неудачной проверки OTP-кода.
+ *
+ * <p>{@code jackson} воспроизводит прежнюю логику: строка {@code "code,attempts"} через
+ * {@link GenericJackson2JsonRedisSerializer}, GET, разбор, TTL и SET, всего четыре запроса к Redis на проверку.
+ * {@code redis} - {@link RedisOtpStore}, {@code inMemory} - {@link InMemoryOtpStore} без обращения к сети.
+ * Варианты с Redis требуют запущенного Redis на {@code redisHost:redisPort}, без него запускается только
+ * {@code inMemory} ({@code -p store=inMemory}).
+ *
+ * <p>Запуск: метод {@link #main(String[])} из IDE.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OtpStoreBenchmark {
+
+    private static final String PHONE = "79991234567";
+
+    private static final String OTP = "123456";
+
+    private static final Duration TTL = Duration.ofSeconds(120);
+
+    @Param({"jackson", "redis", "inMemory"})
+    private String store;
+
+    @Param("localhost")
+    private String redisHost;
+
+    @Param("6379")
+    private int redisPort;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private RedisTemplate<String, Object> jacksonTemplate;
+
+    private OtpStore otpStore;
+
+    @Setup
+    public void setUp() {
+        if ("inMemory".equals(store)) {
+            otpStore = InMemoryOtpStore.start(Duration.ofSeconds(1), 256);
+            return;
+        }
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(redisHost, redisPort));
+        connectionFactory.afterPropertiesSet();
+        if ("jackson".equals(store)) {
+            jacksonTemplate = new RedisTemplate<>();
+            jacksonTemplate.setConnectionFactory(connectionFactory);
+            jacksonTemplate.setKeySerializer(new StringRedisSerializer());
+            jacksonTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+            jacksonTemplate.afterPropertiesSet();
+        } else {
+            otpStore = new RedisOtpStore(new StringRedisTemplate(connectionFactory));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (otpStore instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    /**
+     * Выдача кода и неудачная проверка: путь, который проходит каждая попытка подбора.
+     */
+    @Benchmark
+    public Object saveAndMismatch() {
+        if (jacksonTemplate != null) {
+            return legacySaveAndMismatch();
+        }
+        otpStore.save(PHONE, OTP, TTL);
+        return otpStore.check(PHONE, "000000", 3);
+    }
+
+    private Object legacySaveAndMismatch() {
+        jacksonTemplate.opsForValue().set(PHONE, OTP + ",0", TTL.toSeconds(), TimeUnit.SECONDS);
+        String[] stored = jacksonTemplate.opsForValue().get(PHONE).toString().split(",");
+        int attempts = Integer.parseInt(stored[1]);
+        if (attempts >= 3) {
+            return OtpCheckResult.ATTEMPTS_EXCEEDED;
+        }
+        if (stored[0].equals("000000")) {
+            jacksonTemplate.delete(PHONE);
+            return OtpCheckResult.MATCHED;
+        }
+        Long ttl = jacksonTemplate.getExpire(PHONE, TimeUnit.SECONDS);
+        if (ttl != null && ttl > 0) {
+            jacksonTemplate.opsForValue().set(PHONE, stored[0] + "," + (attempts + 1), ttl, TimeUnit.SECONDS);
+        }
+        return OtpCheckResult.MISMATCHED;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OtpStoreBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
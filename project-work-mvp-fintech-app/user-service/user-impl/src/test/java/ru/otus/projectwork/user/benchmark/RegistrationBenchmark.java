@@ -0,0 +1,137 @@
+package ru.otus.projectwork.user.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.otus.projectwork.user.UserServiceImplApplication;
+import ru.otus.projectwork.user.dto.request.RegistrationRequestDto;
+import ru.otus.projectwork.user.dto.response.RegistrationResponseDto;
+import ru.otus.projectwork.user.service.ClientService;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность регистрации: количество регистраций в секунду при параллельных запросах.
+ *
+ * <p>Поднимает контекст сервиса и вызывает {@link ClientService#registration} из {@code 8} потоков, пул соединений -
+ * {@code 5}, как в настройках сервиса. {@code jdbcBatchSize=1} отключает пакетную вставку Hibernate. После каждого
+ * прогона печатается среднее время удержания соединения из пула. Требует запущенного PostgreSQL с базой
+ * {@code user_db} по {@code jdbcUrl}, таблицы создает Liquibase, данные регистраций не удаляются.
+ *
+ * <p>Запуск: метод {@link #main(String[])} из IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(8)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    @Param({"1", "50"})
+    private int jdbcBatchSize;
+
+    @Param("10")
+    private int bcryptStrength;
+
+    @Param("jdbc:postgresql://localhost:5432/user_db?reWriteBatchedInserts=true")
+    private String jdbcUrl;
+
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() % 1_000_000 * 10_000);
+
+    private ConfigurableApplicationContext context;
+
+    private ClientService clientService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserServiceImplApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + jdbcUrl,
+                        "--spring.datasource.hikari.maximum-pool-size=5",
+                        "--spring.datasource.hikari.connection-timeout=30000",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+                        "--spring.security.password-encoder.strength=" + bcryptStrength,
+                        "--otp.store=in-memory",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.orm.jdbc.bind=WARN",
+                        "--logging.level.ru.otus.projectwork=WARN",
+                        "--logging.level.org.springframework.jdbc.core=WARN");
+        clientService = context.getBean(ClientService.class);
+    }
+
+    /**
+     * Печатает среднее время удержания соединения из пула: при хешировании пароля в транзакции оно включает время
+     * хеширования.
+     */
+    @TearDown
+    public void tearDown() {
+        Timer usage = context.getBean(MeterRegistry.class).find("hikaricp.connections.usage").timer();
+        if (usage != null) {
+            System.out.printf("%nConnection usage: %.2f ms mean over %d checkouts%n",
+                    usage.mean(TimeUnit.MILLISECONDS), usage.count());
+        }
+        context.close();
+    }
+
+    /**
+     * Регистрация нового клиента с уникальными телефоном, паспортом и почтой.
+     */
+    @Benchmark
+    public RegistrationResponseDto registration() {
+        return clientService.registration(request(sequence.incrementAndGet()));
+    }
+
+    private static RegistrationRequestDto request(long n) {
+        String digits = String.format("%010d", n);
+        return RegistrationRequestDto.builder()
+                .firstName("Иван")
+                .lastName("Иванов")
+                .middleName("Иванович")
+                .mobilePhone("7" + digits)
+                .email("bench" + digits + "@example.com")
+                .password("Password1")
+                .passportNumber(digits)
+                .issuedBy("ГУ МВД России")
+                .issueDate(LocalDate.of(2015, 1, 1))
+                .departmentCode("770-001")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .country("Россия")
+                .city("Москва")
+                .street("Тверская")
+                .house("1")
+                .postCode("125009")
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RegistrationBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
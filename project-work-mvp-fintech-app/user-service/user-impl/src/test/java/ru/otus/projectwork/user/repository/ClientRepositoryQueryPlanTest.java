@@ -0,0 +1,112 @@
+package ru.otus.projectwork.user.repository;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.otus.projectwork.domain.repository.ClientRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет планы запросов авторизации {@link ClientRepository} на схеме из миграций Liquibase с миллионом клиентов:
+ * каждая таблица соединения читается сканированием индекса, без последовательного чтения таблицы.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Тестирование планов запросов авторизации ClientRepository")
+class ClientRepositoryQueryPlanTest {
+
+    private static final int CLIENTS = 1_000_000;
+
+    private static final String CLIENT_NUMBER = String.format("%010d", CLIENTS / 2);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:/db.changelog/db.changelog-master.yml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("""
+                INSERT INTO passport_data (id, passport_number, issued_by, issued_date, department_code, birth_date,
+                                           update_date)
+                SELECT md5('passport' || i)::uuid, lpad(i::text, 10, '0'), 'ГУ МВД России', DATE '2015-01-01',
+                       '770001', DATE '1990-01-01', now()
+                FROM generate_series(1, ?) AS i
+                """, CLIENTS);
+        jdbcTemplate.update("""
+                INSERT INTO client (id, passport_id, first_name, last_name, create_date, update_date, mobile_phone,
+                                    address_registration_id)
+                SELECT md5('client' || i)::uuid, md5('passport' || i)::uuid, 'Иван', 'Иванов', now(), now(),
+                       '7' || lpad(i::text, 10, '0'), (SELECT min(id::text)::uuid FROM address)
+                FROM generate_series(1, ?) AS i
+                """, CLIENTS);
+        jdbcTemplate.update("""
+                INSERT INTO user_profile (id, client_id, password, email, create_date, update_date)
+                SELECT md5('profile' || i)::uuid, md5('client' || i)::uuid,
+                       '{bcrypt}$2a$10$' || md5('password' || i) || 'Aa1', 'client' || i || '@example.com',
+                       now(), now()
+                FROM generate_series(1, ?) AS i
+                """, CLIENTS);
+        // Сканирование только индекса требует карты видимости, после массовой вставки ее строит VACUUM
+        jdbcTemplate.execute("VACUUM ANALYZE passport_data, client, user_profile");
+    }
+
+    @Test
+    @DisplayName("Вход по номеру паспорта читает паспорт, клиента и профиль по индексам")
+    void findAuthorizationInfoByPassportNumber_UsesIndexes() throws NoSuchMethodException {
+        List<String> plan = explain("findAuthorizationInfoByPassportNumber", "passportNumber", CLIENT_NUMBER);
+
+        assertNoSeqScan(plan);
+        assertIndexScan(plan, "idx_passport_data_passport_number");
+        assertIndexScan(plan, "idx_client_passport_id_authorization");
+        assertIndexScan(plan, "idx_user_profile_client_id_password");
+    }
+
+    @Test
+    @DisplayName("Вход по номеру телефона читает клиента и профиль по индексам")
+    void findAuthorizationInfoByMobilePhone_UsesIndexes() throws NoSuchMethodException {
+        List<String> plan = explain("findAuthorizationInfoByMobilePhone", "mobilePhone", "7" + CLIENT_NUMBER);
+
+        assertNoSeqScan(plan);
+        assertIndexScan(plan, "idx_client_mobile_phone_authorization");
+        assertIndexScan(plan, "idx_user_profile_client_id_password");
+    }
+
+    /**
+     * Строит план запроса из аннотации метода репозитория, подставляя значение параметра.
+     */
+    private static List<String> explain(String method, String parameter, String value) throws NoSuchMethodException {
+        String sql = ClientRepository.class.getMethod(method, String.class).getAnnotation(Query.class).value()
+                .replace(":" + parameter, "'" + value + "'");
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+    }
+
+    private static void assertNoSeqScan(List<String> plan) {
+        assertFalse(plan.stream().anyMatch(line -> line.contains("Seq Scan")), () -> String.join("\n", plan));
+    }
+
+    private static void assertIndexScan(List<String> plan, String index) {
+        assertTrue(plan.stream().anyMatch(line -> line.contains("Index Only Scan using " + index + " ")
+                || line.contains("Index Scan using " + index + " ")), () -> index + ":\n" + String.join("\n", plan));
+    }
+}
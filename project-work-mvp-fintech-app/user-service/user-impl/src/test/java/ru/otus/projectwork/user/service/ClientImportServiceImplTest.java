@@ -0,0 +1,238 @@
+package ru.otus.projectwork.user.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.otus.projectwork.domain.repository.ClientRepository;
+import ru.otus.projectwork.domain.repository.PassportDataRepository;
+import ru.otus.projectwork.domain.repository.UserProfileRepository;
+import ru.otus.projectwork.user.configuration.AdminConfig;
+import ru.otus.projectwork.user.dto.ChainRegistrationDto;
+import ru.otus.projectwork.user.dto.request.RegistrationRequestDto;
+import ru.otus.projectwork.user.dto.response.ClientImportErrorDto;
+import ru.otus.projectwork.user.dto.response.ClientImportResponseDto;
+import ru.otus.projectwork.user.service.chain.registration.ProcessRegistrationChainPart;
+import ru.otus.projectwork.user.service.impl.ClientImportServiceImpl;
+import ru.otus.projectwork.user.util.bloom.RegisteredKeyFilter;
+import ru.otus.projectwork.user.util.bulk.RegistrationRow;
+import ru.otus.projectwork.user.util.bulk.RegistrationRowReader;
+import ru.otus.projectwork.user.util.password.BoundedPasswordEncoder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static ru.otus.projectwork.user.util.ExceptionMessage.CLIENT_WITH_PASSPORT_NUMBER_EXIST;
+import static ru.otus.projectwork.user.util.ExceptionMessage.MOBILE_PHONE_REGISTERED;
+
+@DisplayName("Тестирование ClientImportServiceImpl")
+class ClientImportServiceImplTest {
+
+    private static final int CHUNK_SIZE = 3;
+
+    private final ClientRepository clientRepository = mock(ClientRepository.class);
+
+    private final PassportDataRepository passportDataRepository = mock(PassportDataRepository.class);
+
+    private final UserProfileRepository userProfileRepository = mock(UserProfileRepository.class);
+
+    private final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+
+    private final BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(new PrefixPasswordEncoder(),
+            1, 1, 2, new SimpleMeterRegistry());
+
+    private final List<String> registered = new ArrayList<>();
+
+    private final List<Integer> transactions = new ArrayList<>();
+
+    private int attempts;
+
+    private final ClientImportService clientImportService = new ClientImportServiceImpl(
+            List.of(registeringChainPart()),
+            clientRepository,
+            passportDataRepository,
+            userProfileRepository,
+            RegisteredKeyFilter.disabled(),
+            passwordEncoder,
+            countingTransactions(),
+            validatorFactory.getValidator(),
+            adminConfig());
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.close();
+        validatorFactory.close();
+    }
+
+    @Test
+    @DisplayName("Строки регистрируются пачками, каждая пачка - одна транзакция с хешированными паролями")
+    void importClients_RegistersChunksInSingleTransactions() throws IOException {
+        ClientImportResponseDto response = clientImportService.importClients(reader(
+                row(1, request(1)), row(2, request(2)), row(3, request(3)), row(4, request(4))));
+
+        assertEquals(4, response.total());
+        assertEquals(4, response.imported());
+        assertEquals(0, response.failed());
+        assertEquals(List.of(CHUNK_SIZE, 1), transactions);
+        assertEquals(List.of("70000000001:hashed:Password1!", "70000000002:hashed:Password1!",
+                "70000000003:hashed:Password1!", "70000000004:hashed:Password1!"), registered);
+    }
+
+    @Test
+    @DisplayName("Ошибки разбора, проверки и занятые данные сообщаются по строкам без прерывания импорта")
+    void importClients_ReportsRowErrors() throws IOException {
+        when(clientRepository.findExistingMobilePhones(anyCollection())).thenReturn(List.of("70000000002"));
+        RegistrationRequestDto invalid = RegistrationRequestDto.builder().build();
+        RegistrationRequestDto samePassport = RegistrationRequestDto.builder()
+                .firstName("Иван").lastName("Иванов").middleName("Иванович")
+                .mobilePhone("70000000099").email("other@example.com").password("Password1!")
+                .passportNumber(request(1).passportNumber()).issuedBy("ГУ МВД России")
+                .issueDate(LocalDate.of(2015, 1, 1)).departmentCode("770001")
+                .birthDate(LocalDate.of(1990, 1, 1)).country("Россия").city("Москва")
+                .street("Тверская").house("1").postCode("125009")
+                .build();
+
+        ClientImportResponseDto response = clientImportService.importClients(reader(
+                row(1, request(1)),
+                RegistrationRow.malformed(2, "Некорректная строка"),
+                row(3, invalid),
+                row(4, request(2)),
+                row(5, samePassport)));
+
+        assertEquals(5, response.total());
+        assertEquals(1, response.imported());
+        assertEquals(4, response.failed());
+        assertEquals(List.of(2L, 3L, 4L, 5L), response.errors().stream().map(ClientImportErrorDto::line).toList());
+        assertEquals(MOBILE_PHONE_REGISTERED.getDescription(), response.errors().get(2).message());
+        assertEquals(CLIENT_WITH_PASSPORT_NUMBER_EXIST.getDescription(), response.errors().get(3).message());
+        assertEquals(List.of("70000000001:hashed:Password1!"), registered);
+    }
+
+    @Test
+    @DisplayName("Отклоненная базой данных пачка регистрируется по одной строке, отклоняется только ошибочная")
+    void importClients_RetriesRejectedChunkRowByRow() throws IOException {
+        ClientImportResponseDto response = clientImportService.importClients(reader(
+                row(1, request(1)), row(2, request(666)), row(3, request(3))));
+
+        assertEquals(2, response.imported());
+        assertEquals(1, response.failed());
+        assertEquals(2, response.errors().get(0).line());
+        assertTrue(response.errors().get(0).message().contains("duplicate key"));
+        // Транзакция пачки прерывается на второй строке, затем каждая строка регистрируется отдельно
+        assertEquals(List.of(2, 1, 1, 1), transactions);
+    }
+
+    private ProcessRegistrationChainPart registeringChainPart() {
+        ProcessRegistrationChainPart part = mock(ProcessRegistrationChainPart.class);
+        when(part.process(any(), any())).thenAnswer(invocation -> {
+            RegistrationRequestDto request = invocation.getArgument(0);
+            ChainRegistrationDto chainDto = invocation.getArgument(1);
+            attempts++;
+            if (request.mobilePhone().endsWith("666")) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint\nDetail");
+            }
+            registered.add(request.mobilePhone() + ":" + chainDto.getEncodedPassword());
+            return chainDto;
+        });
+        return part;
+    }
+
+    /**
+     * Выполняет транзакцию без базы данных и запоминает количество регистраций в ней. Ошибка откатывает
+     * регистрации транзакции.
+     */
+    private TransactionOperations countingTransactions() {
+        return new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                int registeredBefore = registered.size();
+                int attemptsBefore = attempts;
+                try {
+                    return action.doInTransaction(null);
+                } catch (RuntimeException e) {
+                    registered.subList(registeredBefore, registered.size()).clear();
+                    throw e;
+                } finally {
+                    transactions.add(attempts - attemptsBefore);
+                }
+            }
+        };
+    }
+
+    private static AdminConfig adminConfig() {
+        AdminConfig adminConfig = new AdminConfig();
+        adminConfig.getClientImport().setChunkSize(CHUNK_SIZE);
+        return adminConfig;
+    }
+
+    private static RegistrationRow row(long line, RegistrationRequestDto request) {
+        return RegistrationRow.parsed(line, request);
+    }
+
+    private static RegistrationRowReader reader(RegistrationRow... rows) {
+        Iterator<RegistrationRow> iterator = List.of(rows).iterator();
+        return new RegistrationRowReader() {
+            @Override
+            public RegistrationRow next() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static RegistrationRequestDto request(int n) {
+        String digits = String.format("%010d", n);
+        return RegistrationRequestDto.builder()
+                .firstName("Иван")
+                .lastName("Иванов")
+                .middleName("Иванович")
+                .mobilePhone("7" + digits)
+                .email("client" + n + "@example.com")
+                .password("Password1!")
+                .passportNumber(digits)
+                .issuedBy("ГУ МВД России")
+                .issueDate(LocalDate.of(2015, 1, 1))
+                .departmentCode("770001")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .country("Россия")
+                .city("Москва")
+                .street("Тверская")
+                .house("1")
+                .postCode("125009")
+                .build();
+    }
+
+    /**
+     * Кодировщик без затрат на хеширование, по хешу видно, что пароль прошел через кодировщик.
+     */
+    private static final class PrefixPasswordEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
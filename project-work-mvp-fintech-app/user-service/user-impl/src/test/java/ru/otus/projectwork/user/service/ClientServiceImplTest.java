@@ -11,8 +11,11 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import ru.otus.projectwork.domain.model.Address;
 import ru.otus.projectwork.domain.model.Client;
 import ru.otus.projectwork.domain.model.PassportData;
@@ -36,13 +39,19 @@ import ru.otus.projectwork.user.exception.TooManyRequestException;
 import ru.otus.projectwork.user.service.chain.authorization.ProcessAuthorizationChainPart;
 import ru.otus.projectwork.user.service.chain.registration.ProcessRegistrationChainPart;
 import ru.otus.projectwork.user.service.impl.ClientServiceImpl;
+import ru.otus.projectwork.user.util.attempt.LoginAttemptTracker;
+import ru.otus.projectwork.user.util.bloom.RegisteredKeyFilter;
+import ru.otus.projectwork.user.util.otp.OtpCheckResult;
+import ru.otus.projectwork.user.util.otp.OtpDeliveryOutbox;
+import ru.otus.projectwork.user.util.otp.OtpStore;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -50,13 +59,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
-import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static ru.otus.projectwork.user.util.ExceptionMessage.CLIENT_BY_MOBILE_PHONE_NOT_FOUND;
 import static ru.otus.projectwork.user.util.ExceptionMessage.CLIENT_WITH_PASSPORT_NUMBER_EXIST;
@@ -80,7 +89,10 @@ class ClientServiceImplTest {
     private ClientRepository clientRepository;
 
     @Mock
-    private RedisTemplate<String, Object> redisTemplate;
+    private OtpStore otpStore;
+
+    @Mock
+    private OtpDeliveryOutbox otpDeliveryOutbox;
 
     @Mock
     private JwtConfig jwtConfig;
@@ -89,10 +101,13 @@ class ClientServiceImplTest {
     private RedisConfig redisConfig;
 
     @Mock
-    private HttpServletResponse response;
+    private PasswordEncoder passwordEncoder;
 
     @Mock
-    private ValueOperations<String, Object> valueOperations;
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Mock
+    private HttpServletResponse response;
 
     @Captor
     private ArgumentCaptor<Cookie> cookieCaptor;
@@ -102,6 +117,7 @@ class ClientServiceImplTest {
     private final String TEST_PHONE = "79991234567";
     private final String TEST_PASSPORT = "1234567890";
     private final String TEST_OTP = "123456";
+    private final String TEST_ENCODED_PASSWORD = "{bcrypt}$2a$10$encoded";
     private final UUID TEST_CLIENT_ID = UUID.randomUUID();
     private final Long TEST_OTP_TTL = 120L;
     private final Integer TEST_MAX_ATTEMPTS = 3;
@@ -116,9 +132,14 @@ class ClientServiceImplTest {
                 authorizationChainParts,
                 passportDataService,
                 clientRepository,
-                redisTemplate,
+                RegisteredKeyFilter.disabled(),
+                otpStore,
+                otpDeliveryOutbox,
                 jwtConfig,
-                redisConfig
+                redisConfig,
+                passwordEncoder,
+                loginAttemptTracker,
+                TransactionOperations.withoutTransaction()
         );
     }
 
@@ -131,6 +152,7 @@ class ClientServiceImplTest {
         ChainRegistrationDto finalDto = createChainRegistrationDto();
 
         when(passportDataService.existsByPassportNumber(TEST_PASSPORT)).thenReturn(false);
+        when(passwordEncoder.encode(request.password())).thenReturn(TEST_ENCODED_PASSWORD);
 
         for (int i = 0; i < 5; i++) {
             ProcessRegistrationChainPart mockPart = mock(ProcessRegistrationChainPart.class);
@@ -151,6 +173,8 @@ class ClientServiceImplTest {
         assertNotNull(result);
         assertEquals(TEST_CLIENT_ID, result.id());
         verify(passportDataService).existsByPassportNumber(TEST_PASSPORT);
+        verify(registrationChainParts.get(0)).process(any(RegistrationRequestDto.class),
+                argThat(dto -> TEST_ENCODED_PASSWORD.equals(dto.getEncodedPassword())));
 
         for (ProcessRegistrationChainPart part : registrationChainParts) {
             verify(part).process(any(RegistrationRequestDto.class), any(ChainRegistrationDto.class));
@@ -171,6 +195,7 @@ class ClientServiceImplTest {
 
         assertEquals(CLIENT_WITH_PASSPORT_NUMBER_EXIST.getDescription(), exception.getMessage());
         verify(passportDataService).existsByPassportNumber(TEST_PASSPORT);
+        verifyNoInteractions(passwordEncoder);
         // ИСПРАВЛЕНИЕ: убираем verifyNoInteractions для списков, так как они теперь реальные объекты
     }
 
@@ -207,6 +232,25 @@ class ClientServiceImplTest {
         verify(clientRepository).isMobilePhoneExists(TEST_PHONE);
     }
 
+    @Test
+    @DisplayName("Фильтр, еще не загруженный или не видящий регистрацию другого экземпляра, проверяет номер в базе")
+    void checkRegistration_FilterNotReady_FallsBackToDatabase() {
+        // Given
+        CheckRegistrationRequestDto request = new CheckRegistrationRequestDto(TEST_PHONE);
+        RegisteredKeyFilter notReady = mock(RegisteredKeyFilter.class);
+        when(notReady.mobilePhoneExists(eq(TEST_PHONE), any()))
+                .thenAnswer(invocation -> invocation.<Predicate<String>>getArgument(1).test(TEST_PHONE));
+        when(clientRepository.isMobilePhoneExists(TEST_PHONE)).thenReturn(true);
+        clientService = new ClientServiceImpl(registrationChainParts, authorizationChainParts,
+                passportDataService, clientRepository, notReady, otpStore, otpDeliveryOutbox,
+                jwtConfig, redisConfig, passwordEncoder, loginAttemptTracker,
+                TransactionOperations.withoutTransaction());
+
+        // When & Then
+        assertThrows(ConflictException.class, () -> clientService.checkRegistration(request));
+        verify(clientRepository).isMobilePhoneExists(TEST_PHONE);
+    }
+
     @Test
     @DisplayName("Успешная авторизация клиента")
     void authorize_Success() {
@@ -246,6 +290,31 @@ class ClientServiceImplTest {
         }
     }
 
+    @Test
+    @DisplayName("Заблокированная попытка входа отклоняется до начала транзакции, адрес - адрес соединения")
+    void authorize_LockedOut_RejectsBeforeTransaction() {
+        // Given
+        AuthorizationRequestDto request = createAuthorizationRequest();
+        TransactionOperations transactionOperations = mock(TransactionOperations.class);
+        clientService = new ClientServiceImpl(registrationChainParts, authorizationChainParts,
+                passportDataService, clientRepository, RegisteredKeyFilter.disabled(), otpStore, otpDeliveryOutbox,
+                jwtConfig, redisConfig, passwordEncoder, loginAttemptTracker, transactionOperations);
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+        httpRequest.setRemoteAddr("203.0.113.7");
+        httpRequest.addHeader("X-Forwarded-For", "198.51.100.1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(httpRequest));
+        doThrow(new TooManyRequestException(MANY_REQUEST.getDescription()))
+                .when(loginAttemptTracker).checkAllowed("phone:" + TEST_PHONE, "address:203.0.113.7");
+
+        // When & Then
+        try {
+            assertThrows(TooManyRequestException.class, () -> clientService.authorize(request, response));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        verifyNoInteractions(transactionOperations);
+    }
+
     @Test
     @DisplayName("Успешное сохранение OTP кода для существующего клиента")
     void saveOtpCode_Success() {
@@ -254,7 +323,6 @@ class ClientServiceImplTest {
 
         when(clientRepository.isMobilePhoneExists(TEST_PHONE)).thenReturn(true);
         when(redisConfig.getOtpTtl()).thenReturn(TEST_OTP_TTL);
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
 
         // When
         CheckPhoneResponseDto result = clientService.saveOtpCode(request);
@@ -263,7 +331,8 @@ class ClientServiceImplTest {
         assertNotNull(result);
         assertEquals(TEST_PHONE, result.mobilePhone());
         verify(clientRepository).isMobilePhoneExists(TEST_PHONE);
-        verify(valueOperations).set(eq(TEST_PHONE), anyString(), eq(TEST_OTP_TTL), eq(TimeUnit.SECONDS));
+        verify(otpStore).save(eq(TEST_PHONE), anyString(), eq(Duration.ofSeconds(TEST_OTP_TTL)));
+        verify(otpDeliveryOutbox).enqueue(eq(TEST_PHONE), anyString(), eq(Duration.ofSeconds(TEST_OTP_TTL)));
     }
 
     @Test
@@ -281,7 +350,7 @@ class ClientServiceImplTest {
         assertEquals(CLIENT_BY_MOBILE_PHONE_NOT_FOUND.getDescription().formatted(TEST_PHONE),
                 exception.getMessage());
         verify(clientRepository).isMobilePhoneExists(TEST_PHONE);
-        verifyNoInteractions(valueOperations);
+        verifyNoInteractions(otpStore);
     }
 
     @Test
@@ -289,11 +358,9 @@ class ClientServiceImplTest {
     void checkOtpCode_Success() {
         // Given
         CheckOtpRequestDto request = new CheckOtpRequestDto(TEST_PHONE, TEST_OTP);
-        String redisData = TEST_OTP + ",0";
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(TEST_PHONE)).thenReturn(redisData);
         when(redisConfig.getMaxAttemptsToCheckOtp()).thenReturn(TEST_MAX_ATTEMPTS);
+        when(otpStore.check(TEST_PHONE, TEST_OTP, TEST_MAX_ATTEMPTS)).thenReturn(OtpCheckResult.MATCHED);
 
         // When
         CheckPhoneResponseDto result = clientService.checkOtpCode(request);
@@ -301,8 +368,7 @@ class ClientServiceImplTest {
         // Then
         assertNotNull(result);
         assertEquals(TEST_PHONE, result.mobilePhone());
-        verify(valueOperations).get(TEST_PHONE);
-        verify(redisTemplate).delete(TEST_PHONE);
+        verify(otpStore).check(TEST_PHONE, TEST_OTP, TEST_MAX_ATTEMPTS);
     }
 
     @Test
@@ -310,20 +376,15 @@ class ClientServiceImplTest {
     void checkOtpCode_WithWrongCode_ThrowsConflictException() {
         // Given
         CheckOtpRequestDto request = new CheckOtpRequestDto(TEST_PHONE, "wrong-code");
-        String redisData = TEST_OTP + ",0";
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(TEST_PHONE)).thenReturn(redisData);
-        when(redisTemplate.getExpire(TEST_PHONE, TimeUnit.SECONDS)).thenReturn(100L);
         when(redisConfig.getMaxAttemptsToCheckOtp()).thenReturn(TEST_MAX_ATTEMPTS);
+        when(otpStore.check(TEST_PHONE, "wrong-code", TEST_MAX_ATTEMPTS)).thenReturn(OtpCheckResult.MISMATCHED);
 
         // When & Then
         ConflictException exception = assertThrows(ConflictException.class,
                 () -> clientService.checkOtpCode(request));
 
         assertEquals(INCORRECT_CODE_ENTERED.getDescription(), exception.getMessage());
-        verify(valueOperations).get(TEST_PHONE);
-        verify(valueOperations).set(eq(TEST_PHONE), eq(TEST_OTP + ",1"), eq(100L), eq(TimeUnit.SECONDS));
     }
 
     @Test
@@ -331,19 +392,16 @@ class ClientServiceImplTest {
     void checkOtpCode_WithMaxAttempts_ThrowsTooManyRequestException() {
         // Given
         CheckOtpRequestDto request = new CheckOtpRequestDto(TEST_PHONE, TEST_OTP);
-        String redisData = TEST_OTP + "," + TEST_MAX_ATTEMPTS;
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(TEST_PHONE)).thenReturn(redisData);
         when(redisConfig.getMaxAttemptsToCheckOtp()).thenReturn(TEST_MAX_ATTEMPTS);
+        when(otpStore.check(TEST_PHONE, TEST_OTP, TEST_MAX_ATTEMPTS))
+                .thenReturn(OtpCheckResult.ATTEMPTS_EXCEEDED);
 
         // When & Then
         TooManyRequestException exception = assertThrows(TooManyRequestException.class,
                 () -> clientService.checkOtpCode(request));
 
         assertEquals(MANY_REQUEST.getDescription(), exception.getMessage());
-        verify(valueOperations).get(TEST_PHONE);
-        verifyNoMoreInteractions(valueOperations);
     }
 
     @Test
@@ -352,52 +410,14 @@ class ClientServiceImplTest {
         // Given
         CheckOtpRequestDto request = new CheckOtpRequestDto(TEST_PHONE, TEST_OTP);
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(TEST_PHONE)).thenReturn(null);
+        when(redisConfig.getMaxAttemptsToCheckOtp()).thenReturn(TEST_MAX_ATTEMPTS);
+        when(otpStore.check(TEST_PHONE, TEST_OTP, TEST_MAX_ATTEMPTS)).thenReturn(OtpCheckResult.NOT_FOUND);
 
         // When & Then
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> clientService.checkOtpCode(request));
 
         assertEquals(NO_RECORD_IN_THE_SYSTEM.getDescription(), exception.getMessage());
-        verify(valueOperations).get(TEST_PHONE);
-    }
-
-    @Test
-    @DisplayName("Интеграционный тест: полный цикл OTP с превышением попыток")
-    void checkOtpCode_Integration_ExceededAttempts() {
-        // Given
-        CheckOtpRequestDto firstAttempt = new CheckOtpRequestDto(TEST_PHONE, "wrong1");
-        CheckOtpRequestDto secondAttempt = new CheckOtpRequestDto(TEST_PHONE, "wrong2");
-        CheckOtpRequestDto thirdAttempt = new CheckOtpRequestDto(TEST_PHONE, "wrong3");
-
-        String initialRedisData = TEST_OTP + ",0";
-        String afterFirstAttempt = TEST_OTP + ",1";
-        String afterSecondAttempt = TEST_OTP + ",2";
-        String afterThirdAttempt = TEST_OTP + "," + TEST_MAX_ATTEMPTS;
-
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(TEST_PHONE))
-                .thenReturn(initialRedisData)    // Первая попытка
-                .thenReturn(afterFirstAttempt)   // Вторая попытка
-                .thenReturn(afterSecondAttempt)  // Третья попытка
-                .thenReturn(afterThirdAttempt);  // Четвертая попытка (превышение)
-
-        when(redisTemplate.getExpire(TEST_PHONE, TimeUnit.SECONDS)).thenReturn(100L);
-        when(redisConfig.getMaxAttemptsToCheckOtp()).thenReturn(TEST_MAX_ATTEMPTS);
-
-        // When & Then
-        assertThrows(ConflictException.class, () -> clientService.checkOtpCode(firstAttempt));
-        assertThrows(ConflictException.class, () -> clientService.checkOtpCode(secondAttempt));
-        assertThrows(ConflictException.class, () -> clientService.checkOtpCode(thirdAttempt));
-
-        // Четвертая попытка должна выбрасывать TooManyRequestException
-        TooManyRequestException exception = assertThrows(TooManyRequestException.class,
-                () -> clientService.checkOtpCode(thirdAttempt));
-
-        assertEquals(MANY_REQUEST.getDescription(), exception.getMessage());
-
-        verify(valueOperations, times(3)).set(eq(TEST_PHONE), anyString(), eq(100L), eq(TimeUnit.SECONDS));
     }
 
     // Вспомогательные методы для создания тестовых данных
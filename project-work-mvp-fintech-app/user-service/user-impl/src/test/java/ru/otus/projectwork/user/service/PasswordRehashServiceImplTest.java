@@ -0,0 +1,122 @@
+package ru.otus.projectwork.user.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import ru.otus.projectwork.domain.repository.UserProfileRepository;
+import ru.otus.projectwork.user.service.impl.PasswordRehashServiceImpl;
+import ru.otus.projectwork.user.util.cache.AuthorizationInfoCache;
+import ru.otus.projectwork.user.util.password.BoundedPasswordEncoder;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тестирование PasswordRehashServiceImpl")
+class PasswordRehashServiceImplTest {
+
+    private static final String PASSWORD = "Password1";
+
+    private static final UUID CLIENT_ID = UUID.randomUUID();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(5);
+
+    @Mock
+    private UserProfileRepository userProfileRepository;
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    private PasswordRehashService passwordRehashService;
+
+    @BeforeEach
+    void setUp() {
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        passwordEncoder = new BoundedPasswordEncoder(delegating, 1, 1, meterRegistry);
+        passwordRehashService = new PasswordRehashServiceImpl(passwordEncoder, userProfileRepository,
+                AuthorizationInfoCache.disabled(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ((AutoCloseable) passwordRehashService).close();
+        passwordEncoder.close();
+    }
+
+    @Test
+    @DisplayName("Перехеширует хеш без префикса и с меньшей стоимостью, не теряя возможности входа")
+    void rehashIfOutdated_UpgradesLegacyHash() {
+        String legacyHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        assertTrue(passwordEncoder.matches(PASSWORD, legacyHash));
+        AtomicReference<String> writeThread = new AtomicReference<>();
+        when(userProfileRepository.replacePassword(eq(CLIENT_ID), eq(legacyHash), anyString()))
+                .thenAnswer(invocation -> {
+                    writeThread.set(Thread.currentThread().getName());
+                    return 1;
+                });
+
+        passwordRehashService.rehashIfOutdated(CLIENT_ID, PASSWORD, legacyHash);
+
+        ArgumentCaptor<String> newHash = ArgumentCaptor.forClass(String.class);
+        verify(userProfileRepository, timeout(5000)).replacePassword(eq(CLIENT_ID), eq(legacyHash), newHash.capture());
+        assertTrue(newHash.getValue().startsWith("{bcrypt}$2a$05$"));
+        assertTrue(passwordEncoder.matches(PASSWORD, newHash.getValue()));
+        assertFalse(passwordEncoder.upgradeEncoding(newHash.getValue()));
+        awaitCounter("upgraded");
+        assertEquals("password-rehash-write", writeThread.get());
+    }
+
+    @Test
+    @DisplayName("Не перехеширует актуальный хеш")
+    void rehashIfOutdated_SkipsCurrentHash() {
+        String currentHash = passwordEncoder.encode(PASSWORD);
+
+        passwordRehashService.rehashIfOutdated(CLIENT_ID, PASSWORD, currentHash);
+
+        verify(userProfileRepository, never()).replacePassword(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Учитывает пароль, измененный параллельным запросом")
+    void rehashIfOutdated_CountsConflict() {
+        String legacyHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        when(userProfileRepository.replacePassword(eq(CLIENT_ID), eq(legacyHash), anyString())).thenReturn(0);
+
+        passwordRehashService.rehashIfOutdated(CLIENT_ID, PASSWORD, legacyHash);
+
+        awaitCounter("conflict");
+    }
+
+    private void awaitCounter(String result) {
+        for (int i = 0; i < 250 && meterRegistry.find("password.rehash").tag("result", result).counter() == null; i++) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        assertEquals(1.0, meterRegistry.get("password.rehash").tag("result", result).counter().count());
+    }
+}
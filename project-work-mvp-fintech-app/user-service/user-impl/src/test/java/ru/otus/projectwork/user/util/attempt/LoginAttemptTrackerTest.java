@@ -0,0 +1,123 @@
+package ru.otus.projectwork.user.util.attempt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import ru.otus.projectwork.user.exception.TooManyRequestException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Тестирование LoginAttemptTracker")
+class LoginAttemptTrackerTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(15);
+
+    private static final String PHONE = "phone:79990000000";
+
+    private static final String ADDRESS = "address:10.0.0.1";
+
+    private final AtomicLong clock = new AtomicLong(WINDOW.toMillis() * 1000);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SlidingWindowCounter localCounter = new SlidingWindowCounter(WINDOW, 4, 1024, clock::get);
+
+    @Test
+    @DisplayName("Блокирует учетную запись после заданного количества неудачных попыток")
+    void checkAllowed_LocksPrincipalAfterMaxFailures() {
+        LoginAttemptTracker tracker = tracker(null);
+
+        for (int i = 0; i < 3; i++) {
+            assertDoesNotThrow(() -> tracker.checkAllowed(PHONE, ADDRESS));
+            tracker.recordFailure(PHONE, ADDRESS);
+        }
+
+        assertThrows(TooManyRequestException.class, () -> tracker.checkAllowed(PHONE, "address:10.0.0.2"));
+        assertDoesNotThrow(() -> tracker.checkAllowed("phone:79990000001", ADDRESS));
+        assertEquals(1.0, meterRegistry.get("login.attempts.rejected").tag("scope", "principal").counter().count());
+    }
+
+    @Test
+    @DisplayName("Снимает блокировку по мере того, как попытки выходят из скользящего окна")
+    void checkAllowed_UnlocksAsWindowSlides() {
+        LoginAttemptTracker tracker = tracker(null);
+        for (int i = 0; i < 3; i++) {
+            tracker.recordFailure(PHONE, null);
+        }
+
+        clock.addAndGet(WINDOW.toMillis() / 2);
+        assertThrows(TooManyRequestException.class, () -> tracker.checkAllowed(PHONE, null));
+
+        clock.addAndGet(WINDOW.toMillis() / 2 + WINDOW.toMillis() / 3);
+        assertDoesNotThrow(() -> tracker.checkAllowed(PHONE, null));
+        assertEquals(2.0, localCounter.count(PHONE), 0.01);
+    }
+
+    @Test
+    @DisplayName("Успешный вход сбрасывает попытки учетной записи, но не адреса")
+    void recordSuccess_ResetsPrincipalOnly() {
+        LoginAttemptTracker tracker = tracker(null);
+        for (int i = 0; i < 2; i++) {
+            tracker.recordFailure(PHONE, ADDRESS);
+        }
+
+        tracker.recordSuccess(PHONE);
+
+        assertEquals(0.0, localCounter.count(PHONE));
+        assertEquals(2.0, localCounter.count(ADDRESS));
+    }
+
+    @Test
+    @DisplayName("Учитывает попытки общего счетчика и работает без него при недоступности Redis")
+    void checkAllowed_UsesSharedCounter() {
+        SlidingWindowCounter shared = new SlidingWindowCounter(WINDOW, 1, 1024, clock::get);
+        for (int i = 0; i < 3; i++) {
+            shared.record(PHONE);
+        }
+        assertThrows(TooManyRequestException.class, () -> tracker(shared).checkAllowed(PHONE, ADDRESS));
+
+        LoginAttemptTracker withBrokenRedis = tracker(new FailureCounter() {
+            @Override
+            public void record(String key) {
+                throw new RedisConnectionFailureException("down");
+            }
+
+            @Override
+            public double count(String key) {
+                throw new RedisConnectionFailureException("down");
+            }
+
+            @Override
+            public void reset(String key) {
+                throw new RedisConnectionFailureException("down");
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            assertDoesNotThrow(() -> withBrokenRedis.checkAllowed(ADDRESS, null));
+            withBrokenRedis.recordFailure(ADDRESS, null);
+        }
+        assertThrows(TooManyRequestException.class, () -> withBrokenRedis.checkAllowed(ADDRESS, null));
+    }
+
+    @Test
+    @DisplayName("Хранит ограниченное количество ключей")
+    void slidingWindowCounter_EvictsLeastRecentlyUsed() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW, 4, 8, clock::get);
+
+        for (int i = 0; i < 1000; i++) {
+            counter.record("phone:" + i);
+        }
+
+        assertEquals(32, counter.size());
+    }
+
+    private LoginAttemptTracker tracker(FailureCounter sharedCounter) {
+        return new LoginAttemptTracker(localCounter, sharedCounter, 3, 10, meterRegistry);
+    }
+}
@@ -0,0 +1,118 @@
+package ru.otus.projectwork.user.util.bloom;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.otus.projectwork.domain.model.projection.RegisteredKeysProjection;
+import ru.otus.projectwork.domain.repository.ClientRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Тестирование RegisteredKeyFilter")
+class RegisteredKeyFilterTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    private static final Duration OVERLAP = Duration.ofMinutes(1);
+
+    private final ClientRepository clientRepository = mock(ClientRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RegisteredKeyFilter filter = new RegisteredKeyFilter(clientRepository,
+            TransactionOperations.withoutTransaction(), meterRegistry, 1_000, 0.01, OVERLAP, null);
+
+    private final List<String> lookups = new ArrayList<>();
+
+    @Test
+    @DisplayName("До окончания загрузки все проверки выполняются в базе данных")
+    void mobilePhoneExists_NotReady_LooksUpDatabase() {
+        assertFalse(filter.mobilePhoneExists("79990000001", lookup(false)));
+
+        assertEquals(List.of("79990000001"), lookups);
+        assertEquals(1, count("mobile_phone", "not_ready"));
+    }
+
+    @Test
+    @DisplayName("После загрузки отсутствующий номер отвечается без базы данных, загруженный проверяется в ней")
+    void mobilePhoneExists_Loaded_SkipsDatabaseForAbsentKeys() {
+        when(clientRepository.streamAllRegisteredKeys())
+                .thenReturn(Stream.of(keys("79990000001", CREATED)));
+        filter.refresh();
+
+        assertTrue(filter.isReady());
+        assertFalse(filter.mobilePhoneExists("79990000002", lookup(true)));
+        assertTrue(filter.mobilePhoneExists("79990000001", lookup(true)));
+        assertFalse(filter.mobilePhoneExists("79990000001", lookup(false)));
+
+        assertEquals(List.of("79990000001", "79990000001"), lookups);
+        assertEquals(1, count("mobile_phone", "absent"));
+        assertEquals(1, count("mobile_phone", "present"));
+        assertEquals(1, count("mobile_phone", "false_positive"));
+    }
+
+    @Test
+    @DisplayName("Регистрация добавляет номер, догрузка читает клиентов после отметки с перекрытием")
+    void refresh_LoadsClientsCreatedSinceWatermark() {
+        when(clientRepository.streamAllRegisteredKeys())
+                .thenReturn(Stream.of(keys("79990000001", CREATED)));
+        when(clientRepository.streamRegisteredKeysSince(CREATED.minus(OVERLAP)))
+                .thenReturn(Stream.of(keys("79990000003", CREATED.plusSeconds(5))));
+        filter.refresh();
+        filter.register("79990000002");
+        filter.refresh();
+
+        verify(clientRepository).streamRegisteredKeysSince(CREATED.minus(OVERLAP));
+        assertTrue(filter.mobilePhoneExists("79990000002", lookup(true)));
+        assertTrue(filter.mobilePhoneExists("79990000003", lookup(true)));
+        assertEquals(0, count("mobile_phone", "absent"));
+    }
+
+    @Test
+    @DisplayName("Отключенный фильтр передает все проверки в базу данных")
+    void disabled_AlwaysLooksUpDatabase() {
+        RegisteredKeyFilter disabled = RegisteredKeyFilter.disabled();
+        disabled.register("79990000001");
+
+        assertFalse(disabled.mobilePhoneExists("79990000002", lookup(false)));
+        assertEquals(List.of("79990000002"), lookups);
+    }
+
+    private Predicate<String> lookup(boolean exists) {
+        return key -> {
+            lookups.add(key);
+            return exists;
+        };
+    }
+
+    private double count(String key, String result) {
+        return meterRegistry.counter("registered.key.filter", "key", key, "result", result).count();
+    }
+
+    private static RegisteredKeysProjection keys(String mobilePhone, LocalDateTime createDate) {
+        return new RegisteredKeysProjection() {
+            @Override
+            public String getMobilePhone() {
+                return mobilePhone;
+            }
+
+            @Override
+            public LocalDateTime getCreateDate() {
+                return createDate;
+            }
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package ru.otus.projectwork.user.util.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование RegistrationRowReader")
+class RegistrationRowReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    @DisplayName("NDJSON: некорректная строка не прерывает чтение, пустые строки пропускаются")
+    void ndjson_ReportsMalformedLineAndContinues() throws IOException {
+        List<RegistrationRow> rows = readAll(RegistrationRowReader.APPLICATION_NDJSON, """
+                {"firstName":"Иван","mobilePhone":"79991234567","birthDate":"1990-01-01"}
+                {"firstName":
+
+                {"firstName":"Петр","mobilePhone":"79991234568"}
+                """);
+
+        assertEquals(3, rows.size());
+        assertEquals("Иван", rows.get(0).request().firstName());
+        assertEquals(LocalDate.of(1990, 1, 1), rows.get(0).request().birthDate());
+        assertEquals(2, rows.get(1).line());
+        assertNull(rows.get(1).request());
+        assertTrue(rows.get(1).error().startsWith("Некорректная строка"));
+        assertEquals(4, rows.get(2).line());
+        assertEquals("79991234568", rows.get(2).request().mobilePhone());
+    }
+
+    @Test
+    @DisplayName("CSV: столбцы сопоставляются по заголовку, значения в кавычках и пустые значения")
+    void csv_MapsColumnsByHeader() throws IOException {
+        List<RegistrationRow> rows = readAll(RegistrationRowReader.TEXT_CSV, """
+                \uFEFFmobilePhone,issuedBy,middleName,issueDate
+                79991234567,"ГУ МВД ""Москва"", отдел 1",,2015-01-01
+                """);
+
+        assertEquals(1, rows.size());
+        assertEquals(2, rows.get(0).line());
+        assertEquals("79991234567", rows.get(0).request().mobilePhone());
+        assertEquals("ГУ МВД \"Москва\", отдел 1", rows.get(0).request().issuedBy());
+        assertNull(rows.get(0).request().middleName());
+        assertEquals(LocalDate.of(2015, 1, 1), rows.get(0).request().issueDate());
+    }
+
+    @Test
+    @DisplayName("CSV: строки с неверным числом значений, незакрытой кавычкой или датой отклоняются по отдельности")
+    void csv_ReportsMalformedRows() throws IOException {
+        List<RegistrationRow> rows = readAll(RegistrationRowReader.TEXT_CSV, """
+                mobilePhone,issueDate
+                79991234567
+                "79991234567,2015-01-01
+                79991234567,01.01.2015
+                79991234568,2015-01-01
+                """);
+
+        assertEquals(4, rows.size());
+        assertTrue(rows.get(0).error().contains("expected 2 values, found 1"));
+        assertTrue(rows.get(1).error().contains("unterminated quoted value"));
+        assertEquals(4, rows.get(2).line());
+        assertNull(rows.get(2).request());
+        assertNull(rows.get(3).error());
+    }
+
+    private List<RegistrationRow> readAll(MediaType format, String content) throws IOException {
+        List<RegistrationRow> rows = new ArrayList<>();
+        try (RegistrationRowReader reader = RegistrationRowReader.open(format,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), objectMapper)) {
+            for (RegistrationRow row = reader.next(); row != null; row = reader.next()) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,117 @@
+package ru.otus.projectwork.user.util.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.otus.projectwork.domain.model.projection.UserAuthorizationProjection;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тестирование AuthorizationInfoCache")
+class AuthorizationInfoCacheTest {
+
+    private static final UUID CLIENT_ID = UUID.randomUUID();
+
+    private static final String PHONE = "79991234567";
+
+    private static final String PASSPORT = "1234567890";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AuthorizationInfoCache cache = new AuthorizationInfoCache(100, Duration.ofMinutes(5), null,
+            meterRegistry);
+
+    private final Map<String, UserAuthorizationProjection> database = new HashMap<>();
+
+    private final List<String> queries = new ArrayList<>();
+
+    @Test
+    @DisplayName("Повторный вход по телефону и паспорту отвечается без базы данных, отсутствующий клиент не кэшируется")
+    void find_RepeatLoginsSkipDatabase() {
+        database.put(PHONE, info("hash-1"));
+        database.put(PASSPORT, info("hash-1"));
+
+        for (int login = 0; login < 3; login++) {
+            assertEquals("hash-1", cache.findByMobilePhone(PHONE, database()).orElseThrow().getPassword());
+            assertEquals("hash-1", cache.findByPassportNumber(PASSPORT, database()).orElseThrow().getPassword());
+            assertTrue(cache.findByMobilePhone("79990000000", database()).isEmpty());
+        }
+
+        assertEquals(List.of(PHONE, PASSPORT, "79990000000", "79990000000", "79990000000"), queries);
+        assertEquals(4, count("local"));
+        assertEquals(5, count("database"));
+    }
+
+    @Test
+    @DisplayName("Сброс по клиенту действует на вход и по телефону, и по паспорту")
+    void invalidate_ReloadsAllPrincipalsOfClient() {
+        database.put(PHONE, info("hash-1"));
+        database.put(PASSPORT, info("hash-1"));
+        cache.findByMobilePhone(PHONE, database());
+        cache.findByPassportNumber(PASSPORT, database());
+
+        database.put(PHONE, info("hash-2"));
+        database.put(PASSPORT, info("hash-2"));
+        cache.invalidate(CLIENT_ID);
+
+        assertEquals("hash-2", cache.findByMobilePhone(PHONE, database()).orElseThrow().getPassword());
+        assertEquals("hash-2", cache.findByPassportNumber(PASSPORT, database()).orElseThrow().getPassword());
+        // Данные клиента, перечитанные при входе по телефону, отвечают и на вход по паспорту
+        assertEquals(List.of(PHONE, PASSPORT, PHONE), queries);
+    }
+
+    @Test
+    @DisplayName("Данные, прочитанные до сброса, не сохраняются в кэш")
+    void find_InvalidatedDuringLookup_DoesNotCacheStaleInfo() {
+        database.put(PHONE, info("hash-1"));
+        Function<String, Optional<UserAuthorizationProjection>> changedDuringRead = key -> {
+            Optional<UserAuthorizationProjection> read = database().apply(key);
+            database.put(PHONE, info("hash-2"));
+            cache.invalidate(CLIENT_ID);
+            return read;
+        };
+
+        assertEquals("hash-1", cache.findByMobilePhone(PHONE, changedDuringRead).orElseThrow().getPassword());
+
+        assertEquals("hash-2", cache.findByMobilePhone(PHONE, database()).orElseThrow().getPassword());
+        assertEquals(2, count("database"));
+    }
+
+    @Test
+    @DisplayName("Отключенный кэш передает все запросы в базу данных")
+    void disabled_AlwaysQueriesDatabase() {
+        database.put(PHONE, info("hash-1"));
+        AuthorizationInfoCache disabled = AuthorizationInfoCache.disabled();
+
+        disabled.findByMobilePhone(PHONE, database());
+        disabled.findByMobilePhone(PHONE, database());
+        disabled.invalidate(CLIENT_ID);
+
+        assertEquals(List.of(PHONE, PHONE), queries);
+    }
+
+    private Function<String, Optional<UserAuthorizationProjection>> database() {
+        return key -> {
+            queries.add(key);
+            return Optional.ofNullable(database.get(key));
+        };
+    }
+
+    private double count(String source) {
+        return meterRegistry.counter("authorization.info.lookups", "source", source).count();
+    }
+
+    private static UserAuthorizationProjection info(String password) {
+        return new CachedAuthorizationInfo(CLIENT_ID, "Иван", "Иванов", password);
+    }
+}
@@ -0,0 +1,138 @@
+package ru.otus.projectwork.user.util.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.otus.projectwork.domain.model.projection.UserAuthorizationProjection;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Тестирование RedisAuthorizationInfoStore")
+class RedisAuthorizationInfoStoreTest {
+
+    private static final UUID CLIENT_ID = UUID.randomUUID();
+
+    private static final String PHONE = "79991234567";
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void setUp() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    @DisplayName("Экземпляры делят данные авторизации, сброс на одном экземпляре сбрасывает кэш всех")
+    void invalidate_PropagatesToAllInstances() throws Exception {
+        AtomicReference<String> password = new AtomicReference<>("hash-1");
+        AtomicInteger queries = new AtomicInteger();
+        Function<String, Optional<UserAuthorizationProjection>> database = key -> {
+            queries.incrementAndGet();
+            return Optional.of(new CachedAuthorizationInfo(CLIENT_ID, "Иван", "Иванов", password.get()));
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        try (AuthorizationInfoCache first = cache(meterRegistry);
+             AuthorizationInfoCache second = cache(meterRegistry)) {
+            first.findByMobilePhone(PHONE, database);
+            assertEquals("hash-1", second.findByMobilePhone(PHONE, database).orElseThrow().getPassword());
+            assertEquals(1, queries.get());
+            assertEquals(1, meterRegistry.counter("authorization.info.lookups", "source", "redis").count());
+
+            password.set("hash-2");
+            first.invalidate(CLIENT_ID);
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            String seen;
+            do {
+                seen = second.findByMobilePhone(PHONE, database).orElseThrow().getPassword();
+            } while (!seen.equals("hash-2") && System.currentTimeMillis() < deadline);
+            assertEquals("hash-2", seen);
+            assertTrue(queries.get() >= 2);
+        }
+    }
+
+    @Test
+    @DisplayName("Запись данных, прочитанных до сброса на другом экземпляре, отбрасывается, новая запись живет ttl")
+    void put_AfterConcurrentInvalidate_IsDropped() {
+        RedisAuthorizationInfoStore reader = new RedisAuthorizationInfoStore(redisTemplate, Duration.ofMinutes(5));
+        RedisAuthorizationInfoStore writer = new RedisAuthorizationInfoStore(redisTemplate, Duration.ofMinutes(5));
+        UUID clientId = UUID.randomUUID();
+        String principal = "phone:79990000001";
+
+        long staleVersion = reader.readVersion();
+        writer.invalidate(clientId);
+
+        assertFalse(reader.put(principal, new CachedAuthorizationInfo(clientId, "Иван", "Иванов", "hash-1"),
+                staleVersion));
+        assertNull(reader.get(principal));
+
+        assertTrue(reader.put(principal, new CachedAuthorizationInfo(clientId, "Иван", "Иванов", "hash-2"),
+                reader.readVersion()));
+        assertEquals("hash-2", reader.get(principal).getPassword());
+        assertTrue(redisTemplate.getExpire("auth-info:client:" + clientId) > 0);
+        assertTrue(redisTemplate.getExpire("auth-info:principal:" + principal) > 0);
+    }
+
+    @Test
+    @DisplayName("Сброс на другом экземпляре во время запроса к базе данных не оставляет старые данные в Redis")
+    void find_InvalidatedOnOtherInstanceDuringLookup_DoesNotShareStaleInfo() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        String phone = "79990000002";
+        AtomicReference<String> password = new AtomicReference<>("hash-1");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        try (AuthorizationInfoCache first = cache(meterRegistry);
+             AuthorizationInfoCache second = cache(meterRegistry)) {
+            Function<String, Optional<UserAuthorizationProjection>> changedDuringRead = key -> {
+                CachedAuthorizationInfo read = new CachedAuthorizationInfo(clientId, "Иван", "Иванов", password.get());
+                password.set("hash-2");
+                second.invalidate(clientId);
+                return Optional.of(read);
+            };
+            Function<String, Optional<UserAuthorizationProjection>> database = key ->
+                    Optional.of(new CachedAuthorizationInfo(clientId, "Иван", "Иванов", password.get()));
+
+            assertEquals("hash-1", first.findByMobilePhone(phone, changedDuringRead).orElseThrow().getPassword());
+
+            assertEquals("hash-2", second.findByMobilePhone(phone, database).orElseThrow().getPassword());
+        }
+    }
+
+    private static AuthorizationInfoCache cache(SimpleMeterRegistry meterRegistry) {
+        return new AuthorizationInfoCache(100, Duration.ofMinutes(5),
+                new RedisAuthorizationInfoStore(redisTemplate, Duration.ofMinutes(5)), meterRegistry);
+    }
+}
@@ -0,0 +1,105 @@
+package ru.otus.projectwork.user.util.otp;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Тестирование InMemoryOtpStore")
+class InMemoryOtpStoreTest {
+
+    private static final String PHONE = "79991234567";
+
+    private static final String OTP = "123456";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final Duration TICK = Duration.ofSeconds(1);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final InMemoryOtpStore store = new InMemoryOtpStore(TICK, 8, clock::get, null);
+
+    @Test
+    @DisplayName("Учитывает неудачные попытки и удаляет код после совпадения")
+    void check_CountsAttemptsAndDeletesOnMatch() {
+        store.save(PHONE, OTP, Duration.ofSeconds(120));
+
+        assertEquals(OtpCheckResult.MISMATCHED, store.check(PHONE, "000000", MAX_ATTEMPTS));
+        assertEquals(OtpCheckResult.MATCHED, store.check(PHONE, OTP, MAX_ATTEMPTS));
+        assertEquals(OtpCheckResult.NOT_FOUND, store.check(PHONE, OTP, MAX_ATTEMPTS));
+    }
+
+    @Test
+    @DisplayName("Отклоняет проверку после исчерпания попыток, новый код сбрасывает попытки")
+    void check_RejectsAfterMaxAttempts() {
+        store.save(PHONE, OTP, Duration.ofSeconds(120));
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            assertEquals(OtpCheckResult.MISMATCHED, store.check(PHONE, "000000", MAX_ATTEMPTS));
+        }
+
+        assertEquals(OtpCheckResult.ATTEMPTS_EXCEEDED, store.check(PHONE, OTP, MAX_ATTEMPTS));
+
+        store.save(PHONE, "654321", Duration.ofSeconds(120));
+        assertEquals(OtpCheckResult.MATCHED, store.check(PHONE, "654321", MAX_ATTEMPTS));
+    }
+
+    @Test
+    @DisplayName("Колесо таймеров удаляет истекшие коды, в том числе со сроком больше оборота колеса")
+    void expire_RemovesExpiredCodes() {
+        store.save(PHONE, OTP, Duration.ofSeconds(3));
+        store.save("79990000000", OTP, Duration.ofSeconds(20));
+
+        advance(Duration.ofSeconds(3));
+        assertEquals(1, store.size());
+        assertEquals(OtpCheckResult.NOT_FOUND, store.check(PHONE, OTP, MAX_ATTEMPTS));
+
+        advance(Duration.ofSeconds(16));
+        assertEquals(1, store.size());
+        assertEquals(OtpCheckResult.MISMATCHED, store.check("79990000000", "000000", MAX_ATTEMPTS));
+
+        advance(Duration.ofSeconds(1));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Параллельные запросы не могут превысить допустимое количество попыток")
+    void check_ParallelGuessesCannotExceedMaxAttempts() {
+        store.save(PHONE, OTP, Duration.ofSeconds(120));
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<CompletableFuture<OtpCheckResult>> guesses = IntStream.range(1, 65)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return store.check(PHONE, "%06d".formatted(i), MAX_ATTEMPTS);
+                }))
+                .toList();
+        start.countDown();
+
+        long mismatched = guesses.stream()
+                .map(CompletableFuture::join)
+                .filter(OtpCheckResult.MISMATCHED::equals)
+                .count();
+        assertEquals(MAX_ATTEMPTS, mismatched);
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+        store.expire();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package ru.otus.projectwork.user.util.otp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.otus.projectwork.domain.model.OtpDelivery;
+import ru.otus.projectwork.domain.repository.OtpDeliveryRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Тестирование OtpDeliveryOutbox")
+class OtpDeliveryOutboxTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-01-01T10:00:00Z"), ZoneOffset.UTC);
+
+    private static final LocalDateTime NOW = LocalDateTime.now(CLOCK);
+
+    private static final int BATCH_SIZE = 10;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    private final OtpDeliveryRepository repository = mock(OtpDeliveryRepository.class);
+
+    private final OtpSender sender = mock(OtpSender.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+
+    private final OtpDeliveryOutbox outbox = new OtpDeliveryOutbox(repository, sender, new TransactionOperations() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            inTransaction.set(true);
+            try {
+                TransactionStatus status = new SimpleTransactionStatus();
+                return action.doInTransaction(status);
+            } finally {
+                inTransaction.set(false);
+            }
+        }
+    }, CLOCK, meterRegistry, BATCH_SIZE, Duration.ofSeconds(1), Duration.ofSeconds(3), MAX_ATTEMPTS, LEASE, null);
+
+    @Test
+    @DisplayName("Запрос на отправку создается со сроком действия кода и временем отправки - сейчас")
+    void enqueue_SavesDueDelivery() {
+        outbox.enqueue("79991234567", "123456", Duration.ofSeconds(120));
+
+        verify(repository).save(argThat(delivery ->
+                delivery.getMobilePhone().equals("79991234567")
+                        && delivery.getOtpCode().equals("123456")
+                        && delivery.getNextAttemptAt().equals(NOW)
+                        && delivery.getExpiresAt().equals(NOW.plusSeconds(120))));
+    }
+
+    @Test
+    @DisplayName("Запросы забираются в аренду и отправляются вне транзакции")
+    void dispatchBatch_LeasesBatchAndSendsOutsideTransaction() {
+        OtpDelivery delivery = delivery(0);
+        when(repository.lockDue(NOW, BATCH_SIZE)).thenReturn(List.of(delivery));
+        when(sender.send(any())).thenAnswer(invocation -> {
+            assertFalse(inTransaction.get());
+            assertEquals(1, delivery.getAttempts());
+            assertEquals(NOW.plus(LEASE), delivery.getNextAttemptAt());
+            return Set.of(delivery.getId());
+        });
+
+        assertEquals(1, outbox.dispatchBatch());
+
+        verify(sender).send(List.of(delivery));
+        verify(repository).deleteAllByIdInBatch(List.of(delivery.getId()));
+    }
+
+    @Test
+    @DisplayName("Доставленные запросы удаляются, недоставленные откладываются с растущей задержкой")
+    void dispatchBatch_DeletesDeliveredAndRetriesRest() {
+        OtpDelivery delivered = delivery(0);
+        OtpDelivery firstFailure = delivery(0);
+        OtpDelivery secondFailure = delivery(1);
+        when(repository.lockDue(NOW, BATCH_SIZE)).thenReturn(List.of(delivered, firstFailure, secondFailure));
+        when(sender.send(any())).thenReturn(Set.of(delivered.getId()));
+
+        assertEquals(3, outbox.dispatchBatch());
+
+        verify(repository).deleteAllByIdInBatch(List.of(delivered.getId()));
+        verify(repository).reschedule(List.of(firstFailure.getId()), NOW.plusSeconds(1));
+        verify(repository).reschedule(List.of(secondFailure.getId()), NOW.plusSeconds(2));
+        assertEquals(1, count("sent"));
+        assertEquals(2, count("retried"));
+    }
+
+    @Test
+    @DisplayName("Задержка ограничена сверху, после последней попытки запрос удаляется")
+    void dispatchBatch_CapsBackoffAndDropsAfterMaxAttempts() {
+        OtpDelivery capped = delivery(MAX_ATTEMPTS - 2);
+        OtpDelivery exhausted = delivery(MAX_ATTEMPTS - 1);
+        when(repository.lockDue(NOW, BATCH_SIZE)).thenReturn(List.of(capped, exhausted));
+        when(sender.send(any())).thenThrow(new IllegalStateException("gateway unavailable"));
+
+        outbox.dispatchBatch();
+
+        verify(repository).reschedule(List.of(capped.getId()), NOW.plusSeconds(2));
+        verify(repository).deleteAllByIdInBatch(List.of(exhausted.getId()));
+        assertEquals(1, count("dropped"));
+    }
+
+    @Test
+    @DisplayName("Запрос, аренда которого истекла после последней попытки, удаляется без отправки")
+    void dispatchBatch_DropsExhaustedLeaseWithoutSending() {
+        OtpDelivery exhausted = delivery(MAX_ATTEMPTS);
+        when(repository.lockDue(NOW, BATCH_SIZE)).thenReturn(List.of(exhausted));
+
+        outbox.dispatchBatch();
+
+        verify(sender, never()).send(any());
+        verify(repository).deleteAllByIdInBatch(List.of(exhausted.getId()));
+        assertEquals(1, count("dropped"));
+    }
+
+    @Test
+    @DisplayName("Истекший код не отправляется")
+    void dispatchBatch_DropsExpiredWithoutSending() {
+        OtpDelivery expired = delivery(0);
+        expired.setExpiresAt(NOW);
+        when(repository.lockDue(NOW, BATCH_SIZE)).thenReturn(List.of(expired));
+
+        outbox.dispatchBatch();
+
+        verify(sender, never()).send(any());
+        verify(repository).deleteAllByIdInBatch(List.of(expired.getId()));
+        assertEquals(1, count("dropped"));
+    }
+
+    @Test
+    @DisplayName("Обход продолжается, пока пачки заполнены целиком")
+    void drain_RepeatsWhileBatchIsFull() {
+        List<OtpDelivery> fullBatch = Stream.generate(() -> delivery(0)).limit(BATCH_SIZE).toList();
+        when(repository.lockDue(any(), anyInt())).thenReturn(fullBatch, List.of());
+        when(sender.send(any())).thenAnswer(invocation -> {
+            List<OtpDelivery> batch = invocation.getArgument(0);
+            return Set.copyOf(batch.stream().map(OtpDelivery::getId).toList());
+        });
+
+        outbox.drain();
+
+        verify(repository, times(2)).lockDue(NOW, BATCH_SIZE);
+        assertEquals(BATCH_SIZE, count("sent"));
+    }
+
+    private OtpDelivery delivery(int attempts) {
+        return OtpDelivery.builder()
+                .id(UUID.randomUUID())
+                .mobilePhone("79991234567")
+                .otpCode("123456")
+                .attempts(attempts)
+                .nextAttemptAt(NOW)
+                .expiresAt(NOW.plusSeconds(120))
+                .build();
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("otp.delivery", "result", result).count();
+    }
+}
@@ -0,0 +1,125 @@
+package ru.otus.projectwork.user.util.otp;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Тестирование RedisOtpStore")
+class RedisOtpStoreTest {
+
+    private static final String PHONE = "79991234567";
+
+    private static final String OTP = "123456";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static StringRedisTemplate redisTemplate;
+
+    private static RedisOtpStore otpStore;
+
+    @BeforeAll
+    static void setUp() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        otpStore = new RedisOtpStore(redisTemplate);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    @DisplayName("Учитывает неудачные попытки, не продлевая срок действия, и удаляет код после совпадения")
+    void check_CountsAttemptsAndDeletesOnMatch() {
+        otpStore.save(PHONE, OTP, Duration.ofSeconds(120));
+        Long ttl = redisTemplate.getExpire("otp:" + PHONE);
+
+        assertEquals(OtpCheckResult.MISMATCHED, otpStore.check(PHONE, "000000", MAX_ATTEMPTS));
+        assertEquals("1", redisTemplate.opsForHash().get("otp:" + PHONE, "attempts"));
+        assertTrue(redisTemplate.getExpire("otp:" + PHONE) <= ttl);
+
+        assertEquals(OtpCheckResult.MATCHED, otpStore.check(PHONE, OTP, MAX_ATTEMPTS));
+        assertEquals(OtpCheckResult.NOT_FOUND, otpStore.check(PHONE, OTP, MAX_ATTEMPTS));
+    }
+
+    @Test
+    @DisplayName("Параллельные запросы не могут превысить допустимое количество попыток")
+    void check_ParallelGuessesCannotExceedMaxAttempts() throws Exception {
+        otpStore.save(PHONE, OTP, Duration.ofSeconds(120));
+        int guesses = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Callable<OtpCheckResult>> tasks = IntStream.range(0, guesses)
+                    .<Callable<OtpCheckResult>>mapToObj(i -> () -> {
+                        start.await();
+                        return otpStore.check(PHONE, "%06d".formatted(i == 0 ? 999999 : i), MAX_ATTEMPTS);
+                    })
+                    .toList();
+            List<Future<OtpCheckResult>> futures = tasks.stream().map(executor::submit).toList();
+            start.countDown();
+
+            Map<OtpCheckResult, Long> results = futures.stream()
+                    .map(RedisOtpStoreTest::get)
+                    .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+            assertEquals(MAX_ATTEMPTS, results.get(OtpCheckResult.MISMATCHED));
+            assertEquals(guesses - MAX_ATTEMPTS, results.get(OtpCheckResult.ATTEMPTS_EXCEEDED));
+            assertEquals(OtpCheckResult.ATTEMPTS_EXCEEDED, otpStore.check(PHONE, OTP, MAX_ATTEMPTS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Новый код сбрасывает количество попыток")
+    void save_ResetsAttempts() {
+        otpStore.save(PHONE, OTP, Duration.ofSeconds(120));
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            otpStore.check(PHONE, "000000", MAX_ATTEMPTS);
+        }
+
+        otpStore.save(PHONE, "654321", Duration.ofSeconds(120));
+
+        assertEquals(OtpCheckResult.MATCHED, otpStore.check(PHONE, "654321", MAX_ATTEMPTS));
+    }
+
+    private static <T> T get(Future<T> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
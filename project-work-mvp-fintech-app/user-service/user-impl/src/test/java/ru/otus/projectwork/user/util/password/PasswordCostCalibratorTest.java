@@ -0,0 +1,46 @@
+package ru.otus.projectwork.user.util.password;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Тестирование PasswordCostCalibrator")
+class PasswordCostCalibratorTest {
+
+    @Test
+    @DisplayName("Выбирает наибольшую стоимость, укладывающуюся в бюджет")
+    void calibrate_PicksHighestCostWithinBudget() {
+        assertEquals(4, PasswordCostCalibrator.calibrate(this::sleepingEncoder, 1, 10, Duration.ofMillis(90)));
+    }
+
+    @Test
+    @DisplayName("Не опускает стоимость ниже минимальной и не поднимает выше максимальной")
+    void calibrate_KeepsCostWithinBounds() {
+        assertEquals(7, PasswordCostCalibrator.calibrate(this::sleepingEncoder, 7, 10, Duration.ofMillis(90)));
+        assertEquals(2, PasswordCostCalibrator.calibrate(this::sleepingEncoder, 1, 2, Duration.ofMillis(90)));
+    }
+
+    /**
+     * Кодировщик, хеширующий {@code cost * 20} мс.
+     */
+    private PasswordEncoder sleepingEncoder(int cost) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(cost * 20L));
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+}